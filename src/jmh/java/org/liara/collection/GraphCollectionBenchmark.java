@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection;
+
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.TableSource;
+import org.liara.data.graph.Graph;
+import org.liara.data.graph.builder.StaticGraphBuilder;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.ExpressionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the derivation of collections by successive calls to addFilter, orderBy and select.
+ *
+ * Each derivation copies the state of the collection, the cost of a chain of derivations is expected to grow linearly
+ * with its length as long as the operator containers are shared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphCollectionBenchmark
+{
+  private static final String[] COLUMNS = {"identifier", "sensor", "value", "name"};
+
+  @Param({"1", "10", "100"})
+  public int operators;
+
+  private GraphCollection _collection;
+
+  private Filter[] _filters;
+
+  private Order[] _orders;
+
+  private Select[] _selects;
+
+  @Setup
+  public void setup () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder();
+
+    builder.table("readings")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("sensor").ofType(Primitives.INTEGER)
+           .column("value").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable();
+
+    final Graph graph = builder.build();
+    final TableSource source = Source.from(graph.getTable("readings"));
+    final ExpressionFactory factory = new ExpressionFactory();
+
+    _collection = new GraphCollection(source);
+    _filters = new Filter[operators];
+    _orders = new Order[operators];
+    _selects = new Select[operators];
+
+    for (int index = 0; index < operators; ++index) {
+      final String column = COLUMNS[index % COLUMNS.length];
+
+      _filters[index] = Filter.expression(
+        factory.greaterThan(source.getOwnPlaceholder(Primitives.INTEGER, "value"), factory.nonnull(index))
+      );
+      _orders[index] = Order.expression(source.getOwnPlaceholder(column));
+      _selects[index] = Select.expression(source.getOwnPlaceholder(column), column + "_" + index);
+    }
+  }
+
+  @Benchmark
+  public GraphCollection addFilter () {
+    GraphCollection result = _collection;
+
+    for (final Filter filter : _filters) {
+      result = result.addFilter(filter);
+    }
+
+    return result;
+  }
+
+  @Benchmark
+  public GraphCollection orderBy () {
+    GraphCollection result = _collection;
+
+    for (final Order order : _orders) {
+      result = result.orderBy(order);
+    }
+
+    return result;
+  }
+
+  @Benchmark
+  public GraphCollection select () {
+    GraphCollection result = _collection;
+
+    for (final Select select : _selects) {
+      result = result.select(select);
+    }
+
+    return result;
+  }
+}
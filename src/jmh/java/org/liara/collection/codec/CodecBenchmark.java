@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.expression.OperationType;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.ordering.ExpressionOrder;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.TableSource;
+import org.liara.collection.source.TableSourcePlaceholder;
+import org.liara.data.graph.Graph;
+import org.liara.data.graph.builder.StaticGraphBuilder;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.Constant;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the binary codec to a JSON document of the same collection written with the Jackson streaming generator.
+ *
+ * The JSON decoding baseline only parses the document into a tree, which is a lower bound of the cost of a JSON
+ * decoder of collections. Encoded sizes are reported as auxiliary counters of the encoded sizes benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark
+{
+  private final ExpressionFactory _factory = new ExpressionFactory();
+
+  private final JsonFactory _jsonFactory = new JsonFactory();
+
+  private final ObjectMapper _mapper = new ObjectMapper();
+
+  private CollectionEncoder _encoder;
+
+  private CollectionDecoder _decoder;
+
+  private GraphCollection _collection;
+
+  private ByteBuffer _binary;
+
+  private byte[] _json;
+
+  @Setup
+  public void setup () throws IOException {
+    final StaticGraphBuilder builder = new StaticGraphBuilder();
+
+    builder.table("readings")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("sensor").ofType(Primitives.INTEGER)
+           .column("value").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable();
+
+    final Graph graph = builder.build();
+    final TableSource source = Source.from(graph.getTable("readings"));
+    GraphCollection collection = new GraphCollection(source);
+
+    for (int index = 0; index < 10; ++index) {
+      collection = collection.addFilter(Filter.expression(
+        _factory.greaterThan(source.getOwnPlaceholder(Primitives.INTEGER, "value"), _factory.nonnull(index))
+      ));
+    }
+
+    for (final String column : new String[] {"sensor", "value", "identifier", "name"}) {
+      collection = collection.orderBy(Order.expression(source.getOwnPlaceholder(column)));
+      collection = collection.select(Select.expression(source.getOwnPlaceholder(column), column));
+    }
+
+    _collection = collection;
+    _encoder = new CollectionEncoder();
+    _decoder = new CollectionDecoder(graph);
+    _binary = _encoder.encode(_collection);
+    _json = encodeJSON();
+  }
+
+  /**
+   * Sizes, in bytes, of the last documents encoded by the encoded sizes benchmark.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedSizes
+  {
+    public long binaryBytes;
+
+    public long jsonBytes;
+  }
+
+  @Benchmark
+  public void encodedSizes (final EncodedSizes sizes) throws IOException {
+    sizes.binaryBytes = _encoder.encode(_collection).remaining();
+    sizes.jsonBytes = encodeJSON().length;
+  }
+
+  @Benchmark
+  public ByteBuffer encodeBinary () {
+    return _encoder.encode(_collection);
+  }
+
+  @Benchmark
+  public GraphCollection decodeBinary () {
+    return _decoder.decodeCollection(_binary.duplicate());
+  }
+
+  @Benchmark
+  public byte[] encodeJSON () throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (final JsonGenerator generator = _jsonFactory.createGenerator(output)) {
+      generator.writeStartObject();
+      generator.writeStringField("source", _collection.getSource().getName());
+
+      generator.writeArrayFieldStart("filters");
+      for (final Filter filter : _collection.getFilters()) writeExpression(generator, filter.getExpression());
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("orderings");
+      for (final Order order : _collection.getOrderings()) {
+        generator.writeStartObject();
+        generator.writeStringField("direction", ((ExpressionOrder) order).getDirection().name());
+        generator.writeFieldName("expression");
+        writeExpression(generator, order.getExpression());
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("selections");
+      for (final Select<?> select : _collection.getSelections()) {
+        generator.writeStartObject();
+        generator.writeStringField("name", select.getName());
+        generator.writeFieldName("expression");
+        writeExpression(generator, select.getExpression());
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+
+      generator.writeNumberField("offset", _collection.getCursor().getOffset());
+      generator.writeNumberField("limit", _collection.getCursor().getLimit());
+      generator.writeEndObject();
+    }
+
+    return output.toByteArray();
+  }
+
+  @Benchmark
+  public JsonNode decodeJSON () throws IOException {
+    return _mapper.readTree(_json);
+  }
+
+  private void writeExpression (final JsonGenerator generator, final Expression<?> expression) throws IOException {
+    generator.writeStartObject();
+
+    if (expression instanceof TableSourcePlaceholder) {
+      final TableSourcePlaceholder<?> placeholder = (TableSourcePlaceholder<?>) expression;
+      generator.writeStringField("source", placeholder.getSource().getName());
+      generator.writeStringField("column", placeholder.getColumn().getName());
+    } else if (expression instanceof Constant) {
+      generator.writeObjectField("value", ((Constant<?>) expression).getValue());
+    } else {
+      generator.writeStringField("operation", OperationType.of(_factory, expression).get().name());
+      generator.writeArrayFieldStart("operands");
+      for (final Expression<?> operand : OperationType.getOperands(expression)) writeExpression(generator, operand);
+      generator.writeEndArray();
+    }
+
+    generator.writeEndObject();
+  }
+}
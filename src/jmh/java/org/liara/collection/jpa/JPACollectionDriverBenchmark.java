@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.jpa;
+
+import org.liara.collection.GraphCollection;
+import org.liara.collection.operator.cursoring.Cursor;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.grouping.Group;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.source.GraphSource;
+import org.liara.collection.source.JoinSource;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.TableSource;
+import org.liara.data.graph.Graph;
+import org.liara.data.graph.builder.StaticGraphBuilder;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the rendering of JPA queries for a typical collection and for a pathological one.
+ *
+ * The typical collection joins two tables and has a few filters, orderings and selections. The pathological one joins
+ * ten tables and has a hundred filters made of ten alternatives each, fifty orderings, fifty selections and five
+ * groups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JPACollectionDriverBenchmark
+{
+  private static final int COLUMNS = 10;
+
+  @Param({"typical", "pathological"})
+  public String shape;
+
+  private final ExpressionFactory _factory = new ExpressionFactory();
+
+  private JPACollectionDriver _driver;
+
+  private GraphCollection _collection;
+
+  @Setup
+  public void setup () {
+    final boolean pathological = "pathological".equals(shape);
+    final int tables = pathological ? 10 : 2;
+    final StaticGraphBuilder builder = new StaticGraphBuilder();
+
+    for (int table = 0; table < tables; ++table) {
+      var tableBuilder = builder.table("table_" + table);
+
+      for (int column = 0; column < COLUMNS; ++column) {
+        tableBuilder = tableBuilder.column("column_" + column).ofType(Primitives.INTEGER);
+      }
+
+      tableBuilder.endTable();
+    }
+
+    final Graph graph = builder.build();
+    final TableSource root = Source.from(graph.getTable("table_0"));
+    GraphSource source = root;
+
+    for (int table = 1; table < tables; ++table) {
+      final TableSource joined = Source.from(graph.getTable("table_" + table));
+
+      source = JoinSource.inner(
+        source, joined, _factory.equal(root.getOwnPlaceholder(table % COLUMNS), joined.getOwnPlaceholder(0))
+      );
+    }
+
+    GraphCollection collection = new GraphCollection(source);
+
+    final int filters = pathological ? 100 : 3;
+    final int alternatives = pathological ? 10 : 1;
+
+    for (int filter = 0; filter < filters; ++filter) {
+      final List<Expression<Boolean>> comparisons = new ArrayList<>(alternatives);
+
+      for (int alternative = 0; alternative < alternatives; ++alternative) {
+        comparisons.add(_factory.greaterThan(
+          getPlaceholder(source, filter + alternative), _factory.nonnull(filter * alternatives + alternative)
+        ));
+      }
+
+      Expression<Boolean> predicate = comparisons.get(0);
+
+      for (int alternative = 1; alternative < alternatives; ++alternative) {
+        predicate = _factory.or(predicate, comparisons.get(alternative));
+      }
+
+      collection = collection.addFilter(Filter.expression(predicate));
+    }
+
+    for (int order = 0, orders = pathological ? 50 : 2; order < orders; ++order) {
+      collection = collection.orderBy(Order.expression(getPlaceholder(source, order)));
+    }
+
+    for (int select = 0, selects = pathological ? 50 : 3; select < selects; ++select) {
+      collection = collection.select(Select.expression(getPlaceholder(source, select), "select_" + select));
+    }
+
+    for (int group = 0, groups = pathological ? 5 : 0; group < groups; ++group) {
+      collection = collection.groupBy(Group.expression(getPlaceholder(source, group)));
+    }
+
+    _collection = collection.setCursor(new Cursor(20, 10));
+    _driver = new JPACollectionDriver();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Expression<Integer> getPlaceholder (final GraphSource source, final int index) {
+    return (Expression<Integer>) source.getPlaceholders().get(index % source.getPlaceholders().getSize());
+  }
+
+  @Benchmark
+  public String getQuery () {
+    return _driver.getQuery(_collection);
+  }
+}
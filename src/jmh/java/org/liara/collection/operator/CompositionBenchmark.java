@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator;
+
+import org.liara.collection.Collection;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.operator.cursoring.Cursor;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.TableSource;
+import org.liara.data.graph.Graph;
+import org.liara.data.graph.builder.StaticGraphBuilder;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.ExpressionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the fused application of a composition of operators to the application of each operator one after
+ * another. Compositions are made of blocks of twenty operators. Run with the gc profiler to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositionBenchmark
+{
+  @Param({"1", "10", "100"})
+  public int blocks;
+
+  private GraphCollection _collection;
+
+  private Composition _composition;
+
+  private Operator[] _operators;
+
+  @Setup
+  public void setup () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder();
+
+    builder.table("readings")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("sensor").ofType(Primitives.INTEGER)
+           .column("value").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable();
+
+    final Graph graph = builder.build();
+    final TableSource source = Source.from(graph.getTable("readings"));
+    final ExpressionFactory factory = new ExpressionFactory();
+    final List<Operator> operators = new ArrayList<>();
+
+    for (int block = 0; block < blocks; ++block) {
+      for (int index = 0; index < 10; ++index) {
+        operators.add(Filter.expression(factory.greaterThan(
+          source.getOwnPlaceholder(Primitives.INTEGER, "value"), factory.nonnull(block * 10 + index)
+        )));
+      }
+
+      for (final String column : new String[] {"sensor", "value", "identifier", "name", "sensor"}) {
+        operators.add(Order.expression(source.getOwnPlaceholder(column)));
+      }
+
+      for (final String column : new String[] {"identifier", "sensor", "value", "name"}) {
+        operators.add(Select.expression(source.getOwnPlaceholder(column), column + "_" + block));
+      }
+
+      operators.add(new Cursor(20, 10));
+    }
+
+    _collection = new GraphCollection(source);
+    _composition = new Composition(operators);
+    _operators = _composition.getOperators();
+  }
+
+  @Benchmark
+  public Collection fused () {
+    return _composition.apply(_collection);
+  }
+
+  @Benchmark
+  public Collection sequential () {
+    Collection result = _collection;
+
+    for (int index = _operators.length - 1; index >= 0; --index) {
+      result = _operators[index].apply(result);
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning;
+
+import org.liara.collection.source.GraphSource;
+import org.liara.collection.source.JoinSource;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.TableSource;
+import org.liara.data.graph.Column;
+import org.liara.data.graph.Graph;
+import org.liara.data.graph.Table;
+import org.liara.data.graph.builder.StaticGraphBuilder;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.ExpressionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the execution of a chain of inner joins over skewed data in the order of its declaration and in the order
+ * chosen by the reorderer.
+ *
+ * Each fact is joined to three tables : "events", that contains many rows for a few frequent keys, "users", that
+ * contains exactly one row per key, and "flags", that matches a few facts. The chain is declared in that order, which
+ * multiplies the facts before filtering them. The chain is executed by hash joins over the generated columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JoinReordererBenchmark
+{
+  private static final String[] TABLES = {"events", "users", "flags"};
+
+  private static final int[] ROWS = {100000, 10000, 50};
+
+  private static final int[] KEYS = {1000, 10000, 10000};
+
+  @Param({"1000", "10000"})
+  public int facts;
+
+  private final ExpressionFactory _factory = new ExpressionFactory();
+
+  /**
+   * Number of rows of each joined table for each key.
+   */
+  private int[][] _counts;
+
+  /**
+   * Key of each fact for each joined table.
+   */
+  private int[][] _keys;
+
+  private JoinReorderer _reorderer;
+
+  private JoinSource _declared;
+
+  private JoinSource _reordered;
+
+  @Setup
+  public void setup () {
+    final Random random = new Random(42);
+    final StaticGraphBuilder builder = new StaticGraphBuilder();
+
+    var factsBuilder = builder.table("facts").column("identifier").ofType(Primitives.INTEGER);
+
+    for (final String table : TABLES) {
+      factsBuilder = factsBuilder.column(table + "_identifier").ofType(Primitives.INTEGER);
+    }
+
+    factsBuilder.endTable();
+
+    for (final String table : TABLES) {
+      builder.table(table).column("identifier").ofType(Primitives.INTEGER).endTable();
+    }
+
+    final Graph graph = builder.build();
+
+    _counts = new int[TABLES.length][];
+    _keys = new int[TABLES.length][facts];
+
+    final Map<String, Long> rows = new HashMap<>();
+    final Map<String, Long> distincts = new HashMap<>();
+
+    rows.put("facts", (long) facts);
+    distincts.put("facts.identifier", (long) facts);
+
+    for (int table = 0; table < TABLES.length; ++table) {
+      _counts[table] = new int[KEYS[table]];
+
+      for (int row = 0; row < ROWS[table]; ++row) {
+        _counts[table][getKey(random, table, row)] += 1;
+      }
+
+      final Set<Integer> keys = new HashSet<>();
+
+      for (int fact = 0; fact < facts; ++fact) {
+        _keys[table][fact] = random.nextInt(KEYS[table]);
+        keys.add(_keys[table][fact]);
+      }
+
+      int distinct = 0;
+      for (final int count : _counts[table]) distinct += (count > 0) ? 1 : 0;
+
+      rows.put(TABLES[table], (long) ROWS[table]);
+      distincts.put(TABLES[table] + ".identifier", (long) distinct);
+      distincts.put("facts." + TABLES[table] + "_identifier", (long) keys.size());
+    }
+
+    _reorderer = new JoinReorderer(new TableStatistics() {
+      @Override
+      public long getRowCount (final Table table) {
+        return rows.get(table.getName());
+      }
+
+      @Override
+      public long getDistinctCount (final Column<?> column) {
+        return distincts.get(column.getTable().getName() + "." + column.getName());
+      }
+    });
+
+    final TableSource root = Source.from(graph.getTable("facts"));
+    GraphSource chain = root;
+
+    for (final String table : TABLES) {
+      final TableSource joined = Source.from(graph.getTable(table));
+
+      chain = JoinSource.inner(
+        chain,
+        joined,
+        _factory.equal(root.getOwnPlaceholder(table + "_identifier"), joined.getOwnPlaceholder("identifier"))
+      );
+    }
+
+    _declared = (JoinSource) chain;
+    _reordered = (JoinSource) _reorderer.reorder(chain);
+  }
+
+  /**
+   * Return the key of a row of a table, "events" keys are skewed toward the smallest ones.
+   */
+  private static int getKey (final Random random, final int table, final int row) {
+    return (table == 0) ? (int) (KEYS[table] * Math.pow(random.nextDouble(), 2)) : row % KEYS[table];
+  }
+
+  @Benchmark
+  public GraphSource reorder () {
+    return _reorderer.reorder(_declared);
+  }
+
+  @Benchmark
+  public int executeDeclaredOrder () {
+    return execute(_declared);
+  }
+
+  @Benchmark
+  public int executeReorderedOrder () {
+    return execute(_reordered);
+  }
+
+  /**
+   * Execute a chain of joins and return the number of rows of its result.
+   */
+  private int execute (final JoinSource chain) {
+    final List<JoinSource> joins = new ArrayList<>();
+
+    for (Source current = chain; current instanceof JoinSource; current = ((JoinSource) current).getOrigin()) {
+      joins.add(0, (JoinSource) current);
+    }
+
+    int[] result = new int[facts];
+    int size = facts;
+
+    for (int fact = 0; fact < facts; ++fact) result[fact] = fact;
+
+    for (final JoinSource join : joins) {
+      final int table = indexOf(join.getJoined().getTable().getName());
+      final int[] counts = _counts[table];
+      final int[] keys = _keys[table];
+
+      int nextSize = 0;
+      for (int row = 0; row < size; ++row) nextSize += counts[keys[result[row]]];
+
+      final int[] next = new int[nextSize];
+      int cursor = 0;
+
+      for (int row = 0; row < size; ++row) {
+        for (int match = counts[keys[result[row]]]; match > 0; --match) next[cursor++] = result[row];
+      }
+
+      result = next;
+      size = nextSize;
+    }
+
+    return size;
+  }
+
+  private static int indexOf (final String table) {
+    for (int index = 0; index < TABLES.length; ++index) {
+      if (TABLES[index].equals(table)) return index;
+    }
+
+    throw new IllegalArgumentException("Unable to find the table " + table + " because it is not generated.");
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.source;
+
+import org.liara.data.graph.Graph;
+import org.liara.data.graph.builder.StaticGraphBuilder;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.ExpressionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the construction of table sources and of chains of joins over wide tables, and membership tests against
+ * the last join of a chain.
+ *
+ * The construction time of a chain is expected to grow linearly with its depth and to not depend on the width of its
+ * tables, as placeholders are instantiated on first access. Chains are built from new joins, the lookup of a chain of
+ * canonical joins in the shared source registry is measured separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JoinChainBenchmark
+{
+  @Param({"1", "5", "10", "15"})
+  public int depth;
+
+  @Param({"10", "50", "500"})
+  public int columns;
+
+  private final ExpressionFactory _factory = new ExpressionFactory();
+
+  private TableSource[] _tables;
+
+  private JoinSource _chain;
+
+  @Setup
+  public void setup () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder();
+
+    for (int table = 0; table <= depth; ++table) {
+      var tableBuilder = builder.table("table_" + table);
+
+      for (int column = 0; column < columns; ++column) {
+        tableBuilder = tableBuilder.column("column_" + column).ofType(Primitives.INTEGER);
+      }
+
+      tableBuilder.endTable();
+    }
+
+    final Graph graph = builder.build();
+
+    _tables = new TableSource[depth + 1];
+
+    for (int table = 0; table <= depth; ++table) {
+      _tables[table] = Source.from(graph.getTable("table_" + table));
+    }
+
+    _chain = buildChain();
+  }
+
+  @Benchmark
+  public TableSource buildTableSource () {
+    return new TableSource(_tables[0].getTable());
+  }
+
+  @Benchmark
+  public int buildTableSourcePlaceholders () {
+    return new TableSource(_tables[0].getTable()).getPlaceholders().getSize();
+  }
+
+  @Benchmark
+  public JoinSource buildChain () {
+    GraphSource result = _tables[0];
+
+    for (int table = 1; table <= depth; ++table) {
+      result = new JoinSource(
+        JoinType.INNER_JOIN,
+        result,
+        _tables[table],
+        _factory.equal(_tables[0].getOwnPlaceholder(0), _tables[table].getOwnPlaceholder(0)),
+        _tables[table].getName()
+      );
+    }
+
+    return (JoinSource) result;
+  }
+
+  @Benchmark
+  public JoinSource lookupCanonicalChain () {
+    GraphSource result = _tables[0];
+
+    for (int table = 1; table <= depth; ++table) {
+      result = JoinSource.inner(
+        result,
+        _tables[table],
+        _factory.equal(_tables[0].getOwnPlaceholder(0), _tables[table].getOwnPlaceholder(0))
+      );
+    }
+
+    return (JoinSource) result;
+  }
+
+  @Benchmark
+  public boolean containsRootPlaceholder () {
+    return _chain.contains(_tables[0].getOwnPlaceholder(0));
+  }
+}
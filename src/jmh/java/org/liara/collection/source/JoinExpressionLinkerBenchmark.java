@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.source;
+
+import org.liara.data.graph.Graph;
+import org.liara.data.graph.builder.StaticGraphBuilder;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the linking of join predicates made of a given number of equalities between the columns of the origin and
+ * of the joined table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JoinExpressionLinkerBenchmark
+{
+  @Param({"1", "10", "100"})
+  public int conjuncts;
+
+  private JoinSource _join;
+
+  private Expression<Boolean> _predicate;
+
+  @Setup
+  public void setup () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder();
+
+    for (final String name : new String[] {"origin", "joined"}) {
+      var tableBuilder = builder.table(name);
+
+      for (int column = 0; column < conjuncts; ++column) {
+        tableBuilder = tableBuilder.column("column_" + column).ofType(Primitives.INTEGER);
+      }
+
+      tableBuilder.endTable();
+    }
+
+    final Graph graph = builder.build();
+    final ExpressionFactory factory = new ExpressionFactory();
+    final TableSource origin = Source.from(graph.getTable("origin"));
+    final TableSource joined = Source.from(graph.getTable("joined"));
+    final List<Expression<Boolean>> equalities = new ArrayList<>(conjuncts);
+
+    for (int column = 0; column < conjuncts; ++column) {
+      equalities.add(factory.equal(origin.getOwnPlaceholder(column), joined.getOwnPlaceholder(column)));
+    }
+
+    _predicate = (conjuncts == 1) ? equalities.get(0) : factory.and(equalities);
+    _join = (JoinSource) JoinSource.inner(origin, joined, _predicate);
+  }
+
+  @Benchmark
+  public Expression<Boolean> link () {
+    return JoinExpressionLinker.INSTANCE.link(_join, _predicate);
+  }
+}
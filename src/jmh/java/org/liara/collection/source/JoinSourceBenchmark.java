@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.source;
+
+import org.liara.data.graph.Graph;
+import org.liara.data.graph.builder.StaticGraphBuilder;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the throughput of join construction from a growing number of threads.
+ *
+ * Joins are instantiated directly, the lookup of canonical joins in the shared source registry is measured separately
+ * by the canonical join benchmarks.
+ *
+ * The virtual threads benchmark starts 10 000 virtual threads that each build one join, it requires a runtime that
+ * supports virtual threads and fails otherwise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JoinSourceBenchmark
+{
+  private static final int VIRTUAL_THREADS = 10_000;
+
+  private TableSource _users;
+
+  private TableSource _roles;
+
+  private Expression<Boolean> _predicate;
+
+  private ThreadFactory _virtualThreads;
+
+  @Setup
+  public void setup () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder();
+
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable();
+
+    builder.table("roles")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user_identifier").ofType(Primitives.INTEGER)
+           .endTable();
+
+    final Graph graph = builder.build();
+    final ExpressionFactory factory = new ExpressionFactory();
+
+    _users = Source.from(graph.getTable("users"));
+    _roles = Source.from(graph.getTable("roles"));
+    _predicate = factory.equal(
+      _users.getOwnPlaceholder("identifier"),
+      _roles.getOwnPlaceholder("user_identifier")
+    );
+    _virtualThreads = getVirtualThreadFactory();
+  }
+
+  private static ThreadFactory getVirtualThreadFactory () {
+    try {
+      final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+    } catch (final ReflectiveOperationException exception) {
+      return null;
+    }
+  }
+
+  private GraphSource join () {
+    return new JoinSource(JoinType.INNER_JOIN, _users, _roles, _predicate, _roles.getName());
+  }
+
+  private GraphSource canonicalJoin () {
+    return JoinSource.inner(_users, _roles, _predicate);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public GraphSource join1Thread () {
+    return join();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public GraphSource join8Threads () {
+    return join();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public GraphSource join64Threads () {
+    return join();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public GraphSource canonicalJoin1Thread () {
+    return canonicalJoin();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public GraphSource canonicalJoin8Threads () {
+    return canonicalJoin();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public GraphSource canonicalJoin64Threads () {
+    return canonicalJoin();
+  }
+
+  @Benchmark
+  @Threads(1)
+  @BenchmarkMode(Mode.AverageTime)
+  public void join10kVirtualThreads () throws InterruptedException {
+    if (_virtualThreads == null) {
+      throw new UnsupportedOperationException("Virtual threads are not supported by this runtime.");
+    }
+
+    final Thread[] threads = new Thread[VIRTUAL_THREADS];
+
+    for (int index = 0; index < VIRTUAL_THREADS; ++index) {
+      threads[index] = _virtualThreads.newThread(this::join);
+      threads[index].start();
+    }
+
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+  }
+}
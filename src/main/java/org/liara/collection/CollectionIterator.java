@@ -30,7 +30,7 @@ public interface CollectionIterator
 {
   void get (@NonNull final Object[] buffer);
 
-  @NonNegative int getSize ();
+  @NonNegative long getSize ();
 
   boolean hasNext ();
 
@@ -40,9 +40,9 @@ public interface CollectionIterator
 
   void previous ();
 
-  @NonNegative int getLocation ();
+  @NonNegative long getLocation ();
 
-  void setLocation (@NonNegative final int location);
+  void setLocation (@NonNegative final long location);
 
   void get (@NonNegative final int column, @NonNull final Mutable<?> mutable);
 }
@@ -24,7 +24,6 @@ package org.liara.collection;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
-import org.checkerframework.org.apache.commons.lang3.NotImplementedException;
 import org.liara.collection.operator.cursoring.Cursor;
 import org.liara.collection.operator.cursoring.CursorableCollection;
 import org.liara.collection.operator.filtering.Filter;
@@ -33,10 +32,13 @@ import org.liara.collection.operator.grouping.Group;
 import org.liara.collection.operator.grouping.GroupableCollection;
 import org.liara.collection.operator.ordering.Order;
 import org.liara.collection.operator.ordering.OrderableCollection;
+import org.liara.collection.operator.sampling.Sample;
+import org.liara.collection.operator.sampling.SampleableCollection;
 import org.liara.collection.operator.selection.Select;
 import org.liara.collection.operator.selection.SelectableCollection;
 import org.liara.collection.source.GraphSource;
 import org.liara.collection.util.Filters;
+import org.liara.collection.util.Fingerprints;
 import org.liara.collection.util.Groups;
 import org.liara.collection.util.Orderings;
 import org.liara.collection.util.Selections;
@@ -51,7 +53,8 @@ public class GraphCollection
              FilterableCollection,
              OrderableCollection,
              GroupableCollection,
-             CursorableCollection
+             CursorableCollection,
+             SampleableCollection
 {
   @NonNull
   private final GraphSource _source;
@@ -71,6 +74,13 @@ public class GraphCollection
   @NonNull
   private final Selections _selections;
 
+  @NonNull
+  private final Sample _sample;
+
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
   public GraphCollection (@NonNull final GraphSource source) {
     _source = source;
     _cursor = Cursor.ALL;
@@ -78,6 +88,29 @@ public class GraphCollection
     _orderings = new Orderings();
     _groups = new Groups();
     _selections = new Selections();
+    _sample = Sample.ALL;
+    _hashCode = computeHashCode();
+    _fingerprint = computeFingerprint();
+  }
+
+  GraphCollection (
+    @NonNull final GraphSource source,
+    @NonNull final Cursor cursor,
+    @NonNull final Filters filters,
+    @NonNull final Orderings orderings,
+    @NonNull final Groups groups,
+    @NonNull final Selections selections,
+    @NonNull final Sample sample
+  ) {
+    _source = source;
+    _cursor = cursor;
+    _filters = filters;
+    _orderings = orderings;
+    _groups = groups;
+    _selections = selections;
+    _sample = sample;
+    _hashCode = computeHashCode();
+    _fingerprint = computeFingerprint();
   }
 
   private GraphCollection (
@@ -90,6 +123,9 @@ public class GraphCollection
     _orderings = collection._orderings;
     _groups = collection._groups;
     _selections = collection._selections;
+    _sample = collection._sample;
+    _hashCode = computeHashCode();
+    _fingerprint = computeFingerprint();
   }
 
   private GraphCollection (
@@ -102,6 +138,9 @@ public class GraphCollection
     _orderings = collection._orderings;
     _groups = collection._groups;
     _selections = collection._selections;
+    _sample = collection._sample;
+    _hashCode = computeHashCode();
+    _fingerprint = computeFingerprint();
   }
 
   private GraphCollection (
@@ -114,6 +153,9 @@ public class GraphCollection
     _orderings = collection._orderings;
     _groups = collection._groups;
     _selections = collection._selections;
+    _sample = collection._sample;
+    _hashCode = computeHashCode();
+    _fingerprint = computeFingerprint();
   }
 
   private GraphCollection (
@@ -126,6 +168,9 @@ public class GraphCollection
     _orderings = collection._orderings;
     _groups = groups;
     _selections = collection._selections;
+    _sample = collection._sample;
+    _hashCode = computeHashCode();
+    _fingerprint = computeFingerprint();
   }
 
   private GraphCollection (
@@ -138,6 +183,9 @@ public class GraphCollection
     _orderings = orderings;
     _groups = collection._groups;
     _selections = collection._selections;
+    _sample = collection._sample;
+    _hashCode = computeHashCode();
+    _fingerprint = computeFingerprint();
   }
 
   private GraphCollection (
@@ -150,6 +198,40 @@ public class GraphCollection
     _orderings = collection._orderings;
     _groups = collection._groups;
     _selections = selections;
+    _sample = collection._sample;
+    _hashCode = computeHashCode();
+    _fingerprint = computeFingerprint();
+  }
+
+  private GraphCollection (
+    @NonNull final GraphCollection collection,
+    @NonNull final Sample sample
+  ) {
+    _source = collection._source;
+    _cursor = collection._cursor;
+    _filters = collection._filters;
+    _orderings = collection._orderings;
+    _groups = collection._groups;
+    _selections = collection._selections;
+    _sample = sample;
+    _hashCode = computeHashCode();
+    _fingerprint = computeFingerprint();
+  }
+
+  private int computeHashCode () {
+    return Objects.hash(_source, _cursor, _filters, _orderings, _groups, _selections, _sample);
+  }
+
+  private long computeFingerprint () {
+    return Fingerprints.combine(
+      Fingerprints.of(_source),
+      Fingerprints.of(_cursor),
+      _filters.getFingerprint(),
+      _orderings.getFingerprint(),
+      _groups.getFingerprint(),
+      _selections.getFingerprint(),
+      Fingerprints.of(_sample)
+    );
   }
 
   @Override
@@ -162,6 +244,16 @@ public class GraphCollection
     return new GraphCollection(this, cursor);
   }
 
+  @Override
+  public @NonNull Sample getSample () {
+    return _sample;
+  }
+
+  @Override
+  public @NonNull GraphCollection sample (@NonNull final Sample sample) {
+    return new GraphCollection(this, sample);
+  }
+
   @Override
   public @NonNull GraphCollection addFilter (@NonNull final Filter filter) {
     return new GraphCollection(this, _filters.add(filter));
@@ -199,7 +291,7 @@ public class GraphCollection
 
   @Override
   public @NonNull GraphCollection removeOrder (@NonNull final Order order) {
-    return new GraphCollection(this, _orderings.orderBy(order));
+    return new GraphCollection(this, _orderings.remove(order));
   }
 
   @Override
@@ -219,7 +311,7 @@ public class GraphCollection
 
   @Override
   public @NonNull Select<?> getSelection (@NonNull final String name) {
-    throw new NotImplementedException("GraphCollection#getSelect(String)");
+    return _selections.getSelection(name);
   }
 
   @Override
@@ -235,6 +327,21 @@ public class GraphCollection
     return new GraphCollection(this, source);
   }
 
+  /**
+   * @return A mutable builder initialized with the state of this collection.
+   */
+  public @NonNull GraphCollectionBuilder toBuilder () {
+    return new GraphCollectionBuilder(
+      _source,
+      _cursor,
+      _filters,
+      _orderings,
+      _groups,
+      _selections,
+      _sample
+    );
+  }
+
   @Override
   public boolean equals (@Nullable final Object other) {
     if (other == null) return false;
@@ -243,6 +350,8 @@ public class GraphCollection
     if (other instanceof GraphCollection) {
       @NonNull final GraphCollection otherGraphCollection = (GraphCollection) other;
 
+      if (_fingerprint != otherGraphCollection._fingerprint) return false;
+
       return (
         Objects.equals(
           _source,
@@ -267,6 +376,10 @@ public class GraphCollection
         Objects.equals(
           _selections,
           otherGraphCollection._selections
+        ) &&
+        Objects.equals(
+          _sample,
+          otherGraphCollection.getSample()
         )
       );
     }
@@ -276,6 +389,19 @@ public class GraphCollection
 
   @Override
   public int hashCode () {
-    return Objects.hash(_source, _cursor, _filters, _orderings, _groups, _selections);
+    return _hashCode;
+  }
+
+  /**
+   * Return a 64-bit fingerprint of this collection.
+   *
+   * The fingerprint is computed once at construction from the fingerprints of each part of the collection, which are
+   * themselves maintained incrementally when operators are added or removed. Equal collections have equal
+   * fingerprints, and collections with equal fingerprints are equal with a very high probability.
+   *
+   * @return A 64-bit fingerprint of this collection.
+   */
+  public long getFingerprint () {
+    return _fingerprint;
   }
 }
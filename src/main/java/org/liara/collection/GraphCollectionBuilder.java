@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.collection.operator.cursoring.Cursor;
+import org.liara.collection.operator.cursoring.CursorableCollection;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.filtering.FilterableCollection;
+import org.liara.collection.operator.grouping.Group;
+import org.liara.collection.operator.grouping.GroupableCollection;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.ordering.OrderableCollection;
+import org.liara.collection.operator.sampling.Sample;
+import org.liara.collection.operator.sampling.SampleableCollection;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.operator.selection.SelectableCollection;
+import org.liara.collection.source.GraphSource;
+import org.liara.collection.util.Filters;
+import org.liara.collection.util.Groups;
+import org.liara.collection.util.Orderings;
+import org.liara.collection.util.Selections;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A mutable graph collection that accumulates many operations and that is frozen once into a graph collection.
+ *
+ * Each operation of this builder updates it in place and returns it. Operators are kept into persistent containers so
+ * an update only allocates the path to the changed entry and shares everything else with the collection that the
+ * builder was created from. A builder is not thread-safe.
+ */
+public final class GraphCollectionBuilder
+  implements Collection,
+             SelectableCollection,
+             FilterableCollection,
+             OrderableCollection,
+             GroupableCollection,
+             CursorableCollection,
+             SampleableCollection
+{
+  @NonNull
+  private GraphSource _source;
+
+  @NonNull
+  private Cursor _cursor;
+
+  @NonNull
+  private Sample _sample;
+
+  @NonNull
+  private Filters _filters;
+
+  @NonNull
+  private Orderings _orderings;
+
+  @NonNull
+  private Groups _groups;
+
+  @NonNull
+  private Selections _selections;
+
+  /**
+   * Instantiate a builder of a collection over the given source.
+   *
+   * @param source The source of the collection to build.
+   */
+  public GraphCollectionBuilder (@NonNull final GraphSource source) {
+    this(
+      source,
+      Cursor.ALL,
+      Filters.EMPTY,
+      Orderings.EMPTY,
+      Groups.EMPTY,
+      Selections.EMPTY,
+      Sample.ALL
+    );
+  }
+
+  GraphCollectionBuilder (
+    @NonNull final GraphSource source,
+    @NonNull final Cursor cursor,
+    @NonNull final Filters filters,
+    @NonNull final Orderings orderings,
+    @NonNull final Groups groups,
+    @NonNull final Selections selections,
+    @NonNull final Sample sample
+  ) {
+    _source = source;
+    _cursor = cursor;
+    _filters = filters;
+    _orderings = orderings;
+    _groups = groups;
+    _selections = selections;
+    _sample = sample;
+  }
+
+  /**
+   * Freeze the current state of this builder.
+   *
+   * @return A graph collection in the current state of this builder.
+   */
+  public @NonNull GraphCollection build () {
+    return new GraphCollection(
+      _source,
+      _cursor,
+      _filters,
+      _orderings,
+      _groups,
+      _selections,
+      _sample
+    );
+  }
+
+  @Override
+  public @NonNull Cursor getCursor () {
+    return _cursor;
+  }
+
+  @Override
+  public @NonNull GraphCollectionBuilder setCursor (@NonNull final Cursor cursor) {
+    _cursor = cursor;
+    return this;
+  }
+
+  @Override
+  public @NonNull Sample getSample () {
+    return _sample;
+  }
+
+  @Override
+  public @NonNull GraphCollectionBuilder sample (@NonNull final Sample sample) {
+    _sample = sample;
+    return this;
+  }
+
+  @Override
+  public @NonNull GraphCollectionBuilder addFilter (@NonNull final Filter filter) {
+    _filters = _filters.add(filter);
+    return this;
+  }
+
+  @Override
+  public @NonNull GraphCollectionBuilder removeFilter (@NonNull final Filter filter) {
+    _filters = _filters.remove(filter);
+    return this;
+  }
+
+  @Override
+  public @NonNull Set<@NonNull Filter> getFilters () {
+    return _filters.getFilters();
+  }
+
+  @Override
+  public @NonNull GraphCollectionBuilder groupBy (@NonNull final Group group) {
+    _groups = _groups.groupBy(group);
+    return this;
+  }
+
+  @Override
+  public @NonNull GraphCollectionBuilder ungroup (@NonNull final Group group) {
+    _groups = _groups.remove(group);
+    return this;
+  }
+
+  @Override
+  public @NonNull List<@NonNull Group> getGroups () {
+    return _groups.getGroups();
+  }
+
+  @Override
+  public @NonNull GraphCollectionBuilder orderBy (@NonNull final Order order) {
+    _orderings = _orderings.orderBy(order);
+    return this;
+  }
+
+  @Override
+  public @NonNull GraphCollectionBuilder removeOrder (@NonNull final Order order) {
+    _orderings = _orderings.remove(order);
+    return this;
+  }
+
+  @Override
+  public @NonNull List<@NonNull Order> getOrderings () {
+    return _orderings.getOrderings();
+  }
+
+  @Override
+  public @NonNull GraphCollectionBuilder select (@NonNull final Select select) {
+    _selections = _selections.select(select);
+    return this;
+  }
+
+  @Override
+  public @NonNull GraphCollectionBuilder deselect (@NonNull final Select select) {
+    _selections = _selections.remove(select);
+    return this;
+  }
+
+  @Override
+  public @NonNull Select<?> getSelection (@NonNull final String name) {
+    return _selections.getSelection(name);
+  }
+
+  @Override
+  public @NonNull List<@NonNull Select> getSelections () {
+    return _selections.getSelects();
+  }
+
+  public @NonNull GraphSource getSource () {
+    return _source;
+  }
+
+  public @NonNull GraphCollectionBuilder setSource (@NonNull final GraphSource source) {
+    _source = source;
+    return this;
+  }
+}
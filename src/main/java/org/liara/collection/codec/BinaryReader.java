@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.codec;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read the primitive encodings of the binary format directly from a buffer.
+ *
+ * Values are read in place : strings of heap buffers are decoded from the backing array and no intermediate copy of
+ * the document is made.
+ */
+final class BinaryReader
+{
+  @NonNull
+  private final ByteBuffer _buffer;
+
+  BinaryReader (@NonNull final ByteBuffer buffer) {
+    _buffer = buffer;
+  }
+
+  int readByte () {
+    return _buffer.get() & 0xFF;
+  }
+
+  long readVarLong () {
+    long result = 0;
+
+    for (int shift = 0; shift < 64; shift += 7) {
+      final int current = _buffer.get();
+      result |= (long) (current & 0x7F) << shift;
+
+      if ((current & 0x80) == 0) return result;
+    }
+
+    throw new IllegalArgumentException(
+      "Unable to decode a variable length value because it is longer than 10 bytes."
+    );
+  }
+
+  int readVarInt () {
+    final long result = readVarLong();
+
+    if (result < 0 || result > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+        "Unable to decode a size of " + result + " because it does not fit into an integer."
+      );
+    }
+
+    return (int) result;
+  }
+
+  long readSignedVarLong () {
+    final long value = readVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  double readDouble () {
+    long bits = 0;
+
+    for (int index = 0; index < 8; ++index) {
+      bits = (bits << 8) | (_buffer.get() & 0xFF);
+    }
+
+    return Double.longBitsToDouble(bits);
+  }
+
+  @NonNull String readString () {
+    final int length = readVarInt();
+
+    if (_buffer.hasArray()) {
+      @NonNull final String result = new String(
+        _buffer.array(), _buffer.arrayOffset() + _buffer.position(), length, StandardCharsets.UTF_8
+      );
+
+      _buffer.position(_buffer.position() + length);
+
+      return result;
+    } else {
+      @NonNull final byte[] bytes = new byte[length];
+      _buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+}
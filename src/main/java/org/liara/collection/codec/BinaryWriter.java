@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.codec;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer with the primitive encodings of the binary format.
+ */
+final class BinaryWriter
+{
+  @NonNull
+  private byte[] _bytes;
+
+  @NonNegative
+  private int _size;
+
+  BinaryWriter () {
+    _bytes = new byte[64];
+    _size = 0;
+  }
+
+  private void reserve (@NonNegative final int bytes) {
+    if (_size + bytes > _bytes.length) {
+      _bytes = Arrays.copyOf(_bytes, Math.max(_bytes.length * 2, _size + bytes));
+    }
+  }
+
+  void writeByte (final int value) {
+    reserve(1);
+    _bytes[_size++] = (byte) value;
+  }
+
+  /**
+   * Write an unsigned value by groups of seven bits, least significant group first.
+   *
+   * @param value An unsigned value to write.
+   */
+  void writeVarLong (final long value) {
+    reserve(10);
+
+    long remaining = value;
+
+    while ((remaining & ~0x7FL) != 0) {
+      _bytes[_size++] = (byte) ((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+
+    _bytes[_size++] = (byte) remaining;
+  }
+
+  /**
+   * Write a signed value as a zig-zag encoded variable length value.
+   *
+   * @param value A signed value to write.
+   */
+  void writeSignedVarLong (final long value) {
+    writeVarLong((value << 1) ^ (value >> 63));
+  }
+
+  void writeDouble (final double value) {
+    reserve(8);
+
+    final long bits = Double.doubleToRawLongBits(value);
+
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      _bytes[_size++] = (byte) (bits >>> shift);
+    }
+  }
+
+  void writeString (@NonNull final String value) {
+    @NonNull final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+    writeVarLong(bytes.length);
+    writeBytes(bytes, 0, bytes.length);
+  }
+
+  void writeBytes (@NonNull final byte[] bytes, @NonNegative final int offset, @NonNegative final int length) {
+    reserve(length);
+    System.arraycopy(bytes, offset, _bytes, _size, length);
+    _size += length;
+  }
+
+  void writeTo (@NonNull final BinaryWriter writer) {
+    writer.writeBytes(_bytes, 0, _size);
+  }
+
+  /**
+   * @return A buffer over the written bytes.
+   */
+  @NonNull ByteBuffer toByteBuffer () {
+    return ByteBuffer.wrap(_bytes, 0, _size).slice();
+  }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.codec;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.GraphCollectionBuilder;
+import org.liara.collection.expression.OperationType;
+import org.liara.collection.operator.Composition;
+import org.liara.collection.operator.Identity;
+import org.liara.collection.operator.Operator;
+import org.liara.collection.operator.cursoring.Cursor;
+import org.liara.collection.operator.filtering.ExpressionFilter;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.grouping.ExpressionGroup;
+import org.liara.collection.operator.grouping.Group;
+import org.liara.collection.operator.grouping.SessionWindowGroup;
+import org.liara.collection.operator.grouping.SlidingWindowGroup;
+import org.liara.collection.operator.grouping.TumblingWindowGroup;
+import org.liara.collection.operator.grouping.WindowGroup;
+import org.liara.collection.operator.ordering.ExpressionOrder;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.ordering.OrderingDirection;
+import org.liara.collection.operator.sampling.Sample;
+import org.liara.collection.operator.sampling.SamplingMethod;
+import org.liara.collection.operator.selection.AggregateSelect;
+import org.liara.collection.operator.selection.Aggregation;
+import org.liara.collection.operator.selection.ApproximateDistinctCountSelect;
+import org.liara.collection.operator.selection.ApproximateQuantileSelect;
+import org.liara.collection.operator.selection.ExpressionSelect;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.operator.selection.WindowStartSelect;
+import org.liara.collection.source.GraphSource;
+import org.liara.collection.source.JoinSource;
+import org.liara.collection.source.JoinType;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.TableSource;
+import org.liara.data.graph.Graph;
+import org.liara.data.graph.Table;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.Constant;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decode collections and operators encoded by a {@link CollectionEncoder}.
+ *
+ * Documents are decoded in place from the given buffer, starting at its current position, and the position of the
+ * buffer is moved after the decoded document. Tables of the document dictionary are resolved by name into the graph
+ * of the decoder.
+ *
+ * A decoder does not hold any state between two calls and can be shared between threads.
+ *
+ * @see CollectionEncoder
+ */
+public final class CollectionDecoder
+{
+  @NonNull
+  private static final OrderingDirection[] DIRECTIONS = OrderingDirection.values();
+
+  @NonNull
+  private static final SamplingMethod[] SAMPLING_METHODS = SamplingMethod.values();
+
+  @NonNull
+  private static final Aggregation[] AGGREGATIONS = Aggregation.values();
+
+  @NonNull
+  private static final JoinType[] JOIN_TYPES = JoinType.values();
+
+  @NonNull
+  private static final OperationType[] OPERATION_TYPES = OperationType.values();
+
+  @NonNull
+  private final Graph _graph;
+
+  @NonNull
+  private final ExpressionFactory _expressionFactory;
+
+  /**
+   * Instantiate a decoder of documents that refer to tables of the given graph.
+   *
+   * @param graph The graph that contains the tables of the documents to decode.
+   */
+  public CollectionDecoder (@NonNull final Graph graph) {
+    _graph = graph;
+    _expressionFactory = new ExpressionFactory();
+  }
+
+  /**
+   * Decode a collection.
+   *
+   * @param buffer A buffer that contains an encoded collection.
+   *
+   * @return The decoded collection.
+   */
+  public @NonNull GraphCollection decodeCollection (@NonNull final ByteBuffer buffer) {
+    @NonNull final Session session = new Session(buffer);
+
+    if (session.readTag() != Tag.COLLECTION) {
+      throw new IllegalArgumentException(
+        "Unable to decode a collection because the given document does not contain a collection."
+      );
+    }
+
+    return session.readCollection();
+  }
+
+  /**
+   * Decode an operator.
+   *
+   * @param buffer A buffer that contains an encoded operator.
+   *
+   * @return The decoded operator.
+   */
+  public @NonNull Operator decodeOperator (@NonNull final ByteBuffer buffer) {
+    @NonNull final Session session = new Session(buffer);
+    return session.readOperator();
+  }
+
+  private static <Value> @NonNull Value get (@NonNull final Value[] values, final int ordinal) {
+    if (ordinal < 0 || ordinal >= values.length) {
+      throw new IllegalArgumentException(
+        "Unable to decode the value " + ordinal + " because it does not exist."
+      );
+    }
+
+    return values[ordinal];
+  }
+
+  /**
+   * The state of the decoding of a document.
+   */
+  private final class Session
+  {
+    @NonNull
+    private final BinaryReader _reader;
+
+    @NonNull
+    private final List<@NonNull Object> _references;
+
+    @NonNull
+    private final Table[] _tables;
+
+    Session (@NonNull final ByteBuffer buffer) {
+      _reader = new BinaryReader(buffer);
+      _references = new ArrayList<>();
+
+      if (_reader.readVarLong() != CollectionEncoder.MAGIC) {
+        throw new IllegalArgumentException(
+          "Unable to decode the given document because it does not start with the expected magic number."
+        );
+      }
+
+      final long version = _reader.readVarLong();
+
+      if (version != CollectionEncoder.VERSION) {
+        throw new IllegalArgumentException(
+          "Unable to decode the given document because its version " + version + " is not supported."
+        );
+      }
+
+      _tables = new Table[_reader.readVarInt()];
+
+      for (int index = 0; index < _tables.length; ++index) {
+        @NonNull final String name = _reader.readString();
+        _tables[index] = _graph.getTable(name);
+      }
+    }
+
+    @NonNull Tag readTag () {
+      return Tag.of(_reader.readByte());
+    }
+
+    private <Result> @NonNull Result register (@NonNull final Result node) {
+      _references.add(node);
+      return node;
+    }
+
+    @SuppressWarnings("unchecked") // Checked by the caller.
+    private <Result> @NonNull Result readReference (@NonNull final Class<Result> type) {
+      final int reference = _reader.readVarInt();
+
+      if (reference >= _references.size()) {
+        throw new IllegalArgumentException(
+          "Unable to decode the reference " + reference + " because it refers to a node that was not decoded yet."
+        );
+      }
+
+      @NonNull final Object result = _references.get(reference);
+
+      if (!type.isInstance(result)) {
+        throw new IllegalArgumentException(
+          "Unable to decode the reference " + reference + " because it refers to a node of type " +
+          result.getClass().getName() + " instead of a node of type " + type.getName() + "."
+        );
+      }
+
+      return (Result) result;
+    }
+
+    private @Nullable String readNullableString () {
+      return (_reader.readByte() == 0) ? null : _reader.readString();
+    }
+
+    private @NonNull Duration readDuration () {
+      return Duration.ofMillis(_reader.readVarLong());
+    }
+
+    @NonNull GraphCollection readCollection () {
+      @NonNull final Source source = readSource();
+
+      if (!(source instanceof GraphSource)) {
+        throw new IllegalArgumentException(
+          "Unable to decode a collection over the source " + source + " because it is not a graph source."
+        );
+      }
+
+      @NonNull final GraphCollectionBuilder result = new GraphCollectionBuilder((GraphSource) source);
+
+      result.setCursor(readOperator(Cursor.class));
+      result.sample(readOperator(Sample.class));
+
+      for (int index = 0, size = _reader.readVarInt(); index < size; ++index) {
+        result.addFilter(readOperator(Filter.class));
+      }
+
+      for (int index = 0, size = _reader.readVarInt(); index < size; ++index) {
+        result.orderBy(readOperator(Order.class));
+      }
+
+      for (int index = 0, size = _reader.readVarInt(); index < size; ++index) {
+        result.groupBy(readOperator(Group.class));
+      }
+
+      for (int index = 0, size = _reader.readVarInt(); index < size; ++index) {
+        result.select(readOperator(Select.class));
+      }
+
+      return result.build();
+    }
+
+    private <Result extends Operator> @NonNull Result readOperator (@NonNull final Class<Result> type) {
+      @NonNull final Operator result = readOperator();
+
+      if (!type.isInstance(result)) {
+        throw new IllegalArgumentException(
+          "Unable to decode the operator " + result + " because an operator of type " + type.getName() +
+          " was expected."
+        );
+      }
+
+      return type.cast(result);
+    }
+
+    @NonNull Operator readOperator () {
+      @NonNull final Tag tag = readTag();
+
+      switch (tag) {
+        case REFERENCE:
+          return readReference(Operator.class);
+        case COMPOSITION:
+          return register(readComposition());
+        case IDENTITY:
+          return register(Identity.INSTANCE);
+        case CURSOR:
+          return register(new Cursor(_reader.readVarLong(), _reader.readVarLong()));
+        case SAMPLE:
+          return register(readSample());
+        case EXPRESSION_FILTER:
+          return register(new ExpressionFilter(readBooleanExpression()));
+        case EXPRESSION_ORDER:
+          @NonNull final OrderingDirection direction = get(DIRECTIONS, _reader.readByte());
+          return register(new ExpressionOrder(readExpression(), direction));
+        case EXPRESSION_GROUP:
+          return register(new ExpressionGroup(readExpression()));
+        case TUMBLING_WINDOW_GROUP:
+          @NonNull final Duration tumblingSize = readDuration();
+          return register(new TumblingWindowGroup(readExpression(), tumblingSize));
+        case SLIDING_WINDOW_GROUP:
+          @NonNull final Duration slidingSize = readDuration();
+          @NonNull final Duration slidingHop = readDuration();
+          return register(new SlidingWindowGroup(readExpression(), slidingSize, slidingHop));
+        case SESSION_WINDOW_GROUP:
+          @NonNull final Duration gap = readDuration();
+          return register(new SessionWindowGroup(readExpression(), gap));
+        case EXPRESSION_SELECT:
+        case AGGREGATE_SELECT:
+        case APPROXIMATE_DISTINCT_COUNT_SELECT:
+        case APPROXIMATE_QUANTILE_SELECT:
+        case WINDOW_START_SELECT:
+          return register(readSelect(tag));
+        default:
+          throw new IllegalArgumentException(
+            "Unable to decode an operator because the next node is a node of kind " + tag + "."
+          );
+      }
+    }
+
+    private @NonNull Composition readComposition () {
+      @NonNull final Operator[] operators = new Operator[_reader.readVarInt()];
+
+      for (int index = 0; index < operators.length; ++index) {
+        operators[index] = readOperator();
+      }
+
+      return new Composition(operators);
+    }
+
+    private @NonNull Sample readSample () {
+      @NonNull final SamplingMethod method = get(SAMPLING_METHODS, _reader.readByte());
+      final double rate = _reader.readDouble();
+      final int blockSize = _reader.readVarInt();
+      final int flags = _reader.readByte();
+      @Nullable final Long seed = ((flags & 1) == 0) ? null : _reader.readSignedVarLong();
+      @Nullable final Expression<?> key = ((flags & 2) == 0) ? null : readExpression();
+
+      return new Sample(method, rate, seed, key, blockSize);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Selections keep the type of their expression.
+    private @NonNull Select<?> readSelect (@NonNull final Tag tag) {
+      switch (tag) {
+        case EXPRESSION_SELECT: {
+          @Nullable final String name = readNullableString();
+          return new ExpressionSelect<>(readExpression(), name);
+        }
+        case AGGREGATE_SELECT: {
+          @NonNull final Aggregation aggregation = get(AGGREGATIONS, _reader.readByte());
+          @Nullable final String name = readNullableString();
+          return new AggregateSelect(aggregation, readExpression(), name);
+        }
+        case APPROXIMATE_DISTINCT_COUNT_SELECT: {
+          final int precision = _reader.readVarInt();
+          @Nullable final String name = readNullableString();
+          return new ApproximateDistinctCountSelect<>(readExpression(), precision, name);
+        }
+        case APPROXIMATE_QUANTILE_SELECT: {
+          final double quantile = _reader.readDouble();
+          final int accuracy = _reader.readVarInt();
+          @Nullable final String name = readNullableString();
+          return new ApproximateQuantileSelect<>(readExpression(), quantile, accuracy, name);
+        }
+        default: {
+          @Nullable final String name = readNullableString();
+          return new WindowStartSelect<>(readOperator(WindowGroup.class), name);
+        }
+      }
+    }
+
+    @NonNull Source readSource () {
+      @NonNull final Tag tag = readTag();
+
+      switch (tag) {
+        case REFERENCE:
+          return readReference(Source.class);
+        case TABLE_SOURCE:
+          @NonNull final Table table = get(_tables, _reader.readVarInt());
+          return register(new TableSource(table, _reader.readString()));
+        case JOIN_SOURCE:
+          @NonNull final JoinType type = get(JOIN_TYPES, _reader.readByte());
+          @NonNull final String name = _reader.readString();
+          @NonNull final Source origin = readSource();
+          @NonNull final Source joined = readSource();
+
+          if (!(joined instanceof TableSource)) {
+            throw new IllegalArgumentException(
+              "Unable to decode the join " + name + " because its joined source is not a table source."
+            );
+          }
+
+          return register(new JoinSource(type, origin, (TableSource) joined, readBooleanExpression(false), name));
+        default:
+          throw new IllegalArgumentException(
+            "Unable to decode a source because the next node is a node of kind " + tag + "."
+          );
+      }
+    }
+
+    private @NonNull Expression<@NonNull Boolean> readBooleanExpression () {
+      return readBooleanExpression(true);
+    }
+
+    /**
+     * Read an expression that must evaluate to a boolean, like a filter or a join predicate.
+     *
+     * @param registered False if the nodes of the expression were not registered during the encoding.
+     *
+     * @return The decoded predicate.
+     */
+    @SuppressWarnings("unchecked") // The result type of the expression is checked before the cast.
+    private @NonNull Expression<@NonNull Boolean> readBooleanExpression (final boolean registered) {
+      @NonNull final Expression<?> result = readExpression(registered);
+
+      if (result.getResultType() != Primitives.BOOLEAN) {
+        throw new IllegalArgumentException(
+          "Unable to decode the predicate " + result + " because its result type " + result.getResultType() +
+          " is not a boolean."
+        );
+      }
+
+      return (Expression<@NonNull Boolean>) result;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private @NonNull Expression readExpression () {
+      return readExpression(true);
+    }
+
+    /**
+     * Read an expression.
+     *
+     * @param registered False if the nodes of the expression were not registered during the encoding.
+     *
+     * @return The decoded expression.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Checked by the expression factory.
+    private @NonNull Expression readExpression (final boolean registered) {
+      @NonNull final Tag tag = readTag();
+      @NonNull final Expression result;
+
+      switch (tag) {
+        case REFERENCE:
+          return readReference(Expression.class);
+        case TABLE_PLACEHOLDER: {
+          @NonNull final Source source = readSource();
+
+          if (!(source instanceof TableSource)) {
+            throw new IllegalArgumentException(
+              "Unable to decode a table placeholder because its source " + source + " is not a table source."
+            );
+          }
+
+          result = ((TableSource) source).getOwnPlaceholder(_reader.readVarInt());
+          break;
+        }
+        case JOIN_PLACEHOLDER: {
+          @NonNull final Source source = readSource();
+
+          if (!(source instanceof JoinSource)) {
+            throw new IllegalArgumentException(
+              "Unable to decode a join placeholder because its source " + source + " is not a join source."
+            );
+          }
+
+          result = ((JoinSource) source).getOwnPlaceholder(_reader.readVarInt());
+          break;
+        }
+        case CONSTANT: {
+          @NonNull final ValueCodec codec = ValueCodec.of(_reader.readByte());
+          @Nullable final Object value = (_reader.readByte() == 0) ? null : codec.read(_reader);
+          result = new Constant(codec.getPrimitive(), value);
+          break;
+        }
+        case OPERATION: {
+          @NonNull final OperationType type = get(OPERATION_TYPES, _reader.readByte());
+          @NonNull final Expression<?>[] operands = new Expression<?>[_reader.readVarInt()];
+
+          for (int index = 0; index < operands.length; ++index) {
+            operands[index] = readExpression(registered);
+          }
+
+          result = type.build(_expressionFactory, operands);
+          break;
+        }
+        default:
+          throw new IllegalArgumentException(
+            "Unable to decode an expression because the next node is a node of kind " + tag + "."
+          );
+      }
+
+      return registered ? register(result) : result;
+    }
+  }
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.codec;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.expression.OperationType;
+import org.liara.collection.operator.Composition;
+import org.liara.collection.operator.Identity;
+import org.liara.collection.operator.Operator;
+import org.liara.collection.operator.cursoring.Cursor;
+import org.liara.collection.operator.filtering.ExpressionFilter;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.grouping.ExpressionGroup;
+import org.liara.collection.operator.grouping.Group;
+import org.liara.collection.operator.grouping.SessionWindowGroup;
+import org.liara.collection.operator.grouping.SlidingWindowGroup;
+import org.liara.collection.operator.grouping.TumblingWindowGroup;
+import org.liara.collection.operator.ordering.ExpressionOrder;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.sampling.Sample;
+import org.liara.collection.operator.selection.AggregateSelect;
+import org.liara.collection.operator.selection.ApproximateDistinctCountSelect;
+import org.liara.collection.operator.selection.ApproximateQuantileSelect;
+import org.liara.collection.operator.selection.ExpressionSelect;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.operator.selection.WindowStartSelect;
+import org.liara.collection.source.JoinSource;
+import org.liara.collection.source.JoinSourcePlaceholder;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.TableSource;
+import org.liara.collection.source.TableSourcePlaceholder;
+import org.liara.data.graph.Table;
+import org.liara.expression.Constant;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encode collections and operators into a compact binary format.
+ *
+ * A document starts with a header made of a magic number, a version and a dictionary of the tables that it refers
+ * to, followed by the encoded node. Sizes and integers are written as variable length values, tables are referred by
+ * their index into the dictionary and columns by their index into their table. Each source, expression and operator
+ * is written once : later occurrences of an equal node are written as a reference to the first one.
+ *
+ * An encoder does not hold any state between two calls and can be shared between threads.
+ *
+ * @see CollectionDecoder
+ */
+public final class CollectionEncoder
+{
+  /**
+   * First bytes of each document.
+   */
+  static final int MAGIC = 0x4C43;
+
+  /**
+   * Version of the format written by this encoder.
+   */
+  static final int VERSION = 1;
+
+  @NonNull
+  private final ExpressionFactory _expressionFactory;
+
+  public CollectionEncoder () {
+    _expressionFactory = new ExpressionFactory();
+  }
+
+  /**
+   * Encode a collection.
+   *
+   * @param collection A collection to encode.
+   *
+   * @return A buffer that contains the encoded collection.
+   */
+  public @NonNull ByteBuffer encode (@NonNull final GraphCollection collection) {
+    @NonNull final Session session = new Session();
+    session.writeCollection(collection);
+    return session.finish();
+  }
+
+  /**
+   * Encode an operator.
+   *
+   * @param operator An operator to encode.
+   *
+   * @return A buffer that contains the encoded operator.
+   */
+  public @NonNull ByteBuffer encode (@NonNull final Operator operator) {
+    @NonNull final Session session = new Session();
+    session.writeOperator(operator);
+    return session.finish();
+  }
+
+  /**
+   * The state of the encoding of a document.
+   */
+  private final class Session
+  {
+    @NonNull
+    private final BinaryWriter _body;
+
+    @NonNull
+    private final Map<@NonNull Object, @NonNull Integer> _references;
+
+    @NonNull
+    private final Map<@NonNull Table, @NonNull Integer> _tables;
+
+    Session () {
+      _body = new BinaryWriter();
+      _references = new HashMap<>();
+      _tables = new HashMap<>();
+    }
+
+    @NonNull ByteBuffer finish () {
+      @NonNull final BinaryWriter result = new BinaryWriter();
+      @NonNull final Table[] tables = new Table[_tables.size()];
+
+      for (final Map.@NonNull Entry<@NonNull Table, @NonNull Integer> entry : _tables.entrySet()) {
+        tables[entry.getValue()] = entry.getKey();
+      }
+
+      result.writeVarLong(MAGIC);
+      result.writeVarLong(VERSION);
+      result.writeVarLong(tables.length);
+
+      for (@NonNull final Table table : tables) {
+        result.writeString(table.getName());
+      }
+
+      _body.writeTo(result);
+
+      return result.toByteBuffer();
+    }
+
+    /**
+     * Write a reference to a node if it was already written.
+     *
+     * @param node A node to write.
+     *
+     * @return True if a reference was written.
+     */
+    private boolean writeReference (@NonNull final Object node) {
+      @Nullable final Integer reference = _references.get(node);
+
+      if (reference == null) return false;
+
+      _body.writeByte(Tag.REFERENCE.ordinal());
+      _body.writeVarLong(reference);
+
+      return true;
+    }
+
+    private void register (@NonNull final Object node) {
+      _references.put(node, _references.size());
+    }
+
+    private void writeNullableString (@Nullable final String value) {
+      if (value == null) {
+        _body.writeByte(0);
+      } else {
+        _body.writeByte(1);
+        _body.writeString(value);
+      }
+    }
+
+    void writeCollection (@NonNull final GraphCollection collection) {
+      _body.writeByte(Tag.COLLECTION.ordinal());
+      writeSource(collection.getSource());
+      writeOperator(collection.getCursor());
+      writeOperator(collection.getSample());
+
+      @NonNull final Set<@NonNull Filter> filters = collection.getFilters();
+      _body.writeVarLong(filters.size());
+      for (@NonNull final Filter filter : filters) writeOperator(filter);
+
+      @NonNull final List<@NonNull Order> orderings = collection.getOrderings();
+      _body.writeVarLong(orderings.size());
+      for (@NonNull final Order order : orderings) writeOperator(order);
+
+      @NonNull final List<@NonNull Group> groups = collection.getGroups();
+      _body.writeVarLong(groups.size());
+      for (@NonNull final Group group : groups) writeOperator(group);
+
+      @NonNull final List<@NonNull Select> selections = collection.getSelections();
+      _body.writeVarLong(selections.size());
+      for (@NonNull final Select select : selections) writeOperator(select);
+    }
+
+    void writeOperator (@NonNull final Operator operator) {
+      if (writeReference(operator)) return;
+
+      if (operator instanceof Composition) {
+        @NonNull final Operator[] operators = ((Composition) operator).getOperators();
+
+        _body.writeByte(Tag.COMPOSITION.ordinal());
+        _body.writeVarLong(operators.length);
+
+        for (@NonNull final Operator child : operators) {
+          writeOperator(child);
+        }
+      } else if (operator instanceof Identity) {
+        _body.writeByte(Tag.IDENTITY.ordinal());
+      } else if (operator instanceof Cursor) {
+        @NonNull final Cursor cursor = (Cursor) operator;
+
+        _body.writeByte(Tag.CURSOR.ordinal());
+        _body.writeVarLong(cursor.getOffset());
+        _body.writeVarLong(cursor.getLimit());
+      } else if (operator instanceof Sample) {
+        writeSample((Sample) operator);
+      } else if (operator instanceof ExpressionFilter) {
+        _body.writeByte(Tag.EXPRESSION_FILTER.ordinal());
+        writeExpression(((ExpressionFilter) operator).getExpression());
+      } else if (operator instanceof ExpressionOrder) {
+        @NonNull final ExpressionOrder order = (ExpressionOrder) operator;
+
+        _body.writeByte(Tag.EXPRESSION_ORDER.ordinal());
+        _body.writeByte(order.getDirection().ordinal());
+        writeExpression(order.getExpression());
+      } else if (operator instanceof Group) {
+        writeGroup((Group) operator);
+      } else if (operator instanceof Select) {
+        writeSelect((Select<?>) operator);
+      } else {
+        throw new IllegalArgumentException(
+          "Unable to encode the operator " + operator + " because operators of type " +
+          operator.getClass().getName() + " are not supported by the binary format."
+        );
+      }
+
+      register(operator);
+    }
+
+    private void writeSample (@NonNull final Sample sample) {
+      _body.writeByte(Tag.SAMPLE.ordinal());
+      _body.writeByte(sample.getMethod().ordinal());
+      _body.writeDouble(sample.getRate());
+      _body.writeVarLong(sample.getBlockSize());
+
+      @Nullable final Long seed = sample.getSeed();
+      @Nullable final Expression<?> key = sample.getKey();
+
+      _body.writeByte((seed == null ? 0 : 1) | (key == null ? 0 : 2));
+      if (seed != null) _body.writeSignedVarLong(seed);
+      if (key != null) writeExpression(key);
+    }
+
+    private void writeGroup (@NonNull final Group group) {
+      if (group instanceof ExpressionGroup) {
+        _body.writeByte(Tag.EXPRESSION_GROUP.ordinal());
+        writeExpression(group.getExpression());
+      } else if (group instanceof TumblingWindowGroup) {
+        _body.writeByte(Tag.TUMBLING_WINDOW_GROUP.ordinal());
+        _body.writeVarLong(((TumblingWindowGroup) group).getSize().toMillis());
+        writeExpression(group.getExpression());
+      } else if (group instanceof SlidingWindowGroup) {
+        @NonNull final SlidingWindowGroup window = (SlidingWindowGroup) group;
+
+        _body.writeByte(Tag.SLIDING_WINDOW_GROUP.ordinal());
+        _body.writeVarLong(window.getSize().toMillis());
+        _body.writeVarLong(window.getHop().toMillis());
+        writeExpression(group.getExpression());
+      } else if (group instanceof SessionWindowGroup) {
+        _body.writeByte(Tag.SESSION_WINDOW_GROUP.ordinal());
+        _body.writeVarLong(((SessionWindowGroup) group).getGap().toMillis());
+        writeExpression(group.getExpression());
+      } else {
+        throw new IllegalArgumentException(
+          "Unable to encode the group " + group + " because groups of type " + group.getClass().getName() +
+          " are not supported by the binary format."
+        );
+      }
+    }
+
+    private void writeSelect (@NonNull final Select<?> select) {
+      if (select instanceof ExpressionSelect) {
+        _body.writeByte(Tag.EXPRESSION_SELECT.ordinal());
+      } else if (select instanceof AggregateSelect) {
+        _body.writeByte(Tag.AGGREGATE_SELECT.ordinal());
+        _body.writeByte(((AggregateSelect<?>) select).getAggregation().ordinal());
+      } else if (select instanceof ApproximateDistinctCountSelect) {
+        _body.writeByte(Tag.APPROXIMATE_DISTINCT_COUNT_SELECT.ordinal());
+        _body.writeVarLong(((ApproximateDistinctCountSelect<?>) select).getPrecision());
+      } else if (select instanceof ApproximateQuantileSelect) {
+        @NonNull final ApproximateQuantileSelect<?> quantile = (ApproximateQuantileSelect<?>) select;
+
+        _body.writeByte(Tag.APPROXIMATE_QUANTILE_SELECT.ordinal());
+        _body.writeDouble(quantile.getQuantile());
+        _body.writeVarLong(quantile.getAccuracy());
+      } else if (select instanceof WindowStartSelect) {
+        _body.writeByte(Tag.WINDOW_START_SELECT.ordinal());
+        writeNullableString(select.getName());
+        writeOperator(((WindowStartSelect<?>) select).getWindow());
+        return;
+      } else {
+        throw new IllegalArgumentException(
+          "Unable to encode the selection " + select + " because selections of type " +
+          select.getClass().getName() + " are not supported by the binary format."
+        );
+      }
+
+      writeNullableString(select.getName());
+      writeExpression(select.getExpression());
+    }
+
+    void writeSource (@NonNull final Source source) {
+      if (writeReference(source)) return;
+
+      if (source instanceof TableSource) {
+        @NonNull final TableSource table = (TableSource) source;
+
+        _body.writeByte(Tag.TABLE_SOURCE.ordinal());
+        _body.writeVarLong(_tables.computeIfAbsent(table.getTable(), (key) -> _tables.size()));
+        _body.writeString(table.getName());
+      } else if (source instanceof JoinSource) {
+        @NonNull final JoinSource join = (JoinSource) source;
+
+        _body.writeByte(Tag.JOIN_SOURCE.ordinal());
+        _body.writeByte(join.getType().ordinal());
+        _body.writeString(join.getName());
+        writeSource(join.getOrigin());
+        writeSource(join.getJoined());
+        writeExpression(join.getPredicate(), join);
+      } else {
+        throw new IllegalArgumentException(
+          "Unable to encode the source " + source + " because sources of type " + source.getClass().getName() +
+          " are not supported by the binary format."
+        );
+      }
+
+      register(source);
+    }
+
+    void writeExpression (@NonNull final Expression<?> expression) {
+      writeExpression(expression, null);
+    }
+
+    /**
+     * Write an expression.
+     *
+     * The predicate of a join is written as it was before being linked to the join : the placeholders of the join
+     * are written as placeholders of its joined table. The nodes of such an expression are neither referenced nor
+     * registered as they are not equal to the decoded ones.
+     *
+     * @param expression An expression to write.
+     * @param unlinked   A join to unlink, if any.
+     */
+    private void writeExpression (@NonNull final Expression<?> expression, @Nullable final JoinSource unlinked) {
+      if (unlinked == null && writeReference(expression)) return;
+
+      if (expression instanceof TableSourcePlaceholder) {
+        @NonNull final TableSourcePlaceholder<?> placeholder = (TableSourcePlaceholder<?>) expression;
+
+        _body.writeByte(Tag.TABLE_PLACEHOLDER.ordinal());
+        writeSource(placeholder.getSource());
+        _body.writeVarLong(placeholder.getSource().getTable().getIndexOf(placeholder.getColumn()));
+      } else if (expression instanceof JoinSourcePlaceholder) {
+        @NonNull final JoinSourcePlaceholder<?> placeholder = (JoinSourcePlaceholder<?>) expression;
+        @NonNull final JoinSource join = placeholder.getSource();
+        final int column = join.getJoined().getTable().getIndexOf(placeholder.getColumn());
+
+        if (join == unlinked) {
+          _body.writeByte(Tag.TABLE_PLACEHOLDER.ordinal());
+          writeSource(join.getJoined());
+        } else {
+          _body.writeByte(Tag.JOIN_PLACEHOLDER.ordinal());
+          writeSource(join);
+        }
+
+        _body.writeVarLong(column);
+      } else if (expression instanceof Constant) {
+        @Nullable final Object value = ((Constant<?>) expression).getValue();
+
+        @NonNull final ValueCodec codec = ValueCodec.of(expression.getResultType());
+
+        _body.writeByte(Tag.CONSTANT.ordinal());
+        _body.writeByte(codec.ordinal());
+        _body.writeByte(value == null ? 0 : 1);
+        if (value != null) codec.write(_body, value);
+      } else {
+        writeOperation(expression, unlinked);
+      }
+
+      if (unlinked == null) register(expression);
+    }
+
+    private void writeOperation (@NonNull final Expression<?> expression, @Nullable final JoinSource unlinked) {
+      @NonNull final OperationType type = OperationType.of(_expressionFactory, expression).orElseThrow(
+        () -> new IllegalArgumentException(
+          "Unable to encode the expression " + expression + " because it is not an operation supported by the " +
+          "binary format."
+        )
+      );
+
+      @NonNull final Expression<?>[] operands = OperationType.getOperands(expression);
+
+      _body.writeByte(Tag.OPERATION.ordinal());
+      _body.writeByte(type.ordinal());
+      _body.writeVarLong(operands.length);
+
+      for (@NonNull final Expression<?> operand : operands) {
+        writeExpression(operand, unlinked);
+      }
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.codec;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Kinds of nodes of the binary format, each node is prefixed by the ordinal of its kind.
+ *
+ * New kinds must be appended to keep previously encoded documents readable.
+ */
+enum Tag
+{
+  REFERENCE,
+  TABLE_SOURCE,
+  JOIN_SOURCE,
+  CONSTANT,
+  TABLE_PLACEHOLDER,
+  JOIN_PLACEHOLDER,
+  OPERATION,
+  EXPRESSION_FILTER,
+  EXPRESSION_ORDER,
+  EXPRESSION_GROUP,
+  TUMBLING_WINDOW_GROUP,
+  SLIDING_WINDOW_GROUP,
+  SESSION_WINDOW_GROUP,
+  EXPRESSION_SELECT,
+  AGGREGATE_SELECT,
+  APPROXIMATE_DISTINCT_COUNT_SELECT,
+  APPROXIMATE_QUANTILE_SELECT,
+  WINDOW_START_SELECT,
+  CURSOR,
+  SAMPLE,
+  IDENTITY,
+  COMPOSITION,
+  COLLECTION;
+
+  @NonNull
+  private static final Tag[] VALUES = values();
+
+  /**
+   * @param ordinal The ordinal of a tag.
+   *
+   * @return The tag with the given ordinal.
+   */
+  static @NonNull Tag of (final int ordinal) {
+    if (ordinal < 0 || ordinal >= VALUES.length) {
+      throw new IllegalArgumentException(
+        "Unable to decode the node of kind " + ordinal + " because this kind of node does not exist."
+      );
+    }
+
+    return VALUES[ordinal];
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.codec;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.data.primitive.Primitive;
+import org.liara.data.primitive.Primitives;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Encodings of the values of constant expressions, by primitive type.
+ *
+ * New encodings must be appended to keep previously encoded documents readable.
+ */
+enum ValueCodec
+{
+  BOOLEAN(Primitives.BOOLEAN) {
+    @Override
+    void write (@NonNull final BinaryWriter writer, @NonNull final Object value) {
+      writer.writeByte((Boolean) value ? 1 : 0);
+    }
+
+    @Override
+    @NonNull Object read (@NonNull final BinaryReader reader) {
+      return reader.readByte() != 0;
+    }
+  },
+  INTEGER(Primitives.INTEGER) {
+    @Override
+    void write (@NonNull final BinaryWriter writer, @NonNull final Object value) {
+      writer.writeSignedVarLong((Integer) value);
+    }
+
+    @Override
+    @NonNull Object read (@NonNull final BinaryReader reader) {
+      return (int) reader.readSignedVarLong();
+    }
+  },
+  LONG(Primitives.LONG) {
+    @Override
+    void write (@NonNull final BinaryWriter writer, @NonNull final Object value) {
+      writer.writeSignedVarLong((Long) value);
+    }
+
+    @Override
+    @NonNull Object read (@NonNull final BinaryReader reader) {
+      return reader.readSignedVarLong();
+    }
+  },
+  DOUBLE(Primitives.DOUBLE) {
+    @Override
+    void write (@NonNull final BinaryWriter writer, @NonNull final Object value) {
+      writer.writeDouble((Double) value);
+    }
+
+    @Override
+    @NonNull Object read (@NonNull final BinaryReader reader) {
+      return reader.readDouble();
+    }
+  },
+  STRING(Primitives.STRING) {
+    @Override
+    void write (@NonNull final BinaryWriter writer, @NonNull final Object value) {
+      writer.writeString((String) value);
+    }
+
+    @Override
+    @NonNull Object read (@NonNull final BinaryReader reader) {
+      return reader.readString();
+    }
+  },
+  DATE_TIME(Primitives.DATE_TIME) {
+    @Override
+    void write (@NonNull final BinaryWriter writer, @NonNull final Object value) {
+      @NonNull final ZonedDateTime dateTime = (ZonedDateTime) value;
+
+      writer.writeSignedVarLong(dateTime.toEpochSecond());
+      writer.writeVarLong(dateTime.getNano());
+      writer.writeString(dateTime.getZone().getId());
+    }
+
+    @Override
+    @NonNull Object read (@NonNull final BinaryReader reader) {
+      final long seconds = reader.readSignedVarLong();
+      final long nanos = reader.readVarLong();
+
+      return ZonedDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), ZoneId.of(reader.readString()));
+    }
+  },
+  CHARACTER(Primitives.CHARACTER) {
+    @Override
+    void write (@NonNull final BinaryWriter writer, @NonNull final Object value) {
+      writer.writeVarLong((Character) value);
+    }
+
+    @Override
+    @NonNull Object read (@NonNull final BinaryReader reader) {
+      return (char) reader.readVarLong();
+    }
+  },
+  BYTE(Primitives.BYTE) {
+    @Override
+    void write (@NonNull final BinaryWriter writer, @NonNull final Object value) {
+      writer.writeSignedVarLong((Byte) value);
+    }
+
+    @Override
+    @NonNull Object read (@NonNull final BinaryReader reader) {
+      return (byte) reader.readSignedVarLong();
+    }
+  },
+  SHORT(Primitives.SHORT) {
+    @Override
+    void write (@NonNull final BinaryWriter writer, @NonNull final Object value) {
+      writer.writeSignedVarLong((Short) value);
+    }
+
+    @Override
+    @NonNull Object read (@NonNull final BinaryReader reader) {
+      return (short) reader.readSignedVarLong();
+    }
+  },
+  FLOAT(Primitives.FLOAT) {
+    @Override
+    void write (@NonNull final BinaryWriter writer, @NonNull final Object value) {
+      writer.writeDouble((Float) value);
+    }
+
+    @Override
+    @NonNull Object read (@NonNull final BinaryReader reader) {
+      return (float) reader.readDouble();
+    }
+  };
+
+  @NonNull
+  private static final ValueCodec[] VALUES = values();
+
+  @NonNull
+  private final Primitive<?> _primitive;
+
+  ValueCodec (@NonNull final Primitive<?> primitive) {
+    _primitive = primitive;
+  }
+
+  /**
+   * @return The type of the values of this encoding.
+   */
+  @NonNull Primitive<?> getPrimitive () {
+    return _primitive;
+  }
+
+  /**
+   * Write a non-null value.
+   *
+   * @param writer The writer to use.
+   * @param value  A value to write.
+   */
+  abstract void write (@NonNull final BinaryWriter writer, @NonNull final Object value);
+
+  /**
+   * @param reader The reader to use.
+   *
+   * @return The next value of the given reader.
+   */
+  abstract @NonNull Object read (@NonNull final BinaryReader reader);
+
+  /**
+   * @param primitive A primitive type.
+   *
+   * @return The encoding of the values of the given primitive type.
+   */
+  static @NonNull ValueCodec of (@NonNull final Primitive<?> primitive) {
+    for (@NonNull final ValueCodec codec : VALUES) {
+      if (codec._primitive == primitive) return codec;
+    }
+
+    throw new IllegalArgumentException(
+      "Unable to encode values of type " + primitive.getName() + " because this type of value is not supported " +
+      "by the binary format."
+    );
+  }
+
+  /**
+   * @param ordinal The ordinal of an encoding.
+   *
+   * @return The encoding with the given ordinal.
+   */
+  static @NonNull ValueCodec of (final int ordinal) {
+    if (ordinal < 0 || ordinal >= VALUES.length) {
+      throw new IllegalArgumentException(
+        "Unable to decode a value of type " + ordinal + " because this type of value does not exist."
+      );
+    }
+
+    return VALUES[ordinal];
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.expression;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+import org.liara.support.view.View;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operations that this library is able to recognize into an expression tree.
+ *
+ * An operation is recognized by rebuilding it from its children with an expression factory and by comparing the
+ * result with the original expression, so the recognition does not depend on the internal representation of the
+ * expression library.
+ *
+ * @author C&eacute;dric DEMONGIVERT [cedric.demongivert@gmail.com](mailto:cedric.demongivert@gmail.com)
+ */
+@SuppressWarnings({"unchecked", "rawtypes"}) // Operands are checked by the expression factory.
+public enum OperationType
+{
+  AND {
+    @Override
+    public boolean accept (final int arity) {
+      return arity >= 2;
+    }
+
+    @Override
+    public @NonNull Expression<?> build (
+      @NonNull final ExpressionFactory factory,
+      @NonNull final Expression<?>... operands
+    ) {
+      return factory.and((List) Arrays.asList(operands));
+    }
+  },
+  OR {
+    @Override
+    public @NonNull Expression<?> build (
+      @NonNull final ExpressionFactory factory,
+      @NonNull final Expression<?>... operands
+    ) {
+      return factory.or((Expression) operands[0], (Expression) operands[1]);
+    }
+  },
+  EQUAL {
+    @Override
+    public @NonNull Expression<?> build (
+      @NonNull final ExpressionFactory factory,
+      @NonNull final Expression<?>... operands
+    ) {
+      return factory.equal((Expression) operands[0], (Expression) operands[1]);
+    }
+  },
+  GREATER_THAN {
+    @Override
+    public @NonNull Expression<?> build (
+      @NonNull final ExpressionFactory factory,
+      @NonNull final Expression<?>... operands
+    ) {
+      return factory.greaterThan((Expression) operands[0], (Expression) operands[1]);
+    }
+  },
+  LESS_THAN {
+    @Override
+    public @NonNull Expression<?> build (
+      @NonNull final ExpressionFactory factory,
+      @NonNull final Expression<?>... operands
+    ) {
+      return factory.lessThan((Expression) operands[0], (Expression) operands[1]);
+    }
+  },
+  MODULUS {
+    @Override
+    public @NonNull Expression<?> build (
+      @NonNull final ExpressionFactory factory,
+      @NonNull final Expression<?>... operands
+    ) {
+      return factory.modulus((Expression) operands[0], (Expression) operands[1]);
+    }
+  };
+
+  @NonNull
+  private static final OperationType[] VALUES = values();
+
+  /**
+   * Return true if this operation can be built with the given number of operands.
+   *
+   * @param arity A number of operands.
+   *
+   * @return True if this operation can be built with the given number of operands.
+   */
+  public boolean accept (final int arity) {
+    return arity == 2;
+  }
+
+  /**
+   * Build a new expression of this type.
+   *
+   * @param factory  The factory to use for building the expression.
+   * @param operands Operands of the operation to build.
+   *
+   * @return A new expression of this type.
+   */
+  public abstract @NonNull Expression<?> build (
+    @NonNull final ExpressionFactory factory,
+    @NonNull final Expression<?>... operands
+  );
+
+  /**
+   * Return the children of the given expression as an array.
+   *
+   * @param expression An expression to explode.
+   *
+   * @return The children of the given expression as an array.
+   */
+  public static @NonNull Expression<?>[] getOperands (@NonNull final Expression<?> expression) {
+    @NonNull final View<@NonNull Expression> children = expression.getChildren();
+    @NonNull final Expression<?>[] result = new Expression<?>[children.getSize()];
+
+    for (int index = 0; index < result.length; ++index) {
+      result[index] = children.get(index);
+    }
+
+    return result;
+  }
+
+  /**
+   * Try to recognize the type of the given expression.
+   *
+   * @param factory    A factory to use for rebuilding the expression.
+   * @param expression An expression to recognize.
+   *
+   * @return The type of the given expression, if the given expression is a known operation.
+   */
+  public static @NonNull Optional<OperationType> of (
+    @NonNull final ExpressionFactory factory,
+    @NonNull final Expression<?> expression
+  ) {
+    @NonNull final Expression<?>[] operands = getOperands(expression);
+
+    if (operands.length == 0) return Optional.empty();
+
+    for (@NonNull final OperationType type : VALUES) {
+      if (type.accept(operands.length) && matches(type.tryBuild(factory, operands), expression)) {
+        return Optional.of(type);
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Return true if the given expression is an operation of this type.
+   *
+   * @param factory    A factory to use for rebuilding the expression.
+   * @param expression An expression to test.
+   *
+   * @return True if the given expression is an operation of this type.
+   */
+  public boolean isTypeOf (
+    @NonNull final ExpressionFactory factory,
+    @NonNull final Expression<?> expression
+  ) {
+    @NonNull final Expression<?>[] operands = getOperands(expression);
+
+    return operands.length > 0 && accept(operands.length) && matches(
+      tryBuild(factory, operands),
+      expression
+    );
+  }
+
+  private @Nullable Expression<?> tryBuild (
+    @NonNull final ExpressionFactory factory,
+    @NonNull final Expression<?>[] operands
+  ) {
+    try {
+      return build(factory, operands);
+    } catch (@NonNull final RuntimeException exception) {
+      // The factory refused the operands, so the expression can't be of this type.
+      return null;
+    }
+  }
+
+  private static boolean matches (
+    @Nullable final Expression<?> candidate,
+    @NonNull final Expression<?> expression
+  ) {
+    return candidate != null && candidate.getClass() == expression.getClass() && candidate.equals(
+      expression
+    );
+  }
+}
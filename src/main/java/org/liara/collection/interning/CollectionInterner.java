@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.interning;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.GraphCollectionBuilder;
+import org.liara.collection.operator.Composition;
+import org.liara.collection.operator.Operator;
+import org.liara.collection.operator.filtering.ExpressionFilter;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.grouping.ExpressionGroup;
+import org.liara.collection.operator.grouping.Group;
+import org.liara.collection.operator.grouping.SessionWindowGroup;
+import org.liara.collection.operator.grouping.SlidingWindowGroup;
+import org.liara.collection.operator.grouping.TumblingWindowGroup;
+import org.liara.collection.operator.grouping.WindowGroup;
+import org.liara.collection.operator.ordering.ExpressionOrder;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.sampling.Sample;
+import org.liara.collection.operator.selection.AggregateSelect;
+import org.liara.collection.operator.selection.ApproximateDistinctCountSelect;
+import org.liara.collection.operator.selection.ApproximateQuantileSelect;
+import org.liara.collection.operator.selection.ExpressionSelect;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.operator.selection.WindowStartSelect;
+import org.liara.collection.source.JoinSource;
+import org.liara.collection.source.JoinSourcePlaceholder;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.SourceRegistry;
+import org.liara.collection.source.TableSource;
+import org.liara.collection.source.TableSourcePlaceholder;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+import org.liara.support.view.View;
+
+/**
+ * A table of canonical instances of sources, expressions and operators.
+ *
+ * An interner returns the same instance for structurally equal values, so that equality checks over interned values
+ * reduce to identity checks and that collections built from interned values share their common subtrees. Expressions
+ * are interned bottom-up and the placeholders that they contain are redirected to the canonical instance of their
+ * source. As a consequence, interned operators must be applied to collections over canonical sources, which is what
+ * {@link #intern(GraphCollection)} does.
+ *
+ * Canonical instances are weakly referenced and are released when they are no longer used. An interner is
+ * thread-safe.
+ */
+public final class CollectionInterner
+{
+  @NonNull
+  private static final CollectionInterner SHARED = new CollectionInterner(SourceRegistry.shared());
+
+  @NonNull
+  private final Interner<@NonNull Object> _values;
+
+  @NonNull
+  private final SourceRegistry _sources;
+
+  @NonNull
+  private final ExpressionFactory _expressionFactory;
+
+  /**
+   * Instantiate a new empty interner with its own registry of sources.
+   */
+  public CollectionInterner () {
+    this(new SourceRegistry());
+  }
+
+  /**
+   * Instantiate a new empty interner.
+   *
+   * @param sources Registry to use for interning sources.
+   */
+  public CollectionInterner (@NonNull final SourceRegistry sources) {
+    _values = Interners.newWeakInterner();
+    _sources = sources;
+    _expressionFactory = new ExpressionFactory();
+  }
+
+  /**
+   * @return An interner shared by the entire application.
+   */
+  public static @NonNull CollectionInterner shared () {
+    return SHARED;
+  }
+
+  /**
+   * Return the canonical instance of a collection.
+   *
+   * @param collection A collection to intern.
+   *
+   * @return A collection equal to the given one over a canonical source and made of canonical operators.
+   */
+  public @NonNull GraphCollection intern (@NonNull final GraphCollection collection) {
+    @NonNull final GraphCollectionBuilder result = new GraphCollectionBuilder(intern(collection.getSource()));
+
+    result.setCursor(intern(collection.getCursor()));
+    result.sample(intern(collection.getSample()));
+
+    for (@NonNull final Filter filter : collection.getFilters()) {
+      result.addFilter(intern(filter));
+    }
+
+    for (@NonNull final Order order : collection.getOrderings()) {
+      result.orderBy(intern(order));
+    }
+
+    for (@NonNull final Group group : collection.getGroups()) {
+      result.groupBy(intern(group));
+    }
+
+    for (@NonNull final Select select : collection.getSelections()) {
+      result.select(intern(select));
+    }
+
+    return result.build();
+  }
+
+  /**
+   * Return the canonical instance of an operator.
+   *
+   * Compositions, samples and operators based upon expressions are interned deeply, any other operator is interned as
+   * is.
+   *
+   * @param operator An operator to intern.
+   * @param <Result> Type of the operator to intern.
+   *
+   * @return The canonical instance of the given operator.
+   */
+  @SuppressWarnings("unchecked") // Each branch returns an instance of the same class as the given operator.
+  public <Result extends Operator> @NonNull Result intern (@NonNull final Result operator) {
+    if (operator instanceof Composition) {
+      return (Result) internComposition((Composition) operator);
+    } else if (operator instanceof ExpressionFilter) {
+      return (Result) _values.intern(new ExpressionFilter(intern(((ExpressionFilter) operator).getExpression())));
+    } else if (operator instanceof ExpressionOrder) {
+      @NonNull final ExpressionOrder order = (ExpressionOrder) operator;
+      return (Result) _values.intern(new ExpressionOrder(intern(order.getExpression()), order.getDirection()));
+    } else if (operator instanceof Select) {
+      return (Result) internSelect((Select<?>) operator);
+    } else if (operator instanceof Group) {
+      return (Result) internGroup((Group) operator);
+    } else if (operator instanceof Sample) {
+      return (Result) internSample((Sample) operator);
+    }
+
+    return (Result) _values.intern(operator);
+  }
+
+  private @NonNull Composition internComposition (@NonNull final Composition composition) {
+    @NonNull final Operator[] operators = composition.getOperators();
+
+    for (int index = 0; index < operators.length; ++index) {
+      operators[index] = intern(operators[index]);
+    }
+
+    return (Composition) _values.intern(new Composition(operators));
+  }
+
+  private @NonNull Group internGroup (@NonNull final Group group) {
+    if (group instanceof ExpressionGroup) {
+      return (Group) _values.intern(new ExpressionGroup(intern(group.getExpression())));
+    } else if (group instanceof TumblingWindowGroup) {
+      @NonNull final TumblingWindowGroup window = (TumblingWindowGroup) group;
+      return (Group) _values.intern(new TumblingWindowGroup(intern(window.getExpression()), window.getSize()));
+    } else if (group instanceof SlidingWindowGroup) {
+      @NonNull final SlidingWindowGroup window = (SlidingWindowGroup) group;
+      return (Group) _values.intern(
+        new SlidingWindowGroup(intern(window.getExpression()), window.getSize(), window.getHop())
+      );
+    } else if (group instanceof SessionWindowGroup) {
+      @NonNull final SessionWindowGroup window = (SessionWindowGroup) group;
+      return (Group) _values.intern(new SessionWindowGroup(intern(window.getExpression()), window.getGap()));
+    }
+
+    return (Group) _values.intern(group);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"}) // Interned expressions have the same type as the original ones.
+  private @NonNull Select<?> internSelect (@NonNull final Select<?> select) {
+    if (select instanceof ExpressionSelect) {
+      @NonNull final ExpressionSelect<?> expressionSelect = (ExpressionSelect<?>) select;
+      return (Select<?>) _values.intern(
+        new ExpressionSelect(intern(expressionSelect.getExpression()), expressionSelect.getName())
+      );
+    } else if (select instanceof AggregateSelect) {
+      @NonNull final AggregateSelect<?> aggregate = (AggregateSelect<?>) select;
+      return (Select<?>) _values.intern(
+        new AggregateSelect(aggregate.getAggregation(), intern(aggregate.getExpression()), aggregate.getName())
+      );
+    } else if (select instanceof ApproximateDistinctCountSelect) {
+      @NonNull final ApproximateDistinctCountSelect<?> count = (ApproximateDistinctCountSelect<?>) select;
+      return (Select<?>) _values.intern(
+        new ApproximateDistinctCountSelect(intern(count.getExpression()), count.getPrecision(), count.getName())
+      );
+    } else if (select instanceof ApproximateQuantileSelect) {
+      @NonNull final ApproximateQuantileSelect<?> quantile = (ApproximateQuantileSelect<?>) select;
+      return (Select<?>) _values.intern(
+        new ApproximateQuantileSelect(
+          intern(quantile.getExpression()), quantile.getQuantile(), quantile.getAccuracy(), quantile.getName()
+        )
+      );
+    } else if (select instanceof WindowStartSelect) {
+      @NonNull final WindowStartSelect<?> start = (WindowStartSelect<?>) select;
+      return (Select<?>) _values.intern(
+        new WindowStartSelect((WindowGroup) internGroup(start.getWindow()), start.getName())
+      );
+    }
+
+    return (Select<?>) _values.intern(select);
+  }
+
+  private @NonNull Sample internSample (@NonNull final Sample sample) {
+    @Nullable final Expression<?> key = sample.getKey();
+
+    if (key == null) return (Sample) _values.intern(sample);
+
+    return (Sample) _values.intern(
+      new Sample(sample.getMethod(), sample.getRate(), sample.getSeed(), intern(key), sample.getBlockSize())
+    );
+  }
+
+  /**
+   * Return the canonical instance of an expression.
+   *
+   * @param expression An expression to intern.
+   * @param <Type> Type of the expression result.
+   *
+   * @return The canonical instance of the given expression.
+   */
+  public <Type> @NonNull Expression<Type> intern (@NonNull final Expression<Type> expression) {
+    return intern(expression, null);
+  }
+
+  @SuppressWarnings("unchecked") // Rewritten expressions have the same result type as the original one.
+  private <Type> @NonNull Expression<Type> intern (
+    @NonNull final Expression<Type> expression,
+    @Nullable final JoinSource unlinked
+  ) {
+    if (expression instanceof TableSourcePlaceholder) {
+      @NonNull final TableSourcePlaceholder<Type> placeholder = (TableSourcePlaceholder<Type>) expression;
+      return intern(placeholder.getSource()).getOwnPlaceholder(placeholder.getColumn());
+    }
+
+    if (expression instanceof JoinSourcePlaceholder) {
+      @NonNull final JoinSourcePlaceholder<Type> placeholder = (JoinSourcePlaceholder<Type>) expression;
+
+      if (placeholder.getSource() == unlinked) {
+        return intern(unlinked.getJoined()).getOwnPlaceholder(placeholder.getColumn());
+      } else {
+        return intern(placeholder.getSource()).getOwnPlaceholder(placeholder.getColumn());
+      }
+    }
+
+    @NonNull final View<@NonNull Expression> children = expression.getChildren();
+
+    if (children.getSize() <= 0) {
+      return (Expression<Type>) _values.intern(expression);
+    }
+
+    @NonNull final Expression[] internedChildren = new Expression[children.getSize()];
+    boolean changed = false;
+
+    for (int index = 0, size = children.getSize(); index < size; ++index) {
+      internedChildren[index] = intern((Expression<?>) children.get(index), unlinked);
+      changed |= internedChildren[index] != children.get(index);
+    }
+
+    if (changed) {
+      return (Expression<Type>) _values.intern(_expressionFactory.rewrite(expression, internedChildren));
+    } else {
+      return (Expression<Type>) _values.intern(expression);
+    }
+  }
+
+  /**
+   * Return the canonical instance of a source.
+   *
+   * @param source A source to intern.
+   * @param <Result> Type of the source to intern.
+   *
+   * @return The canonical instance of the given source.
+   */
+  @SuppressWarnings("unchecked") // Each branch returns an instance of the same class as the given source.
+  public <Result extends Source> @NonNull Result intern (@NonNull final Result source) {
+    if (source instanceof TableSource) {
+      return (Result) internTable((TableSource) source);
+    } else if (source instanceof JoinSource) {
+      return (Result) internJoin((JoinSource) source);
+    }
+
+    return source;
+  }
+
+  private @NonNull TableSource internTable (@NonNull final TableSource source) {
+    return _sources.register(source);
+  }
+
+  private @NonNull JoinSource internJoin (@NonNull final JoinSource source) {
+    return _sources.join(
+      source.getType(),
+      intern(source.getOrigin()),
+      internTable(source.getJoined()),
+      intern(source.getPredicate(), source),
+      source.getName()
+    );
+  }
+}
@@ -42,12 +42,15 @@ public class ExpressionToJPACompiler
   @NonNull
   private final ExpressionToSQLCompiler _compiler;
 
+  private int _parameterCount;
+
   /**
    * Instantiate a new expression to SQL transpiler.
    */
   public ExpressionToJPACompiler () {
     _compiler = new ExpressionToSQLCompiler();
     _result = new StringBuilder();
+    _parameterCount = 0;
   }
 
   /**
@@ -111,6 +114,7 @@ public class ExpressionToJPACompiler
       exitSelectionPlaceholder((SelectionPlaceholder<T>) placeholder, output);
     } else {
       output.append("?");
+      _parameterCount += 1;
     }
   }
 
@@ -143,6 +147,20 @@ public class ExpressionToJPACompiler
     _compiler.reset();
   }
 
+  /**
+   * @return The number of parameters rendered since the last call to {@link #resetParameterCount()}.
+   */
+  public int getParameterCount () {
+    return _parameterCount;
+  }
+
+  /**
+   * Restart the count of rendered parameters.
+   */
+  public void resetParameterCount () {
+    _parameterCount = 0;
+  }
+
   public boolean canEnter () {
     return _compiler.canEnter();
   }
@@ -25,11 +25,22 @@ package org.liara.collection.jpa;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.collection.GraphCollection;
+import org.liara.collection.metrics.Allocations;
+import org.liara.collection.metrics.QueryListener;
+import org.liara.collection.metrics.QueryMetrics;
 import org.liara.collection.operator.filtering.Filter;
 import org.liara.collection.operator.grouping.Group;
+import org.liara.collection.operator.grouping.TumblingWindowGroup;
+import org.liara.collection.operator.grouping.WindowGroup;
 import org.liara.collection.operator.ordering.Order;
 import org.liara.collection.operator.ordering.OrderingDirection;
+import org.liara.collection.operator.sampling.Sample;
+import org.liara.collection.operator.sampling.SamplingMethod;
+import org.liara.collection.operator.selection.AggregateSelect;
+import org.liara.collection.operator.selection.ApproximateDistinctCountSelect;
+import org.liara.collection.operator.selection.ApproximateQuantileSelect;
 import org.liara.collection.operator.selection.Select;
+import org.liara.collection.operator.selection.WindowStartSelect;
 import org.liara.collection.source.JoinSource;
 import org.liara.collection.source.Source;
 import org.liara.collection.source.TableSource;
@@ -53,10 +64,60 @@ public final class JPACollectionDriver
   @NonNull
   private final ExpressionFactory _expressionFactory;
 
+  @NonNull
+  private final QueryListener _listener;
+
+  @NonNull
+  private final SamplingDialect _samplingDialect;
+
+  @NonNull
+  private final TemporalDialect _temporalDialect;
+
   public JPACollectionDriver () {
+    this(QueryListener.NONE);
+  }
+
+  /**
+   * Instantiate a driver that reports the metrics of each compiled query.
+   *
+   * @param listener A listener to notify after the compilation of each query.
+   */
+  public JPACollectionDriver (@NonNull final QueryListener listener) {
+    this(listener, SamplingDialect.MYSQL);
+  }
+
+  /**
+   * Instantiate a driver that reports the metrics of each compiled query and that renders samples for a given dialect.
+   *
+   * @param listener        A listener to notify after the compilation of each query.
+   * @param samplingDialect The dialect to use for rendering samples.
+   */
+  public JPACollectionDriver (
+    @NonNull final QueryListener listener,
+    @NonNull final SamplingDialect samplingDialect
+  ) {
+    this(listener, samplingDialect, TemporalDialect.MYSQL);
+  }
+
+  /**
+   * Instantiate a driver that reports the metrics of each compiled query and that renders samples and temporal
+   * conversions for given dialects.
+   *
+   * @param listener        A listener to notify after the compilation of each query.
+   * @param samplingDialect The dialect to use for rendering samples.
+   * @param temporalDialect The dialect to use for rendering temporal conversions.
+   */
+  public JPACollectionDriver (
+    @NonNull final QueryListener listener,
+    @NonNull final SamplingDialect samplingDialect,
+    @NonNull final TemporalDialect temporalDialect
+  ) {
     _expressionToJPACompiler = new ExpressionToJPACompiler();
     _output = new StringBuilder();
     _expressionFactory = new ExpressionFactory();
+    _listener = listener;
+    _samplingDialect = samplingDialect;
+    _temporalDialect = temporalDialect;
   }
 
   /**
@@ -117,6 +178,7 @@ public final class JPACollectionDriver
 
       if (toRender instanceof TableSource) {
         renderTableSource((TableSource) toRender);
+        if (hasTableSample(collection)) renderTableSample(collection);
       } else if (toRender instanceof JoinSource) {
         renderJoinSource((JoinSource) toRender);
       } else {
@@ -176,22 +238,43 @@ public final class JPACollectionDriver
     }
   }
 
+  private boolean hasTableSample (@NonNull final GraphCollection collection) {
+    return collection.isSampled() && _samplingDialect.hasTableSample(collection.getSample());
+  }
+
+  private void renderTableSample (@NonNull final GraphCollection collection) {
+    _output.append(' ');
+    _samplingDialect.renderTableSample(collection.getSample(), _output);
+  }
+
   /**
    * Build and return a valid JPA where clause for the given collection if any.
    *
+   * The sample of the collection, if any and if the dialect does not render it as a table sample, is rendered as an
+   * additional predicate.
+   *
    * @param collection A collection from which extracting the where clause.
    *
    * @return A valid JPA where clause for the given collection if any.
    */
   public @NonNull Optional<String> getWhereClause (@NonNull final GraphCollection collection) {
-    if (collection.isFiltered()) {
-      @NonNull final List<@NonNull Expression<Boolean>> filters = (
-        collection.getFilters().stream().map(Filter::getExpression).collect(Collectors.toList())
-      );
+    final boolean sampled = collection.isSampled() && !hasTableSample(collection);
 
-      _expressionToJPACompiler.setExpression(_expressionFactory.and(filters));
-      _expressionToJPACompiler.compile(_output);
-      _expressionToJPACompiler.setExpression(null);
+    if (collection.isFiltered() || sampled) {
+      if (collection.isFiltered()) {
+        @NonNull final List<@NonNull Expression<Boolean>> filters = (
+          collection.getFilters().stream().map(Filter::getExpression).collect(Collectors.toList())
+        );
+
+        _expressionToJPACompiler.setExpression(_expressionFactory.and(filters));
+        _expressionToJPACompiler.compile(_output);
+        _expressionToJPACompiler.setExpression(null);
+      }
+
+      if (sampled) {
+        if (collection.isFiltered()) _output.append(" AND ");
+        renderSample(collection);
+      }
 
       @NonNull final String result = _output.toString();
       _output.setLength(0);
@@ -202,23 +285,70 @@ public final class JPACollectionDriver
     return Optional.empty();
   }
 
+  /**
+   * Render the sample of a collection as a predicate over the hash of the key of each row, for dialects that do not
+   * have any sampling clause.
+   *
+   * @param collection A sampled collection.
+   */
+  private void renderSample (@NonNull final GraphCollection collection) {
+    @NonNull final Sample        sample = collection.getSample();
+    @NonNull final StringBuilder key    = new StringBuilder();
+
+    if (sample.getMethod() == SamplingMethod.BLOCK) key.append("FLOOR(");
+
+    _expressionToJPACompiler.setExpression(sample.getEffectiveKey(getRootSource(collection)));
+    _expressionToJPACompiler.compile(key);
+    _expressionToJPACompiler.setExpression(null);
+
+    if (sample.getMethod() == SamplingMethod.BLOCK) {
+      key.append(" / ");
+      key.append(sample.getBlockSize());
+      key.append(')');
+    }
+
+    _samplingDialect.renderSamplePredicate(sample, key, _output);
+  }
+
+  private @NonNull TableSource getRootSource (@NonNull final GraphCollection collection) {
+    @NonNull Source source = collection.getSource();
+
+    while (source instanceof JoinSource) {
+      source = ((JoinSource) source).getOrigin();
+    }
+
+    if (source instanceof TableSource) return (TableSource) source;
+
+    throw new Error("Unhandled source type " + source.getClass().getName() + ".");
+  }
+
   /**
    * Build and return a valid JPA grouping clause for the given collection if any.
    *
+   * Tumbling windows are rendered as the start of the window of each row, in milliseconds since the epoch.
+   *
    * @param collection A collection from which extracting the grouping clause.
    *
    * @return A valid JPA grouping clause for the given collection if any.
+   *
+   * @throws UnsupportedOperationException If the collection is grouped by sliding or session windows.
    */
   public @NonNull Optional<String> getGroupingClause (@NonNull final GraphCollection collection) {
+    assertRenderable(collection);
+
     if (collection.isGrouped()) {
       @NonNull final Iterator<@NonNull Group> groups = collection.getGroups().iterator();
 
       while (groups.hasNext()) {
         @NonNull final Group group = groups.next();
 
-        _expressionToJPACompiler.setExpression(group.getExpression());
-        _expressionToJPACompiler.compile(_output);
-        _expressionToJPACompiler.setExpression(null);
+        if (group instanceof WindowGroup) {
+          renderWindowStart((WindowGroup) group);
+        } else {
+          _expressionToJPACompiler.setExpression(group.getExpression());
+          _expressionToJPACompiler.compile(_output);
+          _expressionToJPACompiler.setExpression(null);
+        }
 
         if (groups.hasNext()) {
           _output.append(", ");
@@ -237,19 +367,42 @@ public final class JPACollectionDriver
   /**
    * Build and return a valid JPA select clause for the given collection if any.
    *
+   * Approximate distinct counts are rendered as exact COUNT(DISTINCT ...) aggregations, as JPA queries do not have any
+   * sketch function : their result is exact, and then within the error bound of any precision, but the database
+   * must keep each distinct value of each group. Approximate quantiles do not have any exact equivalent and are
+   * rejected.
+   *
    * @param collection A collection from which extracting the select clause.
    *
    * @return A valid JPA select clause for the given collection if any.
+   *
+   * @throws UnsupportedOperationException If the collection selects an approximate quantile or the start of a
+   *                                       sliding or session window.
    */
   public @NonNull String getSelectClause (@NonNull final GraphCollection collection) {
+    assertRenderable(collection);
+
     @NonNull final Iterator<@NonNull Select> selections = collection.getSelections().iterator();
 
     while (selections.hasNext()) {
       @NonNull final Select select = selections.next();
 
-      _expressionToJPACompiler.setExpression(select.getExpression());
-      _expressionToJPACompiler.compile(_output);
-      _expressionToJPACompiler.setExpression(null);
+      if (select instanceof AggregateSelect) {
+        renderAggregateSelect((AggregateSelect<?>) select);
+      } else if (select instanceof ApproximateDistinctCountSelect) {
+        // An exact count is a valid estimation of any precision, see the documentation of this method.
+        _output.append("COUNT(DISTINCT ");
+        _expressionToJPACompiler.setExpression(select.getExpression());
+        _expressionToJPACompiler.compile(_output);
+        _expressionToJPACompiler.setExpression(null);
+        _output.append(')');
+      } else if (select instanceof WindowStartSelect) {
+        renderWindowStart(((WindowStartSelect<?>) select).getWindow());
+      } else {
+        _expressionToJPACompiler.setExpression(select.getExpression());
+        _expressionToJPACompiler.compile(_output);
+        _expressionToJPACompiler.setExpression(null);
+      }
 
       if (select.getName() != null) {
         _output.append(" AS ");
@@ -267,6 +420,119 @@ public final class JPACollectionDriver
     return result;
   }
 
+  private void renderAggregateSelect (@NonNull final AggregateSelect<?> select) {
+    switch (select.getAggregation()) {
+      case COUNT: _output.append("COUNT(");
+        break;
+      case SUM: _output.append("SUM(");
+        break;
+      case MIN: _output.append("MIN(");
+        break;
+      case MAX: _output.append("MAX(");
+        break;
+      case AVERAGE: _output.append("AVG(");
+        break;
+    }
+
+    _expressionToJPACompiler.setExpression(select.getExpression());
+    _expressionToJPACompiler.compile(_output);
+    _expressionToJPACompiler.setExpression(null);
+
+    _output.append(')');
+  }
+
+  /**
+   * Return true if the given group can be rendered in a query.
+   *
+   * Sliding windows assign a row to many windows and session windows depend on the previous row, they can't be
+   * expressed as a grouping expression and must be evaluated in memory.
+   *
+   * @param group A group to check.
+   *
+   * @return True if the given group can be rendered in a query.
+   */
+  public static boolean isRenderable (@NonNull final Group group) {
+    return !(group instanceof WindowGroup) || group instanceof TumblingWindowGroup;
+  }
+
+  /**
+   * Return true if the given selection can be rendered in a query.
+   *
+   * Quantiles can't be expressed in a query, approximate quantiles must be evaluated in memory.
+   *
+   * @param select A selection to check.
+   *
+   * @return True if the given selection can be rendered in a query.
+   */
+  public static boolean isRenderable (@NonNull final Select<?> select) {
+    if (select instanceof ApproximateQuantileSelect) return false;
+    if (select instanceof WindowStartSelect) return isRenderable(((WindowStartSelect<?>) select).getWindow());
+
+    return true;
+  }
+
+  /**
+   * Check that each group and each selection of a collection can be rendered, before rendering any clause.
+   *
+   * @param collection A collection to check.
+   *
+   * @throws UnsupportedOperationException If a group or a selection of the collection can't be rendered.
+   */
+  private static void assertRenderable (@NonNull final GraphCollection collection) {
+    for (@NonNull final Group group : collection.getGroups()) {
+      if (!isRenderable(group)) {
+        throw new UnsupportedOperationException(
+          "Unable to render the group " + group + " because a query can only group its rows by tumbling " +
+          "windows, other kinds of windows must be evaluated in memory."
+        );
+      }
+    }
+
+    for (@NonNull final Select<?> select : collection.getSelections()) {
+      if (!isRenderable(select)) {
+        throw new UnsupportedOperationException(
+          "Unable to render the selection " + select + " because approximate quantiles and the start of " +
+          "sliding or session windows can't be expressed in a query, they must be evaluated in memory."
+        );
+      }
+    }
+  }
+
+  /**
+   * Render the start of the tumbling window of each row, in milliseconds since the epoch.
+   *
+   * Numeric timestamps are already a number of milliseconds since the epoch, other timestamps are converted by the
+   * temporal dialect of this driver.
+   *
+   * @param window A tumbling window to render.
+   */
+  private void renderWindowStart (@NonNull final WindowGroup window) {
+    @NonNull final Expression<?> timestamp = window.getExpression();
+    final long size = ((TumblingWindowGroup) window).getSize().toMillis();
+
+    _output.append("(FLOOR(");
+
+    if (Number.class.isAssignableFrom(timestamp.getResultType().getJavaClass())) {
+      _expressionToJPACompiler.setExpression(timestamp);
+      _expressionToJPACompiler.compile(_output);
+      _expressionToJPACompiler.setExpression(null);
+    } else {
+      @NonNull final StringBuilder rendered = new StringBuilder();
+
+      _expressionToJPACompiler.setExpression(timestamp);
+      _expressionToJPACompiler.compile(rendered);
+      _expressionToJPACompiler.setExpression(null);
+
+      _temporalDialect.renderEpochMilli(rendered, _output);
+    }
+
+    _output.append(" / ");
+    _output.append(size);
+    _output.append(") * ");
+    _output.append(size);
+    _output.append(')');
+  }
+
   /**
    * Return a complete JPA query for the given collection.
    *
@@ -275,6 +541,30 @@ public final class JPACollectionDriver
    * @return A complete JPA query for the given collection.
    */
   public @NonNull String getQuery (@NonNull final GraphCollection collection) {
+    if (!_listener.isEnabled()) return renderQuery(collection);
+
+    _expressionToJPACompiler.resetParameterCount();
+
+    final long allocated = Allocations.getAllocatedBytes();
+    final long start = System.nanoTime();
+
+    @NonNull final String query = renderQuery(collection);
+
+    final long end = System.nanoTime();
+
+    _listener.onCompile(new QueryMetrics(
+      query,
+      end - start,
+      _expressionToJPACompiler.getParameterCount(),
+      (allocated < 0) ? -1 : Allocations.getAllocatedBytes() - allocated
+    ));
+
+    return query;
+  }
+
+  private @NonNull String renderQuery (@NonNull final GraphCollection collection) {
+    assertRenderable(collection);
+
     @NonNull final Optional<String> filteringClause = getWhereClause(collection);
     @NonNull final Optional<String> orderingClause  = getOrderingClause(collection);
     @NonNull final String           selectClause    = getSelectClause(collection);
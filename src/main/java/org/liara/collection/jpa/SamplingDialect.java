@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package org.liara.collection.jpa;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.collection.operator.sampling.Sample;
+
+/**
+ * The rendering of samples for a given database dialect.
+ *
+ * A dialect that has a native sampling clause renders it after the root table of the query. Otherwise, the sample is
+ * rendered as a predicate over the hash of the key of each row.
+ */
+public interface SamplingDialect
+{
+  /**
+   * The number of distinct values of the hash predicate of a sample.
+   */
+  long PRECISION = 1_000_000L;
+
+  /**
+   * The MySQL dialect, that does not have any sampling clause.
+   *
+   * Rows are sampled by a predicate over the CRC32 checksum of their key concatenated with the seed of the sample.
+   * CRC32 and CONCAT are MySQL functions, the rendered predicate is then not portable to other databases.
+   */
+  @NonNull SamplingDialect MYSQL = (sample, key, output) -> {
+    output.append("MOD(ABS(CRC32(CONCAT(");
+    output.append(key);
+    output.append(", ':', ");
+    output.append(sample.getEffectiveSeed());
+    output.append("))), ");
+    output.append(PRECISION);
+    output.append(") < ");
+    output.append(Math.round(sample.getRate() * PRECISION));
+  };
+
+  /**
+   * Return true if this dialect renders the given sample as a clause of the root table of a query.
+   *
+   * @param sample A sample to render.
+   *
+   * @return True if this dialect renders the given sample as a clause of the root table of a query.
+   */
+  default boolean hasTableSample (@NonNull final Sample sample) {
+    return false;
+  }
+
+  /**
+   * Render the given sample as a clause of the root table of a query.
+   *
+   * @param sample A sample to render.
+   * @param output The output of the rendering.
+   */
+  default void renderTableSample (@NonNull final Sample sample, @NonNull final StringBuilder output) {
+    throw new UnsupportedOperationException(
+      "Unable to render the sample " + sample + " as a table sample because this dialect does not have any sampling " +
+      "clause."
+    );
+  }
+
+  /**
+   * Render the given sample as a predicate over the hash of the key of each row.
+   *
+   * @param sample A sample to render.
+   * @param key    The rendered key of each row, already divided by the size of a block for block samples.
+   * @param output The output of the rendering.
+   */
+  void renderSamplePredicate (
+    @NonNull final Sample sample,
+    @NonNull final CharSequence key,
+    @NonNull final StringBuilder output
+  );
+}
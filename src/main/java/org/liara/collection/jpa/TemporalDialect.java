@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package org.liara.collection.jpa;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * The rendering of temporal conversions for a given database dialect.
+ */
+public interface TemporalDialect
+{
+  /**
+   * The MySQL dialect.
+   *
+   * Date-times are converted by their difference with the epoch, that does not depend on the time zone of the session
+   * for DATETIME columns : as local date-times of the in-memory engine, their values are considered to be in UTC.
+   */
+  @NonNull TemporalDialect MYSQL = (timestamp, output) -> {
+    output.append("FLOOR(TIMESTAMPDIFF(MICROSECOND, '1970-01-01 00:00:00', ");
+    output.append(timestamp);
+    output.append(") / 1000)");
+  };
+
+  /**
+   * Render the conversion of a date-time into a number of milliseconds since the epoch.
+   *
+   * @param timestamp The rendered date-time to convert.
+   * @param output    The output of the rendering.
+   */
+  void renderEpochMilli (@NonNull final CharSequence timestamp, @NonNull final StringBuilder output);
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The incrementally maintained state of an aggregation function.
+ */
+public interface Aggregator
+{
+  /**
+   * Add a value to the aggregated group.
+   *
+   * @param value A value to add, null values are ignored.
+   */
+  void add (@Nullable final Object value);
+
+  /**
+   * Remove a previously added value from the aggregated group.
+   *
+   * @param value A value to remove, null values are ignored.
+   *
+   * @throws UnsupportedOperationException If this aggregator is not invertible.
+   */
+  void remove (@Nullable final Object value);
+
+  /**
+   * Add each value aggregated by another aggregator of the same function to this aggregator.
+   *
+   * @param other An aggregator of the same function to merge into this one.
+   */
+  void merge (@NonNull final Aggregator other);
+
+  /**
+   * @return True if this aggregator supports the removal of values.
+   */
+  boolean isInvertible ();
+
+  /**
+   * @return The current result of the aggregation.
+   */
+  @Nullable Object getResult ();
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.operator.selection.AggregateSelect;
+import org.liara.collection.operator.selection.Aggregation;
+import org.liara.collection.operator.selection.ApproximateDistinctCountSelect;
+import org.liara.collection.operator.selection.ApproximateQuantileSelect;
+import org.liara.collection.operator.selection.Select;
+
+import java.util.TreeMap;
+
+/**
+ * Factory of aggregators of the in-memory engine.
+ */
+public final class Aggregators
+{
+  private Aggregators () {
+  }
+
+  /**
+   * Return true if the given selection is an aggregation.
+   *
+   * @param select A selection to test.
+   *
+   * @return True if the given selection is an aggregation.
+   */
+  public static boolean isAggregate (@NonNull final Select<?> select) {
+    return (
+      select instanceof AggregateSelect ||
+      select instanceof ApproximateDistinctCountSelect ||
+      select instanceof ApproximateQuantileSelect
+    );
+  }
+
+  /**
+   * Instantiate a new aggregator for the given selection.
+   *
+   * @param select An aggregate selection.
+   *
+   * @return A new empty aggregator for the given selection.
+   */
+  public static @NonNull Aggregator create (@NonNull final Select<?> select) {
+    if (select instanceof AggregateSelect) {
+      return create(((AggregateSelect<?>) select).getAggregation());
+    }
+
+    if (select instanceof ApproximateDistinctCountSelect) {
+      return new DistinctCountAggregator(((ApproximateDistinctCountSelect<?>) select).getPrecision());
+    }
+
+    if (select instanceof ApproximateQuantileSelect) {
+      @NonNull final ApproximateQuantileSelect<?> quantile = (ApproximateQuantileSelect<?>) select;
+      return new QuantileAggregator(quantile.getQuantile(), quantile.getAccuracy());
+    }
+
+    throw new IllegalArgumentException(
+      "Unable to instantiate an aggregator for the selection " + select + " because the given " +
+      "selection is not an aggregation."
+    );
+  }
+
+  /**
+   * Instantiate a new aggregator for the given aggregation function.
+   *
+   * @param aggregation An aggregation function.
+   *
+   * @return A new empty aggregator for the given aggregation function.
+   */
+  public static @NonNull Aggregator create (@NonNull final Aggregation aggregation) {
+    switch (aggregation) {
+      case COUNT:
+        return new CountAggregator();
+      case SUM:
+        return new SumAggregator();
+      case MIN:
+        return new ExtremumAggregator(false);
+      case MAX:
+        return new ExtremumAggregator(true);
+      case AVERAGE:
+        return new AverageAggregator();
+      default:
+        throw new IllegalArgumentException("Unhandled aggregation " + aggregation + ".");
+    }
+  }
+
+  private static final class CountAggregator
+    implements Aggregator
+  {
+    private long _count;
+
+    @Override
+    public void add (@Nullable final Object value) {
+      if (value != null) _count += 1;
+    }
+
+    @Override
+    public void remove (@Nullable final Object value) {
+      if (value != null) _count -= 1;
+    }
+
+    @Override
+    public void merge (@NonNull final Aggregator other) {
+      _count += ((CountAggregator) other)._count;
+    }
+
+    @Override
+    public boolean isInvertible () {
+      return true;
+    }
+
+    @Override
+    public @NonNull Object getResult () {
+      return _count;
+    }
+  }
+
+  private static final class SumAggregator
+    implements Aggregator
+  {
+    @NonNull
+    private Number _sum = 0L;
+
+    private long _count;
+
+    @Override
+    public void add (@Nullable final Object value) {
+      if (value != null) {
+        _sum = Values.add(_sum, (Number) value);
+        _count += 1;
+      }
+    }
+
+    @Override
+    public void remove (@Nullable final Object value) {
+      if (value != null) {
+        _sum = Values.subtract(_sum, (Number) value);
+        _count -= 1;
+      }
+    }
+
+    @Override
+    public void merge (@NonNull final Aggregator other) {
+      @NonNull final SumAggregator sum = (SumAggregator) other;
+      _sum = Values.add(_sum, sum._sum);
+      _count += sum._count;
+    }
+
+    @Override
+    public boolean isInvertible () {
+      return true;
+    }
+
+    @Override
+    public @Nullable Object getResult () {
+      return _count > 0 ? _sum : null;
+    }
+  }
+
+  private static final class AverageAggregator
+    implements Aggregator
+  {
+    private double _sum;
+
+    private long _count;
+
+    @Override
+    public void add (@Nullable final Object value) {
+      if (value != null) {
+        _sum += ((Number) value).doubleValue();
+        _count += 1;
+      }
+    }
+
+    @Override
+    public void remove (@Nullable final Object value) {
+      if (value != null) {
+        _sum -= ((Number) value).doubleValue();
+        _count -= 1;
+      }
+    }
+
+    @Override
+    public void merge (@NonNull final Aggregator other) {
+      @NonNull final AverageAggregator average = (AverageAggregator) other;
+      _sum += average._sum;
+      _count += average._count;
+    }
+
+    @Override
+    public boolean isInvertible () {
+      return true;
+    }
+
+    @Override
+    public @Nullable Object getResult () {
+      return _count > 0 ? _sum / _count : null;
+    }
+  }
+
+  /**
+   * Minimum and maximum aggregator that keep a count of each aggregated value in order to support removals.
+   */
+  private static final class ExtremumAggregator
+    implements Aggregator
+  {
+    @NonNull
+    private final TreeMap<@NonNull Object, @NonNull Integer> _values;
+
+    private final boolean _maximum;
+
+    ExtremumAggregator (final boolean maximum) {
+      _values = new TreeMap<>(Values::order);
+      _maximum = maximum;
+    }
+
+    @Override
+    public void add (@Nullable final Object value) {
+      if (value != null) _values.merge(value, 1, Integer::sum);
+    }
+
+    @Override
+    public void remove (@Nullable final Object value) {
+      if (value != null) {
+        _values.computeIfPresent(value, (key, count) -> count > 1 ? count - 1 : null);
+      }
+    }
+
+    @Override
+    public void merge (@NonNull final Aggregator other) {
+      ((ExtremumAggregator) other)._values.forEach(
+        (value, count) -> _values.merge(value, count, Integer::sum)
+      );
+    }
+
+    @Override
+    public boolean isInvertible () {
+      return true;
+    }
+
+    @Override
+    public @Nullable Object getResult () {
+      if (_values.isEmpty()) return null;
+
+      return _maximum ? _values.lastKey() : _values.firstKey();
+    }
+  }
+
+  private static final class DistinctCountAggregator
+    implements Aggregator
+  {
+    @NonNull
+    private final HyperLogLog _sketch;
+
+    DistinctCountAggregator (final int precision) {
+      _sketch = new HyperLogLog(precision);
+    }
+
+    @Override
+    public void add (@Nullable final Object value) {
+      _sketch.add(value);
+    }
+
+    @Override
+    public void remove (@Nullable final Object value) {
+      throw new UnsupportedOperationException(
+        "Unable to remove a value from an approximate distinct count because its sketch does " +
+        "not support removals."
+      );
+    }
+
+    @Override
+    public void merge (@NonNull final Aggregator other) {
+      _sketch.merge(((DistinctCountAggregator) other)._sketch);
+    }
+
+    @Override
+    public boolean isInvertible () {
+      return false;
+    }
+
+    @Override
+    public @NonNull Object getResult () {
+      return _sketch.estimate();
+    }
+  }
+
+  private static final class QuantileAggregator
+    implements Aggregator
+  {
+    @NonNull
+    private final QuantileSketch _sketch;
+
+    private final double _quantile;
+
+    QuantileAggregator (final double quantile, final int accuracy) {
+      _sketch = new QuantileSketch(accuracy);
+      _quantile = quantile;
+    }
+
+    @Override
+    public void add (@Nullable final Object value) {
+      _sketch.add(value);
+    }
+
+    @Override
+    public void remove (@Nullable final Object value) {
+      throw new UnsupportedOperationException(
+        "Unable to remove a value from an approximate quantile because its sketch does not " +
+        "support removals."
+      );
+    }
+
+    @Override
+    public void merge (@NonNull final Aggregator other) {
+      _sketch.merge(((QuantileAggregator) other)._sketch);
+    }
+
+    @Override
+    public boolean isInvertible () {
+      return false;
+    }
+
+    @Override
+    public @Nullable Object getResult () {
+      return _sketch.estimate(_quantile);
+    }
+  }
+}
@@ -0,0 +1,752 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.operator.grouping.Group;
+import org.liara.collection.operator.grouping.SessionWindowGroup;
+import org.liara.collection.operator.grouping.SlidingWindowGroup;
+import org.liara.collection.operator.grouping.TumblingWindowGroup;
+import org.liara.collection.operator.grouping.WindowGroup;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.operator.selection.WindowStartSelect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * The incrementally maintained groups of rows of a collection.
+ *
+ * Rows are dispatched into groups by the value of each grouping expression, or by the time windows of each window
+ * grouping. A row may belong to many sliding windows, and sessions are merged when a row bridges two of them. Rows
+ * without a timestamp are not assigned to any window.
+ *
+ * When a collection does not group nor aggregate its rows, each entry of this table is a set of equal rows.
+ *
+ * This class is not thread-safe.
+ */
+public final class GroupTable
+{
+  @NonNull
+  private static final Object[] NO_SELECTIONS = new Object[0];
+
+  @NonNull
+  private static final Consumer<@NonNull Entry> IGNORE = entry -> { };
+
+  private static final int VALUE = 0;
+
+  private static final int TUMBLING = 1;
+
+  private static final int SLIDING = 2;
+
+  private static final int SESSION = 3;
+
+  @NonNull
+  private final Group[] _groups;
+
+  @NonNull
+  private final int[] _kinds;
+
+  @NonNull
+  private final RowExpression[] _keys;
+
+  private final int _session;
+
+  @NonNull
+  private final Select<?>[] _selections;
+
+  @NonNull
+  private final RowExpression[] _selectionExpressions;
+
+  @NonNull
+  private final boolean[] _aggregates;
+
+  @NonNull
+  private final int[] _windowStarts;
+
+  private final boolean _aggregating;
+
+  @NonNull
+  private final Map<@NonNull List<@Nullable Object>, @NonNull Entry> _entries;
+
+  @NonNull
+  private final Map<@NonNull List<@Nullable Object>, @NonNull TreeMap<@NonNull Long, @NonNull Entry>> _sessions;
+
+  @NonNull
+  private final PriorityQueue<@NonNull Deadline> _deadlines;
+
+  private int _sessionCount;
+
+  /**
+   * Instantiate a new empty table of groups.
+   *
+   * @param groups     Groups of the collection.
+   * @param selections Selections of the collection.
+   * @param compiler   A compiler of expressions over the rows of the source of the collection.
+   * @param width      Number of columns of the rows of the source of the collection.
+   *
+   * @throws IllegalArgumentException      If the collection groups by more than one session window, or selects the
+   *                                       start of a window that it does not group by.
+   * @throws UnsupportedOperationException If the collection contains an expression that can't be evaluated in memory.
+   */
+  public GroupTable (
+    @NonNull final List<@NonNull Group> groups,
+    @NonNull final List<@NonNull Select> selections,
+    @NonNull final RowExpressionCompiler compiler,
+    @NonNegative final int width
+  ) {
+    _groups = groups.toArray(new Group[0]);
+    _kinds = new int[_groups.length];
+    _keys = new RowExpression[_groups.length];
+
+    int session = -1;
+
+    for (int index = 0; index < _groups.length; ++index) {
+      _kinds[index] = kindOf(_groups[index]);
+      _keys[index] = compiler.compile(_groups[index].getExpression());
+
+      if (_kinds[index] == SESSION) {
+        if (session >= 0) {
+          throw new IllegalArgumentException(
+            "Unable to group rows by " + _groups[index] + " because rows are already grouped " +
+            "by the session window " + _groups[session] + "."
+          );
+        }
+
+        session = index;
+      }
+    }
+
+    _session = session;
+    _selections = selections.toArray(new Select<?>[0]);
+    _selectionExpressions = new RowExpression[_selections.length];
+    _aggregates = new boolean[_selections.length];
+    _windowStarts = new int[_selections.length];
+
+    boolean aggregating = _groups.length > 0;
+
+    for (int index = 0; index < _selections.length; ++index) {
+      _selectionExpressions[index] = compiler.compile(_selections[index].getExpression());
+      _aggregates[index] = Aggregators.isAggregate(_selections[index]);
+      _windowStarts[index] = indexOfWindow(_selections[index]);
+      aggregating |= _aggregates[index];
+    }
+
+    _aggregating = aggregating;
+    _entries = new LinkedHashMap<>();
+    _sessions = new HashMap<>();
+    _deadlines = new PriorityQueue<>(Comparator.comparingLong(Deadline::getEnd));
+    _sessionCount = 0;
+
+    if (_aggregating && _groups.length == 0) {
+      _entries.put(Collections.emptyList(), new Entry(new Object[0], new Object[width], Long.MAX_VALUE));
+    }
+  }
+
+  private static int kindOf (@NonNull final Group group) {
+    if (group instanceof TumblingWindowGroup) return TUMBLING;
+    if (group instanceof SlidingWindowGroup) return SLIDING;
+    if (group instanceof SessionWindowGroup) return SESSION;
+    if (group instanceof WindowGroup) {
+      throw new UnsupportedOperationException(
+        "Unable to group rows by " + group + " because this kind of window is not supported " +
+        "in memory."
+      );
+    }
+
+    return VALUE;
+  }
+
+  private int indexOfWindow (@NonNull final Select<?> select) {
+    if (!(select instanceof WindowStartSelect)) return -1;
+
+    @NonNull final WindowGroup window = ((WindowStartSelect<?>) select).getWindow();
+
+    for (int index = 0; index < _groups.length; ++index) {
+      if (_groups[index].equals(window)) return index;
+    }
+
+    throw new IllegalArgumentException(
+      "Unable to select the start of the window " + window + " because the collection does not " +
+      "group its rows by this window."
+    );
+  }
+
+  /**
+   * Add a row to each group that it belongs to.
+   *
+   * @param row A row to add.
+   *
+   * @return True if the given row was added to at least one group.
+   */
+  public boolean insert (@NonNull final Object[] row) {
+    return insert(row, IGNORE);
+  }
+
+  /**
+   * Add a row to each group that it belongs to, and notify each group that was created, updated or merged.
+   *
+   * @param row     A row to add.
+   * @param updated Called with each group that was created, updated or merged into another one.
+   *
+   * @return True if the given row was added to at least one group.
+   */
+  public boolean insert (@NonNull final Object[] row, @NonNull final Consumer<@NonNull Entry> updated) {
+    @NonNull final List<@NonNull Object[]> keys = getKeys(row);
+
+    if (_session >= 0) {
+      @Nullable final Long timestamp = Timestamps.toEpochMilli(_keys[_session].evaluate(row, NO_SELECTIONS));
+
+      if (timestamp == null) return false;
+
+      for (@NonNull final Object[] key : keys) {
+        insertIntoSession(key, timestamp, row, updated);
+      }
+    } else {
+      for (@NonNull final Object[] key : keys) {
+        @NonNull final List<@Nullable Object> identifier = Arrays.asList(key);
+        @Nullable Entry entry = _entries.get(identifier);
+
+        if (entry == null) {
+          entry = new Entry(key, row.clone(), getWindowEnd(key));
+          _entries.put(identifier, entry);
+          schedule(entry);
+        }
+
+        entry.add(row);
+        updated.accept(entry);
+      }
+    }
+
+    return !keys.isEmpty();
+  }
+
+  private void insertIntoSession (
+    @NonNull final Object[] key,
+    final long timestamp,
+    @NonNull final Object[] row,
+    @NonNull final Consumer<@NonNull Entry> updated
+  ) {
+    final long gap = ((SessionWindowGroup) _groups[_session]).getGap().toMillis();
+    @NonNull final TreeMap<@NonNull Long, @NonNull Entry> sessions = _sessions.computeIfAbsent(
+      Arrays.asList(key),
+      identifier -> new TreeMap<>()
+    );
+
+    @Nullable Entry session = null;
+    @NonNull final Iterator<@NonNull Entry> candidates = sessions.headMap(timestamp + gap, false)
+                                                                 .descendingMap()
+                                                                 .values()
+                                                                 .iterator();
+
+    while (candidates.hasNext()) {
+      @NonNull final Entry candidate = candidates.next();
+
+      if (candidate.getLast() + gap <= timestamp) break;
+
+      candidates.remove();
+
+      if (session == null) {
+        session = candidate;
+      } else {
+        session.merge(candidate);
+        candidate._removed = true;
+        updated.accept(candidate);
+        _sessionCount -= 1;
+      }
+    }
+
+    if (session == null) {
+      @NonNull final Object[] sessionKey = key.clone();
+      sessionKey[_session] = timestamp;
+      session = new Entry(sessionKey, row.clone(), timestamp, gap);
+      _sessionCount += 1;
+    }
+
+    session.add(row);
+    session.extend(timestamp);
+    sessions.put(session.getFirst(), session);
+    schedule(session);
+    updated.accept(session);
+  }
+
+  /**
+   * Schedule the eviction of an entry at the current end of its windows, if it changed since its last scheduling.
+   *
+   * Previous deadlines of the entry are left in the queue and are skipped when they expire.
+   *
+   * @param entry An entry to schedule.
+   */
+  private void schedule (@NonNull final Entry entry) {
+    final long end = entry.getEnd();
+
+    if (end != Long.MAX_VALUE && end != entry._scheduled) {
+      entry._scheduled = end;
+      _deadlines.add(new Deadline(end, entry));
+    }
+  }
+
+  /**
+   * Remove a row from each group that it belongs to.
+   *
+   * @param row A previously added row to remove.
+   *
+   * @return True if the given row was removed from at least one group.
+   *
+   * @throws UnsupportedOperationException If an aggregation does not support removals, or if rows are grouped by
+   *                                       session windows.
+   */
+  public boolean delete (@NonNull final Object[] row) {
+    return delete(row, IGNORE);
+  }
+
+  /**
+   * Remove a row from each group that it belongs to, and notify each group that was updated or removed.
+   *
+   * @param row     A previously added row to remove.
+   * @param updated Called with each group that was updated or removed.
+   *
+   * @return True if the given row was removed from at least one group.
+   *
+   * @throws UnsupportedOperationException If an aggregation does not support removals, or if rows are grouped by
+   *                                       session windows.
+   */
+  public boolean delete (@NonNull final Object[] row, @NonNull final Consumer<@NonNull Entry> updated) {
+    if (_session >= 0) {
+      throw new UnsupportedOperationException(
+        "Unable to remove a row from a grouping by " + _groups[_session] + " because a removal " +
+        "may split a session."
+      );
+    }
+
+    boolean removed = false;
+
+    for (@NonNull final Object[] key : getKeys(row)) {
+      @NonNull final List<@Nullable Object> identifier = Arrays.asList(key);
+      @Nullable final Entry entry = _entries.get(identifier);
+
+      if (entry == null) continue;
+
+      entry.remove(row);
+      removed = true;
+
+      if (entry.getCount() == 0 && (_groups.length > 0 || !_aggregating)) {
+        _entries.remove(identifier);
+        entry._removed = true;
+      }
+
+      updated.accept(entry);
+    }
+
+    return removed;
+  }
+
+  /**
+   * Remove and return each group whose windows are closed at the given watermark.
+   *
+   * A window is closed when no row with a timestamp greater than or equal to the watermark can belong to it. Groups
+   * are popped from a queue ordered by the end of their windows, so that open groups are not visited.
+   *
+   * @param watermark A number of milliseconds since the epoch, or Long.MAX_VALUE for removing each group.
+   *
+   * @return Each closed group by order of closure.
+   */
+  public @NonNull List<@NonNull Entry> evict (final long watermark) {
+    if (watermark == Long.MAX_VALUE) return evictAll();
+
+    @NonNull final List<@NonNull Entry> result = new ArrayList<>();
+
+    while (!_deadlines.isEmpty() && _deadlines.peek().getEnd() <= watermark) {
+      @NonNull final Deadline deadline = _deadlines.poll();
+      @NonNull final Entry entry = deadline.getEntry();
+
+      if (entry._removed || entry._scheduled != deadline.getEnd()) continue;
+
+      if (_session >= 0) {
+        removeSession(entry);
+      } else {
+        _entries.remove(Arrays.asList(entry._key));
+      }
+
+      entry._removed = true;
+      result.add(entry);
+    }
+
+    return result;
+  }
+
+  private @NonNull List<@NonNull Entry> evictAll () {
+    @NonNull final List<@NonNull Entry> result = getEntries();
+
+    for (@NonNull final Entry entry : result) {
+      entry._removed = true;
+    }
+
+    _entries.clear();
+    _sessions.clear();
+    _deadlines.clear();
+    _sessionCount = 0;
+
+    result.sort(Comparator.comparingLong(Entry::getEnd));
+
+    return result;
+  }
+
+  private void removeSession (@NonNull final Entry entry) {
+    @NonNull final Object[] key = entry._key.clone();
+    key[_session] = null;
+
+    @NonNull final List<@Nullable Object> identifier = Arrays.asList(key);
+    @Nullable final TreeMap<@NonNull Long, @NonNull Entry> sessions = _sessions.get(identifier);
+
+    if (sessions == null) return;
+
+    sessions.remove(entry.getFirst());
+    _sessionCount -= 1;
+
+    if (sessions.isEmpty()) _sessions.remove(identifier);
+  }
+
+  /**
+   * Return the timestamp of a row for the first window grouping.
+   *
+   * @param row A row.
+   *
+   * @return The timestamp of the given row, or null if the row has no timestamp or if rows are not grouped by window.
+   */
+  public @Nullable Long getTimestamp (@NonNull final Object[] row) {
+    for (int index = 0; index < _groups.length; ++index) {
+      if (_kinds[index] != VALUE) {
+        return Timestamps.toEpochMilli(_keys[index].evaluate(row, NO_SELECTIONS));
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * @return True if rows are grouped by at least one time window.
+   */
+  public boolean isWindowed () {
+    for (final int kind : _kinds) {
+      if (kind != VALUE) return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * @return True if rows are grouped or aggregated.
+   */
+  public boolean isAggregating () {
+    return _aggregating;
+  }
+
+  /**
+   * @return Each group of this table.
+   */
+  public @NonNull List<@NonNull Entry> getEntries () {
+    @NonNull final List<@NonNull Entry> result = new ArrayList<>(size());
+    result.addAll(_entries.values());
+
+    for (@NonNull final TreeMap<@NonNull Long, @NonNull Entry> sessions : _sessions.values()) {
+      result.addAll(sessions.values());
+    }
+
+    return result;
+  }
+
+  /**
+   * @return The number of groups of this table.
+   */
+  public @NonNegative int size () {
+    return _entries.size() + _sessionCount;
+  }
+
+  private @NonNull List<@NonNull Object[]> getKeys (@NonNull final Object[] row) {
+    if (!_aggregating) return Collections.singletonList(row.clone());
+
+    @NonNull List<@NonNull Object[]> keys = Collections.singletonList(new Object[_groups.length]);
+
+    for (int index = 0; index < _groups.length && !keys.isEmpty(); ++index) {
+      keys = expand(keys, index, row);
+    }
+
+    return keys;
+  }
+
+  private @NonNull List<@NonNull Object[]> expand (
+    @NonNull final List<@NonNull Object[]> keys,
+    @NonNegative final int group,
+    @NonNull final Object[] row
+  ) {
+    @Nullable final Object value = _keys[group].evaluate(row, NO_SELECTIONS);
+
+    switch (_kinds[group]) {
+      case VALUE:
+        for (@NonNull final Object[] key : keys) key[group] = Values.normalize(value);
+        return keys;
+      case SESSION:
+        return keys;
+      case TUMBLING:
+        @Nullable final Long timestamp = Timestamps.toEpochMilli(value);
+        if (timestamp == null) return Collections.emptyList();
+        final long start = ((TumblingWindowGroup) _groups[group]).getWindowStart(timestamp);
+        for (@NonNull final Object[] key : keys) key[group] = start;
+        return keys;
+      default:
+        @Nullable final Long time = Timestamps.toEpochMilli(value);
+        if (time == null) return Collections.emptyList();
+        @NonNull final long[] starts = ((SlidingWindowGroup) _groups[group]).getWindowStarts(time);
+        @NonNull final List<@NonNull Object[]> result = new ArrayList<>(keys.size() * starts.length);
+
+        for (@NonNull final Object[] key : keys) {
+          for (final long windowStart : starts) {
+            @NonNull final Object[] expanded = key.clone();
+            expanded[group] = windowStart;
+            result.add(expanded);
+          }
+        }
+
+        return result;
+    }
+  }
+
+  private long getWindowEnd (@NonNull final Object[] key) {
+    if (!_aggregating) return Long.MAX_VALUE;
+
+    long end = Long.MAX_VALUE;
+
+    for (int index = 0; index < _groups.length; ++index) {
+      if (_kinds[index] == TUMBLING) {
+        end = Math.min(end, (Long) key[index] + ((TumblingWindowGroup) _groups[index]).getSize().toMillis());
+      } else if (_kinds[index] == SLIDING) {
+        end = Math.min(end, (Long) key[index] + ((SlidingWindowGroup) _groups[index]).getSize().toMillis());
+      }
+    }
+
+    return end;
+  }
+
+  /**
+   * A group of rows, or a set of equal rows, of this table.
+   */
+  public final class Entry
+  {
+    @NonNull
+    private final Object[] _key;
+
+    @NonNull
+    private final Object[] _row;
+
+    @Nullable
+    private final Aggregator[] _aggregators;
+
+    private long _count;
+
+    private long _first;
+
+    private long _last;
+
+    private long _gap;
+
+    private final long _end;
+
+    private long _scheduled;
+
+    private boolean _removed;
+
+    Entry (@NonNull final Object[] key, @NonNull final Object[] row, final long end) {
+      _key = key;
+      _row = row;
+      _count = 0;
+      _first = Long.MIN_VALUE;
+      _last = Long.MIN_VALUE;
+      _gap = 0;
+      _end = end;
+      _scheduled = Long.MAX_VALUE;
+      _removed = false;
+
+      if (_aggregating) {
+        _aggregators = new Aggregator[_selections.length];
+
+        for (int index = 0; index < _selections.length; ++index) {
+          if (_aggregates[index]) _aggregators[index] = Aggregators.create(_selections[index]);
+        }
+      } else {
+        _aggregators = null;
+      }
+    }
+
+    Entry (@NonNull final Object[] key, @NonNull final Object[] row, final long timestamp, final long gap) {
+      this(key, row, getWindowEnd(key));
+      _first = timestamp;
+      _last = timestamp;
+      _gap = gap;
+    }
+
+    void add (@NonNull final Object[] row) {
+      if (_aggregators != null) {
+        for (int index = 0; index < _aggregators.length; ++index) {
+          if (_aggregators[index] != null) {
+            _aggregators[index].add(_selectionExpressions[index].evaluate(row, NO_SELECTIONS));
+          }
+        }
+      }
+
+      _count += 1;
+    }
+
+    void remove (@NonNull final Object[] row) {
+      if (_aggregators != null) {
+        for (@Nullable final Aggregator aggregator : _aggregators) {
+          if (aggregator != null && !aggregator.isInvertible()) {
+            throw new UnsupportedOperationException(
+              "Unable to remove a row from a group because one of its aggregations does not " +
+              "support removals."
+            );
+          }
+        }
+
+        for (int index = 0; index < _aggregators.length; ++index) {
+          if (_aggregators[index] != null) {
+            _aggregators[index].remove(_selectionExpressions[index].evaluate(row, NO_SELECTIONS));
+          }
+        }
+      }
+
+      _count -= 1;
+    }
+
+    void merge (@NonNull final Entry other) {
+      if (_aggregators != null) {
+        for (int index = 0; index < _aggregators.length; ++index) {
+          if (_aggregators[index] != null) _aggregators[index].merge(other._aggregators[index]);
+        }
+      }
+
+      _count += other._count;
+      _first = Math.min(_first, other._first);
+      _last = Math.max(_last, other._last);
+    }
+
+    void extend (final long timestamp) {
+      _first = Math.min(_first, timestamp);
+      _last = Math.max(_last, timestamp);
+      _key[_session] = _first;
+    }
+
+    /**
+     * @return The values of each selection for this group, or the values of its row if there is no selection.
+     */
+    public @NonNull Object[] select () {
+      if (_selections.length == 0) return _row;
+
+      @NonNull final Object[] result = new Object[_selections.length];
+
+      for (int index = 0; index < _selections.length; ++index) {
+        if (_aggregators != null && _aggregators[index] != null) {
+          result[index] = _aggregators[index].getResult();
+        } else if (_windowStarts[index] >= 0) {
+          result[index] = _key[_windowStarts[index]];
+        } else {
+          result[index] = _selectionExpressions[index].evaluate(_row, NO_SELECTIONS);
+        }
+      }
+
+      return result;
+    }
+
+    /**
+     * @return A row of this group.
+     */
+    public @NonNull Object[] getRow () {
+      return _row;
+    }
+
+    /**
+     * @return True if this group was removed from its table, or merged into another one.
+     */
+    public boolean isRemoved () {
+      return _removed;
+    }
+
+    /**
+     * @return The number of rows of this group.
+     */
+    public long getCount () {
+      return _count;
+    }
+
+    /**
+     * @return The number of milliseconds since the epoch at which the windows of this group close.
+     */
+    public long getEnd () {
+      return _gap > 0 ? Math.min(_end, _last + _gap) : _end;
+    }
+
+    long getFirst () {
+      return _first;
+    }
+
+    long getLast () {
+      return _last;
+    }
+  }
+
+  /**
+   * The end of the windows of an entry at the time of its scheduling.
+   */
+  private static final class Deadline
+  {
+    private final long _end;
+
+    @NonNull
+    private final Entry _entry;
+
+    Deadline (final long end, @NonNull final Entry entry) {
+      _end = end;
+      _entry = entry;
+    }
+
+    long getEnd () {
+      return _end;
+    }
+
+    @NonNull Entry getEntry () {
+      return _entry;
+    }
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A mergeable HyperLogLog sketch that estimates the number of distinct values added to it.
+ *
+ * Values are normalized with {@link Values#normalize(Object)} before being hashed, so numbers of different types
+ * but of equal values are counted once. Each supported type is hashed from a canonical 64-bit encoding of its value,
+ * and timestamps are hashed as instants, local ones being considered to be in UTC. Two sketches of the same precision
+ * can be merged, for example to combine the sketches of different shards.
+ */
+public final class HyperLogLog
+{
+  @NonNull
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private static final byte BOOLEAN = 1;
+
+  private static final byte CHARACTER = 2;
+
+  private static final byte INSTANT = 3;
+
+  private static final byte DECIMAL = 4;
+
+  private static final byte INTEGER = 5;
+
+  private static final byte IDENTIFIER = 6;
+
+  private static final byte BYTES = 7;
+
+  private final int _precision;
+
+  @NonNull
+  private final byte[] _registers;
+
+  /**
+   * Instantiate a new empty sketch.
+   *
+   * @param precision The base-2 logarithm of the number of registers of the sketch.
+   */
+  public HyperLogLog (final int precision) {
+    if (precision < 4 || precision > 18) {
+      throw new IllegalArgumentException(
+        "Unable to instantiate a sketch with a precision of " + precision + " because the " +
+        "precision must be between 4 and 18."
+      );
+    }
+
+    _precision = precision;
+    _registers = new byte[1 << precision];
+  }
+
+  /**
+   * Instantiate a sketch from its registers.
+   *
+   * @param precision The base-2 logarithm of the number of registers of the sketch.
+   * @param registers The registers of the sketch.
+   */
+  public HyperLogLog (final int precision, @NonNull final byte[] registers) {
+    this(precision);
+
+    if (registers.length != _registers.length) {
+      throw new IllegalArgumentException(
+        "Unable to instantiate a sketch with a precision of " + precision + " from " +
+        registers.length + " registers because a sketch of this precision has " +
+        _registers.length + " registers."
+      );
+    }
+
+    System.arraycopy(registers, 0, _registers, 0, registers.length);
+  }
+
+  /**
+   * Add a value to this sketch.
+   *
+   * @param value A value to add, null values are ignored.
+   *
+   * @throws IllegalArgumentException If the given value is not of a supported type.
+   */
+  public void add (@Nullable final Object value) {
+    if (value == null) return;
+
+    final long hash = hash(Values.normalize(value));
+    final int index = (int) (hash >>> (Long.SIZE - _precision));
+    final byte rank = (byte) Math.min(
+      Long.numberOfLeadingZeros(hash << _precision) + 1,
+      Long.SIZE - _precision + 1
+    );
+
+    if (_registers[index] < rank) _registers[index] = rank;
+  }
+
+  private static long hash (@NonNull final Object value) {
+    if (value instanceof Long) return HASH.hashLong((Long) value).asLong();
+    if (value instanceof Double) return HASH.hashLong(Double.doubleToLongBits((Double) value)).asLong();
+    if (value instanceof String) return HASH.hashString((String) value, StandardCharsets.UTF_8).asLong();
+
+    @NonNull final Hasher hasher = HASH.newHasher();
+    @Nullable final Instant instant = toInstant(value);
+
+    if (instant != null) {
+      hasher.putByte(INSTANT).putLong(instant.getEpochSecond()).putInt(instant.getNano());
+    } else if (value instanceof Boolean) {
+      hasher.putByte(BOOLEAN).putBoolean((Boolean) value);
+    } else if (value instanceof Character) {
+      hasher.putByte(CHARACTER).putChar((Character) value);
+    } else if (value instanceof BigDecimal) {
+      @NonNull final String decimal = ((BigDecimal) value).stripTrailingZeros().toPlainString();
+      hasher.putByte(DECIMAL).putString(decimal, StandardCharsets.UTF_8);
+    } else if (value instanceof BigInteger) {
+      hasher.putByte(INTEGER).putBytes(((BigInteger) value).toByteArray());
+    } else if (value instanceof UUID) {
+      @NonNull final UUID uuid = (UUID) value;
+      hasher.putByte(IDENTIFIER).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    } else if (value instanceof byte[]) {
+      hasher.putByte(BYTES).putBytes((byte[]) value);
+    } else {
+      throw new IllegalArgumentException(
+        "Unable to count the value " + value + " because values of type " + value.getClass().getName() +
+        " do not have a canonical encoding."
+      );
+    }
+
+    return hasher.hash().asLong();
+  }
+
+  private static @Nullable Instant toInstant (@NonNull final Object value) {
+    if (value instanceof Instant) return (Instant) value;
+    if (value instanceof ZonedDateTime) return ((ZonedDateTime) value).toInstant();
+    if (value instanceof OffsetDateTime) return ((OffsetDateTime) value).toInstant();
+    if (value instanceof LocalDateTime) return ((LocalDateTime) value).toInstant(ZoneOffset.UTC);
+    if (value instanceof LocalDate) return ((LocalDate) value).atStartOfDay().toInstant(ZoneOffset.UTC);
+    if (value instanceof Date) return Instant.ofEpochMilli(((Date) value).getTime());
+    if (value instanceof Calendar) return Instant.ofEpochMilli(((Calendar) value).getTimeInMillis());
+
+    return null;
+  }
+
+  /**
+   * Add each value counted by another sketch of the same precision to this sketch.
+   *
+   * @param other A sketch to merge into this one.
+   */
+  public void merge (@NonNull final HyperLogLog other) {
+    if (other.getPrecision() != _precision) {
+      throw new IllegalArgumentException(
+        "Unable to merge a sketch with a precision of " + other.getPrecision() + " into a " +
+        "sketch with a precision of " + _precision + " because both sketches must have the same " +
+        "precision."
+      );
+    }
+
+    for (int index = 0; index < _registers.length; ++index) {
+      if (_registers[index] < other._registers[index]) _registers[index] = other._registers[index];
+    }
+  }
+
+  /**
+   * @return An estimation of the number of distinct values added to this sketch.
+   */
+  public long estimate () {
+    final int registers = _registers.length;
+    double sum = 0;
+    int zeros = 0;
+
+    for (final byte register : _registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) zeros += 1;
+    }
+
+    final double estimate = getAlpha(registers) * registers * registers / sum;
+
+    if (estimate <= 2.5 * registers && zeros > 0) {
+      return Math.round(registers * Math.log((double) registers / zeros));
+    }
+
+    return Math.round(estimate);
+  }
+
+  private static double getAlpha (final int registers) {
+    switch (registers) {
+      case 16:
+        return 0.673;
+      case 32:
+        return 0.697;
+      case 64:
+        return 0.709;
+      default:
+        return 0.7213 / (1 + 1.079 / registers);
+    }
+  }
+
+  /**
+   * @return The base-2 logarithm of the number of registers of this sketch.
+   */
+  public int getPrecision () {
+    return _precision;
+  }
+
+  /**
+   * @return A copy of the registers of this sketch.
+   */
+  public @NonNull byte[] getRegisters () {
+    return Arrays.copyOf(_registers, _registers.length);
+  }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.operator.cursoring.Cursor;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.ordering.OrderingDirection;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.source.TableSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * A collection whose result is maintained in memory and updated incrementally when rows are inserted into or deleted
+ * from its source table.
+ *
+ * Rows are arrays of values indexed by the index of their column into the source table. The result is kept ordered
+ * incrementally : an update only moves the groups that it changed, and a read after an update only copies the rows
+ * of the cursor.
+ *
+ * Only collections over a table source are supported.
+ */
+public class MaterializedCollection
+{
+  @NonNull
+  private static final Object[] NO_SELECTIONS = new Object[0];
+
+  @NonNull
+  private final GraphCollection _collection;
+
+  @NonNull
+  private final TableSource _source;
+
+  @NonNull
+  private final Sampler _sampler;
+
+  @NonNull
+  private final RowExpression _filter;
+
+  @NonNull
+  private final GroupTable _groups;
+
+  @NonNull
+  private final RowExpression[] _orderings;
+
+  @NonNull
+  private final boolean[] _descending;
+
+  @NonNull
+  private final TreeSet<@NonNull Result> _ordered;
+
+  @NonNull
+  private final Map<GroupTable.@NonNull Entry, @NonNull Result> _results;
+
+  @NonNull
+  private final Consumer<GroupTable.@NonNull Entry> _refresh;
+
+  private long _nextSequence;
+
+  @Nullable
+  private List<@NonNull Object[]> _result;
+
+  /**
+   * Materialize the given collection.
+   *
+   * @param collection A collection over a table source to materialize.
+   *
+   * @throws IllegalArgumentException      If the given collection is not defined over a table source.
+   * @throws UnsupportedOperationException If the given collection contains an expression that can't be evaluated in
+   *                                       memory.
+   */
+  public MaterializedCollection (@NonNull final GraphCollection collection) {
+    if (!(collection.getSource() instanceof TableSource)) {
+      throw new IllegalArgumentException(
+        "Unable to materialize the collection " + collection + " because only collections " +
+        "defined over a table source can be materialized."
+      );
+    }
+
+    _collection = collection;
+    _source = (TableSource) collection.getSource();
+
+    @NonNull final List<@NonNull Select> selections = collection.getSelections();
+    @NonNull final RowExpressionCompiler rowCompiler = new RowExpressionCompiler(_source);
+    @NonNull final RowExpressionCompiler resultCompiler = new RowExpressionCompiler(
+      _source,
+      selections
+    );
+
+    _sampler = new Sampler(collection.getSample(), rowCompiler);
+    _filter = rowCompiler.compileFilters(collection.getFilters());
+    _groups = new GroupTable(
+      collection.getGroups(),
+      selections,
+      rowCompiler,
+      _source.getTable().getColumns().getSize()
+    );
+
+    @NonNull final List<@NonNull Order> orderings = collection.getOrderings();
+    _orderings = new RowExpression[orderings.size()];
+    _descending = new boolean[orderings.size()];
+
+    for (int index = 0; index < _orderings.length; ++index) {
+      _orderings[index] = resultCompiler.compile(orderings.get(index).getExpression());
+      _descending[index] = orderings.get(index).getDirection() == OrderingDirection.DESCENDING;
+    }
+
+    _ordered = new TreeSet<>(this::compare);
+    _results = new IdentityHashMap<>();
+    _refresh = this::refresh;
+    _nextSequence = 0;
+    _result = null;
+
+    for (final GroupTable.@NonNull Entry entry : _groups.getEntries()) {
+      refresh(entry);
+    }
+  }
+
+  /**
+   * Update this collection with a row inserted into its source table.
+   *
+   * @param row The inserted row.
+   *
+   * @return True if the given row was accepted by this collection.
+   */
+  public synchronized boolean insert (@NonNull final Object[] row) {
+    if (!_sampler.accept(row) || !Values.isTrue(_filter.evaluate(row, NO_SELECTIONS))) return false;
+
+    if (!_groups.insert(row, _refresh)) return false;
+
+    _result = null;
+
+    return true;
+  }
+
+  /**
+   * Update this collection with rows inserted into its source table.
+   *
+   * @param rows Inserted rows.
+   */
+  public synchronized void insert (@NonNull final Iterable<@NonNull Object[]> rows) {
+    for (@NonNull final Object[] row : rows) {
+      insert(row);
+    }
+  }
+
+  /**
+   * Update this collection with a row deleted from its source table.
+   *
+   * @param row The deleted row.
+   *
+   * @return True if the given row was removed from this collection.
+   *
+   * @throws UnsupportedOperationException If an aggregation of this collection does not support removals, or if this
+   *                                       collection groups its rows by session windows.
+   */
+  public synchronized boolean delete (@NonNull final Object[] row) {
+    if (!_sampler.accept(row) || !Values.isTrue(_filter.evaluate(row, NO_SELECTIONS))) return false;
+
+    if (!_groups.delete(row, _refresh)) return false;
+
+    _result = null;
+
+    return true;
+  }
+
+  /**
+   * Update this collection with rows deleted from its source table.
+   *
+   * @param rows Deleted rows.
+   */
+  public synchronized void delete (@NonNull final Iterable<@NonNull Object[]> rows) {
+    for (@NonNull final Object[] row : rows) {
+      delete(row);
+    }
+  }
+
+  /**
+   * Return the current content of this collection.
+   *
+   * Each returned row contains the values of each selection of the collection in declaration order, or all the
+   * values of the source row if the collection does not declare any selection.
+   *
+   * @return The current content of this collection.
+   */
+  public synchronized @NonNull List<@NonNull Object[]> getRows () {
+    if (_result == null) {
+      _result = computeResult();
+    }
+
+    return _result;
+  }
+
+  /**
+   * Move the result of an updated group to its new position, or remove it if the group was removed.
+   *
+   * @param entry An updated group.
+   */
+  private void refresh (final GroupTable.@NonNull Entry entry) {
+    @Nullable final Result previous = _results.remove(entry);
+
+    if (previous != null) _ordered.remove(previous);
+    if (entry.isRemoved()) return;
+
+    @NonNull final Result result = new Result(
+      entry.getRow(),
+      entry.select(),
+      _groups.isAggregating() ? 1 : entry.getCount(),
+      previous == null ? _nextSequence++ : previous.getSequence()
+    );
+
+    _results.put(entry, result);
+    _ordered.add(result);
+  }
+
+  private @NonNull List<@NonNull Object[]> computeResult () {
+    @NonNull final Cursor cursor = _collection.getCursor();
+    final long from = cursor.getOffset();
+    final long to = cursor.getEnd();
+
+    @NonNull final List<@NonNull Object[]> rows = new ArrayList<>();
+    long index = 0;
+
+    for (@NonNull final Result result : _ordered) {
+      if (index >= to) break;
+
+      for (long copy = 0; copy < result.getCount() && index < to; ++copy, ++index) {
+        if (index >= from) rows.add(result.getSelections().clone());
+      }
+    }
+
+    return Collections.unmodifiableList(rows);
+  }
+
+  private int compare (@NonNull final Result left, @NonNull final Result right) {
+    for (int index = 0; index < _orderings.length; ++index) {
+      final int comparison = Values.order(
+        left.getOrderingKey(index),
+        right.getOrderingKey(index)
+      );
+
+      if (comparison != 0) return _descending[index] ? -comparison : comparison;
+    }
+
+    return Long.compare(left.getSequence(), right.getSequence());
+  }
+
+  /**
+   * @return The materialized collection.
+   */
+  public @NonNull GraphCollection getCollection () {
+    return _collection;
+  }
+
+  /**
+   * @return The source of this collection.
+   */
+  public @NonNull TableSource getSource () {
+    return _source;
+  }
+
+  /**
+   * @return The number of distinct entries maintained by this collection.
+   */
+  public synchronized @NonNegative int getEntryCount () {
+    return _groups.size();
+  }
+
+  /**
+   * The result of a group of this collection, ordered by its ordering keys and then by the creation order of its group.
+   */
+  private final class Result
+  {
+    @NonNull
+    private final Object[] _selections;
+
+    @NonNull
+    private final Object[] _orderingKeys;
+
+    private final long _count;
+
+    private final long _sequence;
+
+    Result (
+      @NonNull final Object[] row,
+      @NonNull final Object[] selections,
+      final long count,
+      final long sequence
+    ) {
+      _selections = selections;
+      _orderingKeys = new Object[_orderings.length];
+      _count = count;
+      _sequence = sequence;
+
+      for (int index = 0; index < _orderings.length; ++index) {
+        _orderingKeys[index] = _orderings[index].evaluate(row, selections);
+      }
+    }
+
+    @Nullable Object getOrderingKey (@NonNegative final int index) {
+      return _orderingKeys[index];
+    }
+
+    @NonNull Object[] getSelections () {
+      return _selections;
+    }
+
+    /**
+     * @return The number of rows of this result, that are equal rows when the collection does not aggregate them.
+     */
+    long getCount () {
+      return _count;
+    }
+
+    long getSequence () {
+      return _sequence;
+    }
+  }
+}
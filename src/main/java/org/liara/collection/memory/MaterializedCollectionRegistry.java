@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.data.graph.Table;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A registry of materialized collections that dispatch each update of a table to the collections defined over it.
+ */
+public class MaterializedCollectionRegistry
+{
+  @NonNull
+  private final ConcurrentMap<@NonNull GraphCollection, @NonNull MaterializedCollection> _collections;
+
+  @NonNull
+  private final ConcurrentMap<@NonNull Table, @NonNull List<@NonNull MaterializedCollection>> _collectionsByTable;
+
+  public MaterializedCollectionRegistry () {
+    _collections = new ConcurrentHashMap<>();
+    _collectionsByTable = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Register a collection as a materialized collection.
+   *
+   * Registering a collection that is equal to an already registered collection returns the existing materialization.
+   * The returned materialization is empty, existing rows of its source table must be inserted into it before reading
+   * its content.
+   *
+   * @param collection A collection to materialize.
+   *
+   * @return The materialization of the given collection.
+   */
+  public @NonNull MaterializedCollection register (@NonNull final GraphCollection collection) {
+    return _collections.computeIfAbsent(collection, this::materialize);
+  }
+
+  /**
+   * Register a collection as a materialized collection and initialize it with the existing rows of its source.
+   *
+   * @param collection A collection to materialize.
+   * @param rows       Existing rows of the source table of the collection.
+   *
+   * @return The materialization of the given collection.
+   */
+  public @NonNull MaterializedCollection register (
+    @NonNull final GraphCollection collection,
+    @NonNull final Iterable<@NonNull Object[]> rows
+  ) {
+    return _collections.computeIfAbsent(collection, (key) -> {
+      @NonNull final MaterializedCollection result = new MaterializedCollection(key);
+      result.insert(rows);
+      index(result);
+      return result;
+    });
+  }
+
+  private @NonNull MaterializedCollection materialize (@NonNull final GraphCollection collection) {
+    @NonNull final MaterializedCollection result = new MaterializedCollection(collection);
+    index(result);
+    return result;
+  }
+
+  private void index (@NonNull final MaterializedCollection collection) {
+    _collectionsByTable.computeIfAbsent(
+      collection.getSource().getTable(),
+      (table) -> new CopyOnWriteArrayList<>()
+    ).add(collection);
+  }
+
+  /**
+   * Stop to maintain the given collection.
+   *
+   * @param collection A materialized collection to forget.
+   */
+  public void unregister (@NonNull final MaterializedCollection collection) {
+    if (_collections.remove(collection.getCollection(), collection)) {
+      @Nullable final List<@NonNull MaterializedCollection> collections = _collectionsByTable.get(
+        collection.getSource().getTable()
+      );
+
+      if (collections != null) collections.remove(collection);
+    }
+  }
+
+  /**
+   * Return the materialization of the given collection, if any.
+   *
+   * @param collection A collection.
+   *
+   * @return The materialization of the given collection, if any.
+   */
+  public @NonNull Optional<MaterializedCollection> get (@NonNull final GraphCollection collection) {
+    return Optional.ofNullable(_collections.get(collection));
+  }
+
+  /**
+   * Return all materialized collections defined over the given table.
+   *
+   * @param table A table.
+   *
+   * @return All materialized collections defined over the given table.
+   */
+  public @NonNull List<@NonNull MaterializedCollection> getCollections (@NonNull final Table table) {
+    return List.copyOf(_collectionsByTable.getOrDefault(table, List.of()));
+  }
+
+  /**
+   * Notify each materialized collection of the given table that a row was inserted into it.
+   *
+   * @param table The updated table.
+   * @param row   The inserted row.
+   */
+  public void insert (@NonNull final Table table, @NonNull final Object[] row) {
+    for (@NonNull final MaterializedCollection collection : _collectionsByTable.getOrDefault(table, List.of())) {
+      collection.insert(row);
+    }
+  }
+
+  /**
+   * Notify each materialized collection of the given table that rows were inserted into it.
+   *
+   * @param table The updated table.
+   * @param rows  The inserted rows.
+   */
+  public void insert (@NonNull final Table table, @NonNull final Iterable<@NonNull Object[]> rows) {
+    for (@NonNull final MaterializedCollection collection : _collectionsByTable.getOrDefault(table, List.of())) {
+      collection.insert(rows);
+    }
+  }
+
+  /**
+   * Notify each materialized collection of the given table that a row was deleted from it.
+   *
+   * @param table The updated table.
+   * @param row   The deleted row.
+   */
+  public void delete (@NonNull final Table table, @NonNull final Object[] row) {
+    for (@NonNull final MaterializedCollection collection : _collectionsByTable.getOrDefault(table, List.of())) {
+      collection.delete(row);
+    }
+  }
+
+  /**
+   * Notify each materialized collection of the given table that rows were deleted from it.
+   *
+   * @param table The updated table.
+   * @param rows  The deleted rows.
+   */
+  public void delete (@NonNull final Table table, @NonNull final Iterable<@NonNull Object[]> rows) {
+    for (@NonNull final MaterializedCollection collection : _collectionsByTable.getOrDefault(table, List.of())) {
+      collection.delete(rows);
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A mergeable KLL sketch that estimates the quantiles of the values added to it.
+ *
+ * Values are ordered with {@link Values#order(Object, Object)}. The sketch keeps a hierarchy of compactors, the
+ * values of the level h weighting 2^h values : when the sketch is full, the lowest full compactor is sorted and
+ * every other of its values, starting from a random offset, is promoted to the next level. The memory used by the
+ * sketch is then about 3k values and the rank error of an estimation is about 1.65 / k.
+ */
+public final class QuantileSketch
+{
+  private final int _accuracy;
+
+  @NonNull
+  private final List<@NonNull List<@NonNull Object>> _levels;
+
+  @NonNull
+  private final SplittableRandom _random;
+
+  private long _count;
+
+  private int _size;
+
+  /**
+   * Instantiate a new empty sketch.
+   *
+   * @param accuracy The accuracy parameter k of the sketch.
+   */
+  public QuantileSketch (final int accuracy) {
+    if (accuracy < 8) {
+      throw new IllegalArgumentException(
+        "Unable to instantiate a sketch with an accuracy of " + accuracy + " because the " +
+        "accuracy parameter must be at least 8."
+      );
+    }
+
+    _accuracy = accuracy;
+    _levels = new ArrayList<>();
+    _levels.add(new ArrayList<>());
+    _random = new SplittableRandom();
+    _count = 0;
+    _size = 0;
+  }
+
+  /**
+   * Add a value to this sketch.
+   *
+   * @param value A value to add, null values are ignored.
+   */
+  public void add (@Nullable final Object value) {
+    if (value == null) return;
+
+    _levels.get(0).add(value);
+    _count += 1;
+    _size += 1;
+
+    compress();
+  }
+
+  /**
+   * Add each value summarized by another sketch of the same accuracy to this sketch.
+   *
+   * @param other A sketch to merge into this one.
+   */
+  public void merge (@NonNull final QuantileSketch other) {
+    if (other.getAccuracy() != _accuracy) {
+      throw new IllegalArgumentException(
+        "Unable to merge a sketch with an accuracy of " + other.getAccuracy() + " into a " +
+        "sketch with an accuracy of " + _accuracy + " because both sketches must have the same " +
+        "accuracy."
+      );
+    }
+
+    while (_levels.size() < other._levels.size()) _levels.add(new ArrayList<>());
+
+    for (int level = 0; level < other._levels.size(); ++level) {
+      _levels.get(level).addAll(other._levels.get(level));
+    }
+
+    _count += other._count;
+    _size += other._size;
+
+    compress();
+  }
+
+  private void compress () {
+    while (_size > getCapacity()) {
+      for (int level = 0; level < _levels.size(); ++level) {
+        @NonNull final List<@NonNull Object> compactor = _levels.get(level);
+
+        if (compactor.size() >= getCapacity(level)) {
+          compact(level);
+          break;
+        }
+      }
+    }
+  }
+
+  private void compact (@NonNegative final int level) {
+    if (level + 1 == _levels.size()) _levels.add(new ArrayList<>());
+
+    @NonNull final List<@NonNull Object> compactor = _levels.get(level);
+    @NonNull final List<@NonNull Object> next = _levels.get(level + 1);
+
+    compactor.sort(Values::order);
+
+    @Nullable final Object kept = compactor.size() % 2 == 1 ? compactor.remove(compactor.size() - 1) : null;
+
+    for (int index = _random.nextBoolean() ? 1 : 0; index < compactor.size(); index += 2) {
+      next.add(compactor.get(index));
+    }
+
+    _size -= compactor.size() / 2;
+    compactor.clear();
+
+    if (kept != null) compactor.add(kept);
+  }
+
+  private int getCapacity () {
+    int result = 0;
+
+    for (int level = 0; level < _levels.size(); ++level) {
+      result += getCapacity(level);
+    }
+
+    return result;
+  }
+
+  private int getCapacity (@NonNegative final int level) {
+    final int depth = _levels.size() - level - 1;
+    return Math.max(2, (int) Math.ceil(_accuracy * Math.pow(2.0 / 3.0, depth)));
+  }
+
+  /**
+   * Estimate a quantile of the values added to this sketch.
+   *
+   * @param quantile A quantile between 0 and 1.
+   *
+   * @return An estimation of the given quantile, or null if this sketch is empty.
+   */
+  public @Nullable Object estimate (final double quantile) {
+    if (_count == 0) return null;
+
+    @NonNull final List<@NonNull Weighted> values = new ArrayList<>(_size);
+
+    for (int level = 0; level < _levels.size(); ++level) {
+      for (@NonNull final Object value : _levels.get(level)) {
+        values.add(new Weighted(value, 1L << level));
+      }
+    }
+
+    values.sort((left, right) -> Values.order(left.value, right.value));
+
+    long total = 0;
+
+    for (@NonNull final Weighted value : values) total += value.weight;
+
+    final double rank = quantile * total;
+    long cumulated = 0;
+
+    for (@NonNull final Weighted value : values) {
+      cumulated += value.weight;
+      if (cumulated >= rank) return value.value;
+    }
+
+    return values.get(values.size() - 1).value;
+  }
+
+  /**
+   * @return The number of values added to this sketch.
+   */
+  public long getCount () {
+    return _count;
+  }
+
+  /**
+   * @return The number of values retained by this sketch.
+   */
+  public int getSize () {
+    return _size;
+  }
+
+  /**
+   * @return The accuracy parameter k of this sketch.
+   */
+  public int getAccuracy () {
+    return _accuracy;
+  }
+
+  private static final class Weighted
+  {
+    @NonNull
+    final Object value;
+
+    final long weight;
+
+    Weighted (@NonNull final Object value, final long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+}
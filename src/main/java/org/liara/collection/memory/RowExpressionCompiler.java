@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.expression.OperationType;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.operator.selection.SelectionPlaceholder;
+import org.liara.collection.source.TableSource;
+import org.liara.collection.source.TableSourcePlaceholder;
+import org.liara.expression.Constant;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compile expressions defined over a table source into expressions that can be evaluated against in-memory rows.
+ */
+public class RowExpressionCompiler
+{
+  @NonNull
+  private static final Object[] EMPTY_ROW = new Object[0];
+
+  @NonNull
+  private final TableSource _source;
+
+  @NonNull
+  private final List<@NonNull Select> _selections;
+
+  @NonNull
+  private final ExpressionFactory _expressionFactory;
+
+  /**
+   * Instantiate a new compiler for a given source.
+   *
+   * @param source The source of the rows to evaluate.
+   */
+  public RowExpressionCompiler (@NonNull final TableSource source) {
+    this(source, List.of());
+  }
+
+  /**
+   * Instantiate a new compiler for a given source and a given list of selections.
+   *
+   * Selection placeholders of the selections of the given list will be resolved as references to the already computed
+   * selection values, other selection placeholders will be resolved by evaluating their expression.
+   *
+   * @param source     The source of the rows to evaluate.
+   * @param selections Selections of the evaluated collection.
+   */
+  public RowExpressionCompiler (
+    @NonNull final TableSource source,
+    @NonNull final List<@NonNull Select> selections
+  ) {
+    _source = source;
+    _selections = selections;
+    _expressionFactory = new ExpressionFactory();
+  }
+
+  /**
+   * Compile the conjunction of the given filters.
+   *
+   * @param filters Filters to compile.
+   *
+   * @return A compiled predicate that is true if a row is accepted by each filter.
+   */
+  public @NonNull RowExpression compileFilters (
+    final java.util.@NonNull Collection<@NonNull Filter> filters
+  ) {
+    @NonNull final RowExpression[] predicates = new RowExpression[filters.size()];
+    int cursor = 0;
+
+    for (@NonNull final Filter filter : filters) {
+      predicates[cursor++] = compile(filter.getExpression());
+    }
+
+    return and(predicates);
+  }
+
+  /**
+   * Compile the given expression.
+   *
+   * @param expression An expression to compile.
+   *
+   * @return The compiled expression.
+   *
+   * @throws UnsupportedOperationException If the given expression contains an unsupported operation.
+   * @throws IllegalArgumentException      If the given expression references another source.
+   */
+  public @NonNull RowExpression compile (@NonNull final Expression<?> expression) {
+    if (expression instanceof Constant) {
+      @Nullable final Object value = ((Constant<?>) expression).getValue();
+      return (row, selections) -> value;
+    }
+
+    if (expression instanceof TableSourcePlaceholder) {
+      return compilePlaceholder((TableSourcePlaceholder<?>) expression);
+    }
+
+    if (expression instanceof SelectionPlaceholder) {
+      return compileSelectionPlaceholder((SelectionPlaceholder<?>) expression);
+    }
+
+    @NonNull final Optional<OperationType> type = OperationType.of(_expressionFactory, expression);
+
+    if (type.isPresent()) {
+      return compileOperation(type.get(), OperationType.getOperands(expression));
+    }
+
+    throw new UnsupportedOperationException(
+      "Unable to compile the expression " + expression + " for an in-memory evaluation because " +
+      "its operation is not supported."
+    );
+  }
+
+  private @NonNull RowExpression compilePlaceholder (
+    @NonNull final TableSourcePlaceholder<?> placeholder
+  ) {
+    if (placeholder.getSource() != _source) {
+      throw new IllegalArgumentException(
+        "Unable to compile the placeholder of the column \"" + placeholder.getColumn().getName() +
+        "\" of the source \"" + placeholder.getSource().getName() + "\" because the compiled " +
+        "expressions must be defined over the source \"" + _source.getName() + "\"."
+      );
+    }
+
+    final int index = _source.getTable().getIndexOf(placeholder.getColumn());
+
+    return (row, selections) -> row[index];
+  }
+
+  private @NonNull RowExpression compileSelectionPlaceholder (
+    @NonNull final SelectionPlaceholder<?> placeholder
+  ) {
+    final int index = _selections.indexOf(placeholder.getSelect());
+
+    if (index < 0) {
+      return compile(placeholder.getSelect().getExpression());
+    } else {
+      return (row, selections) -> selections[index];
+    }
+  }
+
+  private @NonNull RowExpression compileOperation (
+    @NonNull final OperationType type,
+    @NonNull final Expression<?>[] operands
+  ) {
+    @NonNull final RowExpression[] compiled = new RowExpression[operands.length];
+
+    for (int index = 0; index < operands.length; ++index) {
+      compiled[index] = compile(operands[index]);
+    }
+
+    switch (type) {
+      case AND:
+        return and(compiled);
+      case OR:
+        return or(compiled[0], compiled[1]);
+      case EQUAL:
+        return (row, selections) -> Values.equal(
+          compiled[0].evaluate(row, selections),
+          compiled[1].evaluate(row, selections)
+        );
+      case GREATER_THAN:
+        return (row, selections) -> {
+          @Nullable final Integer comparison = Values.compare(
+            compiled[0].evaluate(row, selections),
+            compiled[1].evaluate(row, selections)
+          );
+
+          return comparison == null ? null : comparison > 0;
+        };
+      case LESS_THAN:
+        return (row, selections) -> {
+          @Nullable final Integer comparison = Values.compare(
+            compiled[0].evaluate(row, selections),
+            compiled[1].evaluate(row, selections)
+          );
+
+          return comparison == null ? null : comparison < 0;
+        };
+      case MODULUS:
+        return (row, selections) -> Values.modulus(
+          compiled[0].evaluate(row, selections),
+          compiled[1].evaluate(row, selections)
+        );
+      default:
+        throw new UnsupportedOperationException("Unhandled operation type " + type + ".");
+    }
+  }
+
+  private static @NonNull RowExpression and (@NonNull final RowExpression[] operands) {
+    if (operands.length == 1) return operands[0];
+
+    return (row, selections) -> {
+      boolean unknown = false;
+
+      for (@NonNull final RowExpression operand : operands) {
+        @Nullable final Object value = operand.evaluate(row, selections);
+
+        if (value == null) {
+          unknown = true;
+        } else if (!Values.isTrue(value)) {
+          return false;
+        }
+      }
+
+      return unknown ? null : true;
+    };
+  }
+
+  private static @NonNull RowExpression or (
+    @NonNull final RowExpression left,
+    @NonNull final RowExpression right
+  ) {
+    return (row, selections) -> {
+      @Nullable final Object leftValue = left.evaluate(row, selections);
+
+      if (Values.isTrue(leftValue)) return true;
+
+      @Nullable final Object rightValue = right.evaluate(row, selections);
+
+      if (Values.isTrue(rightValue)) return true;
+
+      return (leftValue == null || rightValue == null) ? null : false;
+    };
+  }
+
+  /**
+   * Evaluate a compiled expression against a row without any selection value.
+   *
+   * @param expression A compiled expression.
+   * @param row        A row.
+   *
+   * @return The result of the evaluation.
+   */
+  public static @Nullable Object evaluate (
+    @NonNull final RowExpression expression,
+    @NonNull final Object[] row
+  ) {
+    return expression.evaluate(row, EMPTY_ROW);
+  }
+
+  /**
+   * @return The source of the rows to evaluate.
+   */
+  public @NonNull TableSource getSource () {
+    return _source;
+  }
+}
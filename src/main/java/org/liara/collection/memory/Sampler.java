@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.operator.sampling.Sample;
+import org.liara.collection.operator.sampling.SamplingMethod;
+import org.liara.collection.source.TableSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The in-memory evaluation of a sample.
+ *
+ * Incrementally maintained collections decide if a row is sampled from the hash of its key, so that a deleted row is
+ * sampled as it was when it was inserted. Snapshots of rows can instead be sampled with a reservoir, for an exact
+ * sample size, or by blocks of consecutive rows.
+ */
+public final class Sampler
+{
+  @NonNull
+  private static final Object[] NO_SELECTIONS = new Object[0];
+
+  @NonNull
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  @NonNull
+  private static final RowExpression NO_KEY = (row, selections) -> null;
+
+  @NonNull
+  private final Sample _sample;
+
+  @NonNull
+  private final RowExpression _key;
+
+  private final long _seed;
+
+  /**
+   * Compile a sample over the rows of a table source.
+   *
+   * @param sample   A sample to evaluate.
+   * @param compiler A compiler of expressions over the rows of the sampled source.
+   */
+  public Sampler (@NonNull final Sample sample, @NonNull final RowExpressionCompiler compiler) {
+    @NonNull final TableSource source = compiler.getSource();
+
+    _sample = sample;
+    _key = sample.isSampling() ? compiler.compile(sample.getEffectiveKey(source)) : NO_KEY;
+    _seed = sample.getEffectiveSeed();
+  }
+
+  /**
+   * Return true if the given row belongs to the sample.
+   *
+   * @param row A row of the sampled source.
+   *
+   * @return True if the given row belongs to the sample.
+   */
+  public boolean accept (@NonNull final Object[] row) {
+    if (!_sample.isSampling()) return true;
+
+    @Nullable Object key = Values.normalize(_key.evaluate(row, NO_SELECTIONS));
+
+    if (_sample.getMethod() == SamplingMethod.BLOCK && key instanceof Number) {
+      key = Math.floorDiv(((Number) key).longValue(), (long) _sample.getBlockSize());
+    }
+
+    return toUnitInterval(hash(key)) < _sample.getRate();
+  }
+
+  private long hash (@Nullable final Object key) {
+    if (key instanceof Long) {
+      return HASH.newHasher().putLong(_seed).putLong((Long) key).hash().asLong();
+    }
+
+    return HASH.newHasher()
+             .putLong(_seed)
+             .putString(String.valueOf(key), StandardCharsets.UTF_8)
+             .hash()
+             .asLong();
+  }
+
+  private static double toUnitInterval (final long hash) {
+    return (hash >>> 11) * 0x1.0p-53;
+  }
+
+  /**
+   * Sample a snapshot of rows.
+   *
+   * A Bernoulli sample of a snapshot is a reservoir sample whose size is the expected size of the Bernoulli sample,
+   * a block sample of a snapshot keeps blocks of consecutive rows.
+   *
+   * @param sample A sample to apply.
+   * @param rows   Rows to sample.
+   * @param <Row>  Type of the sampled rows.
+   *
+   * @return The sampled rows.
+   */
+  public static <Row> @NonNull List<Row> sample (
+    @NonNull final Sample sample,
+    @NonNull final List<Row> rows
+  ) {
+    @NonNull final SplittableRandom random = new SplittableRandom(sample.getEffectiveSeed());
+
+    if (sample.getMethod() == SamplingMethod.BLOCK) {
+      return blocks(rows.iterator(), sample.getRate(), sample.getBlockSize(), random);
+    }
+
+    return reservoir(rows.iterator(), (int) Math.round(rows.size() * sample.getRate()), random);
+  }
+
+  /**
+   * Draw a uniform sample of a fixed size from rows of unknown count in a single pass.
+   *
+   * @param rows   Rows to sample.
+   * @param size   Size of the sample.
+   * @param random A source of randomness.
+   * @param <Row>  Type of the sampled rows.
+   *
+   * @return A sample of the given size, or all the rows if there are less rows than the size of the sample.
+   */
+  public static <Row> @NonNull List<Row> reservoir (
+    @NonNull final Iterator<Row> rows,
+    @NonNegative final int size,
+    @NonNull final SplittableRandom random
+  ) {
+    @NonNull final List<Row> result = new ArrayList<>(size);
+    long seen = 0;
+
+    while (rows.hasNext()) {
+      @Nullable final Row row = rows.next();
+
+      if (seen < size) {
+        result.add(row);
+      } else {
+        final long index = random.nextLong(seen + 1);
+        if (index < size) result.set((int) index, row);
+      }
+
+      seen += 1;
+    }
+
+    return result;
+  }
+
+  /**
+   * Sample blocks of consecutive rows in a single pass.
+   *
+   * @param rows      Rows to sample.
+   * @param rate      Probability of sampling a block.
+   * @param blockSize Number of rows of a block.
+   * @param random    A source of randomness.
+   * @param <Row>     Type of the sampled rows.
+   *
+   * @return The rows of each sampled block.
+   */
+  public static <Row> @NonNull List<Row> blocks (
+    @NonNull final Iterator<Row> rows,
+    final double rate,
+    @Positive final int blockSize,
+    @NonNull final SplittableRandom random
+  ) {
+    @NonNull final List<Row> result = new ArrayList<>();
+    boolean sampled = false;
+    long index = 0;
+
+    while (rows.hasNext()) {
+      @Nullable final Row row = rows.next();
+
+      if (index % blockSize == 0) sampled = random.nextDouble() < rate;
+      if (sampled) result.add(row);
+
+      index += 1;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return The evaluated sample.
+   */
+  public @NonNull Sample getSample () {
+    return _sample;
+  }
+}
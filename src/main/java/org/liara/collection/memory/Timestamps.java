@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Conversions of the timestamps of the in-memory engine.
+ */
+public final class Timestamps
+{
+  private Timestamps () {
+  }
+
+  /**
+   * Convert a timestamp into a number of milliseconds since the epoch.
+   *
+   * Local dates and date-times are considered to be in UTC and numbers are considered to already be a number of
+   * milliseconds since the epoch.
+   *
+   * @param timestamp A timestamp to convert.
+   *
+   * @return The given timestamp as a number of milliseconds since the epoch, or null if the timestamp is null.
+   *
+   * @throws IllegalArgumentException If the given value is not a timestamp.
+   */
+  public static @Nullable Long toEpochMilli (@Nullable final Object timestamp) {
+    if (timestamp == null) return null;
+    if (timestamp instanceof Number) return ((Number) timestamp).longValue();
+    if (timestamp instanceof Instant) return ((Instant) timestamp).toEpochMilli();
+    if (timestamp instanceof ZonedDateTime) return ((ZonedDateTime) timestamp).toInstant().toEpochMilli();
+    if (timestamp instanceof OffsetDateTime) return ((OffsetDateTime) timestamp).toInstant().toEpochMilli();
+    if (timestamp instanceof LocalDateTime) return toEpochMilli((LocalDateTime) timestamp);
+    if (timestamp instanceof LocalDate) return toEpochMilli(((LocalDate) timestamp).atStartOfDay());
+    if (timestamp instanceof Date) return ((Date) timestamp).getTime();
+    if (timestamp instanceof Calendar) return ((Calendar) timestamp).getTimeInMillis();
+
+    throw new IllegalArgumentException(
+      "Unable to convert the value " + timestamp + " into a timestamp because values of type " +
+      timestamp.getClass() + " are not timestamps."
+    );
+  }
+
+  private static long toEpochMilli (@NonNull final LocalDateTime timestamp) {
+    return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+}
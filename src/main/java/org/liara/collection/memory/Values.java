@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Value semantics of the in-memory engine.
+ *
+ * Values follow the SQL three-valued logic : any comparison with a null value is unknown, and unknown predicates
+ * does not select rows.
+ */
+public final class Values
+{
+  private Values () {
+  }
+
+  /**
+   * Return true if the given predicate result selects a row.
+   *
+   * @param value A predicate result.
+   *
+   * @return True if the given predicate result selects a row.
+   */
+  public static boolean isTrue (@Nullable final Object value) {
+    return Boolean.TRUE.equals(value);
+  }
+
+  /**
+   * Compare two values for equality.
+   *
+   * @param left  The left operand.
+   * @param right The right operand.
+   *
+   * @return The result of the equality test, or null if the result is unknown.
+   */
+  public static @Nullable Boolean equal (@Nullable final Object left, @Nullable final Object right) {
+    if (left == null || right == null) return null;
+
+    if (left instanceof Number && right instanceof Number && left.getClass() != right.getClass()) {
+      return compareNumbers((Number) left, (Number) right) == 0;
+    }
+
+    return left.equals(right);
+  }
+
+  /**
+   * Compare two values.
+   *
+   * @param left  The left operand.
+   * @param right The right operand.
+   *
+   * @return The sign of the comparison, or null if the result is unknown.
+   */
+  public static @Nullable Integer compare (@Nullable final Object left, @Nullable final Object right) {
+    if (left == null || right == null) return null;
+
+    return compareNonNull(left, right);
+  }
+
+  /**
+   * Compare two values for ordering, null values are considered as smaller than any other value.
+   *
+   * @param left  The left operand.
+   * @param right The right operand.
+   *
+   * @return The sign of the comparison.
+   */
+  public static int order (@Nullable final Object left, @Nullable final Object right) {
+    if (left == right) return 0;
+    if (left == null) return -1;
+    if (right == null) return 1;
+
+    return compareNonNull(left, right);
+  }
+
+  @SuppressWarnings("unchecked") // Checked by the class test.
+  private static int compareNonNull (@NonNull final Object left, @NonNull final Object right) {
+    if (left instanceof Number && right instanceof Number && left.getClass() != right.getClass()) {
+      return compareNumbers((Number) left, (Number) right);
+    }
+
+    if (left instanceof Comparable && left.getClass().isInstance(right)) {
+      return Integer.signum(((Comparable<Object>) left).compareTo(right));
+    }
+
+    throw new IllegalArgumentException(
+      "Unable to compare the value " + left + " of type " + left.getClass().getName() +
+      " with the value " + right + " of type " + right.getClass().getName() + " because the " +
+      "given values are not mutually comparable."
+    );
+  }
+
+  /**
+   * Compute the remainder of the division of two values.
+   *
+   * @param left  The dividend.
+   * @param right The divisor.
+   *
+   * @return The remainder of the division, or null if one of the operands is null.
+   */
+  public static @Nullable Object modulus (@Nullable final Object left, @Nullable final Object right) {
+    if (left == null || right == null) return null;
+
+    if (isIntegral(left) && isIntegral(right)) {
+      final long result = ((Number) left).longValue() % ((Number) right).longValue();
+      return (left instanceof Long || right instanceof Long) ? (Object) result : (Object) (int) result;
+    }
+
+    return ((Number) left).doubleValue() % ((Number) right).doubleValue();
+  }
+
+  /**
+   * Add two numeric values.
+   *
+   * @param left  The left operand.
+   * @param right The right operand.
+   *
+   * @return The sum of both values.
+   */
+  public static @NonNull Number add (@NonNull final Number left, @NonNull final Number right) {
+    if (isIntegral(left) && isIntegral(right)) {
+      return left.longValue() + right.longValue();
+    }
+
+    return left.doubleValue() + right.doubleValue();
+  }
+
+  /**
+   * Subtract two numeric values.
+   *
+   * @param left  The left operand.
+   * @param right The right operand.
+   *
+   * @return The difference of both values.
+   */
+  public static @NonNull Number subtract (@NonNull final Number left, @NonNull final Number right) {
+    if (isIntegral(left) && isIntegral(right)) {
+      return left.longValue() - right.longValue();
+    }
+
+    return left.doubleValue() - right.doubleValue();
+  }
+
+  /**
+   * Return true if the given value is an integral number.
+   *
+   * @param value A value to test.
+   *
+   * @return True if the given value is an integral number.
+   */
+  public static boolean isIntegral (@Nullable final Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Short ||
+           value instanceof Byte || value instanceof BigInteger;
+  }
+
+  private static int compareNumbers (@NonNull final Number left, @NonNull final Number right) {
+    if (isIntegral(left) && isIntegral(right)) {
+      return Long.compare(left.longValue(), right.longValue());
+    }
+
+    if (left instanceof BigDecimal || right instanceof BigDecimal) {
+      return new BigDecimal(left.toString()).compareTo(new BigDecimal(right.toString()));
+    }
+
+    return Double.compare(left.doubleValue(), right.doubleValue());
+  }
+
+  /**
+   * Return a representation of the given value that is suitable for hash-based lookups and that is consistent with
+   * {@link #equal(Object, Object)} : numbers of different types that are equal have equal representations.
+   *
+   * @param value A value to normalize.
+   *
+   * @return A representation of the given value suitable for hash-based lookups.
+   */
+  public static @Nullable Object normalize (@Nullable final Object value) {
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return ((Number) value).longValue();
+    }
+
+    if (value instanceof Float || value instanceof Double) {
+      final double real = ((Number) value).doubleValue();
+      return (real == Math.rint(real) && !Double.isInfinite(real)) ? (Object) (long) real : (Object) real;
+    }
+
+    return value;
+  }
+}
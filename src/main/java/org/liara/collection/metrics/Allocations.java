@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.metrics;
+
+import com.sun.management.ThreadMXBean;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measure the memory allocated by the current thread.
+ */
+public final class Allocations
+{
+  @Nullable
+  private static final ThreadMXBean THREADS = getThreadMXBean();
+
+  private Allocations () {
+  }
+
+  private static @Nullable ThreadMXBean getThreadMXBean () {
+    final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    if (threads instanceof ThreadMXBean) {
+      final ThreadMXBean result = (ThreadMXBean) threads;
+
+      if (result.isThreadAllocatedMemorySupported() && result.isThreadAllocatedMemoryEnabled()) return result;
+    }
+
+    return null;
+  }
+
+  /**
+   * @return True if the allocations of a thread can be measured on this virtual machine.
+   */
+  public static boolean isSupported () {
+    return THREADS != null;
+  }
+
+  /**
+   * @return The number of bytes allocated by the current thread since its start, or -1 if unsupported.
+   */
+  public static long getAllocatedBytes () {
+    return (THREADS == null) ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+}
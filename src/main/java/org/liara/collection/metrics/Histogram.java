@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.metrics;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values with power-of-two buckets.
+ *
+ * The bucket 0 counts the zeros and the bucket n counts the values between 2^(n-1) and 2^n - 1, so percentiles are
+ * estimated within a factor of two.
+ */
+final class Histogram
+{
+  static final int BUCKETS = Long.SIZE + 1;
+
+  @NonNull
+  private final AtomicLongArray _buckets;
+
+  @NonNull
+  private final LongAdder _count;
+
+  @NonNull
+  private final LongAdder _sum;
+
+  @NonNull
+  private final LongAccumulator _maximum;
+
+  Histogram () {
+    _buckets = new AtomicLongArray(BUCKETS);
+    _count = new LongAdder();
+    _sum = new LongAdder();
+    _maximum = new LongAccumulator(Math::max, 0);
+  }
+
+  /**
+   * Record a value, negative values are ignored.
+   *
+   * @param value A value to record.
+   */
+  void record (final long value) {
+    if (value < 0) return;
+
+    _buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+    _count.increment();
+    _sum.add(value);
+    _maximum.accumulate(value);
+  }
+
+  @NonNegative long getCount () {
+    return _count.sum();
+  }
+
+  double getMean () {
+    final long count = _count.sum();
+
+    return (count == 0) ? 0 : (double) _sum.sum() / count;
+  }
+
+  @NonNegative long getMaximum () {
+    return _maximum.get();
+  }
+
+  /**
+   * @param quantile A quantile between 0 and 1.
+   *
+   * @return The upper bound of the bucket that contains the given quantile, bounded by the greatest recorded value.
+   */
+  @NonNegative long getPercentile (final double quantile) {
+    final long[] buckets = getBuckets();
+    long count = 0;
+
+    for (final long bucket : buckets) count += bucket;
+
+    final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+    long seen = 0;
+
+    for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+      seen += buckets[bucket];
+
+      if (seen >= rank) {
+        final long upper = (bucket == 0) ? 0 : (bucket == Long.SIZE) ? Long.MAX_VALUE : (1L << bucket) - 1;
+        return Math.min(upper, getMaximum());
+      }
+    }
+
+    return getMaximum();
+  }
+
+  /**
+   * @return The number of values of each bucket.
+   */
+  long @NonNull [] getBuckets () {
+    final long[] result = new long[BUCKETS];
+
+    for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+      result[bucket] = _buckets.get(bucket);
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.metrics;
+
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A listener that publishes per-shape histograms of query metrics through JMX.
+ *
+ * Recording a metric is lock-free. The number of tracked shapes is bounded, the metrics of the shapes met after that
+ * bound are merged under {@link #OTHER_SHAPES}. When disabled, the listener asks drivers to skip measurements.
+ */
+public final class JmxQueryListener
+  implements QueryListener, JmxQueryListenerMBean
+{
+  /**
+   * Default maximum number of tracked shapes.
+   */
+  public static final int DEFAULT_MAXIMUM_SHAPES = 256;
+
+  /**
+   * Shape of the queries that are not tracked individually.
+   */
+  @NonNull
+  public static final String OTHER_SHAPES = "*";
+
+  /**
+   * Default name of the listener in an MBean server.
+   */
+  @NonNull
+  public static final String DEFAULT_NAME = "org.liara.collection:type=QueryMetrics";
+
+  /**
+   * Duration of the compilation of a query, in nanoseconds.
+   */
+  @NonNull
+  public static final String COMPILE_TIME = "compileTime";
+
+  /**
+   * Number of characters of a compiled query.
+   */
+  @NonNull
+  public static final String RENDER_SIZE = "renderSize";
+
+  /**
+   * Number of parameters to bind to a compiled query.
+   */
+  @NonNull
+  public static final String PARAMETER_COUNT = "parameterCount";
+
+  /**
+   * Number of bytes allocated by the compilation of a query.
+   */
+  @NonNull
+  public static final String ALLOCATED_BYTES = "allocatedBytes";
+
+  /**
+   * Duration of the execution of a query, in nanoseconds.
+   */
+  @NonNull
+  public static final String EXECUTION_TIME = "executionTime";
+
+  /**
+   * Number of rows fetched by the execution of a query.
+   */
+  @NonNull
+  public static final String ROWS = "rows";
+
+  @NonNull
+  private static final String[] METRICS = {
+    COMPILE_TIME, RENDER_SIZE, PARAMETER_COUNT, ALLOCATED_BYTES, EXECUTION_TIME, ROWS
+  };
+
+  private static final int COMPILE_TIME_INDEX = 0;
+
+  private static final int RENDER_SIZE_INDEX = 1;
+
+  private static final int PARAMETER_COUNT_INDEX = 2;
+
+  private static final int ALLOCATED_BYTES_INDEX = 3;
+
+  private static final int EXECUTION_TIME_INDEX = 4;
+
+  private static final int ROWS_INDEX = 5;
+
+  private static final int HITS = 0;
+
+  private static final int MISSES = 1;
+
+  @NonNull
+  private final Map<@NonNull String, @NonNull Histogram[]> _shapes;
+
+  @NonNull
+  private final Map<@NonNull String, @NonNull LongAdder[]> _caches;
+
+  private final int _maximumShapes;
+
+  private volatile boolean _enabled;
+
+  /**
+   * Instantiate a new enabled listener that tracks at most {@link #DEFAULT_MAXIMUM_SHAPES} shapes.
+   */
+  public JmxQueryListener () {
+    this(DEFAULT_MAXIMUM_SHAPES);
+  }
+
+  /**
+   * Instantiate a new enabled listener.
+   *
+   * @param maximumShapes Maximum number of tracked shapes.
+   */
+  public JmxQueryListener (@Positive final int maximumShapes) {
+    if (maximumShapes < 1) {
+      throw new IllegalArgumentException(
+        "Unable to track at most " + maximumShapes + " shapes because a listener must track at least one shape."
+      );
+    }
+
+    _shapes = new ConcurrentHashMap<>();
+    _caches = new ConcurrentHashMap<>();
+    _maximumShapes = maximumShapes;
+    _enabled = true;
+  }
+
+  /**
+   * Register this listener into the platform MBean server under {@link #DEFAULT_NAME}.
+   *
+   * @return The name of this listener in the platform MBean server.
+   */
+  public @NonNull ObjectName register () {
+    try {
+      return register(ManagementFactory.getPlatformMBeanServer(), new ObjectName(DEFAULT_NAME));
+    } catch (@NonNull final JMException exception) {
+      throw new IllegalStateException(
+        "Unable to register the listener because " + DEFAULT_NAME + " is not a valid name.", exception
+      );
+    }
+  }
+
+  /**
+   * Register this listener into an MBean server.
+   *
+   * @param server An MBean server.
+   * @param name   The name of this listener in the given server.
+   *
+   * @return The name of this listener in the given server.
+   */
+  public @NonNull ObjectName register (@NonNull final MBeanServer server, @NonNull final ObjectName name) {
+    try {
+      return server.registerMBean(this, name).getObjectName();
+    } catch (@NonNull final JMException exception) {
+      throw new IllegalStateException(
+        "Unable to register the listener as " + name + " because the MBean server refused it.", exception
+      );
+    }
+  }
+
+  @Override
+  public boolean isEnabled () {
+    return _enabled;
+  }
+
+  @Override
+  public void setEnabled (final boolean enabled) {
+    _enabled = enabled;
+  }
+
+  @Override
+  public void onCompile (@NonNull final QueryMetrics metrics) {
+    @NonNull final Histogram[] histograms = getHistograms(metrics.getShape());
+
+    histograms[COMPILE_TIME_INDEX].record(metrics.getCompileTime());
+    histograms[RENDER_SIZE_INDEX].record(metrics.getRenderSize());
+    histograms[PARAMETER_COUNT_INDEX].record(metrics.getParameterCount());
+    histograms[ALLOCATED_BYTES_INDEX].record(metrics.getAllocatedBytes());
+  }
+
+  @Override
+  public void onExecute (@NonNull final String query, final long nanoseconds, final long rows) {
+    @NonNull final Histogram[] histograms = getHistograms(QueryMetrics.getShape(query));
+
+    histograms[EXECUTION_TIME_INDEX].record(nanoseconds);
+    histograms[ROWS_INDEX].record(rows);
+  }
+
+  @Override
+  public void onCacheAccess (@NonNull final String cache, final boolean hit) {
+    _caches.computeIfAbsent(
+      cache, key -> new LongAdder[] {new LongAdder(), new LongAdder()}
+    )[hit ? HITS : MISSES].increment();
+  }
+
+  private @NonNull Histogram[] getHistograms (@NonNull final String shape) {
+    @Nullable final Histogram[] histograms = _shapes.get(shape);
+
+    if (histograms != null) return histograms;
+
+    return _shapes.computeIfAbsent(
+      (_shapes.size() < _maximumShapes) ? shape : OTHER_SHAPES, JmxQueryListener::createHistograms
+    );
+  }
+
+  private static @NonNull Histogram[] createHistograms (@NonNull final String shape) {
+    @NonNull final Histogram[] result = new Histogram[METRICS.length];
+
+    for (int index = 0; index < METRICS.length; ++index) {
+      result[index] = new Histogram();
+    }
+
+    return result;
+  }
+
+  private @NonNull Histogram findHistogram (@NonNull final String shape, @NonNull final String metric) {
+    @Nullable final Histogram[] histograms = _shapes.get(shape);
+
+    if (histograms == null) {
+      throw new IllegalArgumentException(
+        "Unable to get the metrics of the shape \"" + shape + "\" because no query of this shape was recorded."
+      );
+    }
+
+    for (int index = 0; index < METRICS.length; ++index) {
+      if (METRICS[index].equals(metric)) return histograms[index];
+    }
+
+    throw new IllegalArgumentException(
+      "Unable to get the metric \"" + metric + "\" because it is not a recorded metric."
+    );
+  }
+
+  @Override
+  public String[] getMetrics () {
+    return METRICS.clone();
+  }
+
+  @Override
+  public String[] getShapes () {
+    return _shapes.keySet().toArray(new String[0]);
+  }
+
+  @Override
+  public String[] getCaches () {
+    return _caches.keySet().toArray(new String[0]);
+  }
+
+  @Override
+  public long getCount (@NonNull final String shape, @NonNull final String metric) {
+    return findHistogram(shape, metric).getCount();
+  }
+
+  @Override
+  public double getMean (@NonNull final String shape, @NonNull final String metric) {
+    return findHistogram(shape, metric).getMean();
+  }
+
+  @Override
+  public long getMaximum (@NonNull final String shape, @NonNull final String metric) {
+    return findHistogram(shape, metric).getMaximum();
+  }
+
+  @Override
+  public long getPercentile (@NonNull final String shape, @NonNull final String metric, final double quantile) {
+    return findHistogram(shape, metric).getPercentile(quantile);
+  }
+
+  @Override
+  public long[] getHistogram (@NonNull final String shape, @NonNull final String metric) {
+    return findHistogram(shape, metric).getBuckets();
+  }
+
+  @Override
+  public long getCacheHits (@NonNull final String cache) {
+    @Nullable final LongAdder[] counters = _caches.get(cache);
+
+    return (counters == null) ? 0 : counters[HITS].sum();
+  }
+
+  @Override
+  public long getCacheMisses (@NonNull final String cache) {
+    @Nullable final LongAdder[] counters = _caches.get(cache);
+
+    return (counters == null) ? 0 : counters[MISSES].sum();
+  }
+
+  @Override
+  public void reset () {
+    _shapes.clear();
+    _caches.clear();
+  }
+}
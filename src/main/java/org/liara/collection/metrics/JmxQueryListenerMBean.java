@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.metrics;
+
+/**
+ * Management interface of {@link JmxQueryListener}.
+ *
+ * Metrics are published per query shape, see {@link QueryMetrics#getShape(String)}. The available metrics are
+ * returned by {@link #getMetrics()}.
+ */
+public interface JmxQueryListenerMBean
+{
+  /**
+   * @return True if the listener records metrics.
+   */
+  boolean isEnabled ();
+
+  /**
+   * @param enabled True for recording metrics, false for disabling their measurement.
+   */
+  void setEnabled (boolean enabled);
+
+  /**
+   * @return The name of each recorded metric.
+   */
+  String[] getMetrics ();
+
+  /**
+   * @return Each recorded query shape.
+   */
+  String[] getShapes ();
+
+  /**
+   * @return The name of each accessed cache.
+   */
+  String[] getCaches ();
+
+  /**
+   * @param shape  A query shape.
+   * @param metric A metric name.
+   *
+   * @return The number of recorded values of the given metric for the given shape.
+   */
+  long getCount (String shape, String metric);
+
+  /**
+   * @param shape  A query shape.
+   * @param metric A metric name.
+   *
+   * @return The mean of the recorded values of the given metric for the given shape.
+   */
+  double getMean (String shape, String metric);
+
+  /**
+   * @param shape  A query shape.
+   * @param metric A metric name.
+   *
+   * @return The greatest recorded value of the given metric for the given shape.
+   */
+  long getMaximum (String shape, String metric);
+
+  /**
+   * @param shape    A query shape.
+   * @param metric   A metric name.
+   * @param quantile A quantile between 0 and 1.
+   *
+   * @return An estimation of the given quantile of the given metric for the given shape, within a factor of two.
+   */
+  long getPercentile (String shape, String metric, double quantile);
+
+  /**
+   * @param shape  A query shape.
+   * @param metric A metric name.
+   *
+   * @return The histogram of the given metric for the given shape, the bucket n counts the values between 2^(n-1) and
+   *         2^n - 1.
+   */
+  long[] getHistogram (String shape, String metric);
+
+  /**
+   * @param cache A cache name.
+   *
+   * @return The number of accesses to the given cache that found the requested value.
+   */
+  long getCacheHits (String cache);
+
+  /**
+   * @param cache A cache name.
+   *
+   * @return The number of accesses to the given cache that did not find the requested value.
+   */
+  long getCacheMisses (String cache);
+
+  /**
+   * Forget each recorded metric.
+   */
+  void reset ();
+}
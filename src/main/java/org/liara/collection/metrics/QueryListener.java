@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.metrics;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Receive the metrics of the lifecycle of queries : their compilation, their execution and the accesses to the caches
+ * that serve them.
+ *
+ * Compilations are reported by the JPA collection driver. This library does not execute queries : executions are
+ * reported by the code that runs the compiled queries, if it calls {@link #onExecute(String, long, long)}. Cache
+ * accesses are reported by the parameter caches of the query parser, named after each parameter, and by the page
+ * cache of the page prefetcher. Registries of canonical instances, such as the source registry, are not caches of
+ * queries and do not report their accesses.
+ *
+ * Listeners are called on the thread that compiles or executes a query and must be thread-safe. Drivers skip the
+ * measurement of the metrics of a listener that is not enabled.
+ */
+public interface QueryListener
+{
+  /**
+   * A listener that ignores every metric.
+   */
+  @NonNull QueryListener NONE = new QueryListener() {
+    @Override
+    public boolean isEnabled () {
+      return false;
+    }
+  };
+
+  /**
+   * @return True if this listener expects to receive metrics.
+   */
+  default boolean isEnabled () {
+    return true;
+  }
+
+  /**
+   * Called after the compilation of a query.
+   *
+   * @param metrics Metrics of the compilation.
+   */
+  default void onCompile (@NonNull final QueryMetrics metrics) {
+  }
+
+  /**
+   * Called after the execution of a query, by the code that executes it.
+   *
+   * @param query       The executed query.
+   * @param nanoseconds Duration of the execution, in nanoseconds.
+   * @param rows        Number of fetched rows.
+   */
+  default void onExecute (@NonNull final String query, final long nanoseconds, final long rows) {
+  }
+
+  /**
+   * Called after each access to a cache.
+   *
+   * @param cache Name of the cache.
+   * @param hit   True if the cache contained the requested value.
+   */
+  default void onCacheAccess (@NonNull final String cache, final boolean hit) {
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.metrics;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Metrics of the compilation of a query.
+ */
+public final class QueryMetrics
+{
+  @NonNull
+  private final String _query;
+
+  @Nullable
+  private String _shape;
+
+  private final long _compileTime;
+
+  private final int _parameterCount;
+
+  private final long _allocatedBytes;
+
+  /**
+   * Instantiate new metrics.
+   *
+   * @param query          The compiled query.
+   * @param compileTime    Duration of the compilation, in nanoseconds.
+   * @param parameterCount Number of parameters to bind to the query, constants being rendered inline.
+   * @param allocatedBytes Number of bytes allocated by the compilation, or -1 if unknown.
+   */
+  public QueryMetrics (
+    @NonNull final String query,
+    @NonNegative final long compileTime,
+    @NonNegative final int parameterCount,
+    final long allocatedBytes
+  ) {
+    _query = query;
+    _compileTime = compileTime;
+    _parameterCount = parameterCount;
+    _allocatedBytes = allocatedBytes;
+  }
+
+  /**
+   * @return The compiled query.
+   */
+  public @NonNull String getQuery () {
+    return _query;
+  }
+
+  /**
+   * @return The shape of the compiled query.
+   *
+   * @see #getShape(String)
+   */
+  public @NonNull String getShape () {
+    if (_shape == null) _shape = getShape(_query);
+
+    return _shape;
+  }
+
+  /**
+   * Return the shape of a query, that is the query with each of its literals replaced by a question mark.
+   *
+   * Queries that only differ by the values that they compare have the same shape.
+   *
+   * @param query A query.
+   *
+   * @return The shape of the given query.
+   */
+  public static @NonNull String getShape (@NonNull final String query) {
+    @NonNull final StringBuilder result = new StringBuilder(query.length());
+    final int length = query.length();
+    int index = 0;
+
+    while (index < length) {
+      final char current = query.charAt(index);
+
+      if (current == '"' || current == '\'') {
+        index += 1;
+
+        while (index < length && query.charAt(index) != current) {
+          index += (query.charAt(index) == '\\') ? 2 : 1;
+        }
+
+        index += 1;
+        result.append('?');
+      } else if (Character.isDigit(current) && !isIdentifierPart(query, index - 1)) {
+        while (index < length && (Character.isLetterOrDigit(query.charAt(index)) || query.charAt(index) == '.')) {
+          index += 1;
+        }
+
+        result.append('?');
+      } else {
+        result.append(current);
+        index += 1;
+      }
+    }
+
+    return result.toString();
+  }
+
+  private static boolean isIdentifierPart (@NonNull final String query, final int index) {
+    if (index < 0) return false;
+
+    final char character = query.charAt(index);
+
+    return Character.isLetterOrDigit(character) || character == '_' || character == '.';
+  }
+
+  /**
+   * @return Duration of the compilation, in nanoseconds.
+   */
+  public @NonNegative long getCompileTime () {
+    return _compileTime;
+  }
+
+  /**
+   * @return Number of characters of the compiled query.
+   */
+  public @NonNegative int getRenderSize () {
+    return _query.length();
+  }
+
+  /**
+   * @return Number of parameters to bind to the query.
+   */
+  public @NonNegative int getParameterCount () {
+    return _parameterCount;
+  }
+
+  /**
+   * @return Number of bytes allocated by the compilation, or -1 if unknown.
+   */
+  public long getAllocatedBytes () {
+    return _allocatedBytes;
+  }
+}
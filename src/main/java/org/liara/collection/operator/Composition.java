@@ -26,6 +26,15 @@ import org.checkerframework.checker.index.qual.NonNegative;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.collection.Collection;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.GraphCollectionBuilder;
+import org.liara.collection.operator.cursoring.Cursor;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.grouping.Group;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.sampling.Sample;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.util.Fingerprints;
 
 import java.util.*;
 
@@ -51,6 +60,8 @@ public final class Composition
    */
   public Composition (@NonNull final Iterable<? extends Operator> operators) {
     _operators = Composition.toArray(operators.iterator());
+    _hashCode = Arrays.deepHashCode(_operators);
+    _fingerprint = fingerprint(_operators);
   }
 
   /**
@@ -78,11 +89,17 @@ public final class Composition
    */
   public Composition (@NonNull final Iterator<? extends Operator> operators) {
     _operators = Composition.toArray(operators);
+    _hashCode = Arrays.deepHashCode(_operators);
+    _fingerprint = fingerprint(_operators);
   }
 
   @NonNull
   private final Operator[] _operators;
 
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
   /**
    * Create a new empty composition.
    *
@@ -90,6 +107,8 @@ public final class Composition
    */
   public Composition () {
     _operators = new Operator[0];
+    _hashCode = Arrays.deepHashCode(_operators);
+    _fingerprint = fingerprint(_operators);
   }
 
   /**
@@ -102,6 +121,8 @@ public final class Composition
    */
   public Composition (@NonNull final Operator... operators) {
     _operators = Composition.toArray(Arrays.asList(operators).iterator());
+    _hashCode = Arrays.deepHashCode(_operators);
+    _fingerprint = fingerprint(_operators);
   }
 
   /**
@@ -129,6 +150,16 @@ public final class Composition
     return result.toArray(new Operator[0]);
   }
 
+  private static long fingerprint (@NonNull final Operator[] operators) {
+    @NonNull final long[] fingerprints = new long[operators.length];
+
+    for (int index = 0; index < operators.length; ++index) {
+      fingerprints[index] = Fingerprints.of(operators[index]);
+    }
+
+    return Fingerprints.combine(fingerprints);
+  }
+
   /**
    * Compose operators.
    *
@@ -144,10 +175,20 @@ public final class Composition
   }
 
   /**
+   * Apply each operator of this composition.
+   *
+   * When the given collection is a graph collection, operators that only update a part of the collection are fused :
+   * they are applied in place to a single builder that is frozen once, instead of allocating an intermediate
+   * collection for each of them.
+   *
    * @see Operator#apply(Collection)
    */
   @Override
   public org.liara.collection.@NonNull Collection apply (final org.liara.collection.@NonNull Collection input) {
+    if (input instanceof GraphCollection) {
+      return applyFused((GraphCollection) input);
+    }
+
     Collection result = input;
 
     for (int index = 0; index < _operators.length; ++index) {
@@ -157,6 +198,94 @@ public final class Composition
     return result;
   }
 
+  private org.liara.collection.@NonNull Collection applyFused (@NonNull final GraphCollection input) {
+    @Nullable GraphCollectionBuilder builder = null;
+    Collection result = input;
+
+    for (int index = _operators.length - 1; index >= 0; --index) {
+      @NonNull final Operator operator = _operators[index];
+
+      if (isFusable(operator)) {
+        if (builder == null) builder = ((GraphCollection) result).toBuilder();
+        operator.apply(builder);
+      } else {
+        if (builder != null) {
+          result = builder.build();
+          builder = null;
+        }
+
+        result = operator.apply(result);
+
+        if (!(result instanceof GraphCollection)) {
+          for (--index; index >= 0; --index) {
+            result = _operators[index].apply(result);
+          }
+
+          return result;
+        }
+      }
+    }
+
+    return (builder == null) ? result : builder.build();
+  }
+
+  /**
+   * Return true if the given operator only updates a part of a collection through its capabilities, and can then be
+   * applied to a builder.
+   *
+   * @param operator An operator to check.
+   *
+   * @return True if the given operator can be applied to a builder.
+   */
+  private static boolean isFusable (@NonNull final Operator operator) {
+    return (
+      operator instanceof Filter ||
+      operator instanceof Order ||
+      operator instanceof Group ||
+      operator instanceof Select ||
+      operator instanceof Cursor ||
+      operator instanceof Sample ||
+      operator instanceof Identity
+    );
+  }
+
+  /**
+   * Return the normal form of this composition.
+   *
+   * The normal form is flattened and does not contain any identity. Between two operators of an unknown kind, that
+   * act as barriers, operators are ordered by kind : sample, filters, groups, orderings, selections and cursor. Only
+   * the last applied sample and the last applied cursor are kept, duplicated filters, groups, orderings and
+   * selections are removed and filters are sorted canonically. This form relies on the fact that operators of
+   * different kinds commute, as they update different parts of a collection.
+   *
+   * Two compositions that produce the same collection then have equal normal forms, that can be used as cache keys.
+   * The only exception are unequal filters that share the same hash code, fingerprint and textual representation :
+   * they keep their order of application, so compositions that apply them in different orders have different
+   * normal forms.
+   *
+   * @return The normal form of this composition.
+   */
+  public @NonNull Composition normalize () {
+    @NonNull final List<@NonNull Operator> result = new ArrayList<>(_operators.length);
+    @NonNull final Normalizer normalizer = new Normalizer();
+
+    for (int index = _operators.length - 1; index >= 0; --index) {
+      @NonNull final Operator operator = _operators[index];
+
+      if (operator instanceof Identity) continue;
+
+      if (!normalizer.add(operator)) {
+        normalizer.flush(result);
+        result.add(operator);
+      }
+    }
+
+    normalizer.flush(result);
+    Collections.reverse(result);
+
+    return new Composition(result);
+  }
+
   /**
    * Return an operator of this composition.
    *
@@ -204,7 +333,15 @@ public final class Composition
    */
   @Override
   public int hashCode () {
-    return Arrays.deepHashCode(_operators);
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this composition, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
   }
 
   /**
@@ -219,6 +356,7 @@ public final class Composition
       @NonNull final Composition otherComposition = (Composition) other;
 
       if (otherComposition.getSize() != _operators.length) return false;
+      if (otherComposition.hashCode() != _hashCode) return false;
 
       for (int index = 0; index < _operators.length; ++index) {
         if (!Objects.equals(_operators[index], otherComposition.getOperator(index))) {
@@ -231,4 +369,92 @@ public final class Composition
 
     return false;
   }
+
+  /**
+   * Accumulate a run of operators of known kinds in their normal form.
+   */
+  private static final class Normalizer
+  {
+    /**
+     * Order filters by hash code, fingerprint and textual representation.
+     *
+     * Filters are sorted with a stable sort from their order of application, so that unequal filters that tie on
+     * each key keep a deterministic order. Such filters are not reordered, compositions that apply them in different
+     * orders therefore keep different normal forms.
+     */
+    @NonNull
+    private static final Comparator<@NonNull Filter> FILTER_ORDER = Comparator.comparingInt(
+      Filter::hashCode
+    ).thenComparingLong(Filter::getFingerprint).thenComparing(Filter::toString);
+
+    @NonNull
+    private final Set<@NonNull Filter> _filters = new LinkedHashSet<>();
+
+    @NonNull
+    private final Set<@NonNull Group> _groups = new LinkedHashSet<>();
+
+    @NonNull
+    private final Set<@NonNull Order> _orderings = new LinkedHashSet<>();
+
+    @NonNull
+    private final Set<@NonNull Select> _selections = new LinkedHashSet<>();
+
+    @Nullable
+    private Sample _sample;
+
+    @Nullable
+    private Cursor _cursor;
+
+    /**
+     * Accumulate an operator.
+     *
+     * @param operator An operator in application order.
+     *
+     * @return True if the given operator was accumulated, false if it is of an unknown kind.
+     */
+    boolean add (@NonNull final Operator operator) {
+      if (operator instanceof Filter) {
+        _filters.add((Filter) operator);
+      } else if (operator instanceof Group) {
+        _groups.add((Group) operator);
+      } else if (operator instanceof Order) {
+        _orderings.add((Order) operator);
+      } else if (operator instanceof Select) {
+        _selections.add((Select) operator);
+      } else if (operator instanceof Sample) {
+        _sample = (Sample) operator;
+      } else if (operator instanceof Cursor) {
+        _cursor = (Cursor) operator;
+      } else {
+        return false;
+      }
+
+      return true;
+    }
+
+    /**
+     * Append each accumulated operator in application order and clear this normalizer.
+     *
+     * @param result A list of operators in application order.
+     */
+    void flush (@NonNull final List<@NonNull Operator> result) {
+      if (_sample != null) result.add(_sample);
+
+      @NonNull final List<@NonNull Filter> filters = new ArrayList<>(_filters);
+      filters.sort(FILTER_ORDER);
+      result.addAll(filters);
+      result.addAll(_groups);
+      result.addAll(_orderings);
+      result.addAll(_selections);
+
+      if (_cursor != null) result.add(_cursor);
+
+      _filters.clear();
+      _groups.clear();
+      _orderings.clear();
+      _selections.clear();
+      _sample = null;
+      _cursor = null;
+    }
+  }
 }
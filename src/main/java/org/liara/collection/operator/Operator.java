@@ -24,6 +24,7 @@ package org.liara.collection.operator;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.com.google.common.collect.Iterators;
 import org.liara.collection.Collection;
+import org.liara.collection.util.Fingerprints;
 
 public interface Operator {
   /**
@@ -52,4 +53,16 @@ public interface Operator {
    * @return The result of the operation.
    */
   @NonNull Collection apply (@NonNull final Collection input);
+
+  /**
+   * Return a 64-bit fingerprint of this operator.
+   *
+   * Equal operators must have the same fingerprint. Operators of this library compute a structural fingerprint once
+   * at construction, the default fingerprint is only a mix of the hash code of this operator.
+   *
+   * @return A 64-bit fingerprint of this operator.
+   */
+  default long getFingerprint () {
+    return Fingerprints.mix(hashCode());
+  }
 }
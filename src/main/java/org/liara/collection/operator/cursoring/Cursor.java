@@ -27,6 +27,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.collection.Collection;
 import org.liara.collection.operator.Operator;
+import org.liara.collection.util.Fingerprints;
 
 import java.util.Objects;
 
@@ -41,7 +42,7 @@ public class Cursor implements Operator
    * A cursor that select an entire collection of entities.
    */
   @NonNull
-  public static final Cursor ALL = new Cursor(0, Integer.MAX_VALUE);
+  public static final Cursor ALL = new Cursor(0, Long.MAX_VALUE);
 
   /**
    * The default application cursor. Skip 0 entities and display 10 entities from the given collection.
@@ -62,17 +63,17 @@ public class Cursor implements Operator
   public static final Cursor NONE = new Cursor(0, 0);
 
   @NonNegative
-  private final int _offset;
+  private final long _offset;
 
   @NonNegative
-  private final int _limit;
+  private final long _limit;
 
   /**
    * Create a new empty cursor that does not skip entities and display all entities of a given collection.
    */
   public Cursor () {
     _offset = 0;
-    _limit = Integer.MAX_VALUE;
+    _limit = Long.MAX_VALUE;
   }
 
   /**
@@ -80,7 +81,7 @@ public class Cursor implements Operator
    *
    * @param limit Maximum number of entities to display.
    */
-  public Cursor (@NonNegative final int limit) {
+  public Cursor (@NonNegative final long limit) {
     _offset = 0;
     _limit = limit;
   }
@@ -92,8 +93,8 @@ public class Cursor implements Operator
    * @param limit  Maximum number of entities to display.
    */
   public Cursor (
-    @NonNegative final int offset,
-    @NonNegative final int limit
+    @NonNegative final long offset,
+    @NonNegative final long limit
   )
   {
     _offset = offset;
@@ -113,7 +114,7 @@ public class Cursor implements Operator
   /**
    * @return The amount of entities to skip.
    */
-  public @NonNegative int getOffset () {
+  public @NonNegative long getOffset () {
     return _offset;
   }
 
@@ -124,14 +125,14 @@ public class Cursor implements Operator
    *
    * @return An updated cursor instance with the given offset.
    */
-  public @NonNull Cursor setOffset (@NonNegative final int offset) {
+  public @NonNull Cursor setOffset (@NonNegative final long offset) {
     return new Cursor(offset, _limit);
   }
 
   /**
    * @return The maximum number of entities to display.
    */
-  public @NonNegative int getLimit () {
+  public @NonNegative long getLimit () {
     return _limit;
   }
 
@@ -142,7 +143,7 @@ public class Cursor implements Operator
    *
    * @return An updated cursor instance with the given limit.
    */
-  public @NonNull Cursor setLimit (@NonNegative final int limit) {
+  public @NonNull Cursor setLimit (@NonNegative final long limit) {
     return new Cursor(_offset, limit);
   }
 
@@ -152,7 +153,7 @@ public class Cursor implements Operator
    * @return An updated cursor instance that does not limit the number of entities to display.
    */
   public @NonNull Cursor unlimit () {
-    return new Cursor(_offset, Integer.MAX_VALUE);
+    return new Cursor(_offset, Long.MAX_VALUE);
   }
 
   /**
@@ -168,7 +169,65 @@ public class Cursor implements Operator
    * @return True if the given cursor limit the number of entities to display.
    */
   public boolean hasLimit () {
-    return _limit != Integer.MAX_VALUE;
+    return _limit != Long.MAX_VALUE;
+  }
+
+  /**
+   * Return the offset of the first entity after the range selected by this cursor.
+   *
+   * @return The offset of the first entity after the range selected by this cursor, or Long.MAX_VALUE if this cursor
+   * does not limit the number of entities to display.
+   */
+  public @NonNegative long getEnd () {
+    return (_limit > Long.MAX_VALUE - _offset) ? Long.MAX_VALUE : _offset + _limit;
+  }
+
+  /**
+   * Return the cursor that selects the range of entities that follows the range selected by this cursor.
+   *
+   * @return The cursor that selects the next page of entities.
+   */
+  public @NonNull Cursor next () {
+    return new Cursor(getEnd(), _limit);
+  }
+
+  /**
+   * Split the range selected by this cursor into contiguous and disjoint cursors.
+   *
+   * This cursor must limit the number of entities to display. Entities are distributed as evenly as possible, the
+   * first returned cursors selecting one more entity than the last ones when the limit is not divisible by the number
+   * of partitions.
+   *
+   * @param partitions Number of cursors to return.
+   *
+   * @return Contiguous and disjoint cursors that select together the same range of entities as this cursor.
+   */
+  public @NonNull Cursor[] partition (@NonNegative final int partitions) {
+    if (partitions <= 0) {
+      throw new IllegalArgumentException(
+        "Unable to partition the cursor because the requested number of partitions " + partitions +
+        " is not strictly positive."
+      );
+    }
+
+    if (!hasLimit()) {
+      throw new IllegalArgumentException(
+        "Unable to partition the cursor because it does not limit the number of entities to display."
+      );
+    }
+
+    @NonNull final Cursor[] result = new Cursor[partitions];
+    final long size = _limit / partitions;
+    final long remainder = _limit % partitions;
+    long offset = _offset;
+
+    for (int index = 0; index < partitions; ++index) {
+      final long limit = (index < remainder) ? size + 1 : size;
+      result[index] = new Cursor(offset, limit);
+      offset += limit;
+    }
+
+    return result;
   }
 
   /**
@@ -190,6 +249,14 @@ public class Cursor implements Operator
     return Objects.hash(_offset, _limit);
   }
 
+  /**
+   * @see Operator#getFingerprint()
+   */
+  @Override
+  public long getFingerprint () {
+    return Fingerprints.combine(_offset, _limit);
+  }
+
   /**
    * @see Object#equals(Object)
    */
@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.cursoring;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.metrics.QueryListener;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Fetch pages of cursored collections and speculatively prefetch the page that follows each served page.
+ *
+ * Once a page is served, the next page of the same collection (the page that starts at the offset of the served
+ * page plus its limit) is fetched on a background executor and kept in a short-lived cache, so that a request of the
+ * next page can be served immediately. Prefetches are bounded by a maximum number of concurrent fetches, and cached
+ * pages are bounded by a maximum total weight and a time to live. The pending prefetch of a collection is cancelled
+ * when another page of the same collection is requested.
+ *
+ * @param <Page> Type of the pages fetched.
+ */
+public class PagePrefetcher<Page>
+{
+  /**
+   * Name of the cache of prefetched pages, as reported to query listeners.
+   */
+  @NonNull
+  public static final String CACHE = "pages";
+
+  @NonNull
+  private final Function<@NonNull GraphCollection, @NonNull Page> _fetcher;
+
+  @NonNull
+  private final ExecutorService _executor;
+
+  @NonNull
+  private final Semaphore _permits;
+
+  @NonNull
+  private final Cache<@NonNull GraphCollection, @NonNull Page> _pages;
+
+  @NonNull
+  private final ConcurrentMap<@NonNull GraphCollection, @NonNull Prefetch> _pending;
+
+  @NonNull
+  private final QueryListener _listener;
+
+  /**
+   * Instantiate a new prefetcher that weights each page equally.
+   *
+   * @param fetcher     Function that fetches the page described by a cursored collection.
+   * @param executor    Executor to use for prefetching pages.
+   * @param concurrency Maximum number of pages prefetched at the same time.
+   * @param capacity    Maximum number of prefetched pages to keep.
+   * @param timeToLive  Duration during which a prefetched page can be served.
+   */
+  public PagePrefetcher (
+    @NonNull final Function<@NonNull GraphCollection, @NonNull Page> fetcher,
+    @NonNull final ExecutorService executor,
+    @NonNegative final int concurrency,
+    @NonNegative final long capacity,
+    @NonNull final Duration timeToLive
+  ) {
+    this(fetcher, executor, concurrency, capacity, page -> 1, timeToLive);
+  }
+
+  /**
+   * Instantiate a new prefetcher.
+   *
+   * @param fetcher       Function that fetches the page described by a cursored collection.
+   * @param executor      Executor to use for prefetching pages.
+   * @param concurrency   Maximum number of pages prefetched at the same time.
+   * @param maximumWeight Maximum total weight of the prefetched pages to keep.
+   * @param weigher       Function that returns the weight of a page, usually an estimation of its size in bytes.
+   * @param timeToLive    Duration during which a prefetched page can be served.
+   */
+  public PagePrefetcher (
+    @NonNull final Function<@NonNull GraphCollection, @NonNull Page> fetcher,
+    @NonNull final ExecutorService executor,
+    @NonNegative final int concurrency,
+    @NonNegative final long maximumWeight,
+    @NonNull final ToIntFunction<@NonNull Page> weigher,
+    @NonNull final Duration timeToLive
+  ) {
+    this(fetcher, executor, concurrency, maximumWeight, weigher, timeToLive, QueryListener.NONE);
+  }
+
+  /**
+   * Instantiate a new prefetcher that reports the accesses to its prefetched pages.
+   *
+   * @param fetcher       Function that fetches the page described by a cursored collection.
+   * @param executor      Executor to use for prefetching pages.
+   * @param concurrency   Maximum number of pages prefetched at the same time.
+   * @param maximumWeight Maximum total weight of the prefetched pages to keep.
+   * @param weigher       Function that returns the weight of a page, usually an estimation of its size in bytes.
+   * @param timeToLive    Duration during which a prefetched page can be served.
+   * @param listener      A listener to notify after each fetch, with a hit if the page was prefetched.
+   */
+  public PagePrefetcher (
+    @NonNull final Function<@NonNull GraphCollection, @NonNull Page> fetcher,
+    @NonNull final ExecutorService executor,
+    @NonNegative final int concurrency,
+    @NonNegative final long maximumWeight,
+    @NonNull final ToIntFunction<@NonNull Page> weigher,
+    @NonNull final Duration timeToLive,
+    @NonNull final QueryListener listener
+  ) {
+    _fetcher = fetcher;
+    _executor = executor;
+    _permits = new Semaphore(concurrency);
+    _pages = CacheBuilder.newBuilder()
+                         .maximumWeight(maximumWeight)
+                         .weigher((@NonNull GraphCollection key, @NonNull Page page) -> weigher.applyAsInt(page))
+                         .expireAfterWrite(timeToLive)
+                         .build();
+    _pending = new ConcurrentHashMap<>();
+    _listener = listener;
+  }
+
+  /**
+   * Return the page described by the given collection and prefetch the page that follows it.
+   *
+   * The page is taken from the prefetched pages if possible, awaited if it is currently prefetched, and fetched in
+   * the calling thread otherwise. Any pending prefetch of another page of the same collection is cancelled.
+   *
+   * @param collection A cursored collection.
+   *
+   * @return The page described by the given collection.
+   */
+  public @NonNull Page fetch (@NonNull final GraphCollection collection) {
+    @NonNull final GraphCollection view = collection.setCursor(Cursor.ALL);
+    @Nullable Page result = _pages.getIfPresent(collection);
+
+    if (result == null) {
+      @Nullable final Prefetch prefetch = _pending.get(view);
+
+      if (prefetch != null) {
+        if (prefetch.getCollection().equals(collection)) {
+          result = prefetch.await();
+        } else {
+          prefetch.cancel();
+        }
+      }
+    }
+
+    if (_listener.isEnabled()) _listener.onCacheAccess(CACHE, result != null);
+
+    if (result == null) {
+      result = _fetcher.apply(collection);
+    }
+
+    prefetch(view, collection);
+
+    return result;
+  }
+
+  /**
+   * Cancel the pending prefetch of the given collection and forget its prefetched pages.
+   *
+   * This method should be called when a user navigates away from a collection.
+   *
+   * @param collection A collection, its cursor is ignored.
+   */
+  public void cancel (@NonNull final GraphCollection collection) {
+    @NonNull final GraphCollection view = collection.setCursor(Cursor.ALL);
+    @Nullable final Prefetch prefetch = _pending.get(view);
+
+    if (prefetch != null) prefetch.cancel();
+
+    _pages.asMap().keySet().removeIf(key -> key.setCursor(Cursor.ALL).equals(view));
+  }
+
+  /**
+   * Cancel each pending prefetch and forget all prefetched pages.
+   *
+   * The executor of this prefetcher is not shut down.
+   */
+  public void clear () {
+    for (@NonNull final Prefetch prefetch : _pending.values()) {
+      prefetch.cancel();
+    }
+
+    _pages.invalidateAll();
+  }
+
+  /**
+   * @param collection A cursored collection.
+   *
+   * @return True if the page described by the given collection was prefetched and can be served immediately.
+   */
+  public boolean isPrefetched (@NonNull final GraphCollection collection) {
+    return _pages.getIfPresent(collection) != null;
+  }
+
+  /**
+   * @param collection A cursored collection.
+   *
+   * @return True if the page described by the given collection is currently prefetched.
+   */
+  public boolean isPending (@NonNull final GraphCollection collection) {
+    @Nullable final Prefetch prefetch = _pending.get(collection.setCursor(Cursor.ALL));
+
+    return prefetch != null && prefetch.getCollection().equals(collection);
+  }
+
+  private void prefetch (@NonNull final GraphCollection view, @NonNull final GraphCollection served) {
+    @NonNull final Cursor cursor = served.getCursor();
+
+    if (!cursor.hasLimit() || cursor.getLimit() == 0 || cursor.getEnd() == Long.MAX_VALUE) return;
+
+    @NonNull final GraphCollection next = served.setCursor(cursor.next());
+
+    if (_pages.getIfPresent(next) != null || !_permits.tryAcquire()) return;
+
+    @NonNull final Prefetch prefetch = new Prefetch(view, next);
+    @Nullable final Prefetch previous = _pending.put(view, prefetch);
+
+    if (previous != null) previous.cancel();
+
+    try {
+      prefetch.start();
+    } catch (@NonNull final RuntimeException exception) {
+      _pending.remove(view, prefetch);
+      _permits.release();
+    }
+  }
+
+  private final class Prefetch
+    implements Runnable
+  {
+    private static final int WAITING = 0;
+
+    private static final int RUNNING = 1;
+
+    private static final int CANCELLED = 2;
+
+    @NonNull
+    private final GraphCollection _view;
+
+    @NonNull
+    private final GraphCollection _collection;
+
+    @NonNull
+    private final AtomicInteger _state;
+
+    @Nullable
+    private volatile Future<?> _future;
+
+    @Nullable
+    private volatile Page _page;
+
+    Prefetch (@NonNull final GraphCollection view, @NonNull final GraphCollection collection) {
+      _view = view;
+      _collection = collection;
+      _state = new AtomicInteger(WAITING);
+    }
+
+    void start () {
+      _future = _executor.submit(this);
+    }
+
+    @Override
+    public void run () {
+      if (!_state.compareAndSet(WAITING, RUNNING)) return;
+
+      try {
+        @NonNull final Page page = _fetcher.apply(_collection);
+
+        if (_state.get() == RUNNING) {
+          _page = page;
+          _pages.put(_collection, page);
+        }
+      } finally {
+        _pending.remove(_view, this);
+        _permits.release();
+      }
+    }
+
+    @Nullable Page await () {
+      @Nullable final Future<?> future = _future;
+
+      if (future == null) return null;
+
+      try {
+        future.get();
+        return _page;
+      } catch (@NonNull final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        return null;
+      } catch (@NonNull final ExecutionException | CancellationException exception) {
+        return null;
+      }
+    }
+
+    void cancel () {
+      final int state = _state.getAndSet(CANCELLED);
+      @Nullable final Future<?> future = _future;
+
+      if (future != null) future.cancel(true);
+
+      // A running prefetch releases its own permit when it stops.
+      if (state == WAITING) {
+        _pending.remove(_view, this);
+        _permits.release();
+      }
+    }
+
+    @NonNull GraphCollection getCollection () {
+      return _collection;
+    }
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.cursoring;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.data.primitive.Primitive;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.Constant;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Split a collection into disjoint collections over contiguous ranges of an integral key.
+ *
+ * Each partition selects the rows of the collection whose key is in a given range, the first partition being
+ * unbounded below and the last partition being unbounded above so that the partitions select together each row of
+ * the collection whose key is not null. Partitions can then be scanned in parallel by multiple workers, each with its
+ * own cursor, instead of paging through one collection with ever deeper offsets.
+ *
+ * The key must be non-null, like a primary key : partitions are comparisons of the key, and a row with a null key is
+ * not selected by any of them. Such rows are therefore missing from a scan of every partition.
+ */
+public final class PartitionedScan
+{
+  @NonNull
+  private static final ExpressionFactory FACTORY = new ExpressionFactory();
+
+  @NonNull
+  private final Expression<? extends Number> _key;
+
+  @NonNull
+  private final List<@NonNull Filter> _filters;
+
+  /**
+   * Instantiate a new scan that splits the expected range of values of a key into ranges of equal size.
+   *
+   * @param key        A non-null integral key of the collections to split.
+   * @param minimum    Expected minimum value of the key, inclusive.
+   * @param maximum    Expected maximum value of the key, inclusive.
+   * @param partitions Maximum number of partitions to create, a range is never split into more partitions than it
+   *                   contains values.
+   */
+  public PartitionedScan (
+    @NonNull final Expression<? extends Number> key,
+    final long minimum,
+    final long maximum,
+    final int partitions
+  ) {
+    if (partitions <= 0) {
+      throw new IllegalArgumentException(
+        "Unable to partition the key because the requested number of partitions " + partitions +
+        " is not strictly positive."
+      );
+    }
+
+    if (minimum > maximum) {
+      throw new IllegalArgumentException(
+        "Unable to partition the key because the minimum value " + minimum + " is greater than the maximum value " +
+        maximum + "."
+      );
+    }
+
+    @NonNull final Primitive type = key.getResultType();
+
+    if (type != Primitives.INTEGER && type != Primitives.LONG) {
+      throw new IllegalArgumentException(
+        "Unable to partition the key because it is not an integer or a long."
+      );
+    }
+
+    if (type == Primitives.INTEGER && (minimum < Integer.MIN_VALUE || maximum > Integer.MAX_VALUE)) {
+      throw new IllegalArgumentException(
+        "Unable to partition the key because the range [" + minimum + ", " + maximum + "] is not a range of " +
+        "integers."
+      );
+    }
+
+    _key = key;
+    _filters = Collections.unmodifiableList(createFilters(key, minimum, maximum, partitions));
+  }
+
+  private static @NonNull List<@NonNull Filter> createFilters (
+    @NonNull final Expression<? extends Number> key,
+    final long minimum,
+    final long maximum,
+    final int partitions
+  ) {
+    @NonNull final BigInteger size = BigInteger.valueOf(maximum).subtract(BigInteger.valueOf(minimum)).add(
+      BigInteger.ONE
+    );
+    final int count = (int) Math.min(partitions, size.min(BigInteger.valueOf(Integer.MAX_VALUE)).longValue());
+    @NonNull final List<@NonNull Filter> result = new ArrayList<>(count);
+
+    if (count == 1) return result;
+
+    long lower = minimum;
+
+    for (int index = 1; index <= count; ++index) {
+      final long upper = size.multiply(BigInteger.valueOf(index))
+                             .divide(BigInteger.valueOf(count))
+                             .add(BigInteger.valueOf(minimum))
+                             .longValue();
+
+      if (index == 1) {
+        result.add(Filter.expression(FACTORY.lessThan(key, constant(key, upper))));
+      } else if (index == count) {
+        result.add(Filter.expression(FACTORY.greaterThan(key, constant(key, lower - 1))));
+      } else {
+        result.add(Filter.expression(FACTORY.and(
+          FACTORY.greaterThan(key, constant(key, lower - 1)),
+          FACTORY.lessThan(key, constant(key, upper))
+        )));
+      }
+
+      lower = upper;
+    }
+
+    return result;
+  }
+
+  private static @NonNull Constant<?> constant (
+    @NonNull final Expression<? extends Number> key,
+    final long value
+  ) {
+    if (key.getResultType() == Primitives.LONG) {
+      return new Constant<>(Primitives.LONG, value);
+    }
+
+    return new Constant<>(Primitives.INTEGER, (int) value);
+  }
+
+  /**
+   * Return the given collection restricted to each partition of this scan.
+   *
+   * @param collection A collection to split.
+   *
+   * @return One collection for each partition of this scan.
+   */
+  public @NonNull List<@NonNull GraphCollection> apply (@NonNull final GraphCollection collection) {
+    if (_filters.isEmpty()) return Collections.singletonList(collection);
+
+    @NonNull final List<@NonNull GraphCollection> result = new ArrayList<>(_filters.size());
+
+    for (@NonNull final Filter filter : _filters) {
+      result.add(collection.addFilter(filter));
+    }
+
+    return result;
+  }
+
+  /**
+   * @return The key partitioned by this scan.
+   */
+  public @NonNull Expression<? extends Number> getKey () {
+    return _key;
+  }
+
+  /**
+   * @return The filter of each partition of this scan, empty if this scan does not split collections.
+   */
+  public @NonNull List<@NonNull Filter> getFilters () {
+    return _filters;
+  }
+}
@@ -24,6 +24,7 @@ package org.liara.collection.operator.filtering;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.util.Fingerprints;
 import org.liara.expression.Expression;
 
 import java.util.Objects;
@@ -34,12 +35,20 @@ public class ExpressionFilter
   @NonNull
   private final Expression<@NonNull Boolean> _predicate;
 
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
   public ExpressionFilter (@NonNull final Expression<@NonNull Boolean> predicate) {
     _predicate = predicate;
+    _hashCode = Objects.hash(_predicate);
+    _fingerprint = Fingerprints.ofAll(_predicate);
   }
 
   public ExpressionFilter (@NonNull final ExpressionFilter toCopy) {
     _predicate = toCopy.getExpression();
+    _hashCode = Objects.hash(_predicate);
+    _fingerprint = Fingerprints.ofAll(_predicate);
   }
 
   @Override
@@ -52,7 +61,15 @@ public class ExpressionFilter
    */
   @Override
   public int hashCode () {
-    return Objects.hash(_predicate);
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this operator, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
   }
 
   /**
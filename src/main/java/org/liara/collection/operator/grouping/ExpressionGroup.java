@@ -24,6 +24,7 @@ package org.liara.collection.operator.grouping;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.util.Fingerprints;
 import org.liara.expression.Expression;
 
 import java.util.Objects;
@@ -34,6 +35,10 @@ public class ExpressionGroup
   @NonNull
   private final Expression<?> _expression;
 
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
   /**
    * Instantiate a new grouping operation of a given expression.
    *
@@ -41,6 +46,8 @@ public class ExpressionGroup
    */
   public ExpressionGroup (@NonNull final Expression<?> expression) {
     _expression = expression;
+    _hashCode = Objects.hash(_expression);
+    _fingerprint = Fingerprints.ofAll(_expression);
   }
 
   /**
@@ -50,6 +57,8 @@ public class ExpressionGroup
    */
   public ExpressionGroup (@NonNull final ExpressionGroup toCopy) {
     _expression = toCopy.getExpression();
+    _hashCode = Objects.hash(_expression);
+    _fingerprint = Fingerprints.ofAll(_expression);
   }
 
   /**
@@ -65,7 +74,15 @@ public class ExpressionGroup
    */
   @Override
   public int hashCode () {
-    return Objects.hash(_expression);
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this operator, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
   }
 
   /**
@@ -27,6 +27,8 @@ import org.liara.collection.Collection;
 import org.liara.collection.operator.Operator;
 import org.liara.expression.Expression;
 
+import java.time.Duration;
+
 public interface Group
   extends Operator
 {
@@ -41,6 +43,53 @@ public interface Group
     return new ExpressionGroup(expression);
   }
 
+  /**
+   * Create a new grouping operation by fixed-size, non-overlapping, time windows.
+   *
+   * @param timestamp A timestamp expression to group.
+   * @param size      Size of each window.
+   *
+   * @return A new grouping operation by tumbling windows.
+   */
+  static @NonNull TumblingWindowGroup tumbling (
+    @NonNull final Expression<?> timestamp,
+    @NonNull final Duration size
+  ) {
+    return new TumblingWindowGroup(timestamp, size);
+  }
+
+  /**
+   * Create a new grouping operation by fixed-size time windows that start at each hop.
+   *
+   * @param timestamp A timestamp expression to group.
+   * @param size      Size of each window.
+   * @param hop       Duration between the start of two consecutive windows.
+   *
+   * @return A new grouping operation by sliding windows.
+   */
+  static @NonNull SlidingWindowGroup sliding (
+    @NonNull final Expression<?> timestamp,
+    @NonNull final Duration size,
+    @NonNull final Duration hop
+  ) {
+    return new SlidingWindowGroup(timestamp, size, hop);
+  }
+
+  /**
+   * Create a new grouping operation by sessions of rows separated by less than a given gap.
+   *
+   * @param timestamp A timestamp expression to group.
+   * @param gap       Maximum duration between two consecutive rows of a session.
+   *
+   * @return A new grouping operation by session windows.
+   */
+  static @NonNull SessionWindowGroup session (
+    @NonNull final Expression<?> timestamp,
+    @NonNull final Duration gap
+  ) {
+    return new SessionWindowGroup(timestamp, gap);
+  }
+
   /**
    * @see Operator#apply(Collection)
    */
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.grouping;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.util.Fingerprints;
+import org.liara.expression.Expression;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A grouping operation that groups rows by sessions : a session contains each row that is separated from another
+ * row of the session by less than a given gap.
+ */
+public class SessionWindowGroup
+  implements WindowGroup
+{
+  @NonNull
+  private final Expression<?> _expression;
+
+  @NonNull
+  private final Duration _gap;
+
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
+  /**
+   * Instantiate a new session window grouping operation.
+   *
+   * @param expression A timestamp expression to group.
+   * @param gap        Maximum duration between two consecutive rows of a session.
+   */
+  public SessionWindowGroup (
+    @NonNull final Expression<?> expression,
+    @NonNull final Duration gap
+  ) {
+    if (gap.toMillis() <= 0) {
+      throw new IllegalArgumentException(
+        "Unable to instantiate a session window with a gap of " + gap + " because the gap of a " +
+        "session must be at least of one millisecond."
+      );
+    }
+
+    _expression = expression;
+    _gap = gap;
+    _hashCode = Objects.hash(_expression, _gap);
+    _fingerprint = Fingerprints.ofAll(_expression, _gap);
+  }
+
+  /**
+   * Instantiate a new grouping operation that is a copy of another one.
+   *
+   * @param toCopy A grouping operation to copy.
+   */
+  public SessionWindowGroup (@NonNull final SessionWindowGroup toCopy) {
+    _expression = toCopy.getExpression();
+    _gap = toCopy.getGap();
+    _hashCode = Objects.hash(_expression, _gap);
+    _fingerprint = Fingerprints.ofAll(_expression, _gap);
+  }
+
+  /**
+   * @see WindowGroup#getExpression()
+   */
+  @Override
+  public @NonNull Expression<?> getExpression () {
+    return _expression;
+  }
+
+  /**
+   * @return The maximum duration between two consecutive rows of a session.
+   */
+  public @NonNull Duration getGap () {
+    return _gap;
+  }
+
+  /**
+   * @see Object#hashCode()
+   */
+  @Override
+  public int hashCode () {
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this operator, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
+  }
+
+  /**
+   * @see Object#equals(Object)
+   */
+  @Override
+  public boolean equals (@Nullable final Object other) {
+    if (other == null) return false;
+    if (other == this) return true;
+
+    if (other instanceof SessionWindowGroup) {
+      @NonNull final SessionWindowGroup otherGroup = (SessionWindowGroup) other;
+      return Objects.equals(_expression, otherGroup.getExpression()) && Objects.equals(
+        _gap,
+        otherGroup.getGap()
+      );
+    }
+
+    return false;
+  }
+}
@@ -23,6 +23,7 @@ package org.liara.collection.operator.ordering;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.util.Fingerprints;
 import org.liara.expression.Expression;
 
 import java.util.Objects;
@@ -39,6 +40,10 @@ public class ExpressionOrder
   @NonNull
   private final OrderingDirection _direction;
 
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
   /**
    * Create a new ascending ordering operation for a given expression.
    *
@@ -49,6 +54,8 @@ public class ExpressionOrder
   ) {
     _expression = expression;
     _direction = OrderingDirection.ASCENDING;
+    _hashCode = Objects.hash(_expression, _direction);
+    _fingerprint = Fingerprints.ofAll(_expression, _direction);
   }
 
   /**
@@ -63,6 +70,8 @@ public class ExpressionOrder
   ) {
     _expression = expression;
     _direction = direction;
+    _hashCode = Objects.hash(_expression, _direction);
+    _fingerprint = Fingerprints.ofAll(_expression, _direction);
   }
 
   /**
@@ -76,6 +85,8 @@ public class ExpressionOrder
   {
     _expression = toCopy.getExpression();
     _direction = toCopy.getDirection();
+    _hashCode = Objects.hash(_expression, _direction);
+    _fingerprint = Fingerprints.ofAll(_expression, _direction);
   }
 
   /**
@@ -132,7 +143,15 @@ public class ExpressionOrder
    */
   @Override
   public int hashCode () {
-    return Objects.hash(_expression, _direction);
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this operator, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
   }
 
   /**
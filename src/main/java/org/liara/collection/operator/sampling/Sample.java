@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.sampling;
+
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.Collection;
+import org.liara.collection.operator.Operator;
+import org.liara.collection.source.TableSource;
+import org.liara.collection.util.Fingerprints;
+import org.liara.expression.Expression;
+
+import java.util.Objects;
+
+/**
+ * An operator that restricts a collection to a random sample of its source rows.
+ *
+ * Rows are sampled before being filtered, by the hash of a key expression and of a seed : a sample is then
+ * reproducible. When no seed is given, {@link #DEFAULT_SEED} is used, and when no key is given, the identifier column
+ * of the root table of the collection is used as key.
+ */
+public class Sample
+  implements Operator
+{
+  /**
+   * A sample that contains all rows of a collection.
+   */
+  @NonNull
+  public static final Sample ALL = new Sample(SamplingMethod.BERNOULLI, 1.0, null, null, 1);
+
+  /**
+   * The default number of consecutive keys of a block.
+   */
+  public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+  /**
+   * The seed of samples that do not specify any seed.
+   */
+  public static final long DEFAULT_SEED = 0L;
+
+  /**
+   * The name of the column used as key by samples that do not specify any key.
+   */
+  @NonNull
+  public static final String DEFAULT_KEY_COLUMN = "identifier";
+
+  @NonNull
+  private final SamplingMethod _method;
+
+  private final double _rate;
+
+  @Nullable
+  private final Long _seed;
+
+  @Nullable
+  private final Expression<?> _key;
+
+  @Positive
+  private final int _blockSize;
+
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
+  /**
+   * Create a new sample.
+   *
+   * @param method    The sampling method to use.
+   * @param rate      The fraction of rows or of blocks to sample, between 0 excluded and 1 included.
+   * @param seed      The seed of the sample, or null for using the default seed.
+   * @param key       The key expression of each row, or null for using the identifier column of the root table.
+   * @param blockSize The number of consecutive keys of a block.
+   */
+  public Sample (
+    @NonNull final SamplingMethod method,
+    final double rate,
+    @Nullable final Long seed,
+    @Nullable final Expression<?> key,
+    @Positive final int blockSize
+  ) {
+    if (!(rate > 0 && rate <= 1)) {
+      throw new IllegalArgumentException(
+        "Unable to sample a collection at the rate " + rate + " because a sampling rate must " +
+        "be between 0 excluded and 1 included."
+      );
+    }
+
+    if (blockSize < 1) {
+      throw new IllegalArgumentException(
+        "Unable to sample blocks of " + blockSize + " keys because a block must contain at least " +
+        "one key."
+      );
+    }
+
+    _method = method;
+    _rate = rate;
+    _seed = seed;
+    _key = key;
+    _blockSize = blockSize;
+    _hashCode = Objects.hash(_method, _rate, _seed, _key, _blockSize);
+    _fingerprint = Fingerprints.ofAll(_method, _rate, _seed, _key, _blockSize);
+  }
+
+  /**
+   * Create a copy of a given sample.
+   *
+   * @param toCopy The sample to copy.
+   */
+  public Sample (@NonNull final Sample toCopy) {
+    _method = toCopy.getMethod();
+    _rate = toCopy.getRate();
+    _seed = toCopy.getSeed();
+    _key = toCopy.getKey();
+    _blockSize = toCopy.getBlockSize();
+    _hashCode = Objects.hash(_method, _rate, _seed, _key, _blockSize);
+    _fingerprint = Fingerprints.ofAll(_method, _rate, _seed, _key, _blockSize);
+  }
+
+  /**
+   * Create a new Bernoulli sample.
+   *
+   * @param rate The fraction of rows to sample.
+   *
+   * @return A new Bernoulli sample.
+   */
+  public static @NonNull Sample bernoulli (final double rate) {
+    return new Sample(SamplingMethod.BERNOULLI, rate, null, null, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Create a new block sample.
+   *
+   * @param rate The fraction of blocks to sample.
+   *
+   * @return A new block sample.
+   */
+  public static @NonNull Sample block (final double rate) {
+    return new Sample(SamplingMethod.BLOCK, rate, null, null, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * @see Operator#apply(Collection)
+   */
+  @Override
+  public @NonNull Collection apply (@NonNull final Collection collection) {
+    if (collection instanceof SampleableCollection) {
+      return ((SampleableCollection) collection).sample(this);
+    }
+
+    return collection;
+  }
+
+  /**
+   * @return The sampling method to use.
+   */
+  public @NonNull SamplingMethod getMethod () {
+    return _method;
+  }
+
+  /**
+   * @return The fraction of rows or of blocks to sample.
+   */
+  public double getRate () {
+    return _rate;
+  }
+
+  /**
+   * Return a new sample based on this one with a new seed.
+   *
+   * @param seed The new seed of the sample, or null for using the default seed.
+   *
+   * @return An updated sample with the given seed.
+   */
+  public @NonNull Sample setSeed (@Nullable final Long seed) {
+    return new Sample(_method, _rate, seed, _key, _blockSize);
+  }
+
+  /**
+   * @return The seed of this sample, or null if this sample uses the default seed.
+   */
+  public @Nullable Long getSeed () {
+    return _seed;
+  }
+
+  /**
+   * @return The seed of this sample, or the default seed if this sample does not specify any seed.
+   */
+  public long getEffectiveSeed () {
+    return _seed == null ? DEFAULT_SEED : _seed;
+  }
+
+  /**
+   * Return a new sample based on this one with a new key expression.
+   *
+   * @param key The key expression of each row, or null for using the identifier column of the root table.
+   *
+   * @return An updated sample with the given key.
+   */
+  public @NonNull Sample setKey (@Nullable final Expression<?> key) {
+    return new Sample(_method, _rate, _seed, key, _blockSize);
+  }
+
+  /**
+   * @return The key expression of each row, or null if the identifier column of the root table is used as key.
+   */
+  public @Nullable Expression<?> getKey () {
+    return _key;
+  }
+
+  /**
+   * Return the key expression of each row of a sampled collection.
+   *
+   * @param root The root table of the sampled collection.
+   *
+   * @return The key of this sample, or the identifier column of the given table if this sample does not specify any
+   *         key.
+   *
+   * @throws IllegalArgumentException If this sample does not specify any key and the given table has no identifier
+   *                                  column.
+   */
+  public @NonNull Expression<?> getEffectiveKey (@NonNull final TableSource root) {
+    if (_key != null) return _key;
+
+    if (!root.hasColumn(DEFAULT_KEY_COLUMN)) {
+      throw new IllegalArgumentException(
+        "Unable to sample the table \"" + root.getTable().getName() + "\" aliased as \"" + root.getName() +
+        "\" because the sample does not specify any key and the table does not contain any column named \"" +
+        DEFAULT_KEY_COLUMN + "\"."
+      );
+    }
+
+    return root.getOwnPlaceholder(DEFAULT_KEY_COLUMN);
+  }
+
+  /**
+   * Return a new sample based on this one with a new block size.
+   *
+   * @param blockSize The number of consecutive keys of a block.
+   *
+   * @return An updated sample with the given block size.
+   */
+  public @NonNull Sample setBlockSize (@Positive final int blockSize) {
+    return new Sample(_method, _rate, _seed, _key, blockSize);
+  }
+
+  /**
+   * @return The number of consecutive keys of a block.
+   */
+  public @Positive int getBlockSize () {
+    return _blockSize;
+  }
+
+  /**
+   * @return True if this sample may exclude rows.
+   */
+  public boolean isSampling () {
+    return _rate < 1;
+  }
+
+  /**
+   * @see Object#hashCode()
+   */
+  @Override
+  public int hashCode () {
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this operator, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
+  }
+
+  /**
+   * @see Object#equals(Object)
+   */
+  @Override
+  public boolean equals (@Nullable final Object other) {
+    if (other == null) return false;
+    if (other == this) return true;
+
+    if (other instanceof Sample) {
+      @NonNull final Sample otherSample = (Sample) other;
+
+      return _method == otherSample.getMethod() &&
+             Double.compare(_rate, otherSample.getRate()) == 0 &&
+             Objects.equals(_seed, otherSample.getSeed()) &&
+             Objects.equals(_key, otherSample.getKey()) &&
+             _blockSize == otherSample.getBlockSize();
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.selection;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.util.Fingerprints;
+import org.liara.expression.Expression;
+
+import java.util.Objects;
+
+/**
+ * A selection of an aggregation function computed over each group of rows of a collection.
+ *
+ * The expression of this selection is the aggregated expression.
+ *
+ * @param <Type> Type of the aggregated expression.
+ */
+public class AggregateSelect<Type>
+  implements Select<Type>
+{
+  @Nullable
+  private final String _name;
+
+  @NonNull
+  private final Aggregation _aggregation;
+
+  @NonNull
+  private final Expression<Type> _expression;
+
+  @NonNull
+  private final SelectionPlaceholder<Type> _placeholder;
+
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
+  public AggregateSelect (
+    @NonNull final Aggregation aggregation,
+    @NonNull final Expression<Type> expression,
+    @Nullable final String name
+  ) {
+    _name = name;
+    _aggregation = aggregation;
+    _expression = expression;
+    _placeholder = new StaticSelectionPlaceholder<>(this);
+    _hashCode = Objects.hash(_name, _aggregation, _expression);
+    _fingerprint = Fingerprints.ofAll(_name, _aggregation, _expression);
+  }
+
+  @Override
+  public @Nullable String getName () {
+    return _name;
+  }
+
+  /**
+   * @return The aggregation function to compute.
+   */
+  public @NonNull Aggregation getAggregation () {
+    return _aggregation;
+  }
+
+  @Override
+  public @NonNull Expression<Type> getExpression () {
+    return _expression;
+  }
+
+  @Override
+  public @NonNull SelectionPlaceholder<Type> getPlaceholder () {
+    return _placeholder;
+  }
+
+  @Override
+  public boolean equals (@Nullable final Object other) {
+    if (other == null) return false;
+    if (other == this) return true;
+
+    if (other instanceof AggregateSelect) {
+      @NonNull final AggregateSelect otherAggregateSelect = (AggregateSelect) other;
+
+      return (
+        Objects.equals(
+          _name,
+          otherAggregateSelect.getName()
+        ) &&
+        Objects.equals(
+          _aggregation,
+          otherAggregateSelect.getAggregation()
+        ) &&
+        Objects.equals(
+          _expression,
+          otherAggregateSelect.getExpression()
+        )
+      );
+    }
+
+    return false;
+  }
+
+  @Override
+  public int hashCode () {
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this operator, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.selection;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.util.Fingerprints;
+import org.liara.expression.Expression;
+
+import java.util.Objects;
+
+/**
+ * A selection of an estimation of the number of distinct values of an expression over each group of rows of a
+ * collection.
+ *
+ * The estimation is computed in memory with a HyperLogLog sketch of 2^precision registers, whose relative standard
+ * error is about 1.04 / sqrt(2^precision). Queries rendered by the JPA driver compute an exact count of the distinct
+ * values instead, as they do not have any sketch function.
+ *
+ * @param <Type> Type of the counted expression.
+ */
+public class ApproximateDistinctCountSelect<Type>
+  implements Select<Type>
+{
+  /**
+   * Smallest supported precision.
+   */
+  public static final int MINIMUM_PRECISION = 4;
+
+  /**
+   * Greatest supported precision.
+   */
+  public static final int MAXIMUM_PRECISION = 18;
+
+  @Nullable
+  private final String _name;
+
+  @NonNull
+  private final Expression<Type> _expression;
+
+  private final int _precision;
+
+  @NonNull
+  private final SelectionPlaceholder<Type> _placeholder;
+
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
+  public ApproximateDistinctCountSelect (
+    @NonNull final Expression<Type> expression,
+    final int precision,
+    @Nullable final String name
+  ) {
+    if (precision < MINIMUM_PRECISION || precision > MAXIMUM_PRECISION) {
+      throw new IllegalArgumentException(
+        "Unable to estimate a distinct count with a precision of " + precision + " because the " +
+        "precision must be between " + MINIMUM_PRECISION + " and " + MAXIMUM_PRECISION + "."
+      );
+    }
+
+    _name = name;
+    _expression = expression;
+    _precision = precision;
+    _placeholder = new StaticSelectionPlaceholder<>(this);
+    _hashCode = Objects.hash(_name, _expression, _precision);
+    _fingerprint = Fingerprints.ofAll(_name, _expression, _precision);
+  }
+
+  /**
+   * Return the smallest precision whose relative standard error does not exceed the given one.
+   *
+   * @param relativeError A relative standard error, as a ratio.
+   *
+   * @return The smallest precision whose relative standard error does not exceed the given one.
+   */
+  public static int getPrecision (final double relativeError) {
+    if (!(relativeError > 0)) {
+      throw new IllegalArgumentException(
+        "Unable to compute the precision of a relative error of " + relativeError + " because " +
+        "a relative error must be positive."
+      );
+    }
+
+    final double registers = Math.pow(1.04 / relativeError, 2);
+    final int precision = (int) Math.ceil(Math.log(registers) / Math.log(2));
+
+    return Math.max(MINIMUM_PRECISION, Math.min(MAXIMUM_PRECISION, precision));
+  }
+
+  @Override
+  public @Nullable String getName () {
+    return _name;
+  }
+
+  /**
+   * @return The base-2 logarithm of the number of registers of the sketch.
+   */
+  public int getPrecision () {
+    return _precision;
+  }
+
+  /**
+   * @return The relative standard error of the estimation, as a ratio.
+   */
+  public double getRelativeError () {
+    return 1.04 / Math.sqrt(1 << _precision);
+  }
+
+  @Override
+  public @NonNull Expression<Type> getExpression () {
+    return _expression;
+  }
+
+  @Override
+  public @NonNull SelectionPlaceholder<Type> getPlaceholder () {
+    return _placeholder;
+  }
+
+  @Override
+  public boolean equals (@Nullable final Object other) {
+    if (other == null) return false;
+    if (other == this) return true;
+
+    if (other instanceof ApproximateDistinctCountSelect) {
+      @NonNull final ApproximateDistinctCountSelect otherSelect = (ApproximateDistinctCountSelect) other;
+
+      return (
+        Objects.equals(
+          _name,
+          otherSelect.getName()
+        ) &&
+        Objects.equals(
+          _expression,
+          otherSelect.getExpression()
+        ) &&
+        _precision == otherSelect.getPrecision()
+      );
+    }
+
+    return false;
+  }
+
+  @Override
+  public int hashCode () {
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this operator, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.selection;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.util.Fingerprints;
+import org.liara.expression.Expression;
+
+import java.util.Objects;
+
+/**
+ * A selection of an estimation of a quantile of an expression over each group of rows of a collection.
+ *
+ * The estimation is computed with a KLL sketch whose accuracy is controlled by its parameter k : the rank error of
+ * the estimation is about 1.65 / k.
+ *
+ * @param <Type> Type of the expression.
+ */
+public class ApproximateQuantileSelect<Type>
+  implements Select<Type>
+{
+  /**
+   * Default accuracy parameter, for a rank error of about 0.8%.
+   */
+  public static final int DEFAULT_ACCURACY = 200;
+
+  @Nullable
+  private final String _name;
+
+  @NonNull
+  private final Expression<Type> _expression;
+
+  private final double _quantile;
+
+  private final int _accuracy;
+
+  @NonNull
+  private final SelectionPlaceholder<Type> _placeholder;
+
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
+  public ApproximateQuantileSelect (
+    @NonNull final Expression<Type> expression,
+    final double quantile,
+    final int accuracy,
+    @Nullable final String name
+  ) {
+    if (!(quantile >= 0 && quantile <= 1)) {
+      throw new IllegalArgumentException(
+        "Unable to estimate the quantile " + quantile + " because a quantile must be between " +
+        "0 and 1."
+      );
+    }
+
+    if (accuracy < 8) {
+      throw new IllegalArgumentException(
+        "Unable to estimate a quantile with an accuracy of " + accuracy + " because the " +
+        "accuracy parameter must be at least 8."
+      );
+    }
+
+    _name = name;
+    _expression = expression;
+    _quantile = quantile;
+    _accuracy = accuracy;
+    _placeholder = new StaticSelectionPlaceholder<>(this);
+    _hashCode = Objects.hash(_name, _expression, _quantile, _accuracy);
+    _fingerprint = Fingerprints.ofAll(_name, _expression, _quantile, _accuracy);
+  }
+
+  @Override
+  public @Nullable String getName () {
+    return _name;
+  }
+
+  /**
+   * @return The estimated quantile, between 0 and 1.
+   */
+  public double getQuantile () {
+    return _quantile;
+  }
+
+  /**
+   * @return The accuracy parameter k of the sketch.
+   */
+  public int getAccuracy () {
+    return _accuracy;
+  }
+
+  @Override
+  public @NonNull Expression<Type> getExpression () {
+    return _expression;
+  }
+
+  @Override
+  public @NonNull SelectionPlaceholder<Type> getPlaceholder () {
+    return _placeholder;
+  }
+
+  @Override
+  public boolean equals (@Nullable final Object other) {
+    if (other == null) return false;
+    if (other == this) return true;
+
+    if (other instanceof ApproximateQuantileSelect) {
+      @NonNull final ApproximateQuantileSelect otherSelect = (ApproximateQuantileSelect) other;
+
+      return (
+        Objects.equals(
+          _name,
+          otherSelect.getName()
+        ) &&
+        Objects.equals(
+          _expression,
+          otherSelect.getExpression()
+        ) &&
+        Double.compare(_quantile, otherSelect.getQuantile()) == 0 &&
+        _accuracy == otherSelect.getAccuracy()
+      );
+    }
+
+    return false;
+  }
+
+  @Override
+  public int hashCode () {
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this operator, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
+  }
+}
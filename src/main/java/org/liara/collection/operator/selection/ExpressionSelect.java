@@ -24,6 +24,7 @@ package org.liara.collection.operator.selection;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.util.Fingerprints;
 import org.liara.expression.Expression;
 
 import java.util.Objects;
@@ -40,6 +41,10 @@ public class ExpressionSelect<Type>
   @NonNull
   private final SelectionPlaceholder<Type> _placeholder;
 
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
   public ExpressionSelect (
     @NonNull final Expression<Type> expression,
     @Nullable final String name
@@ -47,7 +52,8 @@ public class ExpressionSelect<Type>
     _name = name;
     _expression = expression;
     _placeholder = new StaticSelectionPlaceholder<>(this);
-
+    _hashCode = Objects.hash(_name, _expression, _placeholder);
+    _fingerprint = Fingerprints.ofAll(_name, _expression);
   }
 
   @Override
@@ -94,6 +100,14 @@ public class ExpressionSelect<Type>
 
   @Override
   public int hashCode () {
-    return Objects.hash(_name, _expression, _placeholder);
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this operator, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
   }
 }
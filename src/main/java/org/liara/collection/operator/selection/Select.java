@@ -26,6 +26,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.collection.Collection;
 import org.liara.collection.operator.Operator;
+import org.liara.collection.operator.grouping.WindowGroup;
 import org.liara.expression.Expression;
 
 public interface Select<T>
@@ -44,6 +45,90 @@ public interface Select<T>
     return new ExpressionSelect<>(expression, null);
   }
 
+  static <Type> @NonNull Select<Type> aggregate (
+    @NonNull final Aggregation aggregation,
+    @NonNull final Expression<Type> expression,
+    @Nullable final String alias
+  ) {
+    return new AggregateSelect<>(aggregation, expression, alias);
+  }
+
+  static <Type> @NonNull Select<Type> count (
+    @NonNull final Expression<Type> expression,
+    @Nullable final String alias
+  ) {
+    return new AggregateSelect<>(Aggregation.COUNT, expression, alias);
+  }
+
+  static <Type> @NonNull Select<Type> sum (
+    @NonNull final Expression<Type> expression,
+    @Nullable final String alias
+  ) {
+    return new AggregateSelect<>(Aggregation.SUM, expression, alias);
+  }
+
+  static <Type> @NonNull Select<Type> min (
+    @NonNull final Expression<Type> expression,
+    @Nullable final String alias
+  ) {
+    return new AggregateSelect<>(Aggregation.MIN, expression, alias);
+  }
+
+  static <Type> @NonNull Select<Type> max (
+    @NonNull final Expression<Type> expression,
+    @Nullable final String alias
+  ) {
+    return new AggregateSelect<>(Aggregation.MAX, expression, alias);
+  }
+
+  static <Type> @NonNull Select<Type> average (
+    @NonNull final Expression<Type> expression,
+    @Nullable final String alias
+  ) {
+    return new AggregateSelect<>(Aggregation.AVERAGE, expression, alias);
+  }
+
+  static <Type> @NonNull Select<Type> approximateDistinctCount (
+    @NonNull final Expression<Type> expression,
+    final double relativeError,
+    @Nullable final String alias
+  ) {
+    return new ApproximateDistinctCountSelect<>(
+      expression,
+      ApproximateDistinctCountSelect.getPrecision(relativeError),
+      alias
+    );
+  }
+
+  static <Type> @NonNull Select<Type> approximateQuantile (
+    @NonNull final Expression<Type> expression,
+    final double quantile,
+    @Nullable final String alias
+  ) {
+    return new ApproximateQuantileSelect<>(
+      expression,
+      quantile,
+      ApproximateQuantileSelect.DEFAULT_ACCURACY,
+      alias
+    );
+  }
+
+  static <Type> @NonNull Select<Type> approximateQuantile (
+    @NonNull final Expression<Type> expression,
+    final double quantile,
+    final int accuracy,
+    @Nullable final String alias
+  ) {
+    return new ApproximateQuantileSelect<>(expression, quantile, accuracy, alias);
+  }
+
+  static <Type> @NonNull Select<Type> windowStart (
+    @NonNull final WindowGroup window,
+    @Nullable final String alias
+  ) {
+    return new WindowStartSelect<>(window, alias);
+  }
+
   /**
    * @see Operator#apply(Collection)
    */
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.selection;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.operator.grouping.WindowGroup;
+import org.liara.collection.util.Fingerprints;
+import org.liara.expression.Expression;
+
+import java.util.Objects;
+
+/**
+ * A selection of the start of the time window of each group of rows of a collection, expressed as a number of
+ * milliseconds since the epoch.
+ *
+ * The expression of this selection is the timestamp expression of the window.
+ *
+ * @param <Type> Type of the timestamp expression.
+ */
+public class WindowStartSelect<Type>
+  implements Select<Type>
+{
+  @Nullable
+  private final String _name;
+
+  @NonNull
+  private final WindowGroup _window;
+
+  @NonNull
+  private final SelectionPlaceholder<Type> _placeholder;
+
+  private final int _hashCode;
+
+  private final long _fingerprint;
+
+  public WindowStartSelect (
+    @NonNull final WindowGroup window,
+    @Nullable final String name
+  ) {
+    _name = name;
+    _window = window;
+    _placeholder = new StaticSelectionPlaceholder<>(this);
+    _hashCode = Objects.hash(_name, _window);
+    _fingerprint = Fingerprints.ofAll(_name, _window);
+  }
+
+  @Override
+  public @Nullable String getName () {
+    return _name;
+  }
+
+  /**
+   * @return The window to select the start of.
+   */
+  public @NonNull WindowGroup getWindow () {
+    return _window;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public @NonNull Expression<Type> getExpression () {
+    return (Expression<Type>) _window.getExpression();
+  }
+
+  @Override
+  public @NonNull SelectionPlaceholder<Type> getPlaceholder () {
+    return _placeholder;
+  }
+
+  @Override
+  public boolean equals (@Nullable final Object other) {
+    if (other == null) return false;
+    if (other == this) return true;
+
+    if (other instanceof WindowStartSelect) {
+      @NonNull final WindowStartSelect otherWindowStartSelect = (WindowStartSelect) other;
+
+      return (
+        Objects.equals(
+          _name,
+          otherWindowStartSelect.getName()
+        ) &&
+        Objects.equals(
+          _window,
+          otherWindowStartSelect.getWindow()
+        )
+      );
+    }
+
+    return false;
+  }
+
+  @Override
+  public int hashCode () {
+    return _hashCode;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this operator, computed once at construction.
+   */
+  @Override
+  public long getFingerprint () {
+    return _fingerprint;
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.source.JoinSource;
+import org.liara.collection.source.JoinSourcePlaceholder;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.SourceRegistry;
+import org.liara.expression.Expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Utilities for decomposing and rebuilding chains of joins.
+ */
+final class JoinChains
+{
+  private JoinChains () {
+  }
+
+  /**
+   * @param source A source.
+   *
+   * @return The joins of the given source, from the root of the chain to its end.
+   */
+  static @NonNull List<@NonNull JoinSource> getChain (@NonNull final Source source) {
+    @NonNull final List<@NonNull JoinSource> result = new ArrayList<>();
+    @NonNull Source current = source;
+
+    while (current instanceof JoinSource) {
+      result.add(0, (JoinSource) current);
+      current = ((JoinSource) current).getOrigin();
+    }
+
+    return result;
+  }
+
+  /**
+   * Rebuild a sequence of joins over a new origin.
+   *
+   * The predicate of each join may refer to the placeholders of the join itself and to the placeholders of the joins
+   * rebuilt before it, that are replaced by the placeholders of their rebuilt counterparts.
+   *
+   * @param sources    Registry of the sources to use.
+   * @param origin     The origin of the first rebuilt join.
+   * @param joins      Joins to rebuild, in their new order.
+   * @param predicates Return the predicate of each rebuilt join, over the placeholders of the original joins.
+   * @param result     A map to fill with each given join associated with its rebuilt counterpart.
+   *
+   * @return The last rebuilt join.
+   */
+  static @NonNull Source relink (
+    @NonNull final SourceRegistry sources,
+    @NonNull final Source origin,
+    @NonNull final List<@NonNull JoinSource> joins,
+    @NonNull final Function<@NonNull JoinSource, @NonNull Expression<@NonNull Boolean>> predicates,
+    @NonNull final Map<@NonNull Source, @NonNull Source> result
+  ) {
+    @NonNull Source current = origin;
+
+    for (@NonNull final JoinSource join : joins) {
+      @NonNull final Expression<@NonNull Boolean> predicate = new PlaceholderRewriter(placeholder -> {
+        if (placeholder.getSource() == join) {
+          return join.getJoined().getOwnPlaceholder(((JoinSourcePlaceholder<?>) placeholder).getColumn());
+        }
+
+        @Nullable final Source relinked = result.get(placeholder.getSource());
+
+        return (relinked == null) ? placeholder : ((JoinSource) relinked).getOwnPlaceholder(
+          ((JoinSourcePlaceholder<?>) placeholder).getColumn()
+        );
+      }).rewrite(predicates.apply(join));
+
+      current = sources.join(join.getType(), current, join.getJoined(), predicate, join.getName());
+      result.put(join, current);
+    }
+
+    return current;
+  }
+
+  /**
+   * @param joins Joins rebuilt by {@link #relink}, associated with their rebuilt counterparts.
+   *
+   * @return A rewriter that replaces the placeholders of the given joins by the placeholders of their counterparts.
+   */
+  static @NonNull PlaceholderRewriter rewriter (@NonNull final Map<@NonNull Source, @NonNull Source> joins) {
+    return new PlaceholderRewriter(placeholder -> {
+      @Nullable final Source join = joins.get(placeholder.getSource());
+
+      return (join == null) ? placeholder : ((JoinSource) join).getOwnPlaceholder(
+        ((JoinSourcePlaceholder<?>) placeholder).getColumn()
+      );
+    });
+  }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.source.GraphSource;
+import org.liara.collection.source.JoinType;
+import org.liara.collection.source.JoinSource;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.SourcePlaceholder;
+import org.liara.collection.source.SourceRegistry;
+import org.liara.collection.source.TableSource;
+import org.liara.collection.source.TableSourcePlaceholder;
+import org.liara.data.graph.Column;
+import org.liara.data.graph.Table;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Derive the joins required by a collection from the relations between the tables of a graph.
+ *
+ * The planner looks for the tables referenced by the operators of a collection that are not available in its source,
+ * joins them, and the tables that link them to the source, by following the shortest paths of relations, and then
+ * rewrites the operators of the collection over the resulting join chain. Among the joins that can be made at each
+ * step, the planner first makes the one with the smallest estimated result, in order to keep the intermediate results
+ * of the chain as small as possible.
+ *
+ * Each table is joined at most once : two references to the same table through different sources are considered to
+ * refer to the same rows.
+ */
+public final class JoinPlanner
+{
+  @NonNull
+  private final Map<@NonNull Table, @NonNull List<@NonNull Relation>> _relations;
+
+  @NonNull
+  private final TableStatistics _statistics;
+
+  @NonNull
+  private final SourceRegistry _sources;
+
+  @NonNull
+  private final ExpressionFactory _expressionFactory;
+
+  /**
+   * Instantiate a new planner that registers its joins into the shared source registry.
+   *
+   * @param relations  Relations between the tables of a graph.
+   * @param statistics Statistics of the tables of the graph.
+   */
+  public JoinPlanner (
+    @NonNull final Iterable<@NonNull Relation> relations,
+    @NonNull final TableStatistics statistics
+  ) {
+    this(relations, statistics, SourceRegistry.shared());
+  }
+
+  /**
+   * Instantiate a new planner.
+   *
+   * @param relations  Relations between the tables of a graph.
+   * @param statistics Statistics of the tables of the graph.
+   * @param sources    Registry of the sources to use.
+   */
+  public JoinPlanner (
+    @NonNull final Iterable<@NonNull Relation> relations,
+    @NonNull final TableStatistics statistics,
+    @NonNull final SourceRegistry sources
+  ) {
+    _relations = new HashMap<>();
+    _statistics = statistics;
+    _sources = sources;
+    _expressionFactory = new ExpressionFactory();
+
+    for (@NonNull final Relation relation : relations) {
+      _relations.computeIfAbsent(relation.getLeft().getTable(), table -> new ArrayList<>()).add(relation);
+      _relations.computeIfAbsent(relation.getRight().getTable(), table -> new ArrayList<>()).add(relation.reverse());
+    }
+  }
+
+  /**
+   * Join each table referenced by a collection that is not available in its source.
+   *
+   * @param collection A collection to plan.
+   *
+   * @return The given collection over a source that contains each table that it references.
+   */
+  public @NonNull GraphCollection plan (@NonNull final GraphCollection collection) {
+    @NonNull final Map<@NonNull Table, @NonNull Source> owners = getOwners(collection.getSource());
+    @NonNull final Map<@NonNull Table, @NonNull TableSource> references = new LinkedHashMap<>();
+
+    new PlaceholderRewriter(placeholder -> {
+      if (placeholder instanceof TableSourcePlaceholder) {
+        @NonNull final TableSource source = ((TableSourcePlaceholder<?>) placeholder).getSource();
+
+        if (!owners.containsKey(source.getTable())) references.putIfAbsent(source.getTable(), source);
+      }
+
+      return placeholder;
+    }).rewrite(collection, collection.getSource());
+
+    if (references.isEmpty()) return collection;
+
+    @NonNull final GraphSource source = plan(collection.getSource(), references);
+    @NonNull final Map<@NonNull Table, @NonNull Source> planned = getOwners(source);
+
+    return new PlaceholderRewriter(placeholder -> {
+      if (placeholder instanceof TableSourcePlaceholder) {
+        @NonNull final TableSourcePlaceholder<?> reference = (TableSourcePlaceholder<?>) placeholder;
+        @NonNull final Source owner = planned.get(reference.getSource().getTable());
+
+        return (owner == reference.getSource()) ? placeholder : getPlaceholder(owner, reference.getColumn());
+      }
+
+      return placeholder;
+    }).rewrite(collection, source);
+  }
+
+  /**
+   * Join each of the given tables that is not available in a source.
+   *
+   * @param source A source to extend.
+   * @param tables Tables to make available.
+   *
+   * @return A source that contains the given source and each of the given tables.
+   */
+  public @NonNull GraphSource plan (@NonNull final GraphSource source, @NonNull final Set<@NonNull Table> tables) {
+    @NonNull final Map<@NonNull Table, @NonNull TableSource> references = new LinkedHashMap<>();
+
+    for (@NonNull final Table table : tables) {
+      references.put(table, _sources.table(table));
+    }
+
+    return plan(source, references);
+  }
+
+  private @NonNull GraphSource plan (
+    @NonNull final GraphSource source,
+    @NonNull final Map<@NonNull Table, @NonNull TableSource> references
+  ) {
+    @NonNull final Map<@NonNull Table, @NonNull Source> owners = getOwners(source);
+    @NonNull final Set<@NonNull Table> required = getRequiredTables(owners.keySet(), references.keySet());
+
+    @NonNull GraphSource result = source;
+    double rows = _statistics.getRowCount(getRoot(source).getTable());
+
+    while (!required.isEmpty()) {
+      @Nullable Relation next = null;
+      double nextRows = Double.POSITIVE_INFINITY;
+
+      for (@NonNull final Table table : owners.keySet()) {
+        for (@NonNull final Relation relation : _relations.getOrDefault(table, Collections.emptyList())) {
+          if (required.contains(relation.getRight().getTable())) {
+            final double estimation = _statistics.estimateJoin(rows, relation);
+
+            if (next == null || estimation < nextRows) {
+              next = relation;
+              nextRows = estimation;
+            }
+          }
+        }
+      }
+
+      @NonNull final Relation relation = next;
+      @NonNull final Table table = relation.getRight().getTable();
+      @NonNull final TableSource joined = references.getOrDefault(table, _sources.table(table));
+      @NonNull final JoinSource join = _sources.join(
+        JoinType.INNER_JOIN,
+        result,
+        joined,
+        _expressionFactory.equal(
+          (Expression) getPlaceholder(owners.get(relation.getLeft().getTable()), relation.getLeft()),
+          (Expression) joined.getOwnPlaceholder(relation.getRight())
+        ),
+        joined.getName()
+      );
+
+      owners.put(table, join);
+      required.remove(table);
+      result = join;
+      rows = nextRows;
+    }
+
+    return result;
+  }
+
+  /**
+   * Return each table that must be joined to the given available tables in order to reach the given referenced ones.
+   *
+   * @param available  Tables already available.
+   * @param referenced Tables to reach.
+   *
+   * @return The referenced tables that are not available and the tables on the shortest paths to them.
+   */
+  private @NonNull Set<@NonNull Table> getRequiredTables (
+    @NonNull final Set<@NonNull Table> available,
+    @NonNull final Set<@NonNull Table> referenced
+  ) {
+    @NonNull final Map<@NonNull Table, @Nullable Table> parents = new HashMap<>();
+    @NonNull final Queue<@NonNull Table> queue = new ArrayDeque<>(available);
+
+    for (@NonNull final Table table : available) {
+      parents.put(table, null);
+    }
+
+    while (!queue.isEmpty()) {
+      @NonNull final Table table = queue.remove();
+
+      for (@NonNull final Relation relation : _relations.getOrDefault(table, Collections.emptyList())) {
+        @NonNull final Table next = relation.getRight().getTable();
+
+        if (!parents.containsKey(next)) {
+          parents.put(next, table);
+          queue.add(next);
+        }
+      }
+    }
+
+    @NonNull final Set<@NonNull Table> result = new LinkedHashSet<>();
+
+    for (@NonNull final Table table : referenced) {
+      if (!parents.containsKey(table)) {
+        throw new IllegalArgumentException(
+          "Unable to plan the joins of the table \"" + table.getName() + "\" because no relation leads to it from " +
+          "the tables of the planned source."
+        );
+      }
+
+      @Nullable Table current = table;
+
+      while (current != null && !available.contains(current)) {
+        result.add(current);
+        current = parents.get(current);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Return the source that provides each table of a join chain.
+   *
+   * @param source A table source or a join chain.
+   *
+   * @return The source that provides each table of the given source, from the root of the chain to its end.
+   */
+  private static @NonNull Map<@NonNull Table, @NonNull Source> getOwners (@NonNull final Source source) {
+    @NonNull final List<@NonNull JoinSource> joins = new ArrayList<>();
+    @NonNull Source current = source;
+
+    while (current instanceof JoinSource) {
+      joins.add((JoinSource) current);
+      current = ((JoinSource) current).getOrigin();
+    }
+
+    @NonNull final Map<@NonNull Table, @NonNull Source> result = new LinkedHashMap<>();
+    result.put(getRoot(source).getTable(), current);
+
+    for (int index = joins.size() - 1; index >= 0; --index) {
+      @NonNull final JoinSource join = joins.get(index);
+      result.putIfAbsent(join.getJoined().getTable(), join);
+    }
+
+    return result;
+  }
+
+  /**
+   * @param source A table source or a join chain.
+   *
+   * @return The table source at the root of the given source.
+   */
+  private static @NonNull TableSource getRoot (@NonNull final Source source) {
+    @NonNull Source current = source;
+
+    while (current instanceof JoinSource) {
+      current = ((JoinSource) current).getOrigin();
+    }
+
+    if (current instanceof TableSource) return (TableSource) current;
+
+    throw new IllegalArgumentException(
+      "Unable to plan the joins of the source " + source + " because it is not a table or a chain of joins " +
+      "over a table."
+    );
+  }
+
+  /**
+   * @param owner  A table source or a join.
+   * @param column A column of the table provided by the given source.
+   *
+   * @return The placeholder of the given column in the given source.
+   */
+  private static @NonNull SourcePlaceholder<?> getPlaceholder (
+    @NonNull final Source owner,
+    @NonNull final Column<?> column
+  ) {
+    return (owner instanceof JoinSource) ? ((JoinSource) owner).getOwnPlaceholder(column)
+                                         : ((TableSource) owner).getOwnPlaceholder(column);
+  }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.expression.OperationType;
+import org.liara.collection.source.GraphSource;
+import org.liara.collection.source.JoinSource;
+import org.liara.collection.source.JoinSourcePlaceholder;
+import org.liara.collection.source.JoinType;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.SourceRegistry;
+import org.liara.collection.source.TableSource;
+import org.liara.collection.source.TableSourcePlaceholder;
+import org.liara.data.graph.Column;
+import org.liara.expression.Constant;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+import org.liara.support.view.View;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reorder the inner joins of a join chain in order to keep its intermediate results as small as possible.
+ *
+ * Each run of consecutive inner joins of a chain is reordered greedily : among the joins of the run whose predicate
+ * only refers to the sources already joined, the reorderer first makes the one with the smallest estimated result.
+ * Outer joins and cross joins are never moved, and inner joins are never moved across them, so the reordered chain
+ * always returns the same rows as the original one.
+ *
+ * The predicates of the moved joins are linked again to their new join through the join constructor.
+ */
+public final class JoinReorderer
+{
+  /**
+   * Estimated selectivity of a comparison that is not an equality.
+   */
+  public static final double RANGE_SELECTIVITY = 1.0 / 3.0;
+
+  @NonNull
+  private final TableStatistics _statistics;
+
+  @NonNull
+  private final SourceRegistry _sources;
+
+  @NonNull
+  private final ExpressionFactory _expressionFactory;
+
+  /**
+   * Instantiate a new reorderer that registers its joins into the shared source registry.
+   *
+   * @param statistics Statistics of the joined tables.
+   */
+  public JoinReorderer (@NonNull final TableStatistics statistics) {
+    this(statistics, SourceRegistry.shared());
+  }
+
+  /**
+   * Instantiate a new reorderer.
+   *
+   * @param statistics Statistics of the joined tables.
+   * @param sources    Registry of the sources to use.
+   */
+  public JoinReorderer (@NonNull final TableStatistics statistics, @NonNull final SourceRegistry sources) {
+    _statistics = statistics;
+    _sources = sources;
+    _expressionFactory = new ExpressionFactory();
+  }
+
+  /**
+   * Reorder the joins of the source of a collection.
+   *
+   * @param collection A collection to optimize.
+   *
+   * @return The given collection over the reordered source, with each of its operators rewritten accordingly.
+   */
+  public @NonNull GraphCollection reorder (@NonNull final GraphCollection collection) {
+    @NonNull final Map<@NonNull Source, @NonNull Source> joins = new IdentityHashMap<>();
+    @Nullable final GraphSource source = reorderJoins(collection.getSource(), joins);
+
+    if (source == null) return collection;
+
+    return JoinChains.rewriter(joins).rewrite(collection, source);
+  }
+
+  /**
+   * Reorder the joins of a source.
+   *
+   * @param source A source to optimize.
+   *
+   * @return A source that returns the same rows as the given one, with its inner joins reordered.
+   */
+  public @NonNull GraphSource reorder (@NonNull final GraphSource source) {
+    @Nullable final GraphSource result = reorderJoins(source, new IdentityHashMap<>());
+
+    return (result == null) ? source : result;
+  }
+
+  /**
+   * Estimate the cost of a source as the sum of the estimated number of rows of each of its intermediate results.
+   *
+   * @param source A table source or a join chain.
+   *
+   * @return The estimated cost of the given source.
+   */
+  public double estimate (@NonNull final Source source) {
+    @NonNull final List<@NonNull JoinSource> chain = JoinChains.getChain(source);
+    @NonNull final Source root = chain.isEmpty() ? source : chain.get(0).getOrigin();
+
+    if (!(root instanceof TableSource)) return Double.POSITIVE_INFINITY;
+
+    double rows = _statistics.getRowCount(((TableSource) root).getTable());
+    double result = rows;
+
+    for (@NonNull final JoinSource join : chain) {
+      rows = estimate(rows, join);
+      result += rows;
+    }
+
+    return result;
+  }
+
+  /**
+   * Reorder the joins of a chain.
+   *
+   * @param source A source to optimize.
+   * @param joins  A map to fill with each join of the given chain associated with its reordered counterpart.
+   *
+   * @return The reordered source, or null if the given source is kept as is.
+   */
+  private @Nullable GraphSource reorderJoins (
+    @NonNull final Source source,
+    @NonNull final Map<@NonNull Source, @NonNull Source> joins
+  ) {
+    @NonNull final List<@NonNull JoinSource> chain = JoinChains.getChain(source);
+
+    if (chain.size() < 2 || !(chain.get(0).getOrigin() instanceof TableSource)) return null;
+
+    @NonNull final List<@NonNull JoinSource> ordered = new ArrayList<>(chain.size());
+    @NonNull final Map<@NonNull Source, @NonNull Boolean> joined = new IdentityHashMap<>();
+    double rows = _statistics.getRowCount(((TableSource) chain.get(0).getOrigin()).getTable());
+    int start = 0;
+
+    while (start < chain.size()) {
+      if (chain.get(start).getType() != JoinType.INNER_JOIN) {
+        rows = estimate(rows, chain.get(start));
+        ordered.add(chain.get(start));
+        joined.put(chain.get(start), Boolean.TRUE);
+        start += 1;
+        continue;
+      }
+
+      int end = start;
+      while (end < chain.size() && chain.get(end).getType() == JoinType.INNER_JOIN) end += 1;
+
+      @NonNull final List<@NonNull JoinSource> pending = new ArrayList<>(chain.subList(start, end));
+
+      while (!pending.isEmpty()) {
+        int next = -1;
+        double nextRows = Double.POSITIVE_INFINITY;
+
+        for (int index = 0; index < pending.size(); ++index) {
+          @NonNull final JoinSource candidate = pending.get(index);
+
+          if (isJoinable(candidate, candidate.getPredicate(), joined)) {
+            final double estimation = estimate(rows, candidate);
+
+            if (next < 0 || estimation < nextRows) {
+              next = index;
+              nextRows = estimation;
+            }
+          }
+        }
+
+        @NonNull final JoinSource join = pending.remove(next);
+        ordered.add(join);
+        joined.put(join, Boolean.TRUE);
+        rows = nextRows;
+      }
+
+      start = end;
+    }
+
+    if (ordered.equals(chain)) return null;
+
+    return (GraphSource) JoinChains.relink(
+      _sources, chain.get(0).getOrigin(), ordered, JoinSource::getPredicate, joins
+    );
+  }
+
+  /**
+   * @param rows Estimated number of rows of the origin of the join.
+   * @param join A join.
+   *
+   * @return The estimated number of rows of the given join.
+   */
+  private double estimate (final double rows, @NonNull final JoinSource join) {
+    final double joined = _statistics.getRowCount(join.getJoined().getTable());
+
+    switch (join.getType()) {
+      case CROSS_JOIN:
+        return rows * joined;
+      case INNER_JOIN:
+        return rows * joined * getSelectivity(join.getPredicate());
+      default:
+        return Math.max(rows, rows * joined * getSelectivity(join.getPredicate()));
+    }
+  }
+
+  /**
+   * Estimate the ratio of the rows that satisfy a predicate.
+   *
+   * @param predicate A predicate.
+   *
+   * @return The estimated selectivity of the given predicate, between 0 and 1.
+   */
+  double getSelectivity (@NonNull final Expression<?> predicate) {
+    @NonNull final Optional<OperationType> type = OperationType.of(_expressionFactory, predicate);
+
+    if (!type.isPresent()) return 1.0;
+
+    @NonNull final Expression<?>[] operands = OperationType.getOperands(predicate);
+
+    switch (type.get()) {
+      case AND: {
+        double result = 1.0;
+        for (@NonNull final Expression<?> operand : operands) result *= getSelectivity(operand);
+        return result;
+      }
+      case OR: {
+        double result = 1.0;
+        for (@NonNull final Expression<?> operand : operands) result *= 1.0 - getSelectivity(operand);
+        return 1.0 - result;
+      }
+      case EQUAL:
+        return 1.0 / Math.max(1, Math.max(getDistinctCount(operands[0]), getDistinctCount(operands[1])));
+      case GREATER_THAN:
+      case LESS_THAN:
+        return RANGE_SELECTIVITY;
+      default:
+        return 1.0;
+    }
+  }
+
+  /**
+   * @param operand An operand of an equality.
+   *
+   * @return The estimated number of distinct values of the given operand.
+   */
+  private long getDistinctCount (@NonNull final Expression<?> operand) {
+    @Nullable final Column<?> column = getColumn(operand);
+
+    if (column != null) return _statistics.getDistinctCount(column);
+
+    return (operand instanceof Constant) ? 1 : (long) (1.0 / RANGE_SELECTIVITY);
+  }
+
+  /**
+   * @param expression An expression.
+   *
+   * @return The column referred by the given expression if the given expression is a source placeholder.
+   */
+  private static @Nullable Column<?> getColumn (@NonNull final Expression<?> expression) {
+    if (expression instanceof TableSourcePlaceholder) return ((TableSourcePlaceholder<?>) expression).getColumn();
+    if (expression instanceof JoinSourcePlaceholder) return ((JoinSourcePlaceholder<?>) expression).getColumn();
+    return null;
+  }
+
+  /**
+   * @param join       A join.
+   * @param expression A part of the predicate of the given join.
+   * @param joined     Joins already made.
+   *
+   * @return True if each join referred by the given expression, except the given join itself, was already made.
+   */
+  private static boolean isJoinable (
+    @NonNull final JoinSource join,
+    @NonNull final Expression<?> expression,
+    @NonNull final Map<@NonNull Source, @NonNull Boolean> joined
+  ) {
+    if (expression instanceof JoinSourcePlaceholder) {
+      @NonNull final Source source = ((JoinSourcePlaceholder<?>) expression).getSource();
+
+      return source == join || joined.containsKey(source);
+    }
+
+    @NonNull final View<@NonNull Expression> children = expression.getChildren();
+
+    for (int index = 0, size = children.getSize(); index < size; ++index) {
+      if (!isJoinable(join, children.get(index), joined)) return false;
+    }
+
+    return true;
+  }
+}
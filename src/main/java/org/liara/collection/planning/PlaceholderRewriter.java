@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.GraphCollectionBuilder;
+import org.liara.collection.operator.filtering.ExpressionFilter;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.grouping.ExpressionGroup;
+import org.liara.collection.operator.grouping.Group;
+import org.liara.collection.operator.grouping.SessionWindowGroup;
+import org.liara.collection.operator.grouping.SlidingWindowGroup;
+import org.liara.collection.operator.grouping.TumblingWindowGroup;
+import org.liara.collection.operator.grouping.WindowGroup;
+import org.liara.collection.operator.ordering.ExpressionOrder;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.operator.sampling.Sample;
+import org.liara.collection.operator.selection.AggregateSelect;
+import org.liara.collection.operator.selection.ApproximateDistinctCountSelect;
+import org.liara.collection.operator.selection.ApproximateQuantileSelect;
+import org.liara.collection.operator.selection.ExpressionSelect;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.operator.selection.WindowStartSelect;
+import org.liara.collection.source.GraphSource;
+import org.liara.collection.source.SourcePlaceholder;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+import org.liara.support.view.View;
+
+import java.util.function.Function;
+
+/**
+ * Replace the source placeholders of expressions, of operators and of collections.
+ *
+ * Expressions are rewritten bottom-up and subtrees that do not contain any replaced placeholder are kept as is.
+ */
+final class PlaceholderRewriter
+{
+  @NonNull
+  private final Function<@NonNull SourcePlaceholder<?>, @NonNull Expression<?>> _mapping;
+
+  @NonNull
+  private final ExpressionFactory _expressionFactory;
+
+  /**
+   * Instantiate a new rewriter.
+   *
+   * @param mapping Return the replacement of each source placeholder, that may be the placeholder itself.
+   */
+  PlaceholderRewriter (@NonNull final Function<@NonNull SourcePlaceholder<?>, @NonNull Expression<?>> mapping) {
+    _mapping = mapping;
+    _expressionFactory = new ExpressionFactory();
+  }
+
+  /**
+   * Rewrite an expression.
+   *
+   * @param expression An expression to rewrite.
+   * @param <Type>     Type of the expression result.
+   *
+   * @return The given expression with each placeholder replaced.
+   */
+  @SuppressWarnings("unchecked") // Rewritten expressions have the same result type as the original one.
+  <Type> @NonNull Expression<Type> rewrite (@NonNull final Expression<Type> expression) {
+    if (expression instanceof SourcePlaceholder) {
+      return (Expression<Type>) _mapping.apply((SourcePlaceholder<?>) expression);
+    }
+
+    @NonNull final View<@NonNull Expression> children = expression.getChildren();
+    final int size = children.getSize();
+
+    @Nullable Expression[] rewrittenChildren = null;
+
+    for (int index = 0; index < size; ++index) {
+      @NonNull final Expression<?> child = children.get(index);
+      @NonNull final Expression<?> rewrittenChild = rewrite(child);
+
+      if (rewrittenChildren == null && rewrittenChild != child) {
+        rewrittenChildren = new Expression[size];
+
+        for (int previous = 0; previous < index; ++previous) {
+          rewrittenChildren[previous] = children.get(previous);
+        }
+      }
+
+      if (rewrittenChildren != null) {
+        rewrittenChildren[index] = rewrittenChild;
+      }
+    }
+
+    return (rewrittenChildren == null) ? expression : (Expression<Type>) _expressionFactory.rewrite(
+      expression, rewrittenChildren
+    );
+  }
+
+  /**
+   * Rewrite a filter, filters that are not based upon an expression are returned as is.
+   *
+   * @param filter A filter to rewrite.
+   *
+   * @return The given filter with each placeholder replaced.
+   */
+  @NonNull Filter rewrite (@NonNull final Filter filter) {
+    if (filter instanceof ExpressionFilter) {
+      @NonNull final Expression<@NonNull Boolean> expression = filter.getExpression();
+      @NonNull final Expression<@NonNull Boolean> rewritten = rewrite(expression);
+
+      return (rewritten == expression) ? filter : new ExpressionFilter(rewritten);
+    }
+
+    return filter;
+  }
+
+  /**
+   * Rewrite an ordering, orderings that are not based upon an expression are returned as is.
+   *
+   * @param order An ordering to rewrite.
+   *
+   * @return The given ordering with each placeholder replaced.
+   */
+  @NonNull Order rewrite (@NonNull final Order order) {
+    if (order instanceof ExpressionOrder) {
+      @NonNull final ExpressionOrder expressionOrder = (ExpressionOrder) order;
+      @NonNull final Expression<?> rewritten = rewrite(order.getExpression());
+
+      return (rewritten == order.getExpression()) ? order : new ExpressionOrder(
+        rewritten, expressionOrder.getDirection()
+      );
+    }
+
+    return order;
+  }
+
+  /**
+   * Rewrite a group, groups of an unknown kind are returned as is.
+   *
+   * @param group A group to rewrite.
+   *
+   * @return The given group with each placeholder replaced.
+   */
+  @NonNull Group rewrite (@NonNull final Group group) {
+    @NonNull final Expression<?> rewritten = rewrite(group.getExpression());
+
+    if (rewritten == group.getExpression()) return group;
+
+    if (group instanceof ExpressionGroup) {
+      return new ExpressionGroup(rewritten);
+    } else if (group instanceof TumblingWindowGroup) {
+      return new TumblingWindowGroup(rewritten, ((TumblingWindowGroup) group).getSize());
+    } else if (group instanceof SlidingWindowGroup) {
+      @NonNull final SlidingWindowGroup window = (SlidingWindowGroup) group;
+      return new SlidingWindowGroup(rewritten, window.getSize(), window.getHop());
+    } else if (group instanceof SessionWindowGroup) {
+      return new SessionWindowGroup(rewritten, ((SessionWindowGroup) group).getGap());
+    }
+
+    return group;
+  }
+
+  /**
+   * Rewrite a selection, selections of an unknown kind are returned as is.
+   *
+   * @param select A selection to rewrite.
+   *
+   * @return The given selection with each placeholder replaced.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"}) // Rewritten expressions have the same type as the original ones.
+  @NonNull Select<?> rewrite (@NonNull final Select<?> select) {
+    if (select instanceof ExpressionSelect) {
+      @NonNull final ExpressionSelect<?> expressionSelect = (ExpressionSelect<?>) select;
+      @NonNull final Expression<?> rewritten = rewrite(expressionSelect.getExpression());
+
+      return (rewritten == expressionSelect.getExpression()) ? select : new ExpressionSelect(
+        rewritten, expressionSelect.getName()
+      );
+    } else if (select instanceof AggregateSelect) {
+      @NonNull final AggregateSelect<?> aggregate = (AggregateSelect<?>) select;
+      @NonNull final Expression<?> rewritten = rewrite(aggregate.getExpression());
+
+      return (rewritten == aggregate.getExpression()) ? select : new AggregateSelect(
+        aggregate.getAggregation(), rewritten, aggregate.getName()
+      );
+    } else if (select instanceof ApproximateDistinctCountSelect) {
+      @NonNull final ApproximateDistinctCountSelect<?> count = (ApproximateDistinctCountSelect<?>) select;
+      @NonNull final Expression<?> rewritten = rewrite(count.getExpression());
+
+      return (rewritten == count.getExpression()) ? select : new ApproximateDistinctCountSelect(
+        rewritten, count.getPrecision(), count.getName()
+      );
+    } else if (select instanceof ApproximateQuantileSelect) {
+      @NonNull final ApproximateQuantileSelect<?> quantile = (ApproximateQuantileSelect<?>) select;
+      @NonNull final Expression<?> rewritten = rewrite(quantile.getExpression());
+
+      return (rewritten == quantile.getExpression()) ? select : new ApproximateQuantileSelect(
+        rewritten, quantile.getQuantile(), quantile.getAccuracy(), quantile.getName()
+      );
+    } else if (select instanceof WindowStartSelect) {
+      @NonNull final WindowStartSelect<?> start = (WindowStartSelect<?>) select;
+      @NonNull final Group rewritten = rewrite(start.getWindow());
+
+      return (rewritten == start.getWindow()) ? select : new WindowStartSelect(
+        (WindowGroup) rewritten, start.getName()
+      );
+    }
+
+    return select;
+  }
+
+  /**
+   * Rewrite a sample.
+   *
+   * @param sample A sample to rewrite.
+   *
+   * @return The given sample with each placeholder of its key replaced.
+   */
+  @NonNull Sample rewrite (@NonNull final Sample sample) {
+    @Nullable final Expression<?> key = sample.getKey();
+
+    if (key == null) return sample;
+
+    @NonNull final Expression<?> rewritten = rewrite(key);
+
+    return (rewritten == key) ? sample : new Sample(
+      sample.getMethod(), sample.getRate(), sample.getSeed(), rewritten, sample.getBlockSize()
+    );
+  }
+
+  /**
+   * Rewrite each operator of a collection and move it to another source.
+   *
+   * @param collection A collection to rewrite.
+   * @param source     The source of the result.
+   *
+   * @return A collection over the given source made of the rewritten operators of the given collection.
+   */
+  @NonNull GraphCollection rewrite (@NonNull final GraphCollection collection, @NonNull final GraphSource source) {
+    @NonNull final GraphCollectionBuilder result = new GraphCollectionBuilder(source);
+
+    result.setCursor(collection.getCursor());
+    result.sample(rewrite(collection.getSample()));
+
+    for (@NonNull final Filter filter : collection.getFilters()) {
+      result.addFilter(rewrite(filter));
+    }
+
+    for (@NonNull final Order order : collection.getOrderings()) {
+      result.orderBy(rewrite(order));
+    }
+
+    for (@NonNull final Group group : collection.getGroups()) {
+      result.groupBy(rewrite(group));
+    }
+
+    for (@NonNull final Select<?> select : collection.getSelections()) {
+      result.select(rewrite(select));
+    }
+
+    return result.build();
+  }
+}
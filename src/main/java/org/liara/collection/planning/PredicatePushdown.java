@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.expression.OperationType;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.source.JoinSource;
+import org.liara.collection.source.JoinType;
+import org.liara.collection.source.Source;
+import org.liara.collection.source.SourcePlaceholder;
+import org.liara.collection.source.SourceRegistry;
+import org.liara.collection.source.TableSource;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+import org.liara.support.view.View;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Move the conjuncts of the filters of a collection into the predicates of the joins of its source.
+ *
+ * Each conjunct is moved into the predicate of the last join that it refers to, so that the rows that it rejects are
+ * discarded as soon as possible. A conjunct is only moved if doing so does not change the rows of the collection :
+ *
+ * - the join that receives it must be an inner join, because the rows rejected by the predicate of an outer join are
+ *   extended with nulls instead of being discarded ;
+ * - no right or full outer join may follow that join, because such a join would extend with nulls the rows rejected
+ *   earlier instead of discarding them.
+ *
+ * Conjuncts that only refer to the root table of the source, or to sources out of the join chain, are kept as
+ * filters.
+ */
+public final class PredicatePushdown
+{
+  @NonNull
+  private final SourceRegistry _sources;
+
+  @NonNull
+  private final ExpressionFactory _expressionFactory;
+
+  /**
+   * Instantiate a new pushdown pass that registers its joins into the shared source registry.
+   */
+  public PredicatePushdown () {
+    this(SourceRegistry.shared());
+  }
+
+  /**
+   * Instantiate a new pushdown pass.
+   *
+   * @param sources Registry of the sources to use.
+   */
+  public PredicatePushdown (@NonNull final SourceRegistry sources) {
+    _sources = sources;
+    _expressionFactory = new ExpressionFactory();
+  }
+
+  /**
+   * Move each conjunct of the filters of a collection into the earliest join where it can be evaluated.
+   *
+   * @param collection A collection to optimize.
+   *
+   * @return A collection with the same rows as the given one, with as few filters as possible.
+   */
+  @SuppressWarnings("unchecked") // Conjuncts of filters are boolean expressions.
+  public @NonNull GraphCollection apply (@NonNull final GraphCollection collection) {
+    @NonNull final List<@NonNull JoinSource> chain = JoinChains.getChain(collection.getSource());
+
+    if (chain.isEmpty() || !(chain.get(0).getOrigin() instanceof TableSource)) return collection;
+
+    @NonNull final Map<@NonNull Source, @NonNull Integer> positions = new IdentityHashMap<>();
+    int barrier = 0;
+
+    positions.put(chain.get(0).getOrigin(), -1);
+
+    for (int index = 0; index < chain.size(); ++index) {
+      positions.put(chain.get(index), index);
+
+      if (isNullSupplyingOrigin(chain.get(index).getType())) barrier = index + 1;
+    }
+
+    @NonNull final Map<@NonNull Source, @NonNull List<@NonNull Expression<@NonNull Boolean>>> pushed =
+      new IdentityHashMap<>();
+    @NonNull GraphCollection result = collection;
+    int first = chain.size();
+
+    for (@NonNull final Filter filter : collection.getFilters()) {
+      @NonNull final List<@NonNull Expression<?>> conjuncts = new ArrayList<>();
+      @NonNull final List<@NonNull Expression<@NonNull Boolean>> kept = new ArrayList<>();
+
+      flatten(filter.getExpression(), conjuncts);
+
+      for (@NonNull final Expression<?> conjunct : conjuncts) {
+        final int target = getTarget(conjunct, positions);
+
+        if (target >= barrier && target < chain.size() && chain.get(target).getType() == JoinType.INNER_JOIN) {
+          pushed.computeIfAbsent(chain.get(target), join -> new ArrayList<>()).add(
+            (Expression<@NonNull Boolean>) conjunct
+          );
+          first = Math.min(first, target);
+        } else {
+          kept.add((Expression<@NonNull Boolean>) conjunct);
+        }
+      }
+
+      if (kept.size() < conjuncts.size()) {
+        result = result.removeFilter(filter);
+
+        if (kept.size() == 1) {
+          result = result.addFilter(Filter.expression(kept.get(0)));
+        } else if (kept.size() > 1) {
+          result = result.addFilter(Filter.expression(_expressionFactory.and(kept)));
+        }
+      }
+    }
+
+    if (pushed.isEmpty()) return collection;
+
+    @NonNull final Map<@NonNull Source, @NonNull Source> joins = new IdentityHashMap<>();
+    @NonNull final JoinSource origin = chain.get(first);
+    @NonNull final Source source = JoinChains.relink(
+      _sources, origin.getOrigin(), chain.subList(first, chain.size()), join -> {
+        @Nullable final List<@NonNull Expression<@NonNull Boolean>> conjuncts = pushed.get(join);
+
+        if (conjuncts == null) return join.getPredicate();
+
+        @NonNull final List<@NonNull Expression<@NonNull Boolean>> operands = new ArrayList<>(conjuncts.size() + 1);
+        operands.add(join.getPredicate());
+        operands.addAll(conjuncts);
+
+        return _expressionFactory.and(operands);
+      }, joins
+    );
+
+    return JoinChains.rewriter(joins).rewrite(result, (JoinSource) source);
+  }
+
+  /**
+   * @param type Type of a join.
+   *
+   * @return True if a join of the given type extends with nulls the rows of its origin that it does not match.
+   */
+  private static boolean isNullSupplyingOrigin (@NonNull final JoinType type) {
+    return type != JoinType.INNER_JOIN && type != JoinType.CROSS_JOIN && type != JoinType.LEFT_OUTER_JOIN;
+  }
+
+  /**
+   * Return the position of the last join of a chain that an expression refers to.
+   *
+   * @param expression An expression.
+   * @param positions  The position of each join of the chain, and -1 for the root of the chain.
+   *
+   * @return The position of the last join that the given expression refers to, -1 if the given expression does not
+   *         refer to any join, or {@link Integer#MAX_VALUE} if it refers to sources out of the chain.
+   */
+  private static int getTarget (
+    @NonNull final Expression<?> expression,
+    @NonNull final Map<@NonNull Source, @NonNull Integer> positions
+  ) {
+    if (expression instanceof SourcePlaceholder) {
+      @Nullable final Integer position = positions.get(((SourcePlaceholder<?>) expression).getSource());
+
+      return (position == null) ? Integer.MAX_VALUE : position;
+    }
+
+    @NonNull final View<@NonNull Expression> children = expression.getChildren();
+    int result = -1;
+
+    for (int index = 0, size = children.getSize(); index < size; ++index) {
+      result = Math.max(result, getTarget(children.get(index), positions));
+    }
+
+    return result;
+  }
+
+  private void flatten (
+    @NonNull final Expression<?> expression,
+    @NonNull final List<@NonNull Expression<?>> conjuncts
+  ) {
+    if (OperationType.AND.isTypeOf(_expressionFactory, expression)) {
+      for (@NonNull final Expression<?> operand : OperationType.getOperands(expression)) {
+        flatten(operand, conjuncts);
+      }
+    } else {
+      conjuncts.add(expression);
+    }
+  }
+}
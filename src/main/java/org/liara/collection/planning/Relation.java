@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.data.graph.Column;
+
+import java.util.Objects;
+
+/**
+ * An equality relation between the columns of two tables, usually a foreign key and the key that it refers to.
+ *
+ * Relations are not directed, a relation can be used for joining any of its tables to the other one.
+ */
+public final class Relation
+{
+  @NonNull
+  private final Column<?> _left;
+
+  @NonNull
+  private final Column<?> _right;
+
+  /**
+   * Instantiate a new relation.
+   *
+   * @param left  A column of a table.
+   * @param right A column of another table with values equal to the values of the first column for related rows.
+   */
+  public Relation (@NonNull final Column<?> left, @NonNull final Column<?> right) {
+    if (left.getTable() == right.getTable()) {
+      throw new IllegalArgumentException(
+        "Unable to relate the columns \"" + left.getName() + "\" and \"" + right.getName() + "\" because they " +
+        "belong to the same table \"" + left.getTable().getName() + "\"."
+      );
+    }
+
+    _left = left;
+    _right = right;
+  }
+
+  /**
+   * @return The left column of this relation.
+   */
+  public @NonNull Column<?> getLeft () {
+    return _left;
+  }
+
+  /**
+   * @return The right column of this relation.
+   */
+  public @NonNull Column<?> getRight () {
+    return _right;
+  }
+
+  /**
+   * @return The same relation with its columns swapped.
+   */
+  public @NonNull Relation reverse () {
+    return new Relation(_right, _left);
+  }
+
+  /**
+   * @see Object#hashCode()
+   */
+  @Override
+  public int hashCode () {
+    return Objects.hash(_left, _right);
+  }
+
+  /**
+   * @see Object#equals(Object)
+   */
+  @Override
+  public boolean equals (@Nullable final Object other) {
+    if (other == null) return false;
+    if (other == this) return true;
+
+    if (other instanceof Relation) {
+      @NonNull final Relation otherRelation = (Relation) other;
+
+      return Objects.equals(_left, otherRelation._left) && Objects.equals(_right, otherRelation._right);
+    }
+
+    return false;
+  }
+}
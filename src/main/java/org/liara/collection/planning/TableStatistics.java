@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.liara.data.graph.Column;
+import org.liara.data.graph.Table;
+
+/**
+ * Estimations of the content of the tables of a graph, used for ordering joins.
+ */
+@FunctionalInterface
+public interface TableStatistics
+{
+  /**
+   * Statistics that consider that each table contains the same number of rows with distinct values.
+   */
+  @NonNull TableStatistics UNIFORM = table -> 1000L;
+
+  /**
+   * @param table A table.
+   *
+   * @return An estimation of the number of rows of the given table.
+   */
+  @NonNegative long getRowCount (@NonNull final Table table);
+
+  /**
+   * Return an estimation of the number of distinct values of a column.
+   *
+   * By default, the values of a column are considered distinct.
+   *
+   * @param column A column.
+   *
+   * @return An estimation of the number of distinct values of the given column.
+   */
+  default @NonNegative long getDistinctCount (@NonNull final Column<?> column) {
+    return getRowCount(column.getTable());
+  }
+
+  /**
+   * Return an estimation of the number of rows of an equi-join.
+   *
+   * @param rows     Estimated number of rows of the origin of the join.
+   * @param relation The relation used for joining, from a column of the origin to a column of the joined table.
+   *
+   * @return An estimation of the number of rows of the join.
+   */
+  default double estimateJoin (final double rows, @NonNull final Relation relation) {
+    final double distinct = Math.max(
+      1, Math.max(getDistinctCount(relation.getLeft()), getDistinctCount(relation.getRight()))
+    );
+
+    return rows * getRowCount(relation.getRight().getTable()) / distinct;
+  }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.query;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.metrics.QueryListener;
+import org.liara.collection.operator.Composition;
+import org.liara.collection.operator.Operator;
+import org.liara.collection.operator.cursoring.Cursor;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.operator.ordering.Order;
+import org.liara.collection.source.GraphSource;
+import org.liara.data.primitive.Primitive;
+import org.liara.data.primitive.Primitives;
+import org.liara.expression.Constant;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+import org.liara.expression.Placeholder;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Parse the query parameters of a request into operators over a given source.
+ *
+ * The following parameters are recognized :
+ * <ul>
+ *   <li>{@code filter} : a JSON filter document, see {@link #parseFilter(String)}.</li>
+ *   <li>{@code orderBy} : a comma separated list of column names, a name prefixed by a minus sign is ordered in
+ *   descending order.</li>
+ *   <li>{@code cursor} : a limit, or an offset and a limit separated by a comma.</li>
+ * </ul>
+ *
+ * Filter documents are read with a streaming parser that builds expressions while reading tokens, without any
+ * intermediate tree. Parsed parameters are cached by value, a parser is thread-safe.
+ */
+public final class QueryParser
+{
+  /**
+   * Default maximum number of cached parameter values.
+   */
+  public static final int DEFAULT_CACHE_SIZE = 1024;
+
+  /**
+   * Maximum number of nested $and / $or operators in a filter document.
+   */
+  public static final int MAXIMUM_DEPTH = 32;
+
+  @NonNull
+  public static final String FILTER = "filter";
+
+  @NonNull
+  public static final String ORDER_BY = "orderBy";
+
+  @NonNull
+  public static final String CURSOR = "cursor";
+
+  @NonNull
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  @NonNull
+  private final GraphSource _source;
+
+  @NonNull
+  private final ExpressionFactory _expressionFactory;
+
+  @NonNull
+  private final Cache<@NonNull String, @NonNull Operator> _filters;
+
+  @NonNull
+  private final Cache<@NonNull String, @NonNull Operator> _orderings;
+
+  @NonNull
+  private final QueryListener _listener;
+
+  /**
+   * Instantiate a parser of queries over the given source.
+   *
+   * @param source The source that defines the columns that queries may refer to.
+   */
+  public QueryParser (@NonNull final GraphSource source) {
+    this(source, DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * Instantiate a parser of queries over the given source.
+   *
+   * @param source    The source that defines the columns that queries may refer to.
+   * @param cacheSize Maximum number of parsed values to cache for each parameter.
+   */
+  public QueryParser (@NonNull final GraphSource source, @NonNegative final int cacheSize) {
+    this(source, cacheSize, QueryListener.NONE);
+  }
+
+  /**
+   * Instantiate a parser of queries over the given source that reports the accesses to its caches.
+   *
+   * @param source    The source that defines the columns that queries may refer to.
+   * @param cacheSize Maximum number of parsed values to cache for each parameter.
+   * @param listener  A listener to notify after each access to the cache of a parameter, named after the parameter.
+   */
+  public QueryParser (
+    @NonNull final GraphSource source,
+    @NonNegative final int cacheSize,
+    @NonNull final QueryListener listener
+  ) {
+    _source = source;
+    _expressionFactory = new ExpressionFactory();
+    _filters = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    _orderings = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    _listener = listener;
+  }
+
+  /**
+   * Parse query parameters into a composition of operators.
+   *
+   * Unknown parameters are ignored.
+   *
+   * @param parameters Query parameters by name.
+   *
+   * @return An operator that applies each of the given parameters.
+   */
+  public @NonNull Operator parse (@NonNull final Map<@NonNull String, @NonNull String> parameters) {
+    @NonNull final List<@NonNull Operator> result = new ArrayList<>(3);
+
+    @Nullable final String cursor = parameters.get(CURSOR);
+    @Nullable final String orderBy = parameters.get(ORDER_BY);
+    @Nullable final String filter = parameters.get(FILTER);
+
+    if (cursor != null) result.add(parseCursor(cursor));
+    if (orderBy != null) result.add(parseOrderBy(orderBy));
+    if (filter != null) result.add(parseFilter(filter));
+
+    return Composition.of(result);
+  }
+
+  /**
+   * Parse a cursor parameter.
+   *
+   * @param cursor A limit, or an offset and a limit separated by a comma.
+   *
+   * @return The described cursor.
+   */
+  public @NonNull Cursor parseCursor (@NonNull final String cursor) {
+    final int separator = cursor.indexOf(',');
+
+    try {
+      if (separator < 0) {
+        return new Cursor(parseNonNegative(cursor.trim()));
+      } else {
+        return new Cursor(
+          parseNonNegative(cursor.substring(0, separator).trim()),
+          parseNonNegative(cursor.substring(separator + 1).trim())
+        );
+      }
+    } catch (@NonNull final NumberFormatException exception) {
+      throw new IllegalArgumentException(
+        "Unable to parse the cursor \"" + cursor + "\" because it is not a limit or an offset and a limit " +
+        "separated by a comma.", exception
+      );
+    }
+  }
+
+  private static long parseNonNegative (@NonNull final String value) {
+    final long result = Long.parseLong(value);
+
+    if (result < 0) throw new NumberFormatException("Negative value : " + value);
+
+    return result;
+  }
+
+  /**
+   * Parse an ordering parameter.
+   *
+   * @param orderBy A comma separated list of column names, each name may be prefixed by a minus sign for a
+   *                descending order.
+   *
+   * @return A composition of the described orderings, the first column being the main ordering.
+   */
+  public @NonNull Operator parseOrderBy (@NonNull final String orderBy) {
+    return cached(ORDER_BY, _orderings, orderBy, () -> {
+      @NonNull final List<@NonNull Operator> result = new ArrayList<>();
+
+      for (@NonNull final String token : orderBy.split(",")) {
+        @NonNull final String column = token.trim();
+
+        if (column.isEmpty()) continue;
+
+        if (column.charAt(0) == '-') {
+          result.add(0, Order.expression(getPlaceholder(column.substring(1).trim())).descending());
+        } else {
+          result.add(0, Order.expression(getPlaceholder(column)).ascending());
+        }
+      }
+
+      return Composition.of(result);
+    });
+  }
+
+  /**
+   * Parse a JSON filter document.
+   *
+   * A document is an object whose entries must all be satisfied :
+   * <ul>
+   *   <li>{@code "column": value} requires the column to be equal to the value.</li>
+   *   <li>{@code "column": {"$eq": value, "$gt": value, "$lt": value}} requires the column to satisfy each
+   *   given comparison.</li>
+   *   <li>{@code "$and": [documents]} requires each given document to be satisfied.</li>
+   *   <li>{@code "$or": [documents]} requires one of the given documents to be satisfied.</li>
+   * </ul>
+   *
+   * Values are converted into the type of the column that they are compared to, date-times are written as ISO-8601
+   * strings and characters as strings of one character. Null values are rejected, as a comparison to null is never
+   * satisfied.
+   *
+   * @param document A JSON filter document.
+   *
+   * @return The described filter.
+   */
+  public @NonNull Operator parseFilter (@NonNull final String document) {
+    return cached(FILTER, _filters, document, () -> {
+      try (@NonNull final JsonParser parser = JSON_FACTORY.createParser(document)) {
+        parser.nextToken();
+
+        @NonNull final Expression<@NonNull Boolean> predicate = readDocument(parser, 0);
+
+        if (parser.nextToken() != null) {
+          throw new IllegalArgumentException(
+            "Unable to parse the filter document because it contains more than one JSON value."
+          );
+        }
+
+        return Filter.expression(predicate);
+      } catch (@NonNull final IOException exception) {
+        throw new IllegalArgumentException(
+          "Unable to parse the filter document because it is not a valid JSON document.", exception
+        );
+      }
+    });
+  }
+
+  private @NonNull Operator cached (
+    @NonNull final String name,
+    @NonNull final Cache<@NonNull String, @NonNull Operator> cache,
+    @NonNull final String key,
+    @NonNull final Callable<@NonNull Operator> parser
+  ) {
+    if (!_listener.isEnabled()) return get(cache, key, parser);
+
+    @NonNull final boolean[] loaded = new boolean[] {false};
+    @NonNull final Operator result = get(cache, key, () -> {
+      loaded[0] = true;
+      return parser.call();
+    });
+
+    _listener.onCacheAccess(name, !loaded[0]);
+
+    return result;
+  }
+
+  private static @NonNull Operator get (
+    @NonNull final Cache<@NonNull String, @NonNull Operator> cache,
+    @NonNull final String key,
+    @NonNull final Callable<@NonNull Operator> parser
+  ) {
+    try {
+      return cache.get(key, parser);
+    } catch (@NonNull final ExecutionException exception) {
+      throw new IllegalStateException(exception.getCause());
+    } catch (@NonNull final UncheckedExecutionException exception) {
+      if (exception.getCause() instanceof RuntimeException) throw (RuntimeException) exception.getCause();
+      throw exception;
+    }
+  }
+
+  private @NonNull Expression<@NonNull Boolean> readDocument (
+    @NonNull final JsonParser parser,
+    @NonNegative final int depth
+  ) throws IOException {
+    expect(parser, JsonToken.START_OBJECT);
+
+    @NonNull final List<@NonNull Expression<@NonNull Boolean>> conditions = new ArrayList<>();
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      @NonNull final String field = parser.getCurrentName();
+      parser.nextToken();
+
+      switch (field) {
+        case "$and":
+          conditions.add(all(readDocuments(parser, depth + 1)));
+          break;
+        case "$or":
+          conditions.add(any(readDocuments(parser, depth + 1)));
+          break;
+        default:
+          readColumn(parser, getPlaceholder(field), conditions);
+      }
+    }
+
+    return all(conditions);
+  }
+
+  private @NonNull List<@NonNull Expression<@NonNull Boolean>> readDocuments (
+    @NonNull final JsonParser parser,
+    @NonNegative final int depth
+  ) throws IOException {
+    if (depth > MAXIMUM_DEPTH) {
+      throw new IllegalArgumentException(
+        "Unable to parse the filter document because it nests more than " + MAXIMUM_DEPTH +
+        " $and / $or operators."
+      );
+    }
+
+    expect(parser, JsonToken.START_ARRAY);
+
+    @NonNull final List<@NonNull Expression<@NonNull Boolean>> result = new ArrayList<>();
+
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      result.add(readDocument(parser, depth));
+    }
+
+    return result;
+  }
+
+  private void readColumn (
+    @NonNull final JsonParser parser,
+    @NonNull final Placeholder<?> column,
+    @NonNull final List<@NonNull Expression<@NonNull Boolean>> conditions
+  ) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      conditions.add(_expressionFactory.equal(column, readValue(parser, column)));
+      return;
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      @NonNull final String comparison = parser.getCurrentName();
+      parser.nextToken();
+
+      switch (comparison) {
+        case "$eq":
+          conditions.add(_expressionFactory.equal(column, readValue(parser, column)));
+          break;
+        case "$gt":
+          conditions.add(_expressionFactory.greaterThan(column, readValue(parser, column)));
+          break;
+        case "$lt":
+          conditions.add(_expressionFactory.lessThan(column, readValue(parser, column)));
+          break;
+        default:
+          throw new IllegalArgumentException(
+            "Unable to parse the comparison \"" + comparison + "\" because it is not one of $eq, $gt or $lt."
+          );
+      }
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"}) // The value is converted into the type of the column.
+  private @NonNull Expression<?> readValue (
+    @NonNull final JsonParser parser,
+    @NonNull final Placeholder<?> column
+  ) throws IOException {
+    @NonNull final Primitive type = column.getResultType();
+    @NonNull final Class<?> javaClass = type.getJavaClass();
+    @NonNull final JsonToken token = parser.currentToken();
+
+    if (token == JsonToken.VALUE_NULL) {
+      throw new IllegalArgumentException(
+        "Unable to parse the value null because a comparison to null is never satisfied."
+      );
+    } else if (javaClass == String.class && token == JsonToken.VALUE_STRING) {
+      return new Constant(type, parser.getText());
+    } else if (javaClass == Character.class && token == JsonToken.VALUE_STRING && parser.getTextLength() == 1) {
+      return new Constant(type, parser.getText().charAt(0));
+    } else if (javaClass == ZonedDateTime.class && token == JsonToken.VALUE_STRING) {
+      try {
+        return new Constant(type, ZonedDateTime.parse(parser.getText()));
+      } catch (@NonNull final DateTimeParseException exception) {
+        throw new IllegalArgumentException(
+          "Unable to parse the value \"" + parser.getText() + "\" because it is not an ISO-8601 date-time " +
+          "with an offset.", exception
+        );
+      }
+    } else if (javaClass == Boolean.class && token.isBoolean()) {
+      return new Constant(type, parser.getBooleanValue());
+    } else if (javaClass == Integer.class && token == JsonToken.VALUE_NUMBER_INT) {
+      if (parser.getNumberType() != NumberType.INT) throw outOfRange(parser, type);
+      return new Constant(type, parser.getIntValue());
+    } else if (javaClass == Long.class && token == JsonToken.VALUE_NUMBER_INT) {
+      if (parser.getNumberType() == NumberType.BIG_INTEGER) throw outOfRange(parser, type);
+      return new Constant(type, parser.getLongValue());
+    } else if (javaClass == Double.class && token.isNumeric()) {
+      return new Constant(type, parser.getDoubleValue());
+    }
+
+    throw new IllegalArgumentException(
+      "Unable to parse the value " + parser.getText() + " because it is not a valid value of type " +
+      type.getJavaClass().getName() + "."
+    );
+  }
+
+  private static @NonNull IllegalArgumentException outOfRange (
+    @NonNull final JsonParser parser,
+    @NonNull final Primitive type
+  ) throws IOException {
+    return new IllegalArgumentException(
+      "Unable to parse the value " + parser.getText() + " because it is out of the range of type " +
+      type.getJavaClass().getName() + "."
+    );
+  }
+
+  private @NonNull Expression<@NonNull Boolean> all (
+    @NonNull final List<@NonNull Expression<@NonNull Boolean>> conditions
+  ) {
+    if (conditions.isEmpty()) return new Constant<>(Primitives.BOOLEAN, true);
+    return conditions.size() == 1 ? conditions.get(0) : _expressionFactory.and(conditions);
+  }
+
+  private @NonNull Expression<@NonNull Boolean> any (
+    @NonNull final List<@NonNull Expression<@NonNull Boolean>> conditions
+  ) {
+    if (conditions.isEmpty()) return new Constant<>(Primitives.BOOLEAN, false);
+
+    @NonNull Expression<@NonNull Boolean> result = conditions.get(0);
+
+    for (int index = 1, size = conditions.size(); index < size; ++index) {
+      result = _expressionFactory.or(result, conditions.get(index));
+    }
+
+    return result;
+  }
+
+  private @NonNull Placeholder<?> getPlaceholder (@NonNull final String column) {
+    try {
+      @Nullable final Placeholder<?> result = _source.getOwnPlaceholder(column);
+      if (result != null) return result;
+    } catch (@NonNull final RuntimeException exception) {
+      throw unknownColumn(column, exception);
+    }
+
+    throw unknownColumn(column, null);
+  }
+
+  private @NonNull IllegalArgumentException unknownColumn (
+    @NonNull final String column,
+    @Nullable final Throwable cause
+  ) {
+    return new IllegalArgumentException(
+      "Unable to resolve the column \"" + column + "\" because the source " + _source.getName() +
+      " does not contain any column of this name.", cause
+    );
+  }
+
+  private static void expect (
+    @NonNull final JsonParser parser,
+    @NonNull final JsonToken expected
+  ) throws IOException {
+    if (parser.currentToken() != expected) {
+      throw new IllegalArgumentException(
+        "Unable to parse the filter document because " + expected + " was expected at " +
+        parser.getCurrentLocation() + " instead of " + parser.currentToken() + "."
+      );
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.source;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.data.graph.Column;
+import org.liara.data.graph.Table;
+import org.liara.data.primitive.Primitive;
+import org.liara.support.view.View;
+
+import java.util.Arrays;
+
+/**
+ * An immutable open-addressing table from the names of the columns of a table to their indices.
+ *
+ * Indices are built once for each table and shared by each source of the same table.
+ */
+final class ColumnIndex
+{
+  @NonNull
+  private static final LoadingCache<@NonNull Table, @NonNull ColumnIndex> INDICES = (
+    CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(ColumnIndex::new))
+  );
+
+  /**
+   * Value of a slot of the open-addressing table that does not contain any column.
+   */
+  private static final int EMPTY = -1;
+
+  @NonNull
+  private final String[] _names;
+
+  @NonNull
+  private final int[] _slots;
+
+  @NonNull
+  private final Primitive<?>[] _types;
+
+  private final int _mask;
+
+  /**
+   * Return the index of the columns of the given table.
+   *
+   * @param table A table.
+   *
+   * @return The index of the columns of the given table.
+   */
+  static @NonNull ColumnIndex of (@NonNull final Table table) {
+    return INDICES.getUnchecked(table);
+  }
+
+  private ColumnIndex (@NonNull final Table table) {
+    @NonNull final View<@NonNull Column> columns = table.getColumns();
+    final int size = columns.getSize();
+    final int capacity = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+
+    _names = new String[size];
+    _types = new Primitive[size];
+    _slots = new int[capacity];
+    _mask = capacity - 1;
+
+    Arrays.fill(_slots, EMPTY);
+
+    for (int index = 0; index < size; ++index) {
+      @NonNull final Column<?> column = columns.get(index);
+      _names[index] = column.getName();
+      _types[index] = column.getType();
+
+      int slot = column.getName().hashCode() & _mask;
+
+      while (_slots[slot] != EMPTY) {
+        slot = (slot + 1) & _mask;
+      }
+
+      _slots[slot] = index;
+    }
+  }
+
+  /**
+   * Return the index of the column with the given name.
+   *
+   * @param name Name of the column to search for.
+   *
+   * @return The index of the column with the given name, or a negative value if the table does not contain any
+   * column of the given name.
+   */
+  int indexOf (@NonNull final String name) {
+    int slot = name.hashCode() & _mask;
+    int index;
+
+    while ((index = _slots[slot]) != EMPTY) {
+      if (name.equals(_names[index])) return index;
+      slot = (slot + 1) & _mask;
+    }
+
+    return EMPTY;
+  }
+
+  /**
+   * @param index Index of a column.
+   *
+   * @return The type of the column at the given index.
+   */
+  @NonNull Primitive<?> getType (@NonNegative final int index) {
+    return _types[index];
+  }
+
+  /**
+   * @return The number of columns of the indexed table.
+   */
+  @NonNegative int getSize () {
+    return _types.length;
+  }
+}
@@ -26,158 +26,104 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.expression.Expression;
 import org.liara.expression.ExpressionFactory;
-import org.liara.expression.operation.StaticOperationBuilder;
-import org.liara.support.tree.TreeWalker;
+import org.liara.support.view.View;
 
-import java.util.*;
-
-public class JoinExpressionLinker
+/**
+ * Link the predicate of a join to the join itself.
+ *
+ * Placeholders of the joined table are replaced by the placeholders of the join, placeholders of the origin source
+ * are kept as is. A linker does not have any mutable state, the same instance can be used concurrently by any number
+ * of threads.
+ */
+public final class JoinExpressionLinker
 {
+  /**
+   * A shared linker.
+   */
   @NonNull
-  private static final Map<@NonNull Thread, @NonNull JoinExpressionLinker> SINGLETONS = (
-    Collections.synchronizedMap(new WeakHashMap<>())
-  );
-  @NonNull
-  private final        StaticOperationBuilder                              _builder;
-  @NonNull
-  private final        TreeWalker<Expression>                              _walker;
-  @NonNull
-  private final        ArrayList<@NonNull Expression>                      _stack;
-  @NonNull
-  private final        ArrayList<@NonNull Integer>                         _cursors;
-  @NonNull
-  private final        ArrayList<@NonNull Boolean>                         _identity;
-  @Nullable
-  private              JoinSource                                          _linked;
+  public static final JoinExpressionLinker INSTANCE = new JoinExpressionLinker();
+
   @NonNull
-  private final        ExpressionFactory                                   _expressionFactory;
+  private final ExpressionFactory _expressionFactory;
 
   public JoinExpressionLinker () {
-    _walker = new TreeWalker<>(Expression.class);
-    _stack = new ArrayList<>(10);
-    _cursors = new ArrayList<>(10);
-    _identity = new ArrayList<>(10);
-    _builder = new StaticOperationBuilder();
-    _linked = null;
     _expressionFactory = new ExpressionFactory();
   }
 
+  /**
+   * @return A shared linker.
+   *
+   * @deprecated Linkers are stateless, use {@link #INSTANCE} instead.
+   */
+  @Deprecated
   public static @NonNull JoinExpressionLinker getInstance () {
-    @NonNull final Thread thread = Thread.currentThread();
-
-    if (!SINGLETONS.containsKey(thread)) {
-      SINGLETONS.put(thread, new JoinExpressionLinker());
-    }
-
-    return SINGLETONS.get(thread);
+    return INSTANCE;
   }
 
+  /**
+   * Link a predicate to a join.
+   *
+   * @param linked     The join to link.
+   * @param expression A predicate over the origin source and the joined table of the join.
+   * @param <Result>   Type of the result of the predicate.
+   *
+   * @return The given predicate with each placeholder of the joined table replaced by a placeholder of the join.
+   */
   @SuppressWarnings("unchecked")
   public <Result> @NonNull Expression<Result> link (
     @NonNull final JoinSource linked,
     @NonNull final Expression<Boolean> expression
   ) {
-    _linked = linked;
-
-    _walker.setRoot(expression);
-    _walker.movesForward();
-
-    while (!_walker.isAtEnd()) {
-      while (_walker.canEnter()) {
-        _walker.enter();
-        onEntering((Expression<?>) _walker.current());
-      }
-
-      if (_walker.canExit()) {
-        onExiting(_walker.current());
-        _walker.exit();
-      }
-    }
-
-    _walker.setRoot(null);
-
-    @NonNull final Expression<Result> result = (Expression<Result>) _stack.get(0);
-
-    _stack.clear();
-    _cursors.clear();
-    _identity.clear();
-
-    return result;
+    return (Expression<Result>) linkExpression(linked, expression);
   }
 
-  private <Type> void onExiting (@NonNull final Expression<Type> current) {
-    if (current instanceof SourcePlaceholder) {
-      onExitingSourcePlaceholder((SourcePlaceholder<?>) current);
-    } else if (!_identity.get(_identity.size() - 1)) {
-      onExitingLinkedExpression(current);
-    } else {
-      onExitingIdentityExpression(current);
-    }
-  }
-
-  private <Type> void onExitingIdentityExpression (@NonNull final Expression<Type> current) {
-    final int cursor = _cursors.get(_cursors.size() - 1);
-
-    while (_stack.size() > cursor) {
-      _stack.remove(_stack.size() - 1);
+  private @NonNull Expression<?> linkExpression (
+    @NonNull final JoinSource linked,
+    @NonNull final Expression<?> expression
+  ) {
+    if (expression instanceof SourcePlaceholder) {
+      return linkPlaceholder(linked, (SourcePlaceholder<?>) expression);
     }
 
-    _stack.add(current);
-    _identity.remove(_identity.size() - 1);
-    _cursors.remove(_cursors.size() - 1);
-  }
+    @NonNull final View<@NonNull Expression> children = expression.getChildren();
+    final int size = children.getSize();
 
-  private <Type> void onExitingLinkedExpression (@NonNull final Expression<Type> current) {
-    @NonNull final Expression<Type> linked;
-    final int                       cursor = _cursors.get(_cursors.size() - 1);
+    @Nullable Expression[] linkedChildren = null;
 
-    @NonNull final Expression[] children = new Expression[_stack.size() - cursor];
+    for (int index = 0; index < size; ++index) {
+      @NonNull final Expression<?> child = children.get(index);
+      @NonNull final Expression<?> linkedChild = linkExpression(linked, child);
 
-    for (int index = 0, size = children.length; index < size; ++index) {
-      children[index] = _stack.get(cursor + index);
-    }
+      if (linkedChildren == null && linkedChild != child) {
+        linkedChildren = new Expression[size];
 
-    linked = (Expression<Type>) _expressionFactory.rewrite(current, children);
+        for (int previous = 0; previous < index; ++previous) {
+          linkedChildren[previous] = children.get(previous);
+        }
+      }
 
-    while (_stack.size() > cursor) {
-      _stack.remove(_stack.size() - 1);
+      if (linkedChildren != null) {
+        linkedChildren[index] = linkedChild;
+      }
     }
 
-    _stack.add(linked);
-    _identity.remove(_identity.size() - 1);
-    if (_identity.size() > 0) {
-      _identity.set(_identity.size() - 1, false);
-    }
-    _cursors.remove(_cursors.size() - 1);
+    return linkedChildren == null ? expression : _expressionFactory.rewrite(expression, linkedChildren);
   }
 
-
-  private void onExitingSourcePlaceholder (@NonNull final SourcePlaceholder<?> current) {
-    Objects.requireNonNull(_linked);
-
-    if (_linked.getOrigin().contains(current)) {
-      onExitingIdentityExpression(current);
-    } else if (_linked.getJoined().contains(current)) {
-      onExitingLinkedPlaceholder((TableSourcePlaceholder<?>) current);
+  private @NonNull Expression<?> linkPlaceholder (
+    @NonNull final JoinSource linked,
+    @NonNull final SourcePlaceholder<?> placeholder
+  ) {
+    if (linked.getOrigin().contains(placeholder)) {
+      return placeholder;
+    } else if (linked.getJoined().contains(placeholder)) {
+      return linked.getOwnPlaceholder(((TableSourcePlaceholder<?>) placeholder).getColumn());
     } else {
       throw new IllegalArgumentException(
-        "Unable to link the given expression to the join " + _linked + " because some " +
+        "Unable to link the given expression to the join " + linked + " because some " +
         "source placeholders of the given expression does not belongs to its origin source or to " +
         "its linked source."
       );
     }
   }
-
-  private void onExitingLinkedPlaceholder (@NonNull final TableSourcePlaceholder<?> current) {
-    Objects.requireNonNull(_linked);
-
-    _stack.add(_linked.getOwnPlaceholder(current.getColumn()));
-    _identity.remove(_identity.size() - 1);
-    _cursors.remove(_cursors.size() - 1);
-  }
-
-  private <Type> void onEntering (@NonNull final Expression<Type> entered) {
-    _cursors.add(_stack.size());
-    _identity.add(true);
-  }
 }
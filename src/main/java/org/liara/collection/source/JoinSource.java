@@ -24,12 +24,16 @@ package org.liara.collection.source;
 
 import org.checkerframework.checker.index.qual.NonNegative;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.util.PersistentHashMap;
 import org.liara.data.graph.Column;
+import org.liara.data.graph.Table;
 import org.liara.data.primitive.Primitive;
 import org.liara.expression.Expression;
 import org.liara.support.view.View;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class JoinSource
   implements GraphSource
@@ -50,16 +54,31 @@ public class JoinSource
   private final Expression<@NonNull Boolean> _predicate;
 
   @NonNull
-  private final JoinSourcePlaceholder<?>[] _ownPlaceholders;
+  private final ColumnIndex _columns;
 
   @NonNull
-  private final SourcePlaceholder<?>[] _placeholders;
+  private final AtomicReferenceArray<@Nullable JoinSourcePlaceholder<?>> _ownPlaceholders;
 
+  /**
+   * Each join of the chain of joins that ends with this join, excluding this join, shared with the origin join.
+   */
   @NonNull
-  private final View<@NonNull SourcePlaceholder> _placeholdersView;
+  private final PersistentHashMap<@NonNull Source, @NonNull Boolean> _ancestors;
 
+  /**
+   * First source of the chain of joins that ends with this join.
+   */
   @NonNull
-  private final View<@NonNull JoinSourcePlaceholder> _ownPlaceholdersView;
+  private final Source _root;
+
+  @NonNegative
+  private final int _placeholderCount;
+
+  @Nullable
+  private volatile View<@NonNull SourcePlaceholder> _placeholdersView;
+
+  @Nullable
+  private volatile View<@NonNull JoinSourcePlaceholder> _ownPlaceholdersView;
 
   public JoinSource (
     @NonNull final JoinType type,
@@ -73,24 +92,43 @@ public class JoinSource
     _origin = origin;
     _joined = joined;
 
-    _ownPlaceholders = new JoinSourcePlaceholder[_joined.getPlaceholders().getSize()];
-    _placeholders = (
-      new SourcePlaceholder[_ownPlaceholders.length + _origin.getPlaceholders().getSize()]
-    );
-    _placeholdersView = View.readonly(SourcePlaceholder.class, _placeholders);
-    buildPlaceholders();
+    if (_origin instanceof JoinSource) {
+      @NonNull final JoinSource join = (JoinSource) _origin;
+      _ancestors = join._ancestors.put(join, Boolean.TRUE);
+      _root = join._root;
+      _placeholderCount = join._placeholderCount + _joined.getColumnCount();
+    } else {
+      _ancestors = PersistentHashMap.empty();
+      _root = _origin;
+      _placeholderCount = getPlaceholderCount(_origin) + _joined.getColumnCount();
+    }
+
+    _columns = _joined.getColumnIndex();
+    _ownPlaceholders = new AtomicReferenceArray<>(_columns.getSize());
+    _placeholdersView = null;
+    _ownPlaceholdersView = null;
 
     _predicate = linkPredicate(Objects.requireNonNull(predicate));
 
-    _ownPlaceholdersView = View.readonly(JoinSourcePlaceholder.class, _ownPlaceholders);
   }
 
+  /**
+   * Return the canonical inner join between two sources.
+   *
+   * @param origin    Origin of the join.
+   * @param joined    Joined table.
+   * @param predicate Predicate of the join, over the placeholders of the origin and of the joined table.
+   *
+   * @return The canonical inner join between the given sources, named after the joined table.
+   *
+   * @see SourceRegistry#shared()
+   */
   public static GraphSource inner (
     @NonNull final GraphSource origin,
     @NonNull final TableSource joined,
     @NonNull final Expression<Boolean> predicate
   ) {
-    return new JoinSource(
+    return SourceRegistry.shared().join(
       JoinType.INNER_JOIN,
       origin,
       joined,
@@ -105,36 +143,83 @@ public class JoinSource
     _origin = Objects.requireNonNull(source.getOrigin());
     _type = Objects.requireNonNull(source.getType());
 
-    _ownPlaceholders = new JoinSourcePlaceholder[_joined.getPlaceholders().getSize()];
-    _placeholders = (
-      new SourcePlaceholder[_ownPlaceholders.length + _origin.getPlaceholders().getSize()]
-    );
-    _placeholdersView = View.readonly(SourcePlaceholder.class, _placeholders);
-    buildPlaceholders();
+    if (_origin instanceof JoinSource) {
+      @NonNull final JoinSource join = (JoinSource) _origin;
+      _ancestors = join._ancestors.put(join, Boolean.TRUE);
+      _root = join._root;
+      _placeholderCount = join._placeholderCount + _joined.getColumnCount();
+    } else {
+      _ancestors = PersistentHashMap.empty();
+      _root = _origin;
+      _placeholderCount = getPlaceholderCount(_origin) + _joined.getColumnCount();
+    }
+
+    _columns = _joined.getColumnIndex();
+    _ownPlaceholders = new AtomicReferenceArray<>(_columns.getSize());
+    _placeholdersView = null;
+    _ownPlaceholdersView = null;
 
     _predicate = linkPredicate(Objects.requireNonNull(source.getPredicate()));
-    _ownPlaceholdersView = View.readonly(JoinSourcePlaceholder.class, _ownPlaceholders);
   }
 
-  private void buildPlaceholders () {
-    for (int index = 0; index < _joined.getPlaceholders().getSize(); ++index) {
-      _ownPlaceholders[index] = new JoinSourcePlaceholder<>(
-        this,
-        (Column<?>) _joined.getPlaceholders().get(index).getColumn()
-      );
+  private static @NonNegative int getPlaceholderCount (@NonNull final Source source) {
+    return (source instanceof TableSource) ? ((TableSource) source).getColumnCount()
+                                           : source.getPlaceholders().getSize();
+  }
+
+  /**
+   * Instantiate the placeholder of the ith column of this source, unless another thread did it first.
+   *
+   * @param index Index of the column from which instantiating a placeholder.
+   *
+   * @return The placeholder of the column at the given index.
+   */
+  private @NonNull JoinSourcePlaceholder<?> instantiatePlaceholder (@NonNegative final int index) {
+    @NonNull final JoinSourcePlaceholder<?> placeholder = new JoinSourcePlaceholder<>(
+      this, (Column<?>) _joined.getTable().getColumns().get(index)
+    );
+    @Nullable final JoinSourcePlaceholder<?> witness = _ownPlaceholders.compareAndExchange(index, null, placeholder);
+
+    return (witness == null) ? placeholder : witness;
+  }
 
-      _placeholders[_origin.getPlaceholders().getSize() + index] = _ownPlaceholders[index];
+  /**
+   * Copy each placeholder of the chain of joins that ends with this join into a new array.
+   *
+   * Placeholders are copied directly from each join of the chain, so that the placeholders of the intermediate joins
+   * are never materialized.
+   *
+   * @return Each placeholder of this source.
+   */
+  private @NonNull View<@NonNull SourcePlaceholder> collectPlaceholders () {
+    @NonNull final SourcePlaceholder<?>[] result = new SourcePlaceholder[_placeholderCount];
+    @NonNull Source current = this;
+
+    while (current instanceof JoinSource) {
+      @NonNull final JoinSource join = (JoinSource) current;
+      final int size = join._ownPlaceholders.length();
+      final int offset = join._placeholderCount - size;
+
+      for (int index = 0; index < size; ++index) {
+        result[offset + index] = join.getOwnPlaceholder(index);
+      }
+
+      current = join._origin;
     }
 
-    for (int index = 0; index < _origin.getPlaceholders().getSize(); ++index) {
-      _placeholders[index] = _origin.getPlaceholders().get(index);
+    @NonNull final View<? extends @NonNull SourcePlaceholder> rootPlaceholders = current.getPlaceholders();
+
+    for (int index = 0, size = rootPlaceholders.getSize(); index < size; ++index) {
+      result[index] = rootPlaceholders.get(index);
     }
+
+    return View.readonly(SourcePlaceholder.class, result);
   }
 
   private @NonNull Expression<Boolean> linkPredicate (
     @NonNull final Expression<Boolean> predicate
   ) {
-    return JoinExpressionLinker.getInstance().link(this, predicate);
+    return JoinExpressionLinker.INSTANCE.link(this, predicate);
   }
 
   /**
@@ -144,12 +229,11 @@ public class JoinSource
    *
    * @return A placeholder for the given column.
    */
-  @SuppressWarnings("unchecked") // @see #instantiatePlaceholders()
+  @SuppressWarnings("unchecked") // @see #instantiatePlaceholder(int)
   public <Type> @NonNull JoinSourcePlaceholder<Type> getOwnPlaceholder (
     @NonNull final Column<Type> column
   ) {
-    return (JoinSourcePlaceholder<Type>) _ownPlaceholders[_joined.getTable()
-                                                                 .getIndexOf(column)];
+    return (JoinSourcePlaceholder<Type>) getOwnPlaceholder(_joined.getTable().getIndexOf(column));
   }
 
   /**
@@ -160,7 +244,9 @@ public class JoinSource
    * @return A placeholder for the column at the given index.
    */
   public @NonNull JoinSourcePlaceholder<?> getOwnPlaceholder (@NonNegative final int index) {
-    return _ownPlaceholders[index];
+    @Nullable final JoinSourcePlaceholder<?> placeholder = _ownPlaceholders.get(index);
+
+    return (placeholder == null) ? instantiatePlaceholder(index) : placeholder;
   }
 
   /**
@@ -176,20 +262,11 @@ public class JoinSource
     @NonNull final Class<Type> expectedType,
     @NonNegative final int index
   ) {
-    @NonNull final JoinSourcePlaceholder<?> placeholder = getOwnPlaceholder(index);
-
-    if (placeholder.getResultType().getJavaClass() == expectedType) {
-      return (JoinSourcePlaceholder<Type>) placeholder;
-    } else {
-      throw new IllegalArgumentException(
-        "Unable to get a placeholder for the column \"" + placeholder.getColumn().getName() +
-        "\" of table \"" + placeholder.getColumn().getTable().getName() + "\" aliased as \"" +
-        _name + "\" of graph \"" + placeholder.getColumn().getGraph().getName() +
-        "\" of type " + expectedType.getName() +
-        " because the given column was not of the expected type but of type " +
-        placeholder.getColumn().getType().getJavaClass().getName() + "."
-      );
+    if (_columns.getType(index).getJavaClass() == expectedType) {
+      return (JoinSourcePlaceholder<Type>) getOwnPlaceholder(index);
     }
+
+    throw unexpectedType(index, expectedType.getName());
   }
 
   /**
@@ -197,7 +274,7 @@ public class JoinSource
    */
   @Override
   public @NonNull JoinSourcePlaceholder<?> getOwnPlaceholder (@NonNegative final String name) {
-    return _ownPlaceholders[_joined.getTable().getIndexOf(_joined.getTable().getColumn(name))];
+    return getOwnPlaceholder(indexOf(name));
   }
 
   /**
@@ -209,20 +286,54 @@ public class JoinSource
     @NonNull final Primitive<Type> expectedType,
     @NonNegative final String name
   ) {
-    @NonNull final JoinSourcePlaceholder<?> placeholder = getOwnPlaceholder(name);
+    final int index = indexOf(name);
 
-    if (placeholder.getResultType() == expectedType) {
-      return (JoinSourcePlaceholder<Type>) placeholder;
-    } else {
-      throw new IllegalArgumentException(
-        "Unable to get a placeholder for the column \"" + placeholder.getColumn().getName() +
-        "\" of table \"" + placeholder.getColumn().getTable().getName() + "\" aliased as \"" +
-        _name + "\" of graph \"" + placeholder.getColumn().getGraph().getName() +
-        "\" of type " + expectedType.getName() +
-        " because the given column was not of the expected type but of type " +
-        placeholder.getColumn().getType().getJavaClass().getName() + "."
-      );
+    if (_columns.getType(index) == expectedType) {
+      return (JoinSourcePlaceholder<Type>) getOwnPlaceholder(index);
     }
+
+    throw unexpectedType(index, expectedType.getName());
+  }
+
+  /**
+   * Return the index of the column of the given name.
+   *
+   * @param name Name of the column to search for.
+   *
+   * @return The index of the column of the given name.
+   */
+  private @NonNegative int indexOf (@NonNull final String name) {
+    final int index = _columns.indexOf(name);
+
+    if (index < 0) throw unknownColumn(name);
+
+    return index;
+  }
+
+  private @NonNull IllegalArgumentException unknownColumn (@NonNull final String name) {
+    @NonNull final Table table = _joined.getTable();
+
+    return new IllegalArgumentException(
+      "Unable to get a placeholder for the column \"" + name + "\" of table \"" + table.getName() +
+      "\" aliased as \"" + _name + "\" of graph \"" + table.getGraph().getName() +
+      "\" because the table does not contain any column of this name."
+    );
+  }
+
+  private @NonNull IllegalArgumentException unexpectedType (
+    @NonNegative final int index,
+    @NonNull final String expectedType
+  ) {
+    @NonNull final JoinSourcePlaceholder<?> placeholder = getOwnPlaceholder(index);
+
+    return new IllegalArgumentException(
+      "Unable to get a placeholder for the column \"" + placeholder.getColumn().getName() +
+      "\" of table \"" + placeholder.getColumn().getTable().getName() + "\" aliased as \"" +
+      _name + "\" of graph \"" + placeholder.getColumn().getGraph().getName() +
+      "\" of type " + expectedType +
+      " because the given column was not of the expected type but of type " +
+      placeholder.getColumn().getType().getJavaClass().getName() + "."
+    );
   }
 
   /**
@@ -266,7 +377,9 @@ public class JoinSource
    */
   @Override
   public boolean contains (@NonNull final SourcePlaceholder<?> placeholder) {
-    return placeholder.getSource() == this || _origin.contains(placeholder);
+    @NonNull final Source source = placeholder.getSource();
+
+    return source == this || _ancestors.containsKey(source) || _root.contains(placeholder);
   }
 
   /**
@@ -274,7 +387,21 @@ public class JoinSource
    */
   @Override
   public @NonNull View<? extends @NonNull SourcePlaceholder> getPlaceholders () {
-    return _placeholdersView;
+    @Nullable View<@NonNull SourcePlaceholder> result = _placeholdersView;
+
+    if (result == null) {
+      result = collectPlaceholders();
+      _placeholdersView = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return The number of joins in the chain of joins that ends with this join, including this join.
+   */
+  public @NonNegative int getDepth () {
+    return _ancestors.size() + 1;
   }
 
   /**
@@ -282,6 +409,19 @@ public class JoinSource
    */
   @Override
   public @NonNull View<? extends @NonNull JoinSourcePlaceholder> getOwnPlaceholders () {
-    return _ownPlaceholdersView;
+    @Nullable View<@NonNull JoinSourcePlaceholder> result = _ownPlaceholdersView;
+
+    if (result == null) {
+      @NonNull final JoinSourcePlaceholder<?>[] placeholders = new JoinSourcePlaceholder[_ownPlaceholders.length()];
+
+      for (int index = 0; index < placeholders.length; ++index) {
+        placeholders[index] = getOwnPlaceholder(index);
+      }
+
+      result = View.readonly(JoinSourcePlaceholder.class, placeholders);
+      _ownPlaceholdersView = result;
+    }
+
+    return result;
   }
 }
@@ -26,16 +26,8 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.expression.Expression;
 
-import java.util.Collections;
-import java.util.Map;
-import java.util.WeakHashMap;
-
 public class JoinSourceBuilder
 {
-  @NonNull
-  private static final Map<@NonNull Thread, @NonNull JoinSourceBuilder> SINGLETONS = (
-    Collections.synchronizedMap(new WeakHashMap<>())
-  );
   @Nullable
   private              String                                           _name;
   @Nullable
@@ -63,14 +55,14 @@ public class JoinSourceBuilder
     _predicate = builder.getPredicate();
   }
 
+  /**
+   * @return A new empty builder.
+   *
+   * @deprecated Builders are cheap to instantiate, use {@link #JoinSourceBuilder()} instead.
+   */
+  @Deprecated
   public static @NonNull JoinSourceBuilder getInstance () {
-    @NonNull final Thread thread = Thread.currentThread();
-
-    if (!SINGLETONS.containsKey(thread)) {
-      SINGLETONS.put(thread, new JoinSourceBuilder());
-    }
-
-    return SINGLETONS.get(thread);
+    return new JoinSourceBuilder();
   }
 
   public void clear () {
@@ -28,12 +28,31 @@ import org.liara.support.view.View;
 
 public interface Source
 {
+  /**
+   * Return the canonical source of a table.
+   *
+   * @param table A table.
+   *
+   * @return The canonical source of the given table.
+   *
+   * @see SourceRegistry#shared()
+   */
   static @NonNull TableSource from (@NonNull final Table table) {
-    return new TableSource(table);
+    return SourceRegistry.shared().table(table);
   }
 
+  /**
+   * Return the canonical source of an aliased table.
+   *
+   * @param table A table.
+   * @param alias Alias of the table.
+   *
+   * @return The canonical source of the given table with the given alias.
+   *
+   * @see SourceRegistry#shared()
+   */
   static @NonNull TableSource from (@NonNull final Table table, @NonNull final String alias) {
-    return new TableSource(table, alias);
+    return SourceRegistry.shared().table(table, alias);
   }
 
   /**
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.source;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.data.graph.Table;
+import org.liara.expression.Expression;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A registry of canonical sources.
+ *
+ * A registry returns the same table source for each request of the same table with the same name, and the same join
+ * for each request of a join of the same type between the same sources with an equal predicate and the same name. As
+ * placeholders are compared by source identity, collections built over canonical sources are equal when they are
+ * built in the same way.
+ *
+ * Canonical sources are weakly referenced and are released when they are no longer used. A registry is thread-safe.
+ */
+public final class SourceRegistry
+{
+  @NonNull
+  private static final SourceRegistry SHARED = new SourceRegistry();
+
+  @NonNull
+  private final Cache<@NonNull TableKey, @NonNull TableSource> _tables;
+
+  @NonNull
+  private final Cache<@NonNull JoinKey, @NonNull JoinSource> _joins;
+
+  /**
+   * Instantiate a new empty registry.
+   */
+  public SourceRegistry () {
+    _tables = CacheBuilder.newBuilder().weakValues().build();
+    _joins = CacheBuilder.newBuilder().weakValues().build();
+  }
+
+  /**
+   * @return The registry used by {@link Source#from(Table)} and by {@link JoinSource#inner}.
+   */
+  public static @NonNull SourceRegistry shared () {
+    return SHARED;
+  }
+
+  /**
+   * Return the canonical source of a table.
+   *
+   * @param table A table.
+   *
+   * @return The canonical source of the given table named after the table.
+   */
+  public @NonNull TableSource table (@NonNull final Table table) {
+    return table(table, table.getName());
+  }
+
+  /**
+   * Return the canonical source of an aliased table.
+   *
+   * @param table A table.
+   * @param name  Alias of the table.
+   *
+   * @return The canonical source of the given table with the given name.
+   */
+  public @NonNull TableSource table (@NonNull final Table table, @NonNull final String name) {
+    return canonical(_tables, new TableKey(table, name), key -> new TableSource(table, name));
+  }
+
+  /**
+   * Return the canonical instance of a table source.
+   *
+   * The given source becomes the canonical source of its table and name if there was none.
+   *
+   * @param source A table source.
+   *
+   * @return The canonical source of the table and the name of the given source.
+   */
+  public @NonNull TableSource register (@NonNull final TableSource source) {
+    return canonical(_tables, new TableKey(source.getTable(), source.getName()), key -> source);
+  }
+
+  /**
+   * Return the canonical join between two sources.
+   *
+   * @param type      Type of the join.
+   * @param origin    Origin of the join.
+   * @param joined    Joined table.
+   * @param predicate Predicate of the join, over the placeholders of the origin and of the joined table.
+   * @param name      Name of the join.
+   *
+   * @return The canonical join described by the given parameters.
+   */
+  public @NonNull JoinSource join (
+    @NonNull final JoinType type,
+    @NonNull final Source origin,
+    @NonNull final TableSource joined,
+    @NonNull final Expression<@NonNull Boolean> predicate,
+    @NonNull final String name
+  ) {
+    return canonical(
+      _joins,
+      new JoinKey(type, origin, joined, predicate, name),
+      key -> new JoinSource(type, origin, joined, predicate, name)
+    );
+  }
+
+  /**
+   * Return the canonical value of a key, or register a new one.
+   *
+   * The cache is first read without locking, as computing an entry locks a segment of the cache even when the entry
+   * already exists. The cache is only locked when the key is missing.
+   *
+   * @param cache   A cache of canonical values.
+   * @param key     The key to look up.
+   * @param factory Create the value of a missing key.
+   *
+   * @return The canonical value of the given key.
+   */
+  private static <Key, Value> @NonNull Value canonical (
+    @NonNull final Cache<@NonNull Key, @NonNull Value> cache,
+    @NonNull final Key key,
+    @NonNull final Function<? super @NonNull Key, ? extends @NonNull Value> factory
+  ) {
+    @Nullable final Value existing = cache.getIfPresent(key);
+    return (existing == null) ? cache.asMap().computeIfAbsent(key, factory) : existing;
+  }
+
+  /**
+   * Identify a table source by its table and its name.
+   */
+  private static final class TableKey
+  {
+    @NonNull
+    private final Table _table;
+
+    @NonNull
+    private final String _name;
+
+    TableKey (@NonNull final Table table, @NonNull final String name) {
+      _table = table;
+      _name = name;
+    }
+
+    @Override
+    public int hashCode () {
+      return Objects.hash(_table, _name);
+    }
+
+    @Override
+    public boolean equals (@Nullable final Object other) {
+      if (other == this) return true;
+
+      if (other instanceof TableKey) {
+        @NonNull final TableKey otherKey = (TableKey) other;
+        return Objects.equals(_table, otherKey._table) && Objects.equals(_name, otherKey._name);
+      }
+
+      return false;
+    }
+  }
+
+  /**
+   * Identify a join by its type, its origin, its joined table, its unlinked predicate and its name.
+   */
+  private static final class JoinKey
+  {
+    @NonNull
+    private final JoinType _type;
+
+    @NonNull
+    private final Source _origin;
+
+    @NonNull
+    private final TableSource _joined;
+
+    @NonNull
+    private final Expression<@NonNull Boolean> _predicate;
+
+    @NonNull
+    private final String _name;
+
+    private final int _hashCode;
+
+    JoinKey (
+      @NonNull final JoinType type,
+      @NonNull final Source origin,
+      @NonNull final TableSource joined,
+      @NonNull final Expression<@NonNull Boolean> predicate,
+      @NonNull final String name
+    ) {
+      _type = type;
+      _origin = origin;
+      _joined = joined;
+      _predicate = predicate;
+      _name = name;
+      _hashCode = Objects.hash(
+        _type,
+        System.identityHashCode(_origin),
+        System.identityHashCode(_joined),
+        _predicate,
+        _name
+      );
+    }
+
+    @Override
+    public int hashCode () {
+      return _hashCode;
+    }
+
+    @Override
+    public boolean equals (@Nullable final Object other) {
+      if (other == this) return true;
+
+      if (other instanceof JoinKey) {
+        @NonNull final JoinKey otherKey = (JoinKey) other;
+
+        return _hashCode == otherKey._hashCode &&
+               _type == otherKey._type &&
+               _origin == otherKey._origin &&
+               _joined == otherKey._joined &&
+               _name.equals(otherKey._name) &&
+               _predicate.equals(otherKey._predicate);
+      }
+
+      return false;
+    }
+  }
+}
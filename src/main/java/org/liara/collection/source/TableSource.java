@@ -24,13 +24,18 @@ package org.liara.collection.source;
 
 import org.checkerframework.checker.index.qual.NonNegative;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.data.graph.Column;
 import org.liara.data.graph.Table;
 import org.liara.data.primitive.Primitive;
 import org.liara.support.view.View;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * A source that is a data-graph table.
+ *
+ * Placeholders are instantiated on first access, each column of a source has exactly one placeholder.
  */
 public class TableSource
   implements GraphSource
@@ -42,10 +47,13 @@ public class TableSource
   private final Table _table;
 
   @NonNull
-  private final TableSourcePlaceholder<?>[] _placeholders;
+  private final ColumnIndex _columns;
 
   @NonNull
-  private final View<@NonNull TableSourcePlaceholder> _placeholderView;
+  private final AtomicReferenceArray<@Nullable TableSourcePlaceholder<?>> _placeholders;
+
+  @Nullable
+  private volatile View<@NonNull TableSourcePlaceholder> _placeholderView;
 
   /**
    * Instantiate a new source that is a data-graph table.
@@ -54,9 +62,9 @@ public class TableSource
    */
   public TableSource (@NonNull final Table table) {
     _table = table;
-    _placeholders = new TableSourcePlaceholder[_table.getColumns().getSize()];
-    _placeholderView = View.readonly(TableSourcePlaceholder.class, _placeholders);
-    instantiatePlaceholders();
+    _columns = ColumnIndex.of(_table);
+    _placeholders = new AtomicReferenceArray<>(_columns.getSize());
+    _placeholderView = null;
     _name = table.getName();
   }
 
@@ -68,9 +76,9 @@ public class TableSource
    */
   public TableSource (@NonNull final Table table, @NonNull final String name) {
     _table = table;
-    _placeholders = new TableSourcePlaceholder[_table.getColumns().getSize()];
-    _placeholderView = View.readonly(TableSourcePlaceholder.class, _placeholders);
-    instantiatePlaceholders();
+    _columns = ColumnIndex.of(_table);
+    _placeholders = new AtomicReferenceArray<>(_columns.getSize());
+    _placeholderView = null;
     _name = name;
   }
 
@@ -81,21 +89,26 @@ public class TableSource
    */
   public TableSource (@NonNull final TableSource toCopy) {
     _table = toCopy.getTable();
-    _placeholders = new TableSourcePlaceholder[_table.getColumns().getSize()];
-    _placeholderView = View.readonly(TableSourcePlaceholder.class, _placeholders);
-    instantiatePlaceholders();
+    _columns = ColumnIndex.of(_table);
+    _placeholders = new AtomicReferenceArray<>(_columns.getSize());
+    _placeholderView = null;
     _name = toCopy.getName();
   }
 
   /**
-   * Instantiate this sources placeholders.
+   * Instantiate the placeholder of the ith column of this source, unless another thread did it first.
+   *
+   * @param index Index of the column from which instantiating a placeholder.
+   *
+   * @return The placeholder of the column at the given index.
    */
-  private void instantiatePlaceholders () {
-    @NonNull final View<@NonNull Column> columns = _table.getColumns();
+  private @NonNull TableSourcePlaceholder<?> instantiatePlaceholder (@NonNegative final int index) {
+    @NonNull final TableSourcePlaceholder<?> placeholder = new TableSourcePlaceholder<>(
+      this, (Column<?>) _table.getColumns().get(index)
+    );
+    @Nullable final TableSourcePlaceholder<?> witness = _placeholders.compareAndExchange(index, null, placeholder);
 
-    for (int index = 0; index < columns.getSize(); ++index) {
-      _placeholders[index] = new TableSourcePlaceholder<>(this, (Column<?>) columns.get(index));
-    }
+    return (witness == null) ? placeholder : witness;
   }
 
   /**
@@ -105,10 +118,10 @@ public class TableSource
    *
    * @return A placeholder for the given column.
    */
-  @SuppressWarnings("unchecked") // @see #instantiatePlaceholders()
+  @SuppressWarnings("unchecked") // @see #instantiatePlaceholder(int)
   public <Type> @NonNull TableSourcePlaceholder<Type> getOwnPlaceholder (
     @NonNull final Column<Type> column
-  ) { return (TableSourcePlaceholder<Type>) _placeholders[_table.getIndexOf(column)]; }
+  ) { return (TableSourcePlaceholder<Type>) getOwnPlaceholder(_table.getIndexOf(column)); }
 
   /**
    * Return a placeholder expression for the ith column of this source.
@@ -118,7 +131,9 @@ public class TableSource
    * @return A placeholder for the column at the given index.
    */
   public @NonNull TableSourcePlaceholder<?> getOwnPlaceholder (@NonNegative final int index) {
-    return _placeholders[index];
+    @Nullable final TableSourcePlaceholder<?> placeholder = _placeholders.get(index);
+
+    return (placeholder == null) ? instantiatePlaceholder(index) : placeholder;
   }
 
   /**
@@ -134,20 +149,11 @@ public class TableSource
     @NonNull final Class<Type> expectedType,
     @NonNegative final int index
   ) {
-    @NonNull final TableSourcePlaceholder<?> placeholder = getOwnPlaceholder(index);
-
-    if (placeholder.getResultType().getJavaClass() == expectedType) {
-      return (TableSourcePlaceholder<Type>) placeholder;
-    } else {
-      throw new IllegalArgumentException(
-        "Unable to get a placeholder for the column \"" + placeholder.getColumn().getName() +
-        "\" of table \"" + placeholder.getColumn().getTable().getName() + "\" aliased as \"" +
-        _name + "\" of graph \"" + placeholder.getColumn().getGraph().getName() +
-        "\" of type " + expectedType.getName() +
-        " because the given column was not of the expected type but of type " +
-        placeholder.getColumn().getType().getJavaClass().getName() + "."
-      );
+    if (_columns.getType(index).getJavaClass() == expectedType) {
+      return (TableSourcePlaceholder<Type>) getOwnPlaceholder(index);
     }
+
+    throw unexpectedType(index, expectedType.getName());
   }
 
   /**
@@ -155,7 +161,7 @@ public class TableSource
    */
   @Override
   public @NonNull TableSourcePlaceholder<?> getOwnPlaceholder (@NonNegative final String name) {
-    return _placeholders[_table.getIndexOf(_table.getColumn(name))];
+    return getOwnPlaceholder(indexOf(name));
   }
 
   /**
@@ -167,20 +173,65 @@ public class TableSource
     @NonNull final Primitive<Type> expectedType,
     @NonNegative final String name
   ) {
-    @NonNull final TableSourcePlaceholder<?> placeholder = getOwnPlaceholder(name);
-
-    if (placeholder.getResultType() == expectedType) {
-      return (TableSourcePlaceholder<Type>) placeholder;
-    } else {
-      throw new IllegalArgumentException(
-        "Unable to get a placeholder for the column \"" + placeholder.getColumn().getName() +
-        "\" of table \"" + placeholder.getColumn().getTable().getName() + "\" aliased as \"" +
-        _name + "\" of graph \"" + placeholder.getColumn().getGraph().getName() +
-        "\" of type " + expectedType.getName() +
-        " because the given column was not of the expected type but of type " +
-        placeholder.getColumn().getType().getJavaClass().getName() + "."
-      );
+    final int index = indexOf(name);
+
+    if (_columns.getType(index) == expectedType) {
+      return (TableSourcePlaceholder<Type>) getOwnPlaceholder(index);
     }
+
+    throw unexpectedType(index, expectedType.getName());
+  }
+
+  /**
+   * Return true if this source contains a column of the given name.
+   *
+   * @param name Name of the column to search for.
+   *
+   * @return True if this source contains a column of the given name.
+   */
+  public boolean hasColumn (@NonNull final String name) {
+    return _columns.indexOf(name) >= 0;
+  }
+
+  /**
+   * Return the index of the column of the given name.
+   *
+   * @param name Name of the column to search for.
+   *
+   * @return The index of the column of the given name.
+   */
+  private @NonNegative int indexOf (@NonNull final String name) {
+    final int index = _columns.indexOf(name);
+
+    if (index < 0) throw unknownColumn(name);
+
+    return index;
+  }
+
+  private @NonNull IllegalArgumentException unknownColumn (@NonNull final String name) {
+    @NonNull final Table table = _table;
+
+    return new IllegalArgumentException(
+      "Unable to get a placeholder for the column \"" + name + "\" of table \"" + table.getName() +
+      "\" aliased as \"" + _name + "\" of graph \"" + table.getGraph().getName() +
+      "\" because the table does not contain any column of this name."
+    );
+  }
+
+  private @NonNull IllegalArgumentException unexpectedType (
+    @NonNegative final int index,
+    @NonNull final String expectedType
+  ) {
+    @NonNull final TableSourcePlaceholder<?> placeholder = getOwnPlaceholder(index);
+
+    return new IllegalArgumentException(
+      "Unable to get a placeholder for the column \"" + placeholder.getColumn().getName() +
+      "\" of table \"" + placeholder.getColumn().getTable().getName() + "\" aliased as \"" +
+      _name + "\" of graph \"" + placeholder.getColumn().getGraph().getName() +
+      "\" of type " + expectedType +
+      " because the given column was not of the expected type but of type " +
+      placeholder.getColumn().getType().getJavaClass().getName() + "."
+    );
   }
 
   /**
@@ -211,7 +262,34 @@ public class TableSource
    */
   @Override
   public @NonNull View<@NonNull TableSourcePlaceholder> getPlaceholders () {
-    return _placeholderView;
+    @Nullable View<@NonNull TableSourcePlaceholder> result = _placeholderView;
+
+    if (result == null) {
+      @NonNull final TableSourcePlaceholder<?>[] placeholders = new TableSourcePlaceholder[_placeholders.length()];
+
+      for (int index = 0; index < placeholders.length; ++index) {
+        placeholders[index] = getOwnPlaceholder(index);
+      }
+
+      result = View.readonly(TableSourcePlaceholder.class, placeholders);
+      _placeholderView = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return The index of the columns of this source by name.
+   */
+  @NonNull ColumnIndex getColumnIndex () {
+    return _columns;
+  }
+
+  /**
+   * @return The number of columns of this source.
+   */
+  public @NonNegative int getColumnCount () {
+    return _placeholders.length();
   }
 
   /**
@@ -219,6 +297,6 @@ public class TableSource
    */
   @Override
   public @NonNull View<@NonNull TableSourcePlaceholder> getOwnPlaceholders () {
-    return _placeholderView;
+    return getPlaceholders();
   }
 }
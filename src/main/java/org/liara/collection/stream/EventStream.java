@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.stream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.data.graph.Table;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An in-process stream of events over which collections can be registered as standing queries.
+ *
+ * Events are rows of a table, as arrays of values indexed by the index of their column into the table. The queries
+ * of each table are indexed by their predicates so that an event is only evaluated by the queries that it may
+ * satisfy.
+ */
+public class EventStream
+{
+  @NonNull
+  private final Executor _executor;
+
+  private final int _bufferCapacity;
+
+  @NonNull
+  private final ConcurrentMap<@NonNull Table, @NonNull PredicateIndex> _queries;
+
+  /**
+   * Instantiate a new stream that delivers its events with the common fork-join pool.
+   */
+  public EventStream () {
+    this(ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+  }
+
+  /**
+   * Instantiate a new stream.
+   *
+   * @param executor       Executor to use for delivering events to subscribers.
+   * @param bufferCapacity Maximum number of events buffered for each subscriber.
+   */
+  public EventStream (@NonNull final Executor executor, final int bufferCapacity) {
+    _executor = executor;
+    _bufferCapacity = bufferCapacity;
+    _queries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Register a collection as a standing query over this stream.
+   *
+   * @param collection A collection defined over a table source.
+   *
+   * @return A publisher of each event accepted by the given collection.
+   */
+  public @NonNull StandingQuery register (@NonNull final GraphCollection collection) {
+    @NonNull final StandingQuery query = new StandingQuery(
+      this,
+      collection,
+      _executor,
+      _bufferCapacity
+    );
+
+    _queries.compute(
+      query.getSource().getTable(),
+      (table, index) -> (index == null) ? new PredicateIndex().add(query) : index.add(query)
+    );
+
+    return query;
+  }
+
+  /**
+   * Unregister a standing query.
+   *
+   * @param query A query to unregister.
+   */
+  void unregister (@NonNull final StandingQuery query) {
+    _queries.computeIfPresent(
+      query.getSource().getTable(),
+      (table, index) -> {
+        @NonNull final PredicateIndex result = index.remove(query);
+        return result.isEmpty() ? null : result;
+      }
+    );
+  }
+
+  /**
+   * Publish a new event of the given table.
+   *
+   * @param table The table of the event.
+   * @param row   The event to publish.
+   *
+   * @return The number of queries that published the given event.
+   */
+  public int publish (@NonNull final Table table, @NonNull final Object[] row) {
+    @Nullable final PredicateIndex index = _queries.get(table);
+
+    return (index == null) ? 0 : index.publish(row);
+  }
+
+  /**
+   * Return all queries registered over the given table.
+   *
+   * @param table A table.
+   *
+   * @return All queries registered over the given table.
+   */
+  public @NonNull List<@NonNull StandingQuery> getQueries (@NonNull final Table table) {
+    @Nullable final PredicateIndex index = _queries.get(table);
+
+    return (index == null) ? List.of() : index.getQueries();
+  }
+
+  /**
+   * Close each registered query.
+   */
+  public void close () {
+    for (@NonNull final PredicateIndex index : _queries.values()) {
+      for (@NonNull final StandingQuery query : index.getQueries()) {
+        query.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.stream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.memory.Values;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An immutable centered interval tree of open intervals.
+ *
+ * A null bound is an unbounded side of an interval. Finding every interval that contains a given value requires
+ * O(log n + k) comparisons where k is the number of reported intervals.
+ *
+ * @param <Value> Type of the values stored with each interval.
+ */
+final class IntervalTree<Value>
+{
+  @Nullable
+  private final Node<Value> _root;
+
+  @NonNull
+  private final List<@NonNull Interval<Value>> _unbounded;
+
+  /**
+   * Build a new tree from the given intervals.
+   *
+   * @param intervals Intervals to store.
+   */
+  IntervalTree (@NonNull final List<@NonNull Interval<Value>> intervals) {
+    @NonNull final List<@NonNull Interval<Value>> bounded = new ArrayList<>(intervals.size());
+    _unbounded = new ArrayList<>();
+
+    for (@NonNull final Interval<Value> interval : intervals) {
+      if (interval.getLow() == null && interval.getHigh() == null) {
+        _unbounded.add(interval);
+      } else if (!interval.isEmpty()) {
+        bounded.add(interval);
+      }
+    }
+
+    _root = build(bounded);
+  }
+
+  private static <Value> @Nullable Node<Value> build (
+    @NonNull final List<@NonNull Interval<Value>> intervals
+  ) {
+    if (intervals.isEmpty()) return null;
+
+    @NonNull final List<@NonNull Object> endpoints = new ArrayList<>(intervals.size() * 2);
+
+    for (@NonNull final Interval<Value> interval : intervals) {
+      if (interval.getLow() != null) endpoints.add(interval.getLow());
+      if (interval.getHigh() != null) endpoints.add(interval.getHigh());
+    }
+
+    endpoints.sort(Values::order);
+
+    @NonNull final Object center = endpoints.get(endpoints.size() / 2);
+    @NonNull final List<@NonNull Interval<Value>> left = new ArrayList<>();
+    @NonNull final List<@NonNull Interval<Value>> right = new ArrayList<>();
+    @NonNull final List<@NonNull Interval<Value>> overlapping = new ArrayList<>();
+
+    for (@NonNull final Interval<Value> interval : intervals) {
+      if (interval.getHigh() != null && Values.order(interval.getHigh(), center) < 0) {
+        left.add(interval);
+      } else if (interval.getLow() != null && Values.order(interval.getLow(), center) > 0) {
+        right.add(interval);
+      } else {
+        overlapping.add(interval);
+      }
+    }
+
+    return new Node<>(center, overlapping, build(left), build(right));
+  }
+
+  /**
+   * Report each interval that contains the given value.
+   *
+   * @param value    A value to search, a null value is not contained by any interval.
+   * @param consumer A consumer of the values of each interval that contains the given value.
+   */
+  void stab (@Nullable final Object value, @NonNull final Consumer<? super Value> consumer) {
+    if (value == null) return;
+
+    for (@NonNull final Interval<Value> interval : _unbounded) {
+      consumer.accept(interval.getValue());
+    }
+
+    @Nullable Node<Value> current = _root;
+
+    while (current != null) {
+      final int comparison = Values.order(value, current.getCenter());
+
+      if (comparison < 0) {
+        for (@NonNull final Interval<Value> interval : current.getByLow()) {
+          if (interval.getLow() != null && Values.order(interval.getLow(), value) >= 0) break;
+          consumer.accept(interval.getValue());
+        }
+
+        current = current.getLeft();
+      } else if (comparison > 0) {
+        for (@NonNull final Interval<Value> interval : current.getByHigh()) {
+          if (interval.getHigh() != null && Values.order(interval.getHigh(), value) <= 0) break;
+          consumer.accept(interval.getValue());
+        }
+
+        current = current.getRight();
+      } else {
+        for (@NonNull final Interval<Value> interval : current.getByLow()) {
+          if (interval.contains(value)) consumer.accept(interval.getValue());
+        }
+
+        current = null;
+      }
+    }
+  }
+
+  /**
+   * An open interval associated with a value.
+   *
+   * @param <Value> Type of the associated value.
+   */
+  static final class Interval<Value>
+  {
+    @Nullable
+    private final Object _low;
+
+    @Nullable
+    private final Object _high;
+
+    @NonNull
+    private final Value _value;
+
+    Interval (@Nullable final Object low, @Nullable final Object high, @NonNull final Value value) {
+      _low = low;
+      _high = high;
+      _value = value;
+    }
+
+    boolean isEmpty () {
+      return _low != null && _high != null && Values.order(_low, _high) >= 0;
+    }
+
+    boolean contains (@NonNull final Object value) {
+      return (_low == null || Values.order(value, _low) > 0) &&
+             (_high == null || Values.order(value, _high) < 0);
+    }
+
+    @Nullable Object getLow () {
+      return _low;
+    }
+
+    @Nullable Object getHigh () {
+      return _high;
+    }
+
+    @NonNull Value getValue () {
+      return _value;
+    }
+  }
+
+  private static final class Node<Value>
+  {
+    @NonNull
+    private final Object _center;
+
+    @NonNull
+    private final List<@NonNull Interval<Value>> _byLow;
+
+    @NonNull
+    private final List<@NonNull Interval<Value>> _byHigh;
+
+    @Nullable
+    private final Node<Value> _left;
+
+    @Nullable
+    private final Node<Value> _right;
+
+    Node (
+      @NonNull final Object center,
+      @NonNull final List<@NonNull Interval<Value>> intervals,
+      @Nullable final Node<Value> left,
+      @Nullable final Node<Value> right
+    ) {
+      _center = center;
+      _left = left;
+      _right = right;
+
+      _byLow = new ArrayList<>(intervals);
+      _byLow.sort(Comparator.comparing(Interval::getLow, IntervalTree::compareLows));
+
+      _byHigh = new ArrayList<>(intervals);
+      _byHigh.sort(Comparator.comparing(Interval::getHigh, IntervalTree::compareHighs));
+    }
+
+    @NonNull Object getCenter () {
+      return _center;
+    }
+
+    @NonNull List<@NonNull Interval<Value>> getByLow () {
+      return _byLow;
+    }
+
+    @NonNull List<@NonNull Interval<Value>> getByHigh () {
+      return _byHigh;
+    }
+
+    @Nullable Node<Value> getLeft () {
+      return _left;
+    }
+
+    @Nullable Node<Value> getRight () {
+      return _right;
+    }
+  }
+
+  /**
+   * Ascending order of low bounds, an unbounded low bound being the smallest one.
+   */
+  private static int compareLows (@Nullable final Object left, @Nullable final Object right) {
+    return Values.order(left, right);
+  }
+
+  /**
+   * Descending order of high bounds, an unbounded high bound being the greatest one.
+   */
+  private static int compareHighs (@Nullable final Object left, @Nullable final Object right) {
+    if (left == right) return 0;
+    if (left == null) return -1;
+    if (right == null) return 1;
+
+    return Values.order(right, left);
+  }
+}
@@ -0,0 +1,555 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.stream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.expression.OperationType;
+import org.liara.collection.memory.Values;
+import org.liara.collection.operator.filtering.Filter;
+import org.liara.collection.source.TableSource;
+import org.liara.collection.source.TableSourcePlaceholder;
+import org.liara.collection.util.PersistentHashMap;
+import org.liara.data.graph.Column;
+import org.liara.expression.Constant;
+import org.liara.expression.Expression;
+import org.liara.expression.ExpressionFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An index of the predicates of the standing queries registered over a table.
+ *
+ * Each query is indexed by one conjunct of its filters : an equality between a column and a constant is stored into
+ * a hash map keyed by column and value, a range over a column is stored into an interval tree of the column, and
+ * queries without any indexable conjunct are residuals that are checked for each event. An event is then only
+ * evaluated by the queries that it may satisfy.
+ *
+ * The index is immutable once published, registrations replace it with an updated copy. A copy only classifies the
+ * registered query and only updates the index of its column, it shares every other index with the original. Interval
+ * trees are rebuilt lazily, once for all the registrations that precede a publication.
+ */
+final class PredicateIndex
+{
+  @NonNull
+  private static final ExpressionFactory EXPRESSION_FACTORY = new ExpressionFactory();
+
+  @NonNull
+  private final PersistentHashMap<@NonNull StandingQuery, @NonNull IndexedQuery> _queries;
+
+  @NonNull
+  private final Map<@NonNull Column<?>, @NonNull EqualityIndex> _equalities;
+
+  @NonNull
+  private final Map<@NonNull Column<?>, @NonNull RangeIndex> _ranges;
+
+  @NonNull
+  private final StandingQuery[] _residuals;
+
+  /**
+   * Instantiate an empty index.
+   */
+  PredicateIndex () {
+    this(PersistentHashMap.empty(), Map.of(), Map.of(), new StandingQuery[0]);
+  }
+
+  private PredicateIndex (
+    @NonNull final PersistentHashMap<@NonNull StandingQuery, @NonNull IndexedQuery> queries,
+    @NonNull final Map<@NonNull Column<?>, @NonNull EqualityIndex> equalities,
+    @NonNull final Map<@NonNull Column<?>, @NonNull RangeIndex> ranges,
+    @NonNull final StandingQuery[] residuals
+  ) {
+    _queries = queries;
+    _equalities = equalities;
+    _ranges = ranges;
+    _residuals = residuals;
+  }
+
+  /**
+   * Return a copy of this index with an additional query.
+   *
+   * @param query A query to index.
+   *
+   * @return A copy of this index with the given query.
+   */
+  @NonNull PredicateIndex add (@NonNull final StandingQuery query) {
+    @Nullable final AccessPath path = classify(query);
+    @NonNull final PersistentHashMap<@NonNull StandingQuery, @NonNull IndexedQuery> queries = _queries.put(
+      query, new IndexedQuery(query, path)
+    );
+
+    if (path == null) {
+      @NonNull final StandingQuery[] residuals = Arrays.copyOf(_residuals, _residuals.length + 1);
+      residuals[_residuals.length] = query;
+
+      return new PredicateIndex(queries, _equalities, _ranges, residuals);
+    } else if (path.isEquality()) {
+      @Nullable final EqualityIndex index = _equalities.get(path.getColumn());
+
+      return new PredicateIndex(
+        queries,
+        with(_equalities, path.getColumn(), (index == null ? new EqualityIndex(path.getIndex()) : index).add(
+          path.getLow(), query
+        )),
+        _ranges,
+        _residuals
+      );
+    } else {
+      @Nullable final RangeIndex index = _ranges.get(path.getColumn());
+
+      return new PredicateIndex(
+        queries,
+        _equalities,
+        with(_ranges, path.getColumn(), (index == null ? new RangeIndex(path.getIndex()) : index).add(
+          new IntervalTree.Interval<>(path.getLow(), path.getHigh(), query)
+        )),
+        _residuals
+      );
+    }
+  }
+
+  /**
+   * Return a copy of this index without the given query.
+   *
+   * @param query A query to remove.
+   *
+   * @return A copy of this index without the given query.
+   */
+  @NonNull PredicateIndex remove (@NonNull final StandingQuery query) {
+    @Nullable final IndexedQuery indexed = _queries.get(query);
+
+    if (indexed == null) return this;
+
+    @NonNull final PersistentHashMap<@NonNull StandingQuery, @NonNull IndexedQuery> queries = _queries.remove(query);
+    @Nullable final AccessPath path = indexed.getPath();
+
+    if (path == null) {
+      @NonNull final StandingQuery[] residuals = new StandingQuery[_residuals.length - 1];
+      int size = 0;
+
+      for (@NonNull final StandingQuery residual : _residuals) {
+        if (residual != query) residuals[size++] = residual;
+      }
+
+      return new PredicateIndex(queries, _equalities, _ranges, residuals);
+    } else if (path.isEquality()) {
+      return new PredicateIndex(
+        queries,
+        with(_equalities, path.getColumn(), _equalities.get(path.getColumn()).remove(path.getLow(), query)),
+        _ranges,
+        _residuals
+      );
+    } else {
+      return new PredicateIndex(
+        queries,
+        _equalities,
+        with(_ranges, path.getColumn(), _ranges.get(path.getColumn()).remove(query)),
+        _residuals
+      );
+    }
+  }
+
+  /**
+   * Return a copy of a map of column indexes with an updated index.
+   *
+   * @param indexes An immutable map of column indexes.
+   * @param column  The column of the updated index.
+   * @param index   The updated index, or null if the column is no longer indexed.
+   * @param <Index> Type of the indexes.
+   *
+   * @return An immutable copy of the given map with the given index.
+   */
+  private static <Index> @NonNull Map<@NonNull Column<?>, @NonNull Index> with (
+    @NonNull final Map<@NonNull Column<?>, @NonNull Index> indexes,
+    @NonNull final Column<?> column,
+    @Nullable final Index index
+  ) {
+    @NonNull final Map<@NonNull Column<?>, @NonNull Index> result = new LinkedHashMap<>(indexes);
+
+    if (index == null) {
+      result.remove(column);
+    } else {
+      result.put(column, index);
+    }
+
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * Evaluate the given event with each query that may accept it.
+   *
+   * @param row An event.
+   *
+   * @return The number of queries that published the given event.
+   */
+  int publish (@NonNull final Object[] row) {
+    @NonNull final List<@NonNull StandingQuery> candidates = new ArrayList<>();
+
+    for (@NonNull final EqualityIndex index : _equalities.values()) {
+      index.collect(row, candidates);
+    }
+
+    for (@NonNull final RangeIndex index : _ranges.values()) {
+      index.collect(row, candidates);
+    }
+
+    int result = 0;
+
+    for (@NonNull final StandingQuery candidate : candidates) {
+      if (candidate.accept(row)) result += 1;
+    }
+
+    for (@NonNull final StandingQuery residual : _residuals) {
+      if (residual.accept(row)) result += 1;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return All indexed queries.
+   */
+  @NonNull List<@NonNull StandingQuery> getQueries () {
+    @NonNull final List<@NonNull StandingQuery> result = new ArrayList<>(_queries.size());
+
+    _queries.forEach((query, indexed) -> result.add(query));
+
+    return result;
+  }
+
+  /**
+   * @return True if this index does not contain any query.
+   */
+  boolean isEmpty () {
+    return _queries.isEmpty();
+  }
+
+  /**
+   * Select the conjunct of the filters of the given query to use for indexing it.
+   *
+   * @param query A query to classify.
+   *
+   * @return The access path of the given query, or null if the query is a residual.
+   */
+  private static @Nullable AccessPath classify (@NonNull final StandingQuery query) {
+    @NonNull final ExpressionFactory factory = EXPRESSION_FACTORY;
+    @NonNull final List<@NonNull Expression<?>> conjuncts = new ArrayList<>();
+
+    for (@NonNull final Filter filter : query.getCollection().getFilters()) {
+      flatten(factory, filter.getExpression(), conjuncts);
+    }
+
+    @NonNull final Map<@NonNull Column<?>, @NonNull AccessPath> ranges = new LinkedHashMap<>();
+
+    for (@NonNull final Expression<?> conjunct : conjuncts) {
+      @NonNull final Optional<OperationType> type = OperationType.of(factory, conjunct);
+
+      if (!type.isPresent()) continue;
+
+      @Nullable final AccessPath path = classify(query.getSource(), type.get(), conjunct);
+
+      if (path == null) continue;
+      if (path.isEquality()) return path;
+
+      ranges.merge(path.getColumn(), path, AccessPath::intersect);
+    }
+
+    return ranges.isEmpty() ? null : ranges.values().iterator().next();
+  }
+
+  private static @Nullable AccessPath classify (
+    @NonNull final TableSource source,
+    @NonNull final OperationType type,
+    @NonNull final Expression<?> conjunct
+  ) {
+    @NonNull final Expression<?>[] operands = OperationType.getOperands(conjunct);
+
+    if (operands.length != 2) return null;
+
+    final boolean reversed;
+
+    if (isIndexable(source, operands[0]) && operands[1] instanceof Constant) {
+      reversed = false;
+    } else if (isIndexable(source, operands[1]) && operands[0] instanceof Constant) {
+      reversed = true;
+    } else {
+      return null;
+    }
+
+    @NonNull final Column<?> column = ((TableSourcePlaceholder<?>) operands[reversed ? 1 : 0]).getColumn();
+    @Nullable final Object value = ((Constant<?>) operands[reversed ? 0 : 1]).getValue();
+
+    if (value == null) return null;
+
+    switch (type) {
+      case EQUAL:
+        return new AccessPath(column, true, Values.normalize(value), null);
+      case GREATER_THAN:
+        return reversed ? new AccessPath(column, false, null, value)
+                        : new AccessPath(column, false, value, null);
+      case LESS_THAN:
+        return reversed ? new AccessPath(column, false, value, null)
+                        : new AccessPath(column, false, null, value);
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isIndexable (
+    @NonNull final TableSource source,
+    @NonNull final Expression<?> expression
+  ) {
+    return expression instanceof TableSourcePlaceholder &&
+           ((TableSourcePlaceholder<?>) expression).getSource() == source;
+  }
+
+  private static void flatten (
+    @NonNull final ExpressionFactory factory,
+    @NonNull final Expression<?> expression,
+    @NonNull final List<@NonNull Expression<?>> conjuncts
+  ) {
+    if (OperationType.AND.isTypeOf(factory, expression)) {
+      for (@NonNull final Expression<?> operand : OperationType.getOperands(expression)) {
+        flatten(factory, operand, conjuncts);
+      }
+    } else {
+      conjuncts.add(expression);
+    }
+  }
+
+  /**
+   * The conjunct used for indexing a query : an equality to a value, or an open range of values.
+   */
+  private static final class AccessPath
+  {
+    @NonNull
+    private final Column<?> _column;
+
+    private final boolean _equality;
+
+    @Nullable
+    private final Object _low;
+
+    @Nullable
+    private final Object _high;
+
+    AccessPath (
+      @NonNull final Column<?> column,
+      final boolean equality,
+      @Nullable final Object low,
+      @Nullable final Object high
+    ) {
+      _column = column;
+      _equality = equality;
+      _low = low;
+      _high = high;
+    }
+
+    @NonNull AccessPath intersect (@NonNull final AccessPath other) {
+      @Nullable Object low = _low;
+      @Nullable Object high = _high;
+
+      if (low == null || (other.getLow() != null && Values.order(other.getLow(), low) > 0)) {
+        low = other.getLow();
+      }
+
+      if (high == null || (other.getHigh() != null && Values.order(other.getHigh(), high) < 0)) {
+        high = other.getHigh();
+      }
+
+      return new AccessPath(_column, false, low, high);
+    }
+
+    @NonNull Column<?> getColumn () {
+      return _column;
+    }
+
+    int getIndex () {
+      return _column.getTable().getIndexOf(_column);
+    }
+
+    boolean isEquality () {
+      return _equality;
+    }
+
+    @Nullable Object getLow () {
+      return _low;
+    }
+
+    @Nullable Object getHigh () {
+      return _high;
+    }
+  }
+
+  private static final class IndexedQuery
+  {
+    @NonNull
+    private final StandingQuery _query;
+
+    @Nullable
+    private final AccessPath _path;
+
+    IndexedQuery (@NonNull final StandingQuery query, @Nullable final AccessPath path) {
+      _query = query;
+      _path = path;
+    }
+
+    @NonNull StandingQuery getQuery () {
+      return _query;
+    }
+
+    @Nullable AccessPath getPath () {
+      return _path;
+    }
+  }
+
+  /**
+   * The queries indexed by an equality over a column, by value.
+   */
+  private static final class EqualityIndex
+  {
+    private final int _index;
+
+    @NonNull
+    private final PersistentHashMap<@NonNull Object, @NonNull StandingQuery[]> _queries;
+
+    EqualityIndex (final int index) {
+      this(index, PersistentHashMap.empty());
+    }
+
+    private EqualityIndex (
+      final int index,
+      @NonNull final PersistentHashMap<@NonNull Object, @NonNull StandingQuery[]> queries
+    ) {
+      _index = index;
+      _queries = queries;
+    }
+
+    @NonNull EqualityIndex add (@NonNull final Object value, @NonNull final StandingQuery query) {
+      @Nullable final StandingQuery[] queries = _queries.get(value);
+      @NonNull final StandingQuery[] result;
+
+      if (queries == null) {
+        result = new StandingQuery[] {query};
+      } else {
+        result = Arrays.copyOf(queries, queries.length + 1);
+        result[queries.length] = query;
+      }
+
+      return new EqualityIndex(_index, _queries.put(value, result));
+    }
+
+    @Nullable EqualityIndex remove (@NonNull final Object value, @NonNull final StandingQuery query) {
+      @NonNull final StandingQuery[] queries = _queries.get(value);
+
+      if (queries.length == 1) {
+        @NonNull final PersistentHashMap<@NonNull Object, @NonNull StandingQuery[]> result = _queries.remove(value);
+        return result.isEmpty() ? null : new EqualityIndex(_index, result);
+      }
+
+      @NonNull final StandingQuery[] result = new StandingQuery[queries.length - 1];
+      int size = 0;
+
+      for (@NonNull final StandingQuery candidate : queries) {
+        if (candidate != query) result[size++] = candidate;
+      }
+
+      return new EqualityIndex(_index, _queries.put(value, result));
+    }
+
+    void collect (@NonNull final Object[] row, @NonNull final List<@NonNull StandingQuery> result) {
+      @Nullable final Object value = Values.normalize(row[_index]);
+
+      if (value == null) return;
+
+      @Nullable final StandingQuery[] queries = _queries.get(value);
+
+      if (queries != null) Collections.addAll(result, queries);
+    }
+  }
+
+  /**
+   * The queries indexed by a range over a column, stored into an interval tree built at the first lookup.
+   */
+  private static final class RangeIndex
+  {
+    private final int _index;
+
+    @NonNull
+    private final PersistentHashMap<@NonNull StandingQuery, IntervalTree.@NonNull Interval<StandingQuery>> _intervals;
+
+    @Nullable
+    private volatile IntervalTree<@NonNull StandingQuery> _tree;
+
+    RangeIndex (final int index) {
+      this(index, PersistentHashMap.empty());
+    }
+
+    private RangeIndex (
+      final int index,
+      @NonNull final PersistentHashMap<@NonNull StandingQuery, IntervalTree.@NonNull Interval<StandingQuery>> intervals
+    ) {
+      _index = index;
+      _intervals = intervals;
+      _tree = null;
+    }
+
+    @NonNull RangeIndex add (final IntervalTree.@NonNull Interval<StandingQuery> interval) {
+      return new RangeIndex(_index, _intervals.put(interval.getValue(), interval));
+    }
+
+    @Nullable RangeIndex remove (@NonNull final StandingQuery query) {
+      @NonNull final PersistentHashMap<@NonNull StandingQuery, IntervalTree.@NonNull Interval<StandingQuery>> result = (
+        _intervals.remove(query)
+      );
+
+      return result.isEmpty() ? null : new RangeIndex(_index, result);
+    }
+
+    void collect (@NonNull final Object[] row, @NonNull final List<@NonNull StandingQuery> result) {
+      getTree().stab(row[_index], result::add);
+    }
+
+    private @NonNull IntervalTree<@NonNull StandingQuery> getTree () {
+      @Nullable IntervalTree<@NonNull StandingQuery> tree = _tree;
+
+      if (tree == null) {
+        @NonNull final List<IntervalTree.@NonNull Interval<StandingQuery>> intervals = new ArrayList<>(
+          _intervals.size()
+        );
+
+        _intervals.forEach((query, interval) -> intervals.add(interval));
+        tree = new IntervalTree<>(intervals);
+        _tree = tree;
+      }
+
+      return tree;
+    }
+  }
+}
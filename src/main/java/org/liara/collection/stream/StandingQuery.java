@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.stream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.GraphCollection;
+import org.liara.collection.memory.Aggregators;
+import org.liara.collection.memory.GroupTable;
+import org.liara.collection.memory.RowExpression;
+import org.liara.collection.memory.RowExpressionCompiler;
+import org.liara.collection.memory.Sampler;
+import org.liara.collection.memory.Values;
+import org.liara.collection.operator.cursoring.Cursor;
+import org.liara.collection.operator.selection.Select;
+import org.liara.collection.source.TableSource;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * A collection registered as a continuous query over an event stream.
+ *
+ * Each sampled event accepted by the filters of the collection is published to the subscribers of this query, with the
+ * selections of the collection applied. The cursor of the collection skips the first accepted events and completes
+ * the query when its limit is reached. Orderings are meaningless over an unbounded stream and are ignored.
+ *
+ * Collections grouped by time windows are aggregated incrementally and publish one result for each group when its
+ * window closes. The watermark of the query is the greatest timestamp that it has accepted : a window closes when the
+ * watermark reaches its end, and each window still open is published when the query is closed. An event that
+ * arrives after the closure of its window is published within a new, late, result for that window.
+ *
+ * Events are delivered asynchronously with backpressure : publishing an event blocks while a subscriber buffer is
+ * saturated. Closed windows are queued while the groups are locked and are published, in order of closure, after the
+ * lock is released, so that a saturated subscriber does not prevent other threads from aggregating events. Results
+ * are counted, published and completed under a single emission lock : results are published in the order of their
+ * index, and no result is submitted after the completion of the query.
+ */
+public class StandingQuery
+  implements Flow.Publisher<@NonNull Object[]>,
+             AutoCloseable
+{
+  @NonNull
+  private final EventStream _stream;
+
+  @NonNull
+  private final GraphCollection _collection;
+
+  @NonNull
+  private final TableSource _source;
+
+  @NonNull
+  private final Sampler _sampler;
+
+  @NonNull
+  private final RowExpression _filter;
+
+  @NonNull
+  private final RowExpression[] _selections;
+
+  @NonNull
+  private final SubmissionPublisher<@NonNull Object[]> _publisher;
+
+  @Nullable
+  private final GroupTable _windows;
+
+  @NonNull
+  private final Queue<@NonNull Object[]> _closed;
+
+  @NonNull
+  private final Object _emission;
+
+  private long _watermark;
+
+  /**
+   * Number of results emitted by this query, guarded by the emission lock.
+   */
+  private long _accepted;
+
+  StandingQuery (
+    @NonNull final EventStream stream,
+    @NonNull final GraphCollection collection,
+    @NonNull final Executor executor,
+    final int bufferCapacity
+  ) {
+    if (!(collection.getSource() instanceof TableSource)) {
+      throw new IllegalArgumentException(
+        "Unable to register the collection " + collection + " as a standing query because only " +
+        "collections defined over a table source can be evaluated over an event stream."
+      );
+    }
+
+    _stream = stream;
+    _collection = collection;
+    _source = (TableSource) collection.getSource();
+
+    @NonNull final RowExpressionCompiler compiler = new RowExpressionCompiler(_source);
+    @NonNull final List<@NonNull Select> selections = collection.getSelections();
+
+    if (collection.isGrouped() || selections.stream().anyMatch(Aggregators::isAggregate)) {
+      _windows = new GroupTable(
+        collection.getGroups(),
+        selections,
+        compiler,
+        _source.getTable().getColumns().getSize()
+      );
+
+      if (!_windows.isWindowed()) {
+        throw new IllegalArgumentException(
+          "Unable to register the collection " + collection + " as a standing query because " +
+          "collections that are not grouped by time windows can't be aggregated over an " +
+          "unbounded event stream."
+        );
+      }
+    } else {
+      _windows = null;
+    }
+
+    _sampler = new Sampler(collection.getSample(), compiler);
+    _filter = compiler.compileFilters(collection.getFilters());
+    _selections = new RowExpression[selections.size()];
+
+    for (int index = 0; index < _selections.length; ++index) {
+      _selections[index] = compiler.compile(selections.get(index).getExpression());
+    }
+
+    _publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+    _closed = new ConcurrentLinkedQueue<>();
+    _emission = new Object();
+    _watermark = Long.MIN_VALUE;
+    _accepted = 0L;
+  }
+
+  /**
+   * Evaluate this query over an event of its source table.
+   *
+   * @param row The event to evaluate.
+   *
+   * @return True if the given event was published, or aggregated, by this query.
+   */
+  boolean accept (@NonNull final Object[] row) {
+    if (
+      _publisher.isClosed() ||
+      !_sampler.accept(row) ||
+      !Values.isTrue(RowExpressionCompiler.evaluate(_filter, row))
+    ) {
+      return false;
+    }
+
+    if (_windows == null) return emit(select(row));
+
+    synchronized (_windows) {
+      if (!_windows.insert(row)) return false;
+
+      @Nullable final Long timestamp = _windows.getTimestamp(row);
+
+      if (timestamp != null && timestamp > _watermark) {
+        _watermark = timestamp;
+        enqueue(_windows.evict(_watermark));
+      }
+    }
+
+    emitClosed();
+
+    return true;
+  }
+
+  /**
+   * Queue the results of closed groups, must be called while the groups are locked.
+   *
+   * @param entries Closed groups by order of closure.
+   */
+  private void enqueue (@NonNull final List<GroupTable.@NonNull Entry> entries) {
+    for (final GroupTable.@NonNull Entry entry : entries) {
+      _closed.add(entry.select());
+    }
+  }
+
+  /**
+   * Publish each queued result in order, must be called while the groups are not locked.
+   */
+  private void emitClosed () {
+    synchronized (_emission) {
+      @Nullable Object[] result;
+
+      while ((result = _closed.poll()) != null) {
+        if (_publisher.isClosed()) {
+          _closed.clear();
+          return;
+        }
+
+        emit(result);
+      }
+    }
+  }
+
+  /**
+   * Publish a result if it is within the cursor of the collection.
+   *
+   * @param result A result to publish.
+   *
+   * @return True if the given result was published.
+   */
+  private boolean emit (@NonNull final Object[] result) {
+    @NonNull final Cursor cursor = _collection.getCursor();
+
+    synchronized (_emission) {
+      if (_publisher.isClosed()) return false;
+
+      final long index = _accepted++ - cursor.getOffset();
+
+      if (index < 0 || index >= cursor.getLimit()) return false;
+
+      _publisher.submit(result);
+
+      if (index == cursor.getLimit() - 1) complete();
+
+      return true;
+    }
+  }
+
+  private @NonNull Object[] select (@NonNull final Object[] row) {
+    if (_selections.length == 0) return row.clone();
+
+    @NonNull final Object[] result = new Object[_selections.length];
+
+    for (int index = 0; index < _selections.length; ++index) {
+      result[index] = RowExpressionCompiler.evaluate(_selections[index], row);
+    }
+
+    return result;
+  }
+
+  /**
+   * @see Flow.Publisher#subscribe(Flow.Subscriber)
+   */
+  @Override
+  public void subscribe (final Flow.@NonNull Subscriber<? super @NonNull Object[]> subscriber) {
+    _publisher.subscribe(subscriber);
+  }
+
+  /**
+   * @return The number of subscribers of this query.
+   */
+  public int getNumberOfSubscribers () {
+    return _publisher.getNumberOfSubscribers();
+  }
+
+  /**
+   * @return The collection evaluated by this query.
+   */
+  public @NonNull GraphCollection getCollection () {
+    return _collection;
+  }
+
+  /**
+   * @return The source of the evaluated events.
+   */
+  public @NonNull TableSource getSource () {
+    return _source;
+  }
+
+  /**
+   * @return True if this query does not publish events anymore.
+   */
+  public boolean isClosed () {
+    return _publisher.isClosed();
+  }
+
+  /**
+   * Publish each window still open, unregister this query from its stream and complete each of its subscribers.
+   *
+   * @see AutoCloseable#close()
+   */
+  @Override
+  public void close () {
+    if (_windows != null && !_publisher.isClosed()) {
+      synchronized (_windows) {
+        enqueue(_windows.evict(Long.MAX_VALUE));
+      }
+
+      emitClosed();
+    }
+
+    complete();
+  }
+
+  private void complete () {
+    _stream.unregister(this);
+
+    synchronized (_emission) {
+      _publisher.close();
+    }
+  }
+}
@@ -22,68 +22,52 @@
 
 package org.liara.collection.util;
 
-import com.google.common.collect.ImmutableSet;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.collection.operator.filtering.Filter;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Set;
 import java.util.Objects;
 
 public class Filters
   implements Iterable<@NonNull Filter>
 {
-  public static final @NonNull Filters EMPTY = new Filters();
+  @NonNull
+  public static final Filters EMPTY = new Filters();
 
   @NonNull
-  private final ImmutableSet<@NonNull Filter> _filters;
+  private final PersistentOrderedSet<@NonNull Filter> _filters;
 
-  public Filters (@NonNull final ImmutableSet<@NonNull Filter> filters) {
-    _filters = filters;
+  public Filters (@NonNull final Filter... filters) {
+    _filters = PersistentOrderedSet.of(Arrays.asList(filters).iterator());
   }
 
   public Filters (@NonNull final Iterator<@NonNull Filter> filters) {
-    _filters = ImmutableSet.copyOf(filters);
+    _filters = PersistentOrderedSet.of(filters);
   }
 
   public Filters (final java.util.@NonNull Collection<@NonNull Filter> filters) {
-    _filters = ImmutableSet.copyOf(filters);
+    _filters = PersistentOrderedSet.of(filters.iterator());
   }
 
-  public Filters (@NonNull final Filters filters) {
-    _filters = filters.getFilters();
+  public Filters (@NonNull final PersistentOrderedSet<@NonNull Filter> filters) {
+    _filters = filters;
   }
 
-  public Filters (@NonNull final Filter... filters) {
-    _filters = ImmutableSet.copyOf(filters);
+  public Filters (@NonNull final Filters toCopy) {
+    _filters = toCopy._filters;
   }
 
   public @NonNull Filters add (@NonNull final Filter filter) {
-    if (_filters.contains(filter)) {
-      return this;
-    } else {
-      final ImmutableSet.@NonNull Builder<@NonNull Filter> builder = ImmutableSet.builder();
-      builder.addAll(_filters);
-      builder.add(filter);
-
-      return new Filters(builder.build());
-    }
+    @NonNull final PersistentOrderedSet<@NonNull Filter> result = _filters.add(filter);
+    return (result == _filters) ? this : new Filters(result);
   }
 
   public @NonNull Filters remove (@NonNull final Filter filter) {
-    if (_filters.contains(filter)) {
-      final ImmutableSet.@NonNull Builder<@NonNull Filter> builder = ImmutableSet.builder();
-
-      for (@NonNull final Filter toAdd : _filters) {
-        if (!toAdd.equals(filter)) {
-          builder.add(toAdd);
-        }
-      }
-
-      return new Filters(builder.build());
-    }
-
-    return this;
+    @NonNull final PersistentOrderedSet<@NonNull Filter> result = _filters.remove(filter);
+    return (result == _filters) ? this : new Filters(result);
   }
 
   public @NonNull Filters clear () {
@@ -99,8 +83,15 @@ public class Filters
     return _filters.iterator();
   }
 
-  public @NonNull ImmutableSet<@NonNull Filter> getFilters () {
-    return _filters;
+  public @NonNull Set<@NonNull Filter> getFilters () {
+    return _filters.asSet();
+  }
+
+  /**
+   * @return A 64-bit fingerprint of these filters.
+   */
+  public long getFingerprint () {
+    return _filters.getSetFingerprint();
   }
 
   @Override
@@ -111,7 +102,7 @@ public class Filters
     if (other instanceof Filters) {
       @NonNull final Filters otherFilters = (Filters) other;
 
-      return Objects.equals(_filters, otherFilters.getFilters());
+      return hashCode() == otherFilters.hashCode() && Objects.equals(getFilters(), otherFilters.getFilters());
     }
 
     return false;
@@ -119,6 +110,6 @@ public class Filters
 
   @Override
   public int hashCode () {
-    return Objects.hash(_filters);
+    return Objects.hash(getFilters());
   }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.util;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.liara.collection.operator.Operator;
+import org.liara.collection.source.JoinSourcePlaceholder;
+import org.liara.collection.source.TableSourcePlaceholder;
+import org.liara.data.graph.Column;
+import org.liara.expression.Constant;
+import org.liara.expression.Expression;
+import org.liara.support.view.View;
+
+import java.time.Duration;
+
+/**
+ * Utilities for computing 64-bit fingerprints.
+ *
+ * A fingerprint is a wide hash that is used to tell apart values that share the same 32-bit hash code. Operators
+ * compute a structural fingerprint from the fingerprints of their parts once at construction, expressions are
+ * fingerprinted from their type, their children, their constant values and the columns of their placeholders, and
+ * strings, numbers, durations and enumerations have a dedicated 64-bit fingerprint. Two equal values always have the
+ * same fingerprint. Other values fall back to a mix of their 32-bit hash code and are not better distinguished by
+ * their fingerprint than by their hash code.
+ */
+public final class Fingerprints
+{
+  /**
+   * Odd multiplier used for polynomial fingerprints of sequences.
+   */
+  public static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  private Fingerprints () {
+  }
+
+  /**
+   * Spread the bits of a value with the SplitMix64 finalizer.
+   *
+   * @param value A value to mix.
+   *
+   * @return The mixed value.
+   */
+  public static long mix (final long value) {
+    long result = value;
+
+    result = (result ^ (result >>> 30)) * 0xBF58476D1CE4E5B9L;
+    result = (result ^ (result >>> 27)) * 0x94D049BB133111EBL;
+
+    return result ^ (result >>> 31);
+  }
+
+  /**
+   * @param value A value, may be null.
+   *
+   * @return The fingerprint of the given value.
+   */
+  public static long of (@Nullable final Object value) {
+    if (value == null) return 0L;
+    if (value instanceof Operator) return ((Operator) value).getFingerprint();
+    if (value instanceof Expression) return ofExpression((Expression<?>) value);
+    if (value instanceof String) return ofString((String) value);
+
+    if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return mix(((Number) value).longValue());
+    }
+
+    if (value instanceof Double) return mix(Double.doubleToLongBits((Double) value));
+    if (value instanceof Float) return mix(Float.floatToIntBits((Float) value));
+
+    if (value instanceof Duration) {
+      @NonNull final Duration duration = (Duration) value;
+      return combine(duration.getSeconds(), duration.getNano());
+    }
+
+    if (value instanceof Enum) {
+      @NonNull final Enum<?> constant = (Enum<?>) value;
+      return combine(ofString(constant.getDeclaringClass().getName()), constant.ordinal());
+    }
+
+    return mix(value.hashCode());
+  }
+
+  /**
+   * Combine the fingerprints of the parts of a value in an order-sensitive way.
+   *
+   * @param values Parts of a value, may contain nulls.
+   *
+   * @return A fingerprint of the given sequence of values.
+   */
+  public static long ofAll (@Nullable final Object... values) {
+    @NonNull final long[] fingerprints = new long[values.length];
+
+    for (int index = 0; index < values.length; ++index) {
+      fingerprints[index] = of(values[index]);
+    }
+
+    return combine(fingerprints);
+  }
+
+  /**
+   * @param value A string.
+   *
+   * @return A 64-bit polynomial fingerprint of the characters of the given string.
+   */
+  private static long ofString (@NonNull final String value) {
+    long result = 1L;
+
+    for (int index = 0, size = value.length(); index < size; ++index) {
+      result = result * MULTIPLIER + value.charAt(index);
+    }
+
+    return mix(result);
+  }
+
+  /**
+   * Fingerprint an expression from its structure.
+   *
+   * Placeholders of sources are compared by identity, their fingerprint mixes their identity hash code with the name
+   * of their source and of their column. Other expressions are fingerprinted from their type, their hash code and the
+   * fingerprints of their children.
+   *
+   * @param expression An expression.
+   *
+   * @return A fingerprint of the given expression.
+   */
+  private static long ofExpression (@NonNull final Expression<?> expression) {
+    if (expression instanceof Constant) {
+      return combine(ofString(Constant.class.getName()), of(((Constant<?>) expression).getValue()));
+    }
+
+    if (expression instanceof TableSourcePlaceholder) {
+      @NonNull final TableSourcePlaceholder<?> placeholder = (TableSourcePlaceholder<?>) expression;
+      return ofPlaceholder(placeholder, placeholder.getSource().getName(), placeholder.getColumn());
+    }
+
+    if (expression instanceof JoinSourcePlaceholder) {
+      @NonNull final JoinSourcePlaceholder<?> placeholder = (JoinSourcePlaceholder<?>) expression;
+      return ofPlaceholder(placeholder, placeholder.getSource().getName(), placeholder.getColumn());
+    }
+
+    @NonNull final View<@NonNull Expression> children = expression.getChildren();
+    @NonNull final long[] fingerprints = new long[children.getSize() + 2];
+
+    fingerprints[0] = ofString(expression.getClass().getName());
+    fingerprints[1] = mix(expression.hashCode());
+
+    for (int index = 0, size = children.getSize(); index < size; ++index) {
+      fingerprints[index + 2] = ofExpression(children.get(index));
+    }
+
+    return combine(fingerprints);
+  }
+
+  private static long ofPlaceholder (
+    @NonNull final Expression<?> placeholder,
+    @NonNull final String source,
+    @NonNull final Column<?> column
+  ) {
+    return combine(mix(System.identityHashCode(placeholder)), ofString(source), ofString(column.getName()));
+  }
+
+  /**
+   * Combine fingerprints in an order-sensitive way.
+   *
+   * @param fingerprints Fingerprints to combine.
+   *
+   * @return A fingerprint of the given sequence of fingerprints.
+   */
+  public static long combine (final long... fingerprints) {
+    long result = 1L;
+
+    for (final long fingerprint : fingerprints) {
+      result = mix(result * MULTIPLIER + fingerprint);
+    }
+
+    return result;
+  }
+}
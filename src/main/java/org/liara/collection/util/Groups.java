@@ -22,12 +22,13 @@
 
 package org.liara.collection.util;
 
-import com.google.common.collect.ImmutableList;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.collection.operator.grouping.Group;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 
 public class Groups
@@ -37,67 +38,60 @@ public class Groups
   public static final Groups EMPTY = new Groups();
 
   @NonNull
-  private final ImmutableList<@NonNull Group> _groups;
+  private final PersistentOrderedSet<@NonNull Group> _groups;
 
   public Groups (@NonNull final Group... groups) {
-    _groups = ImmutableList.copyOf(groups);
+    _groups = PersistentOrderedSet.of(Arrays.asList(groups).iterator());
   }
 
   public Groups (@NonNull final Iterator<@NonNull Group> groups) {
-    _groups = ImmutableList.copyOf(groups);
+    _groups = PersistentOrderedSet.of(groups);
   }
 
   public Groups (final java.util.@NonNull Collection<@NonNull Group> groups) {
-    _groups = ImmutableList.copyOf(groups);
+    _groups = PersistentOrderedSet.of(groups.iterator());
   }
 
-  public Groups (@NonNull final ImmutableList<@NonNull Group> groups) {
+  public Groups (@NonNull final PersistentOrderedSet<@NonNull Group> groups) {
     _groups = groups;
   }
 
   public Groups (@NonNull final Groups toCopy) {
-    _groups = toCopy.getGroups();
+    _groups = toCopy._groups;
   }
 
   public @NonNull Groups groupBy (@NonNull final Group group) {
-    if (_groups.contains(group)) {
-      return this;
-    } else {
-      final ImmutableList.@NonNull Builder<@NonNull Group> builder = ImmutableList.builder();
-      builder.addAll(_groups);
-      builder.add(group);
-
-      return new Groups(builder.build());
-    }
+    @NonNull final PersistentOrderedSet<@NonNull Group> result = _groups.add(group);
+    return (result == _groups) ? this : new Groups(result);
   }
 
   public @NonNull Groups remove (@NonNull final Group group) {
-    if (_groups.contains(group)) {
-      final ImmutableList.@NonNull Builder<@NonNull Group> builder = ImmutableList.builder();
-
-      for (@NonNull final Group toAdd : _groups) {
-        if (!group.equals(toAdd)) {
-          builder.add(toAdd);
-        }
-      }
-
-      return new Groups(builder.build());
-    } else {
-      return this;
-    }
+    @NonNull final PersistentOrderedSet<@NonNull Group> result = _groups.remove(group);
+    return (result == _groups) ? this : new Groups(result);
   }
 
   public @NonNull Groups clear () {
     return Groups.EMPTY;
   }
 
+  public boolean contains (@NonNull final Group group) {
+    return _groups.contains(group);
+  }
+
   @Override
-  public Iterator<@NonNull Group> iterator () {
+  public @NonNull Iterator<@NonNull Group> iterator () {
     return _groups.iterator();
   }
 
-  public @NonNull ImmutableList<@NonNull Group> getGroups () {
-    return _groups;
+  public @NonNull List<@NonNull Group> getGroups () {
+    return _groups.asList();
+  }
+
+  /**
+   * @return A 64-bit fingerprint of these groups.
+   */
+  public long getFingerprint () {
+    return _groups.getListFingerprint();
   }
 
   @Override
@@ -108,7 +102,7 @@ public class Groups
     if (other instanceof Groups) {
       @NonNull final Groups otherGroups = (Groups) other;
 
-      return Objects.equals(_groups, otherGroups.getGroups());
+      return hashCode() == otherGroups.hashCode() && Objects.equals(getGroups(), otherGroups.getGroups());
     }
 
     return false;
@@ -116,6 +110,6 @@ public class Groups
 
   @Override
   public int hashCode () {
-    return Objects.hash(_groups);
+    return Objects.hash(getGroups());
   }
 }
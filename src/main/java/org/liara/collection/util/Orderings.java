@@ -22,12 +22,13 @@
 
 package org.liara.collection.util;
 
-import com.google.common.collect.ImmutableList;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.collection.operator.ordering.Order;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 
 public class Orderings
@@ -37,67 +38,60 @@ public class Orderings
   public static final Orderings EMPTY = new Orderings();
 
   @NonNull
-  private final ImmutableList<@NonNull Order> _orderings;
+  private final PersistentOrderedSet<@NonNull Order> _orderings;
 
   public Orderings (@NonNull final Order... orders) {
-    _orderings = ImmutableList.copyOf(orders);
+    _orderings = PersistentOrderedSet.of(Arrays.asList(orders).iterator());
   }
 
   public Orderings (@NonNull final Iterator<@NonNull Order> orders) {
-    _orderings = ImmutableList.copyOf(orders);
+    _orderings = PersistentOrderedSet.of(orders);
   }
 
   public Orderings (final java.util.@NonNull Collection<@NonNull Order> orders) {
-    _orderings = ImmutableList.copyOf(orders);
+    _orderings = PersistentOrderedSet.of(orders.iterator());
   }
 
-  public Orderings (@NonNull final ImmutableList<@NonNull Order> orders) {
+  public Orderings (@NonNull final PersistentOrderedSet<@NonNull Order> orders) {
     _orderings = orders;
   }
 
   public Orderings (@NonNull final Orderings toCopy) {
-    _orderings = toCopy.getOrderings();
+    _orderings = toCopy._orderings;
   }
 
   public @NonNull Orderings orderBy (@NonNull final Order order) {
-    if (_orderings.contains(order)) {
-      return this;
-    } else {
-      final ImmutableList.@NonNull Builder<@NonNull Order> builder = ImmutableList.builder();
-      builder.addAll(_orderings);
-      builder.add(order);
-
-      return new Orderings(builder.build());
-    }
+    @NonNull final PersistentOrderedSet<@NonNull Order> result = _orderings.add(order);
+    return (result == _orderings) ? this : new Orderings(result);
   }
 
   public @NonNull Orderings remove (@NonNull final Order order) {
-    if (_orderings.contains(order)) {
-      final ImmutableList.@NonNull Builder<@NonNull Order> builder = ImmutableList.builder();
-
-      for (@NonNull final Order toAdd : _orderings) {
-        if (!order.equals(toAdd)) {
-          builder.add(toAdd);
-        }
-      }
-
-      return new Orderings(builder.build());
-    } else {
-      return this;
-    }
+    @NonNull final PersistentOrderedSet<@NonNull Order> result = _orderings.remove(order);
+    return (result == _orderings) ? this : new Orderings(result);
   }
 
   public @NonNull Orderings clear () {
     return Orderings.EMPTY;
   }
 
+  public boolean contains (@NonNull final Order order) {
+    return _orderings.contains(order);
+  }
+
   @Override
-  public Iterator<@NonNull Order> iterator () {
+  public @NonNull Iterator<@NonNull Order> iterator () {
     return _orderings.iterator();
   }
 
-  public @NonNull ImmutableList<@NonNull Order> getOrderings () {
-    return _orderings;
+  public @NonNull List<@NonNull Order> getOrderings () {
+    return _orderings.asList();
+  }
+
+  /**
+   * @return A 64-bit fingerprint of these orderings.
+   */
+  public long getFingerprint () {
+    return _orderings.getListFingerprint();
   }
 
   @Override
@@ -108,7 +102,7 @@ public class Orderings
     if (other instanceof Orderings) {
       @NonNull final Orderings otherOrderings = (Orderings) other;
 
-      return Objects.equals(_orderings, otherOrderings.getOrderings());
+      return hashCode() == otherOrderings.hashCode() && Objects.equals(getOrderings(), otherOrderings.getOrderings());
     }
 
     return false;
@@ -116,6 +110,6 @@ public class Orderings
 
   @Override
   public int hashCode () {
-    return Objects.hash(_orderings);
+    return Objects.hash(getOrderings());
   }
 }
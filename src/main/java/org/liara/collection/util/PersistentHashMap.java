@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.util;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable hash array mapped trie.
+ *
+ * Each update returns a new map that shares all of its unchanged nodes with this one. Lookups and updates visit at
+ * most seven levels of 32-way nodes, keys that share a full hash code are stored into collision nodes.
+ *
+ * Keys and values must not be null.
+ *
+ * @param <Key>   Type of the keys of the map.
+ * @param <Value> Type of the values of the map.
+ */
+public final class PersistentHashMap<Key, Value>
+{
+  @NonNull
+  private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+  private static final int BITS = 5;
+
+  private static final int MASK = (1 << BITS) - 1;
+
+  @Nullable
+  private final Node<Key, Value> _root;
+
+  @NonNegative
+  private final int _size;
+
+  private PersistentHashMap (@Nullable final Node<Key, Value> root, @NonNegative final int size) {
+    _root = root;
+    _size = size;
+  }
+
+  /**
+   * @param <Key>   Type of the keys of the map.
+   * @param <Value> Type of the values of the map.
+   *
+   * @return An empty map.
+   */
+  @SuppressWarnings("unchecked")
+  public static <Key, Value> @NonNull PersistentHashMap<Key, Value> empty () {
+    return (PersistentHashMap<Key, Value>) EMPTY;
+  }
+
+  private static int hash (@NonNull final Object key) {
+    final int hash = key.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Return the value associated with a key.
+   *
+   * @param key A key to search for.
+   *
+   * @return The value associated with the given key, or null if the key is not in this map.
+   */
+  public @Nullable Value get (@NonNull final Object key) {
+    return (_root == null) ? null : _root.get(key, hash(key), 0);
+  }
+
+  /**
+   * @param key A key to search for.
+   *
+   * @return True if the given key is in this map.
+   */
+  public boolean containsKey (@NonNull final Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Return a map that associates a key with a value.
+   *
+   * @param key   A key.
+   * @param value A value to associate with the key.
+   *
+   * @return A map that associates the given key with the given value, this map if it already does.
+   */
+  public @NonNull PersistentHashMap<Key, Value> put (@NonNull final Key key, @NonNull final Value value) {
+    @NonNull final boolean[] added = new boolean[1];
+    @NonNull final Node<Key, Value> root = (_root == null) ? new BitmapNode<>(0, new Object[0])
+                                                           : _root;
+    @NonNull final Node<Key, Value> result = root.put(key, value, hash(key), 0, added);
+
+    if (result == _root) return this;
+
+    return new PersistentHashMap<>(result, added[0] ? _size + 1 : _size);
+  }
+
+  /**
+   * Return a map without a key.
+   *
+   * @param key A key to remove.
+   *
+   * @return A map without the given key, this map if it does not contain the key.
+   */
+  public @NonNull PersistentHashMap<Key, Value> remove (@NonNull final Object key) {
+    if (_root == null) return this;
+
+    @Nullable final Node<Key, Value> result = _root.remove(key, hash(key), 0);
+
+    if (result == _root) return this;
+
+    return (result == null) ? empty() : new PersistentHashMap<>(result, _size - 1);
+  }
+
+  /**
+   * Call the given action for each entry of this map.
+   *
+   * @param action An action to call.
+   */
+  public void forEach (@NonNull final BiConsumer<? super Key, ? super Value> action) {
+    if (_root != null) _root.forEach(action);
+  }
+
+  /**
+   * @return The number of entries of this map.
+   */
+  public @NonNegative int size () {
+    return _size;
+  }
+
+  /**
+   * @return True if this map does not have any entry.
+   */
+  public boolean isEmpty () {
+    return _size == 0;
+  }
+
+  private interface Node<Key, Value>
+  {
+    @Nullable Value get (@NonNull final Object key, final int hash, final int shift);
+
+    @NonNull Node<Key, Value> put (
+      @NonNull final Key key,
+      @NonNull final Value value,
+      final int hash,
+      final int shift,
+      @NonNull final boolean[] added
+    );
+
+    @Nullable Node<Key, Value> remove (@NonNull final Object key, final int hash, final int shift);
+
+    void forEach (@NonNull final BiConsumer<? super Key, ? super Value> action);
+  }
+
+  /**
+   * A node that stores, for each used slot, either a key and its value or null and a child node.
+   */
+  private static final class BitmapNode<Key, Value>
+    implements Node<Key, Value>
+  {
+    private final int _bitmap;
+
+    @NonNull
+    private final Object[] _array;
+
+    BitmapNode (final int bitmap, @NonNull final Object[] array) {
+      _bitmap = bitmap;
+      _array = array;
+    }
+
+    private int indexOf (final int bit) {
+      return 2 * Integer.bitCount(_bitmap & (bit - 1));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nullable Value get (@NonNull final Object key, final int hash, final int shift) {
+      final int bit = 1 << ((hash >>> shift) & MASK);
+
+      if ((_bitmap & bit) == 0) return null;
+
+      final int index = indexOf(bit);
+      @Nullable final Object storedKey = _array[index];
+
+      if (storedKey == null) {
+        return ((Node<Key, Value>) _array[index + 1]).get(key, hash, shift + BITS);
+      }
+
+      return key.equals(storedKey) ? (Value) _array[index + 1] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NonNull Node<Key, Value> put (
+      @NonNull final Key key,
+      @NonNull final Value value,
+      final int hash,
+      final int shift,
+      @NonNull final boolean[] added
+    ) {
+      final int bit = 1 << ((hash >>> shift) & MASK);
+      final int index = indexOf(bit);
+
+      if ((_bitmap & bit) == 0) {
+        @NonNull final Object[] array = new Object[_array.length + 2];
+        System.arraycopy(_array, 0, array, 0, index);
+        array[index] = key;
+        array[index + 1] = value;
+        System.arraycopy(_array, index, array, index + 2, _array.length - index);
+        added[0] = true;
+
+        return new BitmapNode<>(_bitmap | bit, array);
+      }
+
+      @Nullable final Object storedKey = _array[index];
+      @NonNull final Object storedValue = _array[index + 1];
+
+      if (storedKey == null) {
+        @NonNull final Node<Key, Value> child = (Node<Key, Value>) storedValue;
+        @NonNull final Node<Key, Value> result = child.put(key, value, hash, shift + BITS, added);
+
+        return (result == child) ? this : with(index, null, result);
+      }
+
+      if (key.equals(storedKey)) {
+        return (value == storedValue) ? this : with(index, storedKey, value);
+      }
+
+      added[0] = true;
+
+      return with(
+        index,
+        null,
+        createNode((Key) storedKey, (Value) storedValue, key, value, hash, shift + BITS)
+      );
+    }
+
+    private @NonNull BitmapNode<Key, Value> with (
+      final int index,
+      @Nullable final Object key,
+      @NonNull final Object value
+    ) {
+      @NonNull final Object[] array = Arrays.copyOf(_array, _array.length);
+      array[index] = key;
+      array[index + 1] = value;
+
+      return new BitmapNode<>(_bitmap, array);
+    }
+
+    private static <Key, Value> @NonNull Node<Key, Value> createNode (
+      @NonNull final Key left,
+      @NonNull final Value leftValue,
+      @NonNull final Key right,
+      @NonNull final Value rightValue,
+      final int rightHash,
+      final int shift
+    ) {
+      final int leftHash = hash(left);
+
+      if (leftHash == rightHash) {
+        return new CollisionNode<>(leftHash, new Object[] {left, leftValue, right, rightValue});
+      }
+
+      @NonNull final boolean[] added = new boolean[1];
+
+      return new BitmapNode<Key, Value>(0, new Object[0]).put(left, leftValue, leftHash, shift, added)
+                                                         .put(right, rightValue, rightHash, shift, added);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nullable Node<Key, Value> remove (@NonNull final Object key, final int hash, final int shift) {
+      final int bit = 1 << ((hash >>> shift) & MASK);
+
+      if ((_bitmap & bit) == 0) return this;
+
+      final int index = indexOf(bit);
+      @Nullable final Object storedKey = _array[index];
+
+      if (storedKey == null) {
+        @NonNull final Node<Key, Value> child = (Node<Key, Value>) _array[index + 1];
+        @Nullable final Node<Key, Value> result = child.remove(key, hash, shift + BITS);
+
+        if (result == child) return this;
+        if (result != null) return with(index, null, result);
+      } else if (!key.equals(storedKey)) {
+        return this;
+      }
+
+      if (_bitmap == bit) return null;
+
+      @NonNull final Object[] array = new Object[_array.length - 2];
+      System.arraycopy(_array, 0, array, 0, index);
+      System.arraycopy(_array, index + 2, array, index, _array.length - index - 2);
+
+      return new BitmapNode<>(_bitmap ^ bit, array);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach (@NonNull final BiConsumer<? super Key, ? super Value> action) {
+      for (int index = 0; index < _array.length; index += 2) {
+        if (_array[index] == null) {
+          ((Node<Key, Value>) _array[index + 1]).forEach(action);
+        } else {
+          action.accept((Key) _array[index], (Value) _array[index + 1]);
+        }
+      }
+    }
+  }
+
+  /**
+   * A node that stores keys that share the same hash code.
+   */
+  private static final class CollisionNode<Key, Value>
+    implements Node<Key, Value>
+  {
+    private final int _hash;
+
+    @NonNull
+    private final Object[] _array;
+
+    CollisionNode (final int hash, @NonNull final Object[] array) {
+      _hash = hash;
+      _array = array;
+    }
+
+    private int indexOf (@NonNull final Object key) {
+      for (int index = 0; index < _array.length; index += 2) {
+        if (key.equals(_array[index])) return index;
+      }
+
+      return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nullable Value get (@NonNull final Object key, final int hash, final int shift) {
+      final int index = indexOf(key);
+      return (index < 0) ? null : (Value) _array[index + 1];
+    }
+
+    @Override
+    public @NonNull Node<Key, Value> put (
+      @NonNull final Key key,
+      @NonNull final Value value,
+      final int hash,
+      final int shift,
+      @NonNull final boolean[] added
+    ) {
+      if (hash != _hash) {
+        return new BitmapNode<Key, Value>(
+          1 << ((_hash >>> shift) & MASK),
+          new Object[] {null, this}
+        ).put(key, value, hash, shift, added);
+      }
+
+      final int index = indexOf(key);
+
+      if (index >= 0) {
+        if (_array[index + 1] == value) return this;
+
+        @NonNull final Object[] array = Arrays.copyOf(_array, _array.length);
+        array[index + 1] = value;
+
+        return new CollisionNode<>(_hash, array);
+      }
+
+      @NonNull final Object[] array = Arrays.copyOf(_array, _array.length + 2);
+      array[_array.length] = key;
+      array[_array.length + 1] = value;
+      added[0] = true;
+
+      return new CollisionNode<>(_hash, array);
+    }
+
+    @Override
+    public @Nullable Node<Key, Value> remove (@NonNull final Object key, final int hash, final int shift) {
+      final int index = indexOf(key);
+
+      if (index < 0) return this;
+      if (_array.length == 2) return null;
+
+      @NonNull final Object[] array = new Object[_array.length - 2];
+      System.arraycopy(_array, 0, array, 0, index);
+      System.arraycopy(_array, index + 2, array, index, _array.length - index - 2);
+
+      return new CollisionNode<>(_hash, array);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach (@NonNull final BiConsumer<? super Key, ? super Value> action) {
+      for (int index = 0; index < _array.length; index += 2) {
+        action.accept((Key) _array[index], (Value) _array[index + 1]);
+      }
+    }
+  }
+}
@@ -0,0 +1,546 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.util;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set that keeps the insertion order of its elements.
+ *
+ * Elements are indexed by a hash array mapped trie that maps each element to its insertion sequence number, and are
+ * ordered by a size-augmented AVL tree keyed by sequence number. Adding and removing an element cost O(log n) and
+ * share all unchanged nodes with the previous set, membership tests cost O(1) and positional accesses O(log n).
+ * The set and list hash codes of the set, and their 64-bit fingerprints, are maintained along each update.
+ *
+ * Elements must not be null.
+ *
+ * @param <Element> Type of the elements of the set.
+ */
+public final class PersistentOrderedSet<Element>
+  implements Iterable<@NonNull Element>
+{
+  @NonNull
+  private static final PersistentOrderedSet<?> EMPTY = new PersistentOrderedSet<>(
+    PersistentHashMap.empty(), null, 0, 0, 0L
+  );
+
+  @NonNull
+  private final PersistentHashMap<@NonNull Element, @NonNull Long> _sequences;
+
+  @Nullable
+  private final Node<Element> _root;
+
+  private final long _next;
+
+  /**
+   * Sum of the hash codes of the elements of this set.
+   */
+  private final int _setHash;
+
+  /**
+   * Sum of the fingerprints of the elements of this set.
+   */
+  private final long _setFingerprint;
+
+  private PersistentOrderedSet (
+    @NonNull final PersistentHashMap<@NonNull Element, @NonNull Long> sequences,
+    @Nullable final Node<Element> root,
+    final long next,
+    final int setHash,
+    final long setFingerprint
+  ) {
+    _sequences = sequences;
+    _root = root;
+    _next = next;
+    _setHash = setHash;
+    _setFingerprint = setFingerprint;
+  }
+
+  /**
+   * @param <Element> Type of the elements of the set.
+   *
+   * @return An empty set.
+   */
+  @SuppressWarnings("unchecked")
+  public static <Element> @NonNull PersistentOrderedSet<Element> empty () {
+    return (PersistentOrderedSet<Element>) EMPTY;
+  }
+
+  /**
+   * Return a set that contains the given elements in iteration order.
+   *
+   * @param elements Elements to add.
+   * @param <Element> Type of the elements of the set.
+   *
+   * @return A set that contains the given elements.
+   */
+  public static <Element> @NonNull PersistentOrderedSet<Element> of (
+    @NonNull final Iterator<? extends @NonNull Element> elements
+  ) {
+    @NonNull PersistentOrderedSet<Element> result = empty();
+
+    while (elements.hasNext()) {
+      result = result.add(elements.next());
+    }
+
+    return result;
+  }
+
+  /**
+   * Return a set with an element added at its end.
+   *
+   * @param element An element to add.
+   *
+   * @return A set that contains the given element, this set if it already contains it.
+   */
+  public @NonNull PersistentOrderedSet<Element> add (@NonNull final Element element) {
+    if (_sequences.containsKey(element)) return this;
+
+    @NonNull final Node<Element> leaf = new Node<>(_next, element);
+
+    return new PersistentOrderedSet<>(
+      _sequences.put(element, _next),
+      Node.insert(_root, leaf),
+      _next + 1,
+      _setHash + leaf.elementHash,
+      _setFingerprint + leaf.elementFingerprint
+    );
+  }
+
+  /**
+   * Return a set without an element.
+   *
+   * @param element An element to remove.
+   *
+   * @return A set that does not contain the given element, this set if it does not contain it.
+   */
+  public @NonNull PersistentOrderedSet<Element> remove (@NonNull final Object element) {
+    @Nullable final Long sequence = _sequences.get(element);
+
+    if (sequence == null) return this;
+    if (_sequences.size() == 1) return empty();
+
+    return new PersistentOrderedSet<>(
+      _sequences.remove(element),
+      Node.remove(_root, sequence),
+      _next,
+      _setHash - element.hashCode(),
+      _setFingerprint - Fingerprints.of(element)
+    );
+  }
+
+  /**
+   * @param element An element to search for.
+   *
+   * @return True if this set contains the given element.
+   */
+  public boolean contains (@NonNull final Object element) {
+    return _sequences.containsKey(element);
+  }
+
+  /**
+   * Return the element at the given position.
+   *
+   * @param index A position in insertion order.
+   *
+   * @return The element at the given position.
+   */
+  public @NonNull Element get (@NonNegative final int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException(
+        "Unable to get the element at the index " + index + " because the set contains " +
+        size() + " elements."
+      );
+    }
+
+    return Node.get(_root, index);
+  }
+
+  /**
+   * @return The number of elements of this set.
+   */
+  public @NonNegative int size () {
+    return _sequences.size();
+  }
+
+  /**
+   * @return True if this set does not contain any element.
+   */
+  public boolean isEmpty () {
+    return _sequences.isEmpty();
+  }
+
+  /**
+   * @return The hash code of this set as defined by {@link Set#hashCode()}.
+   */
+  public int getSetHashCode () {
+    return _setHash;
+  }
+
+  /**
+   * @return The hash code of this set as defined by {@link List#hashCode()}.
+   */
+  public int getListHashCode () {
+    return Node.hashPower(_root) + Node.hash(_root);
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this set that does not depend on the order of its elements.
+   */
+  public long getSetFingerprint () {
+    return _setFingerprint;
+  }
+
+  /**
+   * @return A 64-bit fingerprint of this set that depends on the order of its elements.
+   */
+  public long getListFingerprint () {
+    return Node.fingerprintPower(_root) + Node.fingerprint(_root);
+  }
+
+  /**
+   * @see Iterable#iterator()
+   */
+  @Override
+  public @NonNull Iterator<@NonNull Element> iterator () {
+    return new NodeIterator<>(_root);
+  }
+
+  /**
+   * @return An unmodifiable set view of this set.
+   */
+  public @NonNull Set<@NonNull Element> asSet () {
+    return new SetView();
+  }
+
+  /**
+   * @return An unmodifiable list view of this set.
+   */
+  public @NonNull List<@NonNull Element> asList () {
+    return new ListView();
+  }
+
+  private final class SetView
+    extends AbstractSet<@NonNull Element>
+  {
+    @Override
+    public @NonNull Iterator<@NonNull Element> iterator () {
+      return PersistentOrderedSet.this.iterator();
+    }
+
+    @Override
+    public int size () {
+      return PersistentOrderedSet.this.size();
+    }
+
+    @Override
+    public boolean contains (@Nullable final Object element) {
+      return element != null && PersistentOrderedSet.this.contains(element);
+    }
+
+    @Override
+    public int hashCode () {
+      return getSetHashCode();
+    }
+
+    @Override
+    public boolean equals (@Nullable final Object other) {
+      if (other instanceof PersistentOrderedSet.SetView && other.hashCode() != hashCode()) return false;
+      return super.equals(other);
+    }
+  }
+
+  private final class ListView
+    extends AbstractList<@NonNull Element>
+  {
+    @Override
+    public @NonNull Element get (final int index) {
+      return PersistentOrderedSet.this.get(index);
+    }
+
+    @Override
+    public @NonNull Iterator<@NonNull Element> iterator () {
+      return PersistentOrderedSet.this.iterator();
+    }
+
+    @Override
+    public int size () {
+      return PersistentOrderedSet.this.size();
+    }
+
+    @Override
+    public boolean contains (@Nullable final Object element) {
+      return element != null && PersistentOrderedSet.this.contains(element);
+    }
+
+    @Override
+    public int hashCode () {
+      return getListHashCode();
+    }
+
+    @Override
+    public boolean equals (@Nullable final Object other) {
+      if (other instanceof PersistentOrderedSet.ListView && other.hashCode() != hashCode()) return false;
+      return super.equals(other);
+    }
+  }
+
+  /**
+   * A node of a size-augmented AVL tree keyed by sequence number.
+   *
+   * Each node also keeps the list hash code and the list fingerprint of its subtree, so that both can be maintained
+   * along the path that an update rebuilds.
+   */
+  private static final class Node<Element>
+  {
+    final long sequence;
+
+    @NonNull
+    final Element element;
+
+    final int elementHash;
+
+    final long elementFingerprint;
+
+    @Nullable
+    final Node<Element> left;
+
+    @Nullable
+    final Node<Element> right;
+
+    final int height;
+
+    final int size;
+
+    /**
+     * Sum of the hash codes of the elements of the subtree, each multiplied by 31 to the power of its distance to
+     * the end of the subtree.
+     */
+    final int hash;
+
+    /**
+     * 31 to the power of the size of the subtree.
+     */
+    final int hashPower;
+
+    /**
+     * Same as {@link #hash} for fingerprints and {@link Fingerprints#MULTIPLIER}.
+     */
+    final long fingerprint;
+
+    /**
+     * Same as {@link #hashPower} for fingerprints and {@link Fingerprints#MULTIPLIER}.
+     */
+    final long fingerprintPower;
+
+    Node (final long sequence, @NonNull final Element element) {
+      this.sequence = sequence;
+      this.element = element;
+      this.elementHash = element.hashCode();
+      this.elementFingerprint = Fingerprints.of(element);
+      this.left = null;
+      this.right = null;
+      this.height = 1;
+      this.size = 1;
+      this.hash = elementHash;
+      this.hashPower = 31;
+      this.fingerprint = elementFingerprint;
+      this.fingerprintPower = Fingerprints.MULTIPLIER;
+    }
+
+    Node (
+      @NonNull final Node<Element> value,
+      @Nullable final Node<Element> left,
+      @Nullable final Node<Element> right
+    ) {
+      this.sequence = value.sequence;
+      this.element = value.element;
+      this.elementHash = value.elementHash;
+      this.elementFingerprint = value.elementFingerprint;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = size(left) + size(right) + 1;
+      this.hash = (hash(left) * 31 + elementHash) * hashPower(right) + hash(right);
+      this.hashPower = hashPower(left) * 31 * hashPower(right);
+      this.fingerprint = (
+        (fingerprint(left) * Fingerprints.MULTIPLIER + elementFingerprint) * fingerprintPower(right) +
+        fingerprint(right)
+      );
+      this.fingerprintPower = fingerprintPower(left) * Fingerprints.MULTIPLIER * fingerprintPower(right);
+    }
+
+    static int height (@Nullable final Node<?> node) {
+      return (node == null) ? 0 : node.height;
+    }
+
+    static int size (@Nullable final Node<?> node) {
+      return (node == null) ? 0 : node.size;
+    }
+
+    static int hash (@Nullable final Node<?> node) {
+      return (node == null) ? 0 : node.hash;
+    }
+
+    static int hashPower (@Nullable final Node<?> node) {
+      return (node == null) ? 1 : node.hashPower;
+    }
+
+    static long fingerprint (@Nullable final Node<?> node) {
+      return (node == null) ? 0L : node.fingerprint;
+    }
+
+    static long fingerprintPower (@Nullable final Node<?> node) {
+      return (node == null) ? 1L : node.fingerprintPower;
+    }
+
+    static <Element> @NonNull Node<Element> insert (
+      @Nullable final Node<Element> node,
+      @NonNull final Node<Element> leaf
+    ) {
+      if (node == null) return leaf;
+
+      if (leaf.sequence < node.sequence) {
+        return balance(node, insert(node.left, leaf), node.right);
+      } else {
+        return balance(node, node.left, insert(node.right, leaf));
+      }
+    }
+
+    static <Element> @Nullable Node<Element> remove (@Nullable final Node<Element> node, final long sequence) {
+      if (node == null) return null;
+
+      if (sequence < node.sequence) {
+        return balance(node, remove(node.left, sequence), node.right);
+      } else if (sequence > node.sequence) {
+        return balance(node, node.left, remove(node.right, sequence));
+      } else if (node.left == null) {
+        return node.right;
+      } else if (node.right == null) {
+        return node.left;
+      } else {
+        @NonNull Node<Element> successor = node.right;
+        while (successor.left != null) successor = successor.left;
+
+        return balance(successor, node.left, remove(node.right, successor.sequence));
+      }
+    }
+
+    static <Element> @NonNull Element get (@NonNull final Node<Element> root, @NonNegative final int index) {
+      @NonNull Node<Element> node = root;
+      int remaining = index;
+
+      while (true) {
+        final int leftSize = size(node.left);
+
+        if (remaining < leftSize) {
+          node = node.left;
+        } else if (remaining == leftSize) {
+          return node.element;
+        } else {
+          remaining -= leftSize + 1;
+          node = node.right;
+        }
+      }
+    }
+
+    private static <Element> @NonNull Node<Element> balance (
+      @NonNull final Node<Element> value,
+      @Nullable final Node<Element> left,
+      @Nullable final Node<Element> right
+    ) {
+      final int difference = height(left) - height(right);
+
+      if (difference > 1) {
+        if (height(left.left) >= height(left.right)) {
+          return new Node<>(left, left.left, new Node<>(value, left.right, right));
+        } else {
+          return new Node<>(
+            left.right,
+            new Node<>(left, left.left, left.right.left),
+            new Node<>(value, left.right.right, right)
+          );
+        }
+      } else if (difference < -1) {
+        if (height(right.right) >= height(right.left)) {
+          return new Node<>(right, new Node<>(value, left, right.left), right.right);
+        } else {
+          return new Node<>(
+            right.left,
+            new Node<>(value, left, right.left.left),
+            new Node<>(right, right.left.right, right.right)
+          );
+        }
+      }
+
+      return new Node<>(value, left, right);
+    }
+  }
+
+  /**
+   * An in-order iterator over a tree.
+   */
+  private static final class NodeIterator<Element>
+    implements Iterator<@NonNull Element>
+  {
+    @NonNull
+    private final Deque<@NonNull Node<Element>> _stack;
+
+    NodeIterator (@Nullable final Node<Element> root) {
+      _stack = new ArrayDeque<>();
+      pushLeft(root);
+    }
+
+    private void pushLeft (@Nullable final Node<Element> node) {
+      for (@Nullable Node<Element> current = node; current != null; current = current.left) {
+        _stack.push(current);
+      }
+    }
+
+    @Override
+    public boolean hasNext () {
+      return !_stack.isEmpty();
+    }
+
+    @Override
+    public @NonNull Element next () {
+      if (_stack.isEmpty()) throw new NoSuchElementException();
+
+      @NonNull final Node<Element> node = _stack.pop();
+      pushLeft(node.right);
+
+      return node.element;
+    }
+  }
+}
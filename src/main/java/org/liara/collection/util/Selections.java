@@ -22,12 +22,13 @@
 
 package org.liara.collection.util;
 
-import com.google.common.collect.ImmutableList;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.liara.collection.operator.selection.Select;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 
 public class Selections
@@ -37,67 +38,151 @@ public class Selections
   public static final Selections EMPTY = new Selections();
 
   @NonNull
-  private final ImmutableList<@NonNull Select> _selects;
+  private final PersistentOrderedSet<@NonNull Select> _selects;
+
+  /**
+   * The first selection of each name, in insertion order.
+   */
+  @NonNull
+  private final PersistentHashMap<@NonNull String, @NonNull Select> _names;
 
   public Selections (@NonNull final Select... selects) {
-    _selects = ImmutableList.copyOf(selects);
+    _selects = PersistentOrderedSet.of(Arrays.asList(selects).iterator());
+    _names = index(_selects);
   }
 
-  public Selections (@NonNull final Iterator<@NonNull Select> selections) {
-    _selects = ImmutableList.copyOf(selections);
+  public Selections (@NonNull final Iterator<@NonNull Select> selects) {
+    _selects = PersistentOrderedSet.of(selects);
+    _names = index(_selects);
   }
 
   public Selections (final java.util.@NonNull Collection<@NonNull Select> selects) {
-    _selects = ImmutableList.copyOf(selects);
+    _selects = PersistentOrderedSet.of(selects.iterator());
+    _names = index(_selects);
+  }
+
+  public Selections (@NonNull final PersistentOrderedSet<@NonNull Select> selects) {
+    _selects = selects;
+    _names = index(selects);
   }
 
-  public Selections (@NonNull final ImmutableList<@NonNull Select> selects) {
+  private Selections (
+    @NonNull final PersistentOrderedSet<@NonNull Select> selects,
+    @NonNull final PersistentHashMap<@NonNull String, @NonNull Select> names
+  ) {
     _selects = selects;
+    _names = names;
+  }
+
+  private static @NonNull PersistentHashMap<@NonNull String, @NonNull Select> index (
+    @NonNull final PersistentOrderedSet<@NonNull Select> selects
+  ) {
+    @NonNull PersistentHashMap<@NonNull String, @NonNull Select> result = PersistentHashMap.empty();
+
+    for (@NonNull final Select select : selects) {
+      @Nullable final String name = select.getName();
+
+      if (name != null && !result.containsKey(name)) {
+        result = result.put(name, select);
+      }
+    }
+
+    return result;
   }
 
   public Selections (@NonNull final Selections toCopy) {
-    _selects = toCopy.getSelects();
+    _selects = toCopy._selects;
+    _names = toCopy._names;
   }
 
   public @NonNull Selections select (@NonNull final Select select) {
-    if (_selects.contains(select)) {
-      return this;
-    } else {
-      final ImmutableList.@NonNull Builder<@NonNull Select> builder = ImmutableList.builder();
-      builder.addAll(_selects);
-      builder.add(select);
+    @NonNull final PersistentOrderedSet<@NonNull Select> result = _selects.add(select);
+
+    if (result == _selects) return this;
 
-      return new Selections(builder.build());
+    @Nullable final String name = select.getName();
+
+    if (name == null || _names.containsKey(name)) {
+      return new Selections(result, _names);
+    } else {
+      return new Selections(result, _names.put(name, select));
     }
   }
 
   public @NonNull Selections remove (@NonNull final Select select) {
-    if (_selects.contains(select)) {
-      final ImmutableList.@NonNull Builder<@NonNull Select> builder = ImmutableList.builder();
+    @NonNull final PersistentOrderedSet<@NonNull Select> result = _selects.remove(select);
 
-      for (@NonNull final Select toAdd : _selects) {
-        if (!select.equals(toAdd)) {
-          builder.add(toAdd);
-        }
+    if (result == _selects) return this;
+
+    @Nullable final String name = select.getName();
+
+    if (name == null || !select.equals(_names.get(name))) {
+      return new Selections(result, _names);
+    }
+
+    @NonNull PersistentHashMap<@NonNull String, @NonNull Select> names = _names.remove(name);
+
+    for (@NonNull final Select candidate : result) {
+      if (name.equals(candidate.getName())) {
+        names = names.put(name, candidate);
+        break;
       }
+    }
 
-      return new Selections(builder.build());
-    } else {
-      return this;
+    return new Selections(result, names);
+  }
+
+  /**
+   * Return the first selection with the given name.
+   *
+   * @param name The name of the selection to return.
+   *
+   * @return The first selection with the given name.
+   */
+  public @NonNull Select<?> getSelection (@NonNull final String name) {
+    @Nullable final Select<?> result = _names.get(name);
+
+    if (result == null) {
+      throw new IllegalArgumentException(
+        "Unable to get the selection named " + name + " because the collection does not contain " +
+        "any selection of this name."
+      );
     }
+
+    return result;
+  }
+
+  /**
+   * @param name A name to search for.
+   *
+   * @return True if this set contains a selection with the given name.
+   */
+  public boolean hasSelection (@NonNull final String name) {
+    return _names.containsKey(name);
   }
 
   public @NonNull Selections clear () {
     return Selections.EMPTY;
   }
 
+  public boolean contains (@NonNull final Select select) {
+    return _selects.contains(select);
+  }
+
   @Override
-  public Iterator<@NonNull Select> iterator () {
+  public @NonNull Iterator<@NonNull Select> iterator () {
     return _selects.iterator();
   }
 
-  public @NonNull ImmutableList<@NonNull Select> getSelects () {
-    return _selects;
+  public @NonNull List<@NonNull Select> getSelects () {
+    return _selects.asList();
+  }
+
+  /**
+   * @return A 64-bit fingerprint of these selections.
+   */
+  public long getFingerprint () {
+    return _selects.getListFingerprint();
   }
 
   @Override
@@ -106,9 +191,9 @@ public class Selections
     if (other == this) return true;
 
     if (other instanceof Selections) {
-      @NonNull final Selections otherGroups = (Selections) other;
+      @NonNull final Selections otherSelections = (Selections) other;
 
-      return Objects.equals(_selects, otherGroups.getSelects());
+      return hashCode() == otherSelections.hashCode() && Objects.equals(getSelects(), otherSelections.getSelects());
     }
 
     return false;
@@ -116,6 +201,6 @@ public class Selections
 
   @Override
   public int hashCode () {
-    return Objects.hash(_selects);
+    return Objects.hash(getSelects());
   }
 }
@@ -22,6 +22,7 @@
 
 package org.liara.collection
 
+import org.liara.collection.operator.Composition
 import org.liara.collection.operator.Operator
 import org.liara.collection.operator.cursoring.Cursor
 import org.liara.collection.operator.filtering.Filter
@@ -220,4 +221,68 @@ class GraphCollectionSpecification
     groupedCollection.groups == Arrays.asList(groups)
     !groupedCollection.is(collection)
   }
+
+  def "it allows to remove an ordering of the collection" () {
+    given: "an ordered collection"
+    final Order first = Order.expression(Mockito.mock(Expression.class))
+    final Order second = Order.expression(Mockito.mock(Expression.class))
+    final GraphCollection collection = new GraphCollection(
+      Mockito.mock(GraphSource.class)
+    ).orderBy(first).orderBy(second)
+
+    when: "we remove an ordering of the collection"
+    final GraphCollection result = collection.removeOrder(first)
+
+    then: "we expect the ordering to be removed"
+    result.orderings == [second]
+    collection.orderings == [first, second]
+  }
+
+  def "a composition applied to a collection is identical to the application of each of its operators" () {
+    given: "a collection"
+    final GraphCollection collection = new GraphCollection(Mockito.mock(GraphSource.class))
+
+    and: "a composition of operators"
+    final Filter filter = Filter.expression(Mockito.mock(Expression.class))
+    final Order order = Order.expression(Mockito.mock(Expression.class))
+    final Group group = Group.expression(Mockito.mock(Expression.class))
+    final Composition composition = new Composition(
+      new Cursor(10, 5),
+      filter,
+      order,
+      group,
+      Filter.expression(Mockito.mock(Expression.class)),
+      filter
+    )
+
+    when: "we apply the composition to the collection"
+    final Collection result = composition.apply(collection)
+
+    then: "we expect the same result as applying each operator one after another"
+    GraphCollection expected = collection
+    for (int index = composition.size - 1; index >= 0; --index) {
+      expected = (GraphCollection) composition.getOperator(index).apply(expected)
+    }
+    result instanceof GraphCollection
+    result == expected
+    result.filters.size() == 2
+  }
+
+  def "it computes the same fingerprint for equal collections built in different ways" () {
+    given: "a source and some operators"
+    final GraphSource source = Mockito.mock(GraphSource.class)
+    final Filter first = Filter.expression(Mockito.mock(Expression.class))
+    final Filter second = Filter.expression(Mockito.mock(Expression.class))
+    final Order order = Order.expression(Mockito.mock(Expression.class))
+
+    when: "we build equal collections"
+    final GraphCollection left = new GraphCollection(source).addFilter(first).addFilter(second).orderBy(order)
+    final GraphCollection right = new GraphCollection(source).orderBy(order).addFilter(second).addFilter(first)
+
+    then: "we expect equal hash codes and fingerprints"
+    left == right
+    left.hashCode() == right.hashCode()
+    left.fingerprint == right.fingerprint
+    left.fingerprint != left.removeFilter(first).fingerprint
+  }
 }
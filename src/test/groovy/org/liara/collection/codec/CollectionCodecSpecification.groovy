@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.codec
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.operator.Composition
+import org.liara.collection.operator.cursoring.Cursor
+import org.liara.collection.operator.filtering.Filter
+import org.liara.collection.operator.grouping.Group
+import org.liara.collection.operator.ordering.Order
+import org.liara.collection.operator.selection.Select
+import org.liara.collection.source.GraphSource
+import org.liara.collection.source.JoinSource
+import org.liara.collection.source.Source
+import org.liara.collection.source.TableSource
+import org.liara.data.graph.Graph
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+import org.liara.expression.Constant
+import org.liara.expression.ExpressionFactory
+
+import java.nio.ByteBuffer
+import java.time.Duration
+
+class CollectionCodecSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("created_at").ofType(Primitives.DATE_TIME)
+           .column("name").ofType(Primitives.STRING)
+           .column("gender").ofType(Primitives.CHARACTER)
+           .endTable()
+
+    builder.table("roles")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user_identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    return builder.build()
+  }
+
+  def "it decodes the collections that it encodes" () {
+    given: "a collection over a join"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource roles = Source.from(graph.getTable("roles"))
+    final GraphSource source = JoinSource.inner(
+      users, roles, factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier"))
+    )
+    final GraphCollection collection = new GraphCollection(source)
+      .addFilter(Filter.expression(factory.greaterThan(users.getOwnPlaceholder("identifier"), factory.nonnull(5))))
+      .orderBy(Order.expression(users.getOwnPlaceholder("name")).descending())
+      .groupBy(Group.tumbling(users.getOwnPlaceholder("created_at"), Duration.ofMinutes(5)))
+      .select(Select.count(users.getOwnPlaceholder("identifier"), "count"))
+      .setCursor(new Cursor(20, 10))
+
+    when: "we encode and decode the collection"
+    final ByteBuffer buffer = new CollectionEncoder().encode(collection)
+    final GraphCollection result = new CollectionDecoder(graph).decodeCollection(buffer)
+
+    then: "we expect an equivalent collection"
+    buffer.remaining() == 0
+    result.source instanceof JoinSource
+    result.source.name == source.name
+    result.cursor == collection.cursor
+    result.filters.size() == 1
+    result.orderings.size() == 1
+    result.groups.size() == 1
+    result.getSelection("count") != null
+  }
+
+  def "it writes repeated nodes once" () {
+    given: "a composition that repeats the same filter"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final Filter filter = Filter.expression(
+      factory.greaterThan(users.getOwnPlaceholder("identifier"), factory.nonnull(5))
+    )
+
+    when: "we encode a composition with and without repetitions"
+    final CollectionEncoder encoder = new CollectionEncoder()
+    final int single = encoder.encode(new Composition(filter)).remaining()
+    final int repeated = encoder.encode(new Composition(filter, filter, filter)).remaining()
+
+    and: "we decode the repeated composition"
+    final Composition result = (Composition) new CollectionDecoder(graph).decodeOperator(
+      encoder.encode(new Composition(filter, filter, filter))
+    )
+
+    then: "we expect each repetition to be written as a reference"
+    repeated - single == 4
+    result.size == 3
+    result.getOperator(0).is(result.getOperator(2))
+  }
+
+  def "it encodes constants of each supported primitive type" () {
+    given: "a filter that compares a character column to a constant"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final Filter filter = Filter.expression(
+      factory.equal(users.getOwnPlaceholder("gender"), new Constant<>(Primitives.CHARACTER, 'M' as char))
+    )
+
+    when: "we encode and decode the filter"
+    final CollectionEncoder encoder = new CollectionEncoder()
+    final ByteBuffer buffer = encoder.encode(filter)
+    final byte[] encoded = new byte[buffer.remaining()]
+    buffer.duplicate().get(encoded)
+    final Filter result = (Filter) new CollectionDecoder(graph).decodeOperator(buffer)
+
+    and: "we encode the decoded filter again"
+    final ByteBuffer reencoded = encoder.encode(result)
+    final byte[] reencodedBytes = new byte[reencoded.remaining()]
+    reencoded.get(reencodedBytes)
+
+    then: "we expect the same document"
+    reencodedBytes == encoded
+  }
+}
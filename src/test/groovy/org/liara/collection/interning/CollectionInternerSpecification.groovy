@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.interning
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.operator.Composition
+import org.liara.collection.operator.cursoring.Cursor
+import org.liara.collection.operator.filtering.Filter
+import org.liara.collection.operator.sampling.Sample
+import org.liara.collection.operator.selection.AggregateSelect
+import org.liara.collection.operator.selection.Aggregation
+import org.liara.collection.source.TableSource
+import org.liara.collection.source.TableSourcePlaceholder
+import org.liara.data.graph.Table
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+import org.liara.expression.Expression
+import org.liara.support.view.View
+import org.mockito.Mockito
+
+class CollectionInternerSpecification
+  extends Specification
+{
+  Expression<Boolean> leaf () {
+    final Expression<Boolean> result = Mockito.mock(Expression.class)
+    Mockito.when(result.getChildren()).thenReturn(View.readonly(Expression.class))
+    return result
+  }
+
+  def "#intern returns the same instance for equal operators" () {
+    given: "an interner"
+    final CollectionInterner interner = new CollectionInterner()
+
+    and: "an expression"
+    final Expression<Boolean> expression = leaf()
+
+    expect: "equal operators to be interned into the same instance"
+    interner.intern(new Cursor(10, 20)).is(interner.intern(new Cursor(10, 20)))
+    interner.intern(Filter.expression(expression)).is(interner.intern(Filter.expression(expression)))
+    !interner.intern(Filter.expression(expression)).is(interner.intern(Filter.expression(leaf())))
+  }
+
+  def "#intern interns each operator of a composition" () {
+    given: "an interner"
+    final CollectionInterner interner = new CollectionInterner()
+
+    and: "a canonical filter"
+    final Expression<Boolean> expression = leaf()
+    final Filter filter = interner.intern(Filter.expression(expression))
+
+    when: "we intern a composition"
+    final Composition result = interner.intern(new Composition(Filter.expression(expression), new Cursor(0, 5)))
+
+    then: "we expect a composition of canonical operators"
+    result.getOperator(0).is(filter)
+    result.is(interner.intern(new Composition(Filter.expression(expression), new Cursor(0, 5))))
+  }
+
+  def "#intern redirects the placeholders of aggregate selections and of sample keys to canonical sources" () {
+    given: "an interner"
+    final CollectionInterner interner = new CollectionInterner()
+
+    and: "a table"
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("age").ofType(Primitives.INTEGER)
+           .endTable()
+    final Table table = builder.build().getTable("users")
+
+    and: "a collection over a source that is not canonical"
+    final TableSource source = new TableSource(table)
+    final GraphCollection collection = new GraphCollection(source).select(
+      new AggregateSelect<>(Aggregation.MAX, source.getOwnPlaceholder("age"), "oldest")
+    ).sample(Sample.bernoulli(0.5).setKey(source.getOwnPlaceholder("age")))
+
+    when: "we intern the collection"
+    final GraphCollection result = interner.intern(collection)
+
+    then: "we expect each placeholder to refer to the canonical source"
+    final TableSource canonical = interner.intern(new TableSource(table))
+    result.source.is(canonical)
+    final AggregateSelect<?> select = (AggregateSelect<?>) result.selections[0]
+    ((TableSourcePlaceholder<?>) select.expression).source.is(canonical)
+    ((TableSourcePlaceholder<?>) result.sample.key).source.is(canonical)
+
+    and: "we expect the interned selection to be canonical"
+    select.is(interner.intern(new AggregateSelect<>(Aggregation.MAX, source.getOwnPlaceholder("age"), "oldest")))
+  }
+}
@@ -24,9 +24,12 @@ package org.liara.collection.jpa
 
 import org.liara.collection.GraphCollection
 import org.liara.collection.Specification
+import org.liara.collection.metrics.QueryListener
+import org.liara.collection.metrics.QueryMetrics
 import org.liara.collection.operator.filtering.Filter
 import org.liara.collection.operator.grouping.Group
 import org.liara.collection.operator.ordering.Order
+import org.liara.collection.operator.sampling.Sample
 import org.liara.collection.operator.selection.Select
 import org.liara.collection.source.GraphSource
 import org.liara.collection.source.Source
@@ -36,6 +39,8 @@ import org.liara.data.graph.builder.StaticGraphBuilder
 import org.liara.data.primitive.Primitives
 import org.liara.expression.ExpressionFactory
 
+import java.time.Duration
+
 class JPACollectionDriverSpecification
   extends Specification
 {
@@ -279,6 +284,80 @@ class JPACollectionDriverSpecification
     !clause.present
   }
 
+  def "#getWhereClause samples the identifier column with the default seed when the sample does not specify them" () {
+    given: "a graph"
+    final Graph graph = getSomeGraph()
+
+    and: "a source"
+    final TableSource source = Source.from(graph.getTable("users"), "x")
+
+    and: "a sampled collection"
+    final GraphCollection collection = new GraphCollection(source).sample(Sample.bernoulli(0.25))
+
+    and: "a driver"
+    final JPACollectionDriver driver = new JPACollectionDriver()
+
+    when: "we call #getWhereClause on the given collection twice"
+    final Optional<String> first = driver.getWhereClause(collection)
+    final Optional<String> second = driver.getWhereClause(collection)
+
+    then: "we expect to get the same hash predicate over the identifier column"
+    first.present
+    first.get() == "MOD(ABS(CRC32(CONCAT(x.identifier, ':', 0))), 1000000) < 250000"
+    second == first
+  }
+
+  def "#getWhereClause rejects a sample without key over a table without identifier column" () {
+    given: "a table without identifier column"
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+    builder.table("events").column("name").ofType(Primitives.STRING).endTable()
+    final TableSource source = Source.from(builder.build().getTable("events"))
+
+    and: "a sampled collection"
+    final GraphCollection collection = new GraphCollection(source).sample(Sample.bernoulli(0.25))
+
+    when: "we call #getWhereClause on the given collection"
+    new JPACollectionDriver().getWhereClause(collection)
+
+    then: "we expect the driver to require an explicit key"
+    thrown(IllegalArgumentException)
+  }
+
+  def "#getFromClause renders the table sample of a dialect instead of the hash predicate" () {
+    given: "a graph"
+    final Graph graph = getSomeGraph()
+
+    and: "a source"
+    final TableSource source = Source.from(graph.getTable("users"), "x")
+
+    and: "a sampled collection"
+    final GraphCollection collection = new GraphCollection(source).sample(Sample.bernoulli(0.25).setSeed(3L))
+
+    and: "a driver with a dialect that has a sampling clause"
+    final SamplingDialect dialect = new SamplingDialect() {
+      @Override
+      boolean hasTableSample (final Sample sample) {
+        return true
+      }
+
+      @Override
+      void renderTableSample (final Sample sample, final StringBuilder output) {
+        output.append("TABLESAMPLE BERNOULLI(").append(sample.rate * 100).append(") REPEATABLE(")
+              .append(sample.effectiveSeed).append(")")
+      }
+
+      @Override
+      void renderSamplePredicate (final Sample sample, final CharSequence key, final StringBuilder output) {
+        throw new UnsupportedOperationException()
+      }
+    }
+    final JPACollectionDriver driver = new JPACollectionDriver(QueryListener.NONE, dialect)
+
+    expect: "the sample to be rendered in the from clause only"
+    driver.getFromClause(collection) == "users AS x TABLESAMPLE BERNOULLI(25.0) REPEATABLE(3)"
+    !driver.getWhereClause(collection).present
+  }
+
   def "#getGroupingClause returns an empty grouping clause for an ungrouped collection" () {
     given: "a graph"
     final Graph graph = getSomeGraph()
@@ -330,6 +409,55 @@ class JPACollectionDriverSpecification
     clause.get() == "x.identifier % 5, x.name"
   }
 
+  def "#getGroupingClause renders the start of tumbling windows on the type of their timestamp" () {
+    given: "a graph with a numeric timestamp"
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+    builder.table("events")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("time").ofType(Primitives.LONG)
+           .column("created_at").ofType(Primitives.DATE_TIME)
+           .endTable()
+    final TableSource source = Source.from(builder.build().getTable("events"), "x")
+
+    and: "a driver"
+    final JPACollectionDriver driver = new JPACollectionDriver()
+
+    expect: "numeric timestamps to be divided as is and date-times to be converted by the dialect"
+    driver.getGroupingClause(
+      new GraphCollection(source).groupBy(Group.tumbling(source.getOwnPlaceholder("time"), Duration.ofMillis(10)))
+    ).get() == "(FLOOR(x.time / 10) * 10)"
+    driver.getGroupingClause(
+      new GraphCollection(source).groupBy(Group.tumbling(source.getOwnPlaceholder("created_at"), Duration.ofSeconds(1)))
+    ).get() == "(FLOOR(FLOOR(TIMESTAMPDIFF(MICROSECOND, '1970-01-01 00:00:00', x.created_at) / 1000) / 1000) * 1000)"
+  }
+
+  def "#getGroupingClause rejects sliding and session windows before rendering anything" () {
+    given: "a graph"
+    final Graph graph = getSomeGraph()
+
+    and: "a source"
+    final TableSource source = Source.from(graph.getTable("users"), "x")
+
+    and: "a driver"
+    final JPACollectionDriver driver = new JPACollectionDriver()
+
+    when: "we call #getGroupingClause on a collection grouped by a sliding window"
+    driver.getGroupingClause(
+      new GraphCollection(source).groupBy(Group.expression(source.getOwnPlaceholder("name"))).groupBy(
+        Group.sliding(source.getOwnPlaceholder("created_at"), Duration.ofMinutes(10), Duration.ofMinutes(5))
+      )
+    )
+
+    then: "we expect the driver to reject the window"
+    thrown(UnsupportedOperationException)
+    !JPACollectionDriver.isRenderable(Group.session(source.getOwnPlaceholder("created_at"), Duration.ofMinutes(5)))
+
+    and: "we expect the driver to still render other collections"
+    driver.getGroupingClause(
+      new GraphCollection(source).groupBy(Group.expression(source.getOwnPlaceholder("name")))
+    ).get() == "x.name"
+  }
+
   def "#getSelectClause returns the selection clause of a collection" () {
     given: "a graph"
     final Graph graph = getSomeGraph()
@@ -389,4 +517,42 @@ class JPACollectionDriverSpecification
     then: "we expect to get a valid query"
     query == "SELECT x.identifier AS id, x.name FROM users AS x WHERE x.identifier > 5 ORDER BY x.name ASC"
   }
+
+  def "#getQuery reports the metrics of each compiled query to its listener" () {
+    given: "a graph"
+    final Graph graph = getSomeGraph()
+
+    and: "an expression factory"
+    final ExpressionFactory factory = new ExpressionFactory()
+
+    and: "a source"
+    final TableSource source = Source.from(graph.getTable("users"), "x")
+
+    and: "a filtered collection"
+    final GraphCollection collection = new GraphCollection(source).addFilter(
+      Filter.expression(
+        factory.greaterThan(
+          source.getOwnPlaceholder(Primitives.INTEGER, "identifier"),
+          factory.nonnull(5)
+        )
+      )
+    )
+
+    and: "a driver with a listener"
+    final List<QueryMetrics> metrics = []
+    final JPACollectionDriver driver = new JPACollectionDriver(
+      [onCompile: { final QueryMetrics compiled -> metrics.add(compiled) }] as QueryListener
+    )
+
+    when: "we call #getQuery on the given collection"
+    final String query = driver.getQuery(collection)
+
+    then: "we expect the listener to receive the metrics of the compilation"
+    metrics.size() == 1
+    metrics[0].query == query
+    metrics[0].shape.endsWith("WHERE x.identifier > ?")
+    metrics[0].renderSize == query.length()
+    metrics[0].parameterCount == 0
+    metrics[0].compileTime >= 0
+  }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.operator.grouping.Group
+import org.liara.collection.operator.grouping.WindowGroup
+import org.liara.collection.operator.ordering.Order
+import org.liara.collection.operator.selection.Select
+import org.liara.collection.source.Source
+import org.liara.collection.source.TableSource
+import org.liara.data.graph.Graph
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+
+import java.time.Duration
+
+class GroupTableSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("events")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user").ofType(Primitives.STRING)
+           .column("time").ofType(Primitives.INTEGER)
+           .endTable()
+
+    return builder.build()
+  }
+
+  Object[] event (final int identifier, final String user, final long time) {
+    return [identifier, user, time] as Object[]
+  }
+
+  MaterializedCollection windowed (final TableSource source, final WindowGroup window) {
+    final Select start = Select.windowStart(window, "start")
+    final Select count = Select.count(
+      source.getOwnPlaceholder(Primitives.INTEGER, "identifier"),
+      "count"
+    )
+
+    return new MaterializedCollection(
+      new GraphCollection(source).groupBy(window)
+                                 .select(start)
+                                 .select(count)
+                                 .orderBy(Order.expression(start.getPlaceholder()))
+    )
+  }
+
+  def "it groups rows by tumbling windows" () {
+    given: "a source"
+    final TableSource source = Source.from(getSomeGraph().getTable("events"))
+
+    and: "a collection grouped by tumbling windows"
+    final MaterializedCollection collection = windowed(
+      source,
+      Group.tumbling(source.getOwnPlaceholder("time"), Duration.ofMillis(10))
+    )
+
+    when: "we insert rows into the collection"
+    collection.insert(event(1, "a", 3))
+    collection.insert(event(2, "a", 12))
+    collection.insert(event(3, "b", 9))
+    collection.insert(event(4, "b", 25))
+
+    then: "we expect each row to be counted in its window"
+    collection.rows*.toList() == [[0L, 2L], [10L, 1L], [20L, 1L]]
+  }
+
+  def "it groups rows by sliding windows" () {
+    given: "a source"
+    final TableSource source = Source.from(getSomeGraph().getTable("events"))
+
+    and: "a collection grouped by sliding windows"
+    final MaterializedCollection collection = windowed(
+      source,
+      Group.sliding(source.getOwnPlaceholder("time"), Duration.ofMillis(10), Duration.ofMillis(5))
+    )
+
+    when: "we insert rows into the collection"
+    collection.insert(event(1, "a", 3))
+    collection.insert(event(2, "a", 7))
+
+    then: "we expect each row to be counted in each window that contains it"
+    collection.rows*.toList() == [[-5L, 1L], [0L, 2L], [5L, 1L]]
+  }
+
+  def "it merges session windows bridged by a row" () {
+    given: "a source"
+    final TableSource source = Source.from(getSomeGraph().getTable("events"))
+
+    and: "a collection grouped by session windows"
+    final MaterializedCollection collection = windowed(
+      source,
+      Group.session(source.getOwnPlaceholder("time"), Duration.ofMillis(10))
+    )
+
+    when: "we insert rows of two distinct sessions"
+    collection.insert(event(1, "a", 0))
+    collection.insert(event(2, "a", 15))
+
+    then: "we expect two sessions"
+    collection.rows*.toList() == [[0L, 1L], [15L, 1L]]
+
+    when: "we insert a row that bridges both sessions"
+    collection.insert(event(3, "a", 8))
+
+    then: "we expect both sessions to be merged"
+    collection.rows*.toList() == [[0L, 3L]]
+  }
+
+  def "#evict returns each closed window by order of closure" () {
+    given: "a source"
+    final TableSource source = Source.from(getSomeGraph().getTable("events"))
+    final WindowGroup window = Group.tumbling(source.getOwnPlaceholder("time"), Duration.ofMillis(10))
+
+    and: "a table of groups with some rows"
+    final GroupTable table = new GroupTable(
+      [window],
+      [Select.windowStart(window, "start")],
+      new RowExpressionCompiler(source),
+      3
+    )
+
+    table.insert(event(1, "a", 12))
+    table.insert(event(2, "a", 3))
+    table.insert(event(3, "a", 21))
+
+    when: "we evict the closed windows"
+    final List<GroupTable.Entry> closed = table.evict(20)
+
+    then: "we expect each closed window to be removed from the table"
+    closed*.select()*.toList() == [[0L], [10L]]
+    table.size() == 1
+  }
+
+  def "#evict closes a session at the end of its last extension" () {
+    given: "a source"
+    final TableSource source = Source.from(getSomeGraph().getTable("events"))
+    final WindowGroup window = Group.session(source.getOwnPlaceholder("time"), Duration.ofMillis(10))
+
+    and: "a table of groups with an extended session"
+    final GroupTable table = new GroupTable(
+      [window],
+      [Select.windowStart(window, "start")],
+      new RowExpressionCompiler(source),
+      3
+    )
+
+    table.insert(event(1, "a", 0))
+    table.insert(event(2, "a", 8))
+
+    expect: "the session to stay open until the end of its last extension"
+    table.evict(12).isEmpty()
+    table.size() == 1
+    table.evict(18)*.select()*.toList() == [[0L]]
+    table.size() == 0
+  }
+}
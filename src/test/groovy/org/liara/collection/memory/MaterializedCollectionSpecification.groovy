@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.operator.filtering.Filter
+import org.liara.collection.operator.grouping.Group
+import org.liara.collection.operator.ordering.Order
+import org.liara.collection.operator.selection.Select
+import org.liara.collection.source.Source
+import org.liara.collection.source.TableSource
+import org.liara.data.graph.Graph
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+import org.liara.expression.ExpressionFactory
+
+class MaterializedCollectionSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .column("gender").ofType(Primitives.STRING)
+           .endTable()
+
+    return builder.build()
+  }
+
+  Object[] user (final int identifier, final String name, final String gender) {
+    return [identifier, name, gender] as Object[]
+  }
+
+  def "#insert updates the content of a filtered collection" () {
+    given: "a source"
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource source = Source.from(getSomeGraph().getTable("users"))
+
+    and: "a materialized collection"
+    final MaterializedCollection collection = new MaterializedCollection(
+      new GraphCollection(source).addFilter(
+        Filter.expression(
+          factory.greaterThan(
+            source.getOwnPlaceholder(Primitives.INTEGER, "identifier"),
+            factory.nonnull(3)
+          )
+        )
+      ).select(Select.expression(source.getOwnPlaceholder(Primitives.STRING, "name")))
+    )
+
+    when: "we insert rows into the collection"
+    collection.insert(user(1, "a", "m"))
+    collection.insert(user(4, "d", "f"))
+    collection.insert(user(5, "e", "m"))
+    collection.insert(user(2, "b", "f"))
+
+    then: "we expect the collection to contain only the accepted rows"
+    collection.rows*.toList() == [["d"], ["e"]]
+  }
+
+  def "#delete updates the content of a filtered collection" () {
+    given: "a source"
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource source = Source.from(getSomeGraph().getTable("users"))
+
+    and: "a materialized collection with some rows"
+    final MaterializedCollection collection = new MaterializedCollection(
+      new GraphCollection(source).addFilter(
+        Filter.expression(
+          factory.greaterThan(
+            source.getOwnPlaceholder(Primitives.INTEGER, "identifier"),
+            factory.nonnull(3)
+          )
+        )
+      ).select(Select.expression(source.getOwnPlaceholder(Primitives.STRING, "name")))
+    )
+
+    collection.insert(user(4, "d", "f"))
+    collection.insert(user(5, "e", "m"))
+
+    when: "we delete a row from the collection"
+    final boolean result = collection.delete(user(4, "d", "f"))
+
+    then: "we expect the collection to not contain the row anymore"
+    result
+    collection.rows*.toList() == [["e"]]
+  }
+
+  def "it maintains grouped aggregates" () {
+    given: "a source"
+    final TableSource source = Source.from(getSomeGraph().getTable("users"))
+
+    and: "a materialized grouped collection"
+    final MaterializedCollection collection = new MaterializedCollection(
+      new GraphCollection(source).groupBy(
+        Group.expression(source.getOwnPlaceholder("gender"))
+      ).select(
+        Select.expression(source.getOwnPlaceholder(Primitives.STRING, "gender"), "gender")
+      ).select(
+        Select.count(source.getOwnPlaceholder(Primitives.INTEGER, "identifier"), "count")
+      ).select(
+        Select.max(source.getOwnPlaceholder(Primitives.INTEGER, "identifier"), "last")
+      ).orderBy(
+        Order.expression(source.getOwnPlaceholder("gender"))
+      )
+    )
+
+    when: "we insert and delete rows"
+    collection.insert(user(1, "a", "m"))
+    collection.insert(user(2, "b", "f"))
+    collection.insert(user(3, "c", "m"))
+    collection.insert(user(4, "d", "m"))
+    collection.delete(user(4, "d", "m"))
+
+    then: "we expect each aggregate to be up to date"
+    collection.rows*.toList() == [["f", 1L, 2], ["m", 2L, 3]]
+  }
+
+  def "it removes a group when all of its rows are deleted" () {
+    given: "a source"
+    final TableSource source = Source.from(getSomeGraph().getTable("users"))
+
+    and: "a materialized grouped collection"
+    final MaterializedCollection collection = new MaterializedCollection(
+      new GraphCollection(source).groupBy(
+        Group.expression(source.getOwnPlaceholder("gender"))
+      ).select(
+        Select.count(source.getOwnPlaceholder(Primitives.INTEGER, "identifier"), "count")
+      )
+    )
+
+    when: "we delete all rows of a group"
+    collection.insert(user(1, "a", "m"))
+    collection.insert(user(2, "b", "f"))
+    collection.delete(user(2, "b", "f"))
+
+    then: "we expect the group to disappear"
+    collection.rows*.toList() == [[1L]]
+    collection.entryCount == 1
+  }
+}
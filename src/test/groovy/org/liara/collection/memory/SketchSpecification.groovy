@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.memory
+
+import org.liara.collection.Specification
+
+class SketchSpecification
+  extends Specification
+{
+  def "HyperLogLog#merge estimates the distinct count of the union of two sketches" () {
+    given: "two sketches of overlapping values"
+    final HyperLogLog left = new HyperLogLog(12)
+    final HyperLogLog right = new HyperLogLog(12)
+
+    for (int index = 0; index < 20000; ++index) {
+      left.add(index)
+      right.add(index + 10000)
+    }
+
+    when: "we merge both sketches"
+    left.merge(right)
+
+    then: "we expect an estimation within the error bound of the sketch"
+    Math.abs(left.estimate() - 30000) < 30000 * 0.05
+  }
+
+  def "HyperLogLog counts numbers of different types but of equal values once" () {
+    given: "a sketch"
+    final HyperLogLog sketch = new HyperLogLog(10)
+
+    when: "we add equal numbers of different types"
+    sketch.add(5)
+    sketch.add(5L)
+    sketch.add(5.0d)
+
+    then: "we expect them to be counted once"
+    sketch.estimate() == 1L
+  }
+
+  def "QuantileSketch#merge estimates the quantiles of the union of two sketches" () {
+    given: "two sketches"
+    final QuantileSketch left = new QuantileSketch(200)
+    final QuantileSketch right = new QuantileSketch(200)
+
+    for (long index = 0; index < 100000; ++index) {
+      (index % 2 == 0 ? left : right).add(index)
+    }
+
+    when: "we merge both sketches"
+    left.merge(right)
+
+    then: "we expect estimations within the rank error of the sketch"
+    left.count == 100000L
+    Math.abs((Long) left.estimate(0.95) - 95000) < 100000 * 0.02
+    Math.abs((Long) left.estimate(0.5) - 50000) < 100000 * 0.02
+  }
+
+  def "QuantileSketch#merge rejects sketches of a different accuracy" () {
+    given: "two sketches of different accuracies"
+    final QuantileSketch left = new QuantileSketch(200)
+    final QuantileSketch right = new QuantileSketch(100)
+
+    when: "we merge both sketches"
+    left.merge(right)
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+  }
+
+  def "QuantileSketch returns null when it is empty" () {
+    expect: "an empty sketch to not estimate any quantile"
+    new QuantileSketch(200).estimate(0.5) == null
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.metrics
+
+import org.liara.collection.Specification
+
+import javax.management.MBeanServer
+import javax.management.MBeanServerFactory
+import javax.management.ObjectName
+
+class JmxQueryListenerSpecification
+  extends Specification
+{
+  def "it records the metrics of each query under its shape" () {
+    given: "a listener"
+    final JmxQueryListener listener = new JmxQueryListener()
+
+    when: "we report the compilation and the execution of queries that only differ by their literals"
+    for (int index = 1; index <= 100; ++index) {
+      final String query = "SELECT x.name FROM users AS x WHERE x.identifier > " + index
+      listener.onCompile(new QueryMetrics(query, index, 0, 10 * index))
+      listener.onExecute(query, 2 * index, index)
+    }
+
+    then: "we expect each metric to be recorded under the same shape"
+    listener.shapes == ["SELECT x.name FROM users AS x WHERE x.identifier > ?"] as String[]
+    listener.getCount(listener.shapes[0], JmxQueryListener.COMPILE_TIME) == 100
+    listener.getCount(listener.shapes[0], JmxQueryListener.ROWS) == 100
+    listener.getMean(listener.shapes[0], JmxQueryListener.COMPILE_TIME) == 50.5d
+    listener.getMaximum(listener.shapes[0], JmxQueryListener.ALLOCATED_BYTES) == 1000
+
+    and: "we expect percentiles to be estimated within a factor of two"
+    final long median = listener.getPercentile(listener.shapes[0], JmxQueryListener.EXECUTION_TIME, 0.5d)
+    median >= 100 && median < 200
+  }
+
+  def "it merges the metrics of the shapes met after its bound" () {
+    given: "a listener that tracks two shapes"
+    final JmxQueryListener listener = new JmxQueryListener(2)
+
+    when: "we report queries of four shapes"
+    for (final String table : ["users", "roles", "rights", "sessions"]) {
+      listener.onCompile(new QueryMetrics("SELECT x FROM " + table + " AS x", 1, 0, -1))
+    }
+
+    then: "we expect the last shapes to be merged"
+    listener.shapes.length == 3
+    listener.getCount(JmxQueryListener.OTHER_SHAPES, JmxQueryListener.COMPILE_TIME) == 2
+  }
+
+  def "it counts the hits and the misses of each cache" () {
+    given: "a listener"
+    final JmxQueryListener listener = new JmxQueryListener()
+
+    when: "we report accesses to a cache"
+    listener.onCacheAccess("filter", true)
+    listener.onCacheAccess("filter", false)
+    listener.onCacheAccess("filter", true)
+
+    then: "we expect the accesses to be counted"
+    listener.getCacheHits("filter") == 2
+    listener.getCacheMisses("filter") == 1
+    listener.getCacheHits("orderBy") == 0
+  }
+
+  def "it can be registered into an MBean server" () {
+    given: "a listener and an MBean server"
+    final JmxQueryListener listener = new JmxQueryListener()
+    final MBeanServer server = MBeanServerFactory.newMBeanServer()
+    final ObjectName name = new ObjectName(JmxQueryListener.DEFAULT_NAME)
+
+    when: "we register the listener and report a compilation"
+    listener.register(server, name)
+    listener.onCompile(new QueryMetrics("SELECT x FROM users AS x", 1, 0, -1))
+
+    then: "we expect its metrics to be published"
+    server.getAttribute(name, "Shapes") == ["SELECT x FROM users AS x"] as String[]
+    server.getAttribute(name, "Enabled") == true
+  }
+}
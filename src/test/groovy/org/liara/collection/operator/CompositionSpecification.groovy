@@ -24,6 +24,10 @@ package org.liara.collection.operator
 
 import org.liara.collection.Collection
 import org.liara.collection.Collection as LIARACollection
+import org.liara.collection.operator.cursoring.Cursor
+import org.liara.collection.operator.filtering.Filter
+import org.liara.collection.operator.ordering.Order
+import org.liara.expression.Expression
 import org.mockito.InOrder
 import org.mockito.Mockito
 import spock.lang.Specification
@@ -256,4 +260,38 @@ class CompositionSpecification extends Specification
     Composition.of(operators).hashCode() != Composition.of(shuffled).hashCode()
     Composition.of(Arrays.copyOfRange(operators, 0, 3)).hashCode() != Composition.of(Arrays.copyOfRange(operators, 2, 3)).hashCode()
   }
+
+  def "#normalize returns equal compositions for compositions that produce the same collection" () {
+    given: "some operators"
+    final Filter first = Filter.expression(Mockito.mock(Expression.class))
+    final Filter second = Filter.expression(Mockito.mock(Expression.class))
+    final Order order = Order.expression(Mockito.mock(Expression.class))
+
+    when: "we normalize two equivalent compositions"
+    final Composition left = new Composition(
+      new Cursor(10, 10), first, Identity.INSTANCE, order, new Cursor(0, 5), second
+    ).normalize()
+    final Composition right = new Composition(
+      new Composition(second, order), new Cursor(10, 10), first, order, second
+    ).normalize()
+
+    then: "we expect equal normal forms"
+    left == right
+    left.hashCode() == right.hashCode()
+    left.size == 4
+    left.getOperator(0) == new Cursor(10, 10)
+  }
+
+  def "#normalize does not reorder operators across operators of an unknown kind" () {
+    given: "an operator of an unknown kind between two filters"
+    final Operator barrier = Mockito.mock(Operator.class)
+    final Filter first = Filter.expression(Mockito.mock(Expression.class))
+    final Filter second = Filter.expression(Mockito.mock(Expression.class))
+
+    when: "we normalize the composition"
+    final Composition result = new Composition(first, barrier, second).normalize()
+
+    then: "we expect the barrier to stay between both filters"
+    result.operators == [first, barrier, second] as Operator[]
+  }
 }
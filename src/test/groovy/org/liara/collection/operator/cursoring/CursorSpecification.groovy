@@ -165,4 +165,29 @@ class CursorSpecification extends Specification
     Cursor.NONE.setLimit(20).setOffset(10).hashCode() != Cursor.NONE.setLimit(20).setOffset(15).hashCode()
     Cursor.NONE.setLimit(20).setOffset(10).hashCode() != Cursor.NONE.setLimit(15).setOffset(10).hashCode()
   }
+
+  def "it supports offsets and limits beyond the range of integers" () {
+    given: "a cursor over a deep page"
+    final Cursor cursor = new Cursor(5_000_000_000L, 10)
+
+    expect: "to keep its offset and to compute the following page"
+    cursor.offset == 5_000_000_000L
+    cursor.next() == new Cursor(5_000_000_010L, 10)
+    Cursor.ALL.end == Long.MAX_VALUE
+    !Cursor.ALL.hasLimit()
+  }
+
+  def "it can be split into contiguous and disjoint cursors" () {
+    when: "we partition a cursor"
+    final Cursor[] partitions = new Cursor(10, 11).partition(3)
+
+    then: "we expect contiguous cursors that select the same range"
+    partitions == [new Cursor(10, 4), new Cursor(14, 4), new Cursor(18, 3)] as Cursor[]
+
+    when: "we partition a cursor without limit"
+    Cursor.ALL.partition(3)
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+  }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.cursoring
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.metrics.QueryListener
+import org.liara.collection.source.GraphSource
+import org.mockito.Mockito
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Function
+import java.util.function.ToIntFunction
+
+class PagePrefetcherSpecification
+  extends Specification
+{
+  def "it prefetches the page that follows a served page" () {
+    given: "a prefetcher"
+    final ExecutorService executor = Executors.newSingleThreadExecutor()
+    final AtomicInteger fetches = new AtomicInteger()
+    final PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(
+      { GraphCollection collection ->
+        fetches.incrementAndGet()
+        return collection.cursor.offset
+      } as Function<GraphCollection, Integer>,
+      executor, 1, 16, Duration.ofMinutes(1)
+    )
+
+    and: "a cursored collection"
+    final GraphCollection collection = new GraphCollection(Mockito.mock(GraphSource.class)).setCursor(
+      new Cursor(0, 10)
+    )
+
+    when: "we fetch a page"
+    final int first = prefetcher.fetch(collection)
+    executor.shutdown()
+    executor.awaitTermination(10, TimeUnit.SECONDS)
+
+    then: "we expect the next page to be prefetched"
+    first == 0
+    prefetcher.isPrefetched(collection.setCursor(new Cursor(10, 10)))
+
+    when: "we fetch the next page"
+    final int second = prefetcher.fetch(collection.setCursor(new Cursor(10, 10)))
+
+    then: "we expect the prefetched page to be served"
+    second == 10
+    fetches.get() == 2
+  }
+
+  def "it cancels pending prefetches when another page is requested" () {
+    given: "a prefetcher whose fetches block"
+    final ExecutorService executor = Executors.newSingleThreadExecutor()
+    final CountDownLatch started = new CountDownLatch(1)
+    final CountDownLatch release = new CountDownLatch(1)
+    final PagePrefetcher<Integer> prefetcher = new PagePrefetcher<>(
+      { GraphCollection collection ->
+        if (collection.cursor.offset > 0) {
+          started.countDown()
+          release.await()
+        }
+        return collection.cursor.offset
+      } as Function<GraphCollection, Integer>,
+      executor, 1, 16, Duration.ofMinutes(1)
+    )
+
+    and: "a cursored collection"
+    final GraphCollection collection = new GraphCollection(Mockito.mock(GraphSource.class)).setCursor(
+      new Cursor(0, 10)
+    )
+
+    when: "we fetch a page and navigate away while the next page is prefetched"
+    prefetcher.fetch(collection)
+    started.await(10, TimeUnit.SECONDS)
+    prefetcher.cancel(collection)
+    executor.shutdown()
+    executor.awaitTermination(10, TimeUnit.SECONDS)
+
+    then: "we expect the prefetch to be cancelled"
+    !prefetcher.isPending(collection.setCursor(new Cursor(10, 10)))
+    !prefetcher.isPrefetched(collection.setCursor(new Cursor(10, 10)))
+  }
+
+  def "it reports each fetch as an access to its page cache" () {
+    given: "a listener"
+    final QueryListener listener = Mockito.mock(QueryListener.class)
+    Mockito.when(listener.isEnabled()).thenReturn(true)
+
+    and: "a prefetcher"
+    final ExecutorService executor = Executors.newSingleThreadExecutor()
+    final PagePrefetcher<Long> prefetcher = new PagePrefetcher<>(
+      { GraphCollection collection -> collection.cursor.offset } as Function<GraphCollection, Long>,
+      executor, 1, 16, { Long page -> 1 } as ToIntFunction<Long>, Duration.ofMinutes(1), listener
+    )
+
+    and: "a cursored collection"
+    final GraphCollection collection = new GraphCollection(Mockito.mock(GraphSource.class)).setCursor(
+      new Cursor(0, 10)
+    )
+
+    when: "we fetch a page and then the prefetched page that follows it"
+    prefetcher.fetch(collection)
+    executor.shutdown()
+    executor.awaitTermination(10, TimeUnit.SECONDS)
+    prefetcher.fetch(collection.setCursor(new Cursor(10, 10)))
+
+    then: "we expect a miss and then a hit"
+    Mockito.verify(listener).onCacheAccess(PagePrefetcher.CACHE, false)
+    Mockito.verify(listener).onCacheAccess(PagePrefetcher.CACHE, true)
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.cursoring
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.memory.RowExpressionCompiler
+import org.liara.collection.memory.Values
+import org.liara.collection.operator.filtering.Filter
+import org.liara.collection.source.Source
+import org.liara.collection.source.TableSource
+import org.liara.data.graph.Graph
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+
+class PartitionedScanSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("events")
+           .column("identifier").ofType(Primitives.LONG)
+           .column("sequence").ofType(Primitives.INTEGER)
+           .endTable()
+
+    return builder.build()
+  }
+
+  /**
+   * Return the index of each partition of a scan that selects a row.
+   */
+  List<Integer> getPartitions (final TableSource source, final PartitionedScan scan, final Object[] row) {
+    final RowExpressionCompiler compiler = new RowExpressionCompiler(source)
+    final List<Integer> result = []
+
+    scan.filters.eachWithIndex { final Filter filter, final int index ->
+      if (Values.isTrue(RowExpressionCompiler.evaluate(compiler.compile(filter.expression), row))) {
+        result.add(index)
+      }
+    }
+
+    return result
+  }
+
+  def "it splits a range into contiguous and disjoint partitions" () {
+    given: "a scan that splits a long key into four partitions"
+    final TableSource source = Source.from(getSomeGraph().getTable("events"))
+    final PartitionedScan scan = new PartitionedScan(source.getOwnPlaceholder("identifier"), 0, 99, 4)
+
+    expect: "four partitions"
+    scan.filters.size() == 4
+
+    and: "each key, including the boundaries of each partition and values out of range, in exactly one partition"
+    getPartitions(source, scan, [value, 0] as Object[]) == [partition]
+
+    where:
+    value          | partition
+    Long.MIN_VALUE | 0
+    -1L            | 0
+    0L             | 0
+    24L            | 0
+    25L            | 1
+    49L            | 1
+    50L            | 2
+    74L            | 2
+    75L            | 3
+    99L            | 3
+    100L           | 3
+    Long.MAX_VALUE | 3
+  }
+
+  def "it covers the whole range of long keys" () {
+    given: "a scan that splits the range of long keys"
+    final TableSource source = Source.from(getSomeGraph().getTable("events"))
+    final PartitionedScan scan = new PartitionedScan(
+      source.getOwnPlaceholder("identifier"), Long.MIN_VALUE, Long.MAX_VALUE, 8
+    )
+
+    expect: "each key in exactly one partition"
+    getPartitions(source, scan, [value, 0] as Object[]).size() == 1
+
+    and: "the bounds of the range in the first and the last partitions"
+    getPartitions(source, scan, [Long.MIN_VALUE, 0] as Object[]) == [0]
+    getPartitions(source, scan, [Long.MAX_VALUE, 0] as Object[]) == [7]
+
+    where:
+    value << [
+      Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE.intdiv(2), -1L, 0L, 1L,
+      Long.MAX_VALUE.intdiv(2), Long.MAX_VALUE - 1, Long.MAX_VALUE
+    ]
+  }
+
+  def "it covers the whole range of integer keys" () {
+    given: "a scan that splits the range of integer keys"
+    final TableSource source = Source.from(getSomeGraph().getTable("events"))
+    final PartitionedScan scan = new PartitionedScan(
+      source.getOwnPlaceholder("sequence"), Integer.MIN_VALUE, Integer.MAX_VALUE, 3
+    )
+
+    expect: "each key in exactly one partition"
+    getPartitions(source, scan, [0L, value] as Object[]).size() == 1
+
+    where:
+    value << [Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1, 0, 1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE]
+  }
+
+  def "it does not split a collection into a single partition" () {
+    given: "a scan with a single partition"
+    final TableSource source = Source.from(getSomeGraph().getTable("events"))
+    final PartitionedScan scan = new PartitionedScan(source.getOwnPlaceholder("identifier"), 0, 99, 1)
+
+    and: "a collection"
+    final GraphCollection collection = new GraphCollection(source)
+
+    expect: "the collection to be returned as is"
+    scan.filters.empty
+    scan.apply(collection) == [collection]
+  }
+
+  def "it does not select rows with a null key" () {
+    given: "a scan that splits a long key"
+    final TableSource source = Source.from(getSomeGraph().getTable("events"))
+    final PartitionedScan scan = new PartitionedScan(source.getOwnPlaceholder("identifier"), 0, 99, 4)
+
+    expect: "a row with a null key to be selected by no partition"
+    getPartitions(source, scan, [null, 0] as Object[]).empty
+  }
+}
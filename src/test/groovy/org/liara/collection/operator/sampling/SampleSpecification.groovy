@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights 
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell 
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is 
+ * furnished to do so, subject to the following conditions:
+ *  
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *  
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL 
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR 
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE, 
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR 
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.operator.sampling
+
+import org.liara.collection.Collection
+import org.mockito.Mockito
+import spock.lang.Specification
+
+class SampleSpecification extends Specification
+{
+  def "it refuses sampling rates outside of ]0, 1]" () {
+    when: "we instantiate a sample with an invalid rate"
+    Sample.bernoulli(rate)
+
+    then: "we expect the sample to be refused"
+    thrown(IllegalArgumentException)
+
+    where:
+    rate << [0d, -0.5d, 1.5d, Double.NaN]
+  }
+
+  def "it allows you to instantiate a copy of a sample with a different seed" () {
+    given: "a source sample"
+    final Sample source = Sample.block(0.1)
+
+    when: "we assign to the source sample a new seed"
+    final Sample copy = source.setSeed(42L)
+
+    then: "we expect to get a copy of the source sample with the new seed"
+    source.seed == null
+    copy.seed == 42L
+    copy.method == SamplingMethod.BLOCK
+    copy.rate == 0.1d
+  }
+
+  def "it does not sample anything when its rate is one" () {
+    expect: "a sample of rate one to not exclude any row"
+    !Sample.ALL.isSampling()
+    Sample.bernoulli(0.5).isSampling()
+  }
+
+  def "it is sampling sampleable collections" () {
+    given: "a sampleable collection"
+    final SampleableCollection collection = Mockito.mock(SampleableCollection.class)
+    final Sample sample = Sample.bernoulli(0.5).setSeed(3L)
+
+    when: "we apply the sample to the collection"
+    sample.apply(collection)
+
+    then: "we expect the sample to be applied to the collection"
+    Mockito.verify(collection).sample(sample)
+  }
+
+  def "it does not change other collections" () {
+    given: "a collection"
+    final Collection collection = Mockito.mock(Collection.class)
+
+    expect: "the sample to return the collection as is"
+    Sample.bernoulli(0.5).apply(collection).is(collection)
+  }
+}
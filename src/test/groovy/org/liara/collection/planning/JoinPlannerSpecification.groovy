@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.operator.filtering.Filter
+import org.liara.collection.source.JoinSource
+import org.liara.collection.source.Source
+import org.liara.collection.source.SourceRegistry
+import org.liara.collection.source.TableSource
+import org.liara.data.graph.Graph
+import org.liara.data.graph.Table
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+import org.liara.expression.Constant
+import org.liara.expression.ExpressionFactory
+
+class JoinPlannerSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable()
+
+    builder.table("roles")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user_identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    builder.table("rights")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("role_identifier").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable()
+
+    builder.table("sessions")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user_identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    builder.table("logs")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    return builder.build()
+  }
+
+  List<Relation> getSomeRelations (final Graph graph) {
+    return [
+      new Relation(
+        graph.getTable("roles").getColumn("user_identifier"), graph.getTable("users").getColumn("identifier")
+      ),
+      new Relation(
+        graph.getTable("rights").getColumn("role_identifier"), graph.getTable("roles").getColumn("identifier")
+      ),
+      new Relation(
+        graph.getTable("sessions").getColumn("user_identifier"), graph.getTable("users").getColumn("identifier")
+      )
+    ]
+  }
+
+  def "it joins the tables on the path to each referenced table" () {
+    given: "a collection of users filtered by the name of their rights"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource rights = Source.from(graph.getTable("rights"))
+    final GraphCollection collection = new GraphCollection(users).addFilter(
+      Filter.expression(factory.equal(rights.getOwnPlaceholder("name"), new Constant<>(Primitives.STRING, "write")))
+    )
+
+    and: "a planner aware of the relations of the graph"
+    final JoinPlanner planner = new JoinPlanner(getSomeRelations(graph), TableStatistics.UNIFORM)
+
+    when: "we plan the joins of the collection"
+    final GraphCollection result = planner.plan(collection)
+
+    then: "we expect the roles and the rights to be joined to the users"
+    result.source instanceof JoinSource
+    final JoinSource userRights = (JoinSource) result.source
+    userRights.joined == rights
+    userRights.origin instanceof JoinSource
+    ((JoinSource) userRights.origin).joined.table == graph.getTable("roles")
+    ((JoinSource) userRights.origin).origin == users
+
+    and: "we expect the filter to be rewritten over the joins"
+    result.filters == [
+      Filter.expression(factory.equal(userRights.getOwnPlaceholder("name"), new Constant<>(Primitives.STRING, "write")))
+    ] as Set
+  }
+
+  def "it returns collections that do not reference any missing table as is" () {
+    given: "a collection of users"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final GraphCollection collection = new GraphCollection(users).addFilter(
+      Filter.expression(factory.equal(users.getOwnPlaceholder("name"), new Constant<>(Primitives.STRING, "alice")))
+    )
+
+    expect: "the planner to return the collection as is"
+    new JoinPlanner(getSomeRelations(graph), TableStatistics.UNIFORM).plan(collection).is(collection)
+  }
+
+  def "it first makes the join with the smallest estimated result" () {
+    given: "statistics with many roles and few sessions"
+    final Graph graph = getSomeGraph()
+    final TableStatistics statistics = { final Table table ->
+      table.name == "roles" ? 1000000L : table.name == "sessions" ? 10L : 1000L
+    } as TableStatistics
+
+    when: "we join both tables to the users"
+    final JoinPlanner planner = new JoinPlanner(getSomeRelations(graph), statistics, new SourceRegistry())
+    final JoinSource result = (JoinSource) planner.plan(
+      Source.from(graph.getTable("users")), [graph.getTable("roles"), graph.getTable("sessions")] as Set
+    )
+
+    then: "we expect the sessions to be joined first"
+    result.joined.table == graph.getTable("roles")
+    ((JoinSource) result.origin).joined.table == graph.getTable("sessions")
+  }
+
+  def "it throws if a referenced table can't be reached" () {
+    given: "a planner"
+    final Graph graph = getSomeGraph()
+    final JoinPlanner planner = new JoinPlanner(getSomeRelations(graph), TableStatistics.UNIFORM)
+
+    when: "we try to join an unrelated table"
+    planner.plan(Source.from(graph.getTable("users")), [graph.getTable("logs")] as Set)
+
+    then: "we expect the planner to throw"
+    thrown(IllegalArgumentException)
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.operator.filtering.Filter
+import org.liara.collection.source.GraphSource
+import org.liara.collection.source.JoinSource
+import org.liara.collection.source.JoinType
+import org.liara.collection.source.Source
+import org.liara.collection.source.TableSource
+import org.liara.data.graph.Graph
+import org.liara.data.graph.Table
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+import org.liara.expression.Constant
+import org.liara.expression.ExpressionFactory
+
+class JoinReordererSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable()
+
+    builder.table("roles")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user_identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    builder.table("rights")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("role_identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    builder.table("sessions")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user_identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    return builder.build()
+  }
+
+  TableStatistics getSomeStatistics () {
+    return { final Table table ->
+      table.name == "roles" ? 1000000L : table.name == "sessions" || table.name == "rights" ? 10L : 1000L
+    } as TableStatistics
+  }
+
+  def "it first makes the inner join with the smallest estimated result" () {
+    given: "a chain that joins many roles before a few sessions"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource roles = Source.from(graph.getTable("roles"))
+    final TableSource sessions = Source.from(graph.getTable("sessions"))
+    final GraphSource chain = JoinSource.inner(
+      JoinSource.inner(
+        users, roles, factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier"))
+      ),
+      sessions,
+      factory.equal(users.getOwnPlaceholder("identifier"), sessions.getOwnPlaceholder("user_identifier"))
+    )
+
+    when: "we reorder the chain"
+    final JoinSource result = (JoinSource) new JoinReorderer(getSomeStatistics()).reorder(chain)
+
+    then: "we expect the sessions to be joined first"
+    result.joined == roles
+    result.origin instanceof JoinSource
+    ((JoinSource) result.origin).joined == sessions
+    ((JoinSource) result.origin).origin == users
+
+    and: "we expect each predicate to be linked to its new join"
+    result.predicate == factory.equal(
+      users.getOwnPlaceholder("identifier"), result.getOwnPlaceholder("user_identifier")
+    )
+  }
+
+  def "it does not make a join before the joins that its predicate refers to" () {
+    given: "a chain that joins many roles before a few rights of these roles"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource roles = Source.from(graph.getTable("roles"))
+    final TableSource rights = Source.from(graph.getTable("rights"))
+    final JoinSource userRoles = (JoinSource) JoinSource.inner(
+      users, roles, factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier"))
+    )
+    final GraphSource chain = JoinSource.inner(
+      userRoles,
+      rights,
+      factory.equal(userRoles.getOwnPlaceholder("identifier"), rights.getOwnPlaceholder("role_identifier"))
+    )
+
+    expect: "the chain to be kept as is"
+    new JoinReorderer(getSomeStatistics()).reorder(chain).is(chain)
+  }
+
+  def "it does not move inner joins across outer joins" () {
+    given: "a chain that starts with an outer join"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource roles = Source.from(graph.getTable("roles"))
+    final TableSource sessions = Source.from(graph.getTable("sessions"))
+    final GraphSource chain = JoinSource.inner(
+      new JoinSource(
+        JoinType.LEFT_OUTER_JOIN, users, roles,
+        factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier")),
+        "roles"
+      ),
+      sessions,
+      factory.equal(users.getOwnPlaceholder("identifier"), sessions.getOwnPlaceholder("user_identifier"))
+    )
+
+    expect: "the chain to be kept as is"
+    new JoinReorderer(getSomeStatistics()).reorder(chain).is(chain)
+  }
+
+  def "it rewrites the operators of a collection over the reordered joins" () {
+    given: "a collection filtered by the identifier of its roles"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource roles = Source.from(graph.getTable("roles"))
+    final TableSource sessions = Source.from(graph.getTable("sessions"))
+    final JoinSource userRoles = (JoinSource) JoinSource.inner(
+      users, roles, factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier"))
+    )
+    final GraphSource chain = JoinSource.inner(
+      userRoles,
+      sessions,
+      factory.equal(users.getOwnPlaceholder("identifier"), sessions.getOwnPlaceholder("user_identifier"))
+    )
+    final GraphCollection collection = new GraphCollection(chain).addFilter(
+      Filter.expression(factory.equal(userRoles.getOwnPlaceholder("identifier"), new Constant<>(Primitives.INTEGER, 5)))
+    )
+
+    when: "we reorder the joins of the collection"
+    final GraphCollection result = new JoinReorderer(getSomeStatistics()).reorder(collection)
+
+    then: "we expect the filter to refer to the reordered join of the roles"
+    final JoinSource reorderedRoles = (JoinSource) result.source
+    reorderedRoles.joined == roles
+    result.filters == [
+      Filter.expression(
+        factory.equal(reorderedRoles.getOwnPlaceholder("identifier"), new Constant<>(Primitives.INTEGER, 5))
+      )
+    ] as Set
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.planning
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.operator.filtering.Filter
+import org.liara.collection.source.JoinSource
+import org.liara.collection.source.JoinType
+import org.liara.collection.source.Source
+import org.liara.collection.source.TableSource
+import org.liara.data.graph.Graph
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+import org.liara.expression.Constant
+import org.liara.expression.ExpressionFactory
+
+class PredicatePushdownSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable()
+
+    builder.table("roles")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user_identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    builder.table("sessions")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user_identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    return builder.build()
+  }
+
+  def "it moves the conjuncts that refer to an inner join into its predicate" () {
+    given: "a collection of users filtered by their name and by their roles"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource roles = Source.from(graph.getTable("roles"))
+    final JoinSource userRoles = (JoinSource) JoinSource.inner(
+      users, roles, factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier"))
+    )
+    final GraphCollection collection = new GraphCollection(userRoles).addFilter(
+      Filter.expression(factory.and(
+        factory.equal(users.getOwnPlaceholder("name"), new Constant<>(Primitives.STRING, "alice")),
+        factory.equal(userRoles.getOwnPlaceholder("identifier"), new Constant<>(Primitives.INTEGER, 5))
+      ))
+    )
+
+    when: "we push down the filters of the collection"
+    final GraphCollection result = new PredicatePushdown().apply(collection)
+
+    then: "we expect the conjunct over the roles to be moved into the join"
+    final JoinSource join = (JoinSource) result.source
+    join.joined == roles
+    join.predicate == factory.and(
+      factory.equal(users.getOwnPlaceholder("identifier"), join.getOwnPlaceholder("user_identifier")),
+      factory.equal(join.getOwnPlaceholder("identifier"), new Constant<>(Primitives.INTEGER, 5))
+    )
+
+    and: "we expect the conjunct over the users to be kept as a filter"
+    result.filters == [
+      Filter.expression(factory.equal(users.getOwnPlaceholder("name"), new Constant<>(Primitives.STRING, "alice")))
+    ] as Set
+  }
+
+  def "it does not move conjuncts into outer joins" () {
+    given: "a collection filtered by the columns of a left outer join"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource roles = Source.from(graph.getTable("roles"))
+    final JoinSource userRoles = new JoinSource(
+      JoinType.LEFT_OUTER_JOIN, users, roles,
+      factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier")),
+      "roles"
+    )
+    final GraphCollection collection = new GraphCollection(userRoles).addFilter(
+      Filter.expression(factory.equal(userRoles.getOwnPlaceholder("identifier"), new Constant<>(Primitives.INTEGER, 5)))
+    )
+
+    expect: "the collection to be kept as is"
+    new PredicatePushdown().apply(collection).is(collection)
+  }
+
+  def "it does not move conjuncts before a right outer join" () {
+    given: "a collection filtered by the columns of an inner join followed by a right outer join"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource roles = Source.from(graph.getTable("roles"))
+    final TableSource sessions = Source.from(graph.getTable("sessions"))
+    final JoinSource userRoles = (JoinSource) JoinSource.inner(
+      users, roles, factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier"))
+    )
+    final JoinSource userSessions = new JoinSource(
+      JoinType.RIGHT_OUTER_JOIN, userRoles, sessions,
+      factory.equal(users.getOwnPlaceholder("identifier"), sessions.getOwnPlaceholder("user_identifier")),
+      "sessions"
+    )
+    final GraphCollection collection = new GraphCollection(userSessions).addFilter(
+      Filter.expression(factory.equal(userRoles.getOwnPlaceholder("identifier"), new Constant<>(Primitives.INTEGER, 5)))
+    )
+
+    expect: "the collection to be kept as is"
+    new PredicatePushdown().apply(collection).is(collection)
+  }
+}
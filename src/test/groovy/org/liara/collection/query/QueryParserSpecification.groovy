@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.query
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.operator.Operator
+import org.liara.collection.operator.cursoring.Cursor
+import org.liara.collection.operator.filtering.Filter
+import org.liara.collection.operator.ordering.Order
+import org.liara.collection.source.Source
+import org.liara.collection.source.TableSource
+import org.liara.data.graph.Graph
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+import org.liara.expression.Constant
+import org.liara.expression.ExpressionFactory
+
+import java.time.ZonedDateTime
+
+class QueryParserSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("created_at").ofType(Primitives.DATE_TIME)
+           .column("name").ofType(Primitives.STRING)
+           .column("gender").ofType(Primitives.CHARACTER)
+           .endTable()
+
+    return builder.build()
+  }
+
+  def "#parseFilter builds a filter from a JSON document" () {
+    given: "a parser over a table"
+    final TableSource users = Source.from(getSomeGraph().getTable("users"))
+    final QueryParser parser = new QueryParser(users)
+    final ExpressionFactory factory = new ExpressionFactory()
+
+    when: "we parse a filter document"
+    final Operator result = parser.parseFilter(
+      '{"name": "alice", "identifier": {"$gt": 5, "$lt": 10}}'
+    )
+
+    then: "we expect a filter over the equivalent expression"
+    result == Filter.expression(factory.and(
+      factory.equal(users.getOwnPlaceholder("name"), new Constant<>(Primitives.STRING, "alice")),
+      factory.greaterThan(users.getOwnPlaceholder("identifier"), new Constant<>(Primitives.INTEGER, 5)),
+      factory.lessThan(users.getOwnPlaceholder("identifier"), new Constant<>(Primitives.INTEGER, 10))
+    ))
+  }
+
+  def "#parseFilter supports disjunctions and date-times" () {
+    given: "a parser over a table"
+    final TableSource users = Source.from(getSomeGraph().getTable("users"))
+    final QueryParser parser = new QueryParser(users)
+    final ExpressionFactory factory = new ExpressionFactory()
+
+    when: "we parse a filter document with a disjunction"
+    final Operator result = parser.parseFilter(
+      '{"$or": [{"name": "alice"}, {"created_at": {"$gt": "2019-01-01T00:00:00Z"}}]}'
+    )
+
+    then: "we expect a filter over the equivalent expression"
+    result == Filter.expression(factory.or(
+      factory.equal(users.getOwnPlaceholder("name"), new Constant<>(Primitives.STRING, "alice")),
+      factory.greaterThan(
+        users.getOwnPlaceholder("created_at"),
+        new Constant<>(Primitives.DATE_TIME, ZonedDateTime.parse("2019-01-01T00:00:00Z"))
+      )
+    ))
+  }
+
+  def "#parseFilter supports characters" () {
+    given: "a parser over a table"
+    final TableSource users = Source.from(getSomeGraph().getTable("users"))
+    final QueryParser parser = new QueryParser(users)
+    final ExpressionFactory factory = new ExpressionFactory()
+
+    expect: "a string of one character to be compared to a character column"
+    parser.parseFilter('{"gender": "M"}') == Filter.expression(
+      factory.equal(users.getOwnPlaceholder("gender"), new Constant<>(Primitives.CHARACTER, 'M' as char))
+    )
+  }
+
+  def "#parseFilter returns cached operators for documents already parsed" () {
+    given: "a parser over a table"
+    final QueryParser parser = new QueryParser(Source.from(getSomeGraph().getTable("users")))
+
+    expect: "to get the same operator when a document is parsed twice"
+    parser.parseFilter('{"name": "alice"}').is(parser.parseFilter('{"name": "alice"}'))
+  }
+
+  def "#parseFilter throws an error for unknown columns and invalid documents" () {
+    given: "a parser over a table"
+    final QueryParser parser = new QueryParser(Source.from(getSomeGraph().getTable("users")))
+
+    when: "we parse a document that refers to an unknown column"
+    parser.parseFilter('{"unknown": 5}')
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+
+    when: "we parse an invalid document"
+    parser.parseFilter('{"name": ')
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+
+    when: "we parse a value of the wrong type"
+    parser.parseFilter('{"identifier": "five"}')
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+
+    when: "we compare a column to null"
+    parser.parseFilter('{"name": null}')
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+
+    when: "we compare a column to null with an explicit comparison"
+    parser.parseFilter('{"name": {"$eq": null}}')
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+
+    when: "we compare a character column to a string of more than one character"
+    parser.parseFilter('{"gender": "MF"}')
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+
+    when: "we parse a value out of the range of its column"
+    parser.parseFilter('{"identifier": 2147483648}')
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+
+    when: "we parse an invalid date-time"
+    parser.parseFilter('{"created_at": "yesterday"}')
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+  }
+
+  def "#parseFilter rejects documents nested deeper than the maximum depth" () {
+    given: "a parser over a table"
+    final QueryParser parser = new QueryParser(Source.from(getSomeGraph().getTable("users")))
+
+    and: "a document that nests too many conjunctions"
+    final int depth = QueryParser.MAXIMUM_DEPTH + 1
+    final String document = '{"$and": [' * depth + '{"name": "alice"}' + ']}' * depth
+
+    when: "we parse the document"
+    parser.parseFilter(document)
+
+    then: "we expect an error instead of a stack overflow"
+    thrown(IllegalArgumentException)
+
+    when: "we parse a document at the maximum depth"
+    parser.parseFilter(
+      '{"$or": [' * QueryParser.MAXIMUM_DEPTH + '{"name": "alice"}' + ']}' * QueryParser.MAXIMUM_DEPTH
+    )
+
+    then: "we expect it to be accepted"
+    notThrown(IllegalArgumentException)
+  }
+
+  def "#parse applies each query parameter" () {
+    given: "a parser over a table"
+    final TableSource users = Source.from(getSomeGraph().getTable("users"))
+    final QueryParser parser = new QueryParser(users)
+
+    when: "we parse query parameters and apply them to a collection"
+    final GraphCollection result = (GraphCollection) parser.parse([
+      (QueryParser.FILTER): '{"name": "alice"}',
+      (QueryParser.ORDER_BY): 'name,-created_at',
+      (QueryParser.CURSOR): '20,10'
+    ]).apply(new GraphCollection(users))
+
+    then: "we expect a collection configured accordingly"
+    result.cursor == new Cursor(20, 10)
+    result.filters.size() == 1
+    result.orderings == [
+      Order.expression(users.getOwnPlaceholder("name")).ascending(),
+      Order.expression(users.getOwnPlaceholder("created_at")).descending()
+    ]
+  }
+}
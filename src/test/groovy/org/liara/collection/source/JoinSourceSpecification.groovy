@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.source
+
+import org.liara.collection.Specification
+import org.liara.data.graph.Graph
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+import org.liara.expression.ExpressionFactory
+
+class JoinSourceSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable()
+
+    builder.table("roles")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user_identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    builder.table("rights")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("role_identifier").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable()
+
+    return builder.build()
+  }
+
+  def "it contains the placeholders of each source of its chain of joins" () {
+    given: "a chain of joins"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource roles = Source.from(graph.getTable("roles"))
+    final TableSource rights = Source.from(graph.getTable("rights"))
+    final JoinSource userRoles = (JoinSource) JoinSource.inner(
+      users, roles, factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier"))
+    )
+    final JoinSource userRights = (JoinSource) JoinSource.inner(
+      userRoles, rights, factory.equal(
+        userRoles.getOwnPlaceholder("identifier"), rights.getOwnPlaceholder("role_identifier")
+      )
+    )
+
+    expect: "to contain the placeholders of each source of the chain"
+    userRights.depth == 2
+    userRights.contains(users.getOwnPlaceholder("name"))
+    userRights.contains(userRoles.getOwnPlaceholder("identifier"))
+    userRights.contains(userRights.getOwnPlaceholder("name"))
+    !userRoles.contains(userRights.getOwnPlaceholder("name"))
+    !userRights.contains(rights.getOwnPlaceholder("name"))
+
+    and: "to expose each placeholder of the chain in join order"
+    userRights.placeholders.size == 7
+    userRights.placeholders.get(0) == users.getOwnPlaceholder(0)
+    userRights.placeholders.get(2) == userRoles.getOwnPlaceholder(0)
+    userRights.placeholders.get(6) == userRights.getOwnPlaceholder(2)
+  }
+
+  def "it returns the same placeholder instance for each access to a column" () {
+    given: "a join"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final TableSource users = Source.from(graph.getTable("users"))
+    final TableSource roles = Source.from(graph.getTable("roles"))
+    final JoinSource userRoles = (JoinSource) JoinSource.inner(
+      users, roles, factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier"))
+    )
+
+    expect: "to get the same placeholder instance whatever the way it was requested"
+    users.getOwnPlaceholder("name").is(users.getOwnPlaceholder(1))
+    users.placeholders.get(1).is(users.getOwnPlaceholder(graph.getTable("users").getColumn("name")))
+    userRoles.getOwnPlaceholder("user_identifier").is(userRoles.getOwnPlaceholder(1))
+    userRoles.ownPlaceholders.get(1).is(userRoles.getOwnPlaceholder(1))
+    userRoles.placeholders.get(3).is(userRoles.getOwnPlaceholder(1))
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.source
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.operator.filtering.Filter
+import org.liara.data.graph.Graph
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+import org.liara.expression.ExpressionFactory
+
+class SourceRegistrySpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("name").ofType(Primitives.STRING)
+           .endTable()
+
+    builder.table("roles")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("user_identifier").ofType(Primitives.INTEGER)
+           .endTable()
+
+    return builder.build()
+  }
+
+  def "it returns the same source for each request of the same table with the same name" () {
+    given: "a registry and a graph"
+    final SourceRegistry registry = new SourceRegistry()
+    final Graph graph = getSomeGraph()
+
+    expect: "to get canonical table sources"
+    registry.table(graph.getTable("users")).is(registry.table(graph.getTable("users")))
+    registry.table(graph.getTable("users"), "alias").is(registry.table(graph.getTable("users"), "alias"))
+    !registry.table(graph.getTable("users")).is(registry.table(graph.getTable("users"), "alias"))
+    registry.register(new TableSource(graph.getTable("users"))).is(registry.table(graph.getTable("users")))
+  }
+
+  def "it returns the same join for each request of an equivalent join" () {
+    given: "a registry and some sources"
+    final SourceRegistry registry = new SourceRegistry()
+    final ExpressionFactory factory = new ExpressionFactory()
+    final Graph graph = getSomeGraph()
+    final TableSource users = registry.table(graph.getTable("users"))
+    final TableSource roles = registry.table(graph.getTable("roles"))
+
+    when: "we request the same join twice"
+    final JoinSource first = registry.join(
+      JoinType.INNER_JOIN, users, roles,
+      factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier")),
+      "roles"
+    )
+    final JoinSource second = registry.join(
+      JoinType.INNER_JOIN, users, roles,
+      factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier")),
+      "roles"
+    )
+
+    then: "we expect the same join"
+    first.is(second)
+    !first.is(registry.join(
+      JoinType.LEFT_OUTER_JOIN, users, roles,
+      factory.equal(users.getOwnPlaceholder("identifier"), roles.getOwnPlaceholder("user_identifier")),
+      "roles"
+    ))
+  }
+
+  def "collections built in the same way over shared sources are equal" () {
+    given: "a graph"
+    final Graph graph = getSomeGraph()
+    final ExpressionFactory factory = new ExpressionFactory()
+
+    expect: "equal collections"
+    new GraphCollection(Source.from(graph.getTable("users"))).addFilter(
+      Filter.expression(factory.greaterThan(
+        Source.from(graph.getTable("users")).getOwnPlaceholder("identifier"), factory.nonnull(5)
+      ))
+    ) == new GraphCollection(Source.from(graph.getTable("users"))).addFilter(
+      Filter.expression(factory.greaterThan(
+        Source.from(graph.getTable("users")).getOwnPlaceholder("identifier"), factory.nonnull(5)
+      ))
+    )
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.source
+
+import org.liara.collection.Specification
+import org.liara.data.graph.Graph
+import org.liara.data.graph.Table
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+
+class TableSourceSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("users")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("created_at").ofType(Primitives.DATE_TIME)
+           .column("name").ofType(Primitives.STRING)
+           .endTable()
+
+    return builder.build()
+  }
+
+  def "it resolves placeholders by column name" () {
+    given: "a table and two sources of the table"
+    final Table table = getSomeGraph().getTable("users")
+    final TableSource source = Source.from(table)
+    final TableSource alias = Source.from(table, "alias")
+
+    expect: "to resolve each column by its name"
+    for (int index = 0; index < table.columns.size; ++index) {
+      source.getOwnPlaceholder(table.columns.get(index).name).is(source.getOwnPlaceholder(index))
+      alias.getOwnPlaceholder(table.columns.get(index).name).column == table.columns.get(index)
+    }
+    source.getOwnPlaceholder(Primitives.STRING, "name").is(source.getOwnPlaceholder(2))
+  }
+
+  def "it throws an error when a column does not exist or is not of the expected type" () {
+    given: "a source"
+    final TableSource source = Source.from(getSomeGraph().getTable("users"))
+
+    when: "we request a column that does not exist"
+    source.getOwnPlaceholder("unknown")
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+
+    when: "we request a column with an unexpected type"
+    source.getOwnPlaceholder(Primitives.STRING, "identifier")
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.stream
+
+import org.liara.collection.GraphCollection
+import org.liara.collection.Specification
+import org.liara.collection.operator.cursoring.Cursor
+import org.liara.collection.operator.filtering.Filter
+import org.liara.collection.operator.selection.Select
+import org.liara.collection.source.Source
+import org.liara.collection.source.TableSource
+import org.liara.data.graph.Graph
+import org.liara.data.graph.Table
+import org.liara.data.graph.builder.StaticGraphBuilder
+import org.liara.data.primitive.Primitives
+import org.liara.expression.ExpressionFactory
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Flow
+
+class EventStreamSpecification
+  extends Specification
+{
+  Graph getSomeGraph () {
+    final StaticGraphBuilder builder = new StaticGraphBuilder()
+
+    builder.table("events")
+           .column("identifier").ofType(Primitives.INTEGER)
+           .column("sensor").ofType(Primitives.STRING)
+           .column("value").ofType(Primitives.INTEGER)
+           .endTable()
+
+    return builder.build()
+  }
+
+  class CollectingSubscriber implements Flow.Subscriber<Object[]> {
+    final List<List<Object>> received = Collections.synchronizedList([])
+    volatile boolean completed = false
+
+    @Override
+    void onSubscribe (final Flow.Subscription subscription) {
+      subscription.request(Long.MAX_VALUE)
+    }
+
+    @Override
+    void onNext (final Object[] item) {
+      received.add(item.toList())
+    }
+
+    @Override
+    void onError (final Throwable throwable) {
+      throw throwable
+    }
+
+    @Override
+    void onComplete () {
+      completed = true
+    }
+  }
+
+  def "it publishes each accepted event to the subscribers of a standing query" () {
+    given: "a stream that delivers events synchronously"
+    final EventStream stream = new EventStream({ Runnable runnable -> runnable.run() }, 16)
+
+    and: "a standing query"
+    final ExpressionFactory factory = new ExpressionFactory()
+    final Table table = getSomeGraph().getTable("events")
+    final TableSource source = Source.from(table)
+    final StandingQuery query = stream.register(
+      new GraphCollection(source).addFilter(
+        Filter.expression(
+          factory.equal(
+            source.getOwnPlaceholder(Primitives.STRING, "sensor"),
+            factory.nonnull("kitchen")
+          )
+        )
+      ).select(Select.expression(source.getOwnPlaceholder(Primitives.INTEGER, "value")))
+    )
+
+    and: "a subscriber"
+    final CollectingSubscriber subscriber = new CollectingSubscriber()
+    query.subscribe(subscriber)
+
+    when: "we publish events"
+    stream.publish(table, [1, "kitchen", 10] as Object[])
+    stream.publish(table, [2, "bedroom", 20] as Object[])
+    stream.publish(table, [3, "kitchen", 30] as Object[])
+
+    then: "we expect the subscriber to receive the selections of each accepted event"
+    subscriber.received == [[10], [30]]
+  }
+
+  def "it completes a standing query when the limit of its cursor is reached" () {
+    given: "a stream that delivers events synchronously"
+    final EventStream stream = new EventStream({ Runnable runnable -> runnable.run() }, 16)
+
+    and: "a limited standing query"
+    final Table table = getSomeGraph().getTable("events")
+    final StandingQuery query = stream.register(
+      new GraphCollection(Source.from(table)).setCursor(new Cursor(1, 2))
+    )
+
+    and: "a subscriber"
+    final CollectingSubscriber subscriber = new CollectingSubscriber()
+    query.subscribe(subscriber)
+
+    when: "we publish events"
+    for (int index = 0; index < 5; ++index) {
+      stream.publish(table, [index, "kitchen", index] as Object[])
+    }
+
+    then: "we expect the subscriber to receive the events of the cursor and to be completed"
+    subscriber.received == [[1, "kitchen", 1], [2, "kitchen", 2]]
+    subscriber.completed
+    query.closed
+    stream.getQueries(table).empty
+  }
+
+  def "it completes a standing query safely while other producers are publishing" () {
+    given: "a stream that delivers events synchronously"
+    final EventStream stream = new EventStream({ Runnable runnable -> runnable.run() }, 16)
+
+    and: "a limited standing query and an unlimited one over the same table"
+    final Table table = getSomeGraph().getTable("events")
+    final StandingQuery limited = stream.register(
+      new GraphCollection(Source.from(table)).setCursor(new Cursor(0, 100))
+    )
+    final StandingQuery unlimited = stream.register(new GraphCollection(Source.from(table)))
+
+    and: "a subscriber for each query"
+    final CollectingSubscriber limitedSubscriber = new CollectingSubscriber()
+    final CollectingSubscriber unlimitedSubscriber = new CollectingSubscriber()
+    limited.subscribe(limitedSubscriber)
+    unlimited.subscribe(unlimitedSubscriber)
+
+    and: "producers that publish events concurrently"
+    final int producers = 8
+    final int events = 1000
+    final CountDownLatch start = new CountDownLatch(1)
+    final Queue<Throwable> errors = new ConcurrentLinkedQueue<>()
+    final List<Thread> threads = (0..<producers).collect { final int producer ->
+      Thread.start {
+        start.await()
+
+        try {
+          for (int index = 0; index < events; ++index) {
+            stream.publish(table, [producer * events + index, "kitchen", index] as Object[])
+          }
+        } catch (final Throwable throwable) {
+          errors.add(throwable)
+        }
+      }
+    }
+
+    when: "the limit of the first query is reached while the producers are publishing"
+    start.countDown()
+    threads.each { it.join() }
+
+    then: "we expect no producer to fail"
+    errors.empty
+
+    and: "we expect the limited query to publish exactly its limit and to be completed"
+    limitedSubscriber.received.size() == 100
+    limitedSubscriber.completed
+    limited.closed
+
+    and: "we expect the other query to receive each event"
+    unlimitedSubscriber.received.size() == producers * events
+
+    cleanup:
+    unlimited.close()
+  }
+}
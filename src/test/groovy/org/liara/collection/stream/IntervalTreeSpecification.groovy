@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.stream
+
+import org.liara.collection.Specification
+
+class IntervalTreeSpecification
+  extends Specification
+{
+  List<String> stab (final IntervalTree<String> tree, final Object value) {
+    final List<String> result = []
+    tree.stab(value, { String found -> result.add(found) })
+    return result.sort()
+  }
+
+  def "#stab returns each interval that contains a value" () {
+    given: "a tree of intervals"
+    final IntervalTree<String> tree = new IntervalTree<>([
+      new IntervalTree.Interval<String>(0, 10, "a"),
+      new IntervalTree.Interval<String>(5, 15, "b"),
+      new IntervalTree.Interval<String>(null, 3, "c"),
+      new IntervalTree.Interval<String>(12, null, "d"),
+      new IntervalTree.Interval<String>(null, null, "e")
+    ])
+
+    expect: "to find each interval that contains a value"
+    stab(tree, -5) == ["c", "e"]
+    stab(tree, 0) == ["c", "e"]
+    stab(tree, 1) == ["a", "c", "e"]
+    stab(tree, 5) == ["a", "e"]
+    stab(tree, 7) == ["a", "b", "e"]
+    stab(tree, 10) == ["b", "e"]
+    stab(tree, 13) == ["b", "d", "e"]
+    stab(tree, 100) == ["d", "e"]
+  }
+
+  def "#stab does not return anything for a null value" () {
+    given: "a tree of intervals"
+    final IntervalTree<String> tree = new IntervalTree<>([
+      new IntervalTree.Interval<String>(null, null, "a")
+    ])
+
+    expect: "to not find any interval that contains null"
+    stab(tree, null) == []
+  }
+
+  def "it ignores empty intervals" () {
+    given: "a tree with an empty interval"
+    final IntervalTree<String> tree = new IntervalTree<>([
+      new IntervalTree.Interval<String>(5, 3, "a"),
+      new IntervalTree.Interval<String>(4, 4, "b"),
+      new IntervalTree.Interval<String>(1, 6, "c")
+    ])
+
+    expect: "to never find the empty intervals"
+    stab(tree, 4) == ["c"]
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.util
+
+import org.liara.collection.Specification
+import org.liara.collection.operator.filtering.Filter
+import org.liara.data.primitive.Primitives
+import org.liara.expression.Constant
+
+import java.time.Duration
+
+class FingerprintsSpecification
+  extends Specification
+{
+  def "it tells apart strings that share the same hash code" () {
+    expect: "two strings with the same hash code to have different fingerprints"
+    "Aa".hashCode() == "BB".hashCode()
+    Fingerprints.of("Aa") != Fingerprints.of("BB")
+
+    and: "equal strings to have the same fingerprint"
+    Fingerprints.of("Aa") == Fingerprints.of(new String("Aa"))
+  }
+
+  def "it fingerprints expressions and operators from their structure" () {
+    given: "filters over constants that share the same hash code"
+    final Filter first = Filter.expression(new Constant<>(Primitives.STRING, "Aa"))
+    final Filter second = Filter.expression(new Constant<>(Primitives.STRING, "BB"))
+
+    expect: "different fingerprints"
+    first.fingerprint != second.fingerprint
+
+    and: "equal filters to have the same fingerprint"
+    first.fingerprint == Filter.expression(new Constant<>(Primitives.STRING, "Aa")).fingerprint
+  }
+
+  def "it combines the fingerprints of the parts of a value in order" () {
+    expect: "the order of the parts to matter"
+    Fingerprints.ofAll("Aa", 5L) != Fingerprints.ofAll(5L, "Aa")
+
+    and: "equal parts to give the same fingerprint"
+    Fingerprints.ofAll("Aa", Duration.ofSeconds(5)) == Fingerprints.ofAll("Aa", Duration.ofMillis(5000))
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2019 Cedric DEMONGIVERT <cedric.demongivert@gmail.com>
+ *
+ * Permission is hereby granted,  free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction,  including without limitation the rights
+ * to use,  copy, modify, merge,  publish,  distribute, sublicense,  and/or sell
+ * copies  of the  Software, and  to  permit persons  to  whom  the  Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The  above  copyright  notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED,  INCLUDING  BUT  NOT LIMITED  TO THE  WARRANTIES  OF MERCHANTABILITY,
+ * FITNESS  FOR  A PARTICULAR  PURPOSE  AND  NONINFRINGEMENT. IN NO  EVENT SHALL
+ * THE  AUTHORS OR  COPYRIGHT  HOLDERS  BE  LIABLE FOR  ANY  CLAIM,  DAMAGES  OR
+ * OTHER  LIABILITY, WHETHER  IN  AN  ACTION  OF  CONTRACT,  TORT  OR  OTHERWISE,
+ * ARISING  FROM,  OUT  OF OR  IN  CONNECTION  WITH THE  SOFTWARE OR  THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.liara.collection.util
+
+import org.liara.collection.Specification
+import org.liara.collection.operator.selection.Select
+import org.liara.expression.Expression
+import org.mockito.Mockito
+
+class PersistentOrderedSetSpecification
+  extends Specification
+{
+  def "it keeps the insertion order of its elements" () {
+    given: "a set"
+    PersistentOrderedSet<Integer> set = PersistentOrderedSet.empty()
+
+    when: "we add and remove elements"
+    for (int index = 0; index < 100; ++index) {
+      set = set.add(index)
+    }
+
+    set = set.remove(50).remove(0).add(50).add(3)
+
+    then: "we expect the remaining elements in insertion order"
+    set.size() == 99
+    set.get(0) == 1
+    set.get(97) == 99
+    set.get(98) == 50
+    set.asList() == ((1..49) + (51..99) + [50])
+    set.asSet() == new HashSet<>((1..99))
+  }
+
+  def "it does not update the sets it was derived from" () {
+    given: "a set"
+    final PersistentOrderedSet<String> base = PersistentOrderedSet.empty().add("a").add("b")
+
+    when: "we derive new sets from it"
+    final PersistentOrderedSet<String> added = base.add("c")
+    final PersistentOrderedSet<String> removed = base.remove("a")
+
+    then: "we expect the original set to be unchanged"
+    base.asList() == ["a", "b"]
+    added.asList() == ["a", "b", "c"]
+    removed.asList() == ["b"]
+    base.add("a").is(base)
+    base.remove("z").is(base)
+  }
+
+  def "it maintains the hash codes of the java collection contracts" () {
+    given: "a set derived through many updates"
+    PersistentOrderedSet<Integer> set = PersistentOrderedSet.empty()
+    final LinkedHashSet<Integer> expected = new LinkedHashSet<>()
+    final Random random = new Random(42)
+
+    for (int index = 0; index < 1000; ++index) {
+      final int value = random.nextInt(100)
+
+      if (random.nextBoolean()) {
+        set = set.add(value)
+        expected.add(value)
+      } else {
+        set = set.remove(value)
+        expected.remove(value)
+      }
+    }
+
+    expect: "its hash codes to match the ones of the equivalent java collections"
+    set.asSet().hashCode() == expected.hashCode()
+    set.asList().hashCode() == new ArrayList<>(expected).hashCode()
+    set.getListFingerprint() == PersistentOrderedSet.of(expected.iterator()).getListFingerprint()
+    set.getSetFingerprint() == PersistentOrderedSet.of(expected.iterator()).getSetFingerprint()
+  }
+
+  def "#Selections.getSelection returns the first selection of a given name" () {
+    given: "some selections"
+    final Select first = Select.expression(Mockito.mock(Expression.class), "value")
+    final Select second = Select.expression(Mockito.mock(Expression.class), "value")
+    final Select other = Select.expression(Mockito.mock(Expression.class), "other")
+
+    when: "we index them"
+    final Selections selections = new Selections(first, other, second)
+
+    then: "we expect to find the first selection of each name"
+    selections.getSelection("value").is(first)
+    selections.getSelection("other").is(other)
+    selections.remove(first).getSelection("value").is(second)
+    !selections.remove(other).hasSelection("other")
+  }
+
+  def "#Selections.getSelection fails for an unknown name" () {
+    when: "we search for an unknown selection"
+    Selections.EMPTY.getSelection("unknown")
+
+    then: "we expect an error"
+    thrown(IllegalArgumentException)
+  }
+}